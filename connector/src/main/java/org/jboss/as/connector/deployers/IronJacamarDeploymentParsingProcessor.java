@@ -25,12 +25,16 @@ package org.jboss.as.connector.deployers;
 import static org.jboss.as.deployment.attachment.VirtualFileAttachment.getVirtualFileAttachment;
 
 import java.io.InputStream;
+import java.util.Collection;
+import java.util.Collections;
 
 import org.jboss.as.connector.descriptor.IronJacamarXmlDescriptor;
+import org.jboss.as.deployment.AttachmentKey;
 import org.jboss.as.deployment.DeploymentPhases;
+import org.jboss.as.deployment.attachment.VirtualFileAttachment;
+import org.jboss.as.deployment.unit.ConcurrentDeploymentUnitProcessor;
 import org.jboss.as.deployment.unit.DeploymentUnitContext;
 import org.jboss.as.deployment.unit.DeploymentUnitProcessingException;
-import org.jboss.as.deployment.unit.DeploymentUnitProcessor;
 import org.jboss.jca.common.api.metadata.ironjacamar.IronJacamar;
 import org.jboss.jca.common.metadata.ironjacamar.IronJacamarParser;
 import org.jboss.jca.core.spi.mdr.MetadataRepository;
@@ -46,8 +50,10 @@ import org.jboss.vfs.VirtualFile;
  * @author <a href="mailto:stefano.maestri@redhat.comdhat.com">Stefano
  *         Maestri</a>
  */
-public class IronJacamarDeploymentParsingProcessor implements DeploymentUnitProcessor {
+public class IronJacamarDeploymentParsingProcessor implements ConcurrentDeploymentUnitProcessor {
     public static final long PRIORITY = DeploymentPhases.PARSE_DESCRIPTORS.plus(501L);
+    private static final Collection<AttachmentKey<?>> CONSUMED = Collections.<AttachmentKey<?>>singleton(VirtualFileAttachment.KEY);
+    private static final Collection<AttachmentKey<?>> PRODUCED = Collections.<AttachmentKey<?>>singleton(IronJacamarXmlDescriptor.ATTACHMENT_KEY);
 
     private final InjectedValue<MetadataRepository> mdr = new InjectedValue<MetadataRepository>();
 
@@ -104,4 +110,14 @@ public class IronJacamarDeploymentParsingProcessor implements DeploymentUnitProc
     public Injector<MetadataRepository> getMdrInjector() {
         return mdr;
     }
+
+    /** {@inheritDoc} */
+    public Collection<AttachmentKey<?>> getConsumedAttachments() {
+        return CONSUMED;
+    }
+
+    /** {@inheritDoc} */
+    public Collection<AttachmentKey<?>> getProducedAttachments() {
+        return PRODUCED;
+    }
 }
@@ -63,6 +63,8 @@ import org.jboss.msc.value.InjectedValue;
 import org.jboss.msc.value.Value;
 import org.jboss.msc.value.Values;
 
+import java.util.concurrent.Executor;
+
 /**
  * Service activator which installs the various service required for rar
  * deployments.
@@ -84,18 +86,23 @@ public class RaDeploymentActivator implements ServiceActivator {
         batchBuilder.addServiceValueIfNotExist(DeploymentChainProviderService.SERVICE_NAME,
                 new DeploymentChainProviderService());
 
-        final Value<DeploymentChain> deploymentChainValue = Values.immediateValue((DeploymentChain) new DeploymentChainImpl(
-                RAR_DEPLOYMENT_CHAIN_SERVICE_NAME.toString()));
+        final DeploymentChainImpl deploymentChain = new DeploymentChainImpl(RAR_DEPLOYMENT_CHAIN_SERVICE_NAME.toString());
+        final Value<DeploymentChain> deploymentChainValue = Values.immediateValue((DeploymentChain) deploymentChain);
         final DeploymentChainService deploymentChainService = new DeploymentChainService(deploymentChainValue);
         batchBuilder.addService(RAR_DEPLOYMENT_CHAIN_SERVICE_NAME, deploymentChainService).addDependency(
                 DeploymentChainProviderService.SERVICE_NAME,
                 DeploymentChainProvider.class,
                 new DeploymentChainProviderInjector<DeploymentChain>(deploymentChainValue, new RaDeploymentChainSelector(),
-                        RAR_DEPLOYMENT_CHAIN_PRIORITY));
+                        RAR_DEPLOYMENT_CHAIN_PRIORITY))
+                .addOptionalDependency(DeploymentChainImpl.EXECUTOR_NAME, Executor.class,
+                        deploymentChain.getExecutorInjector());
 
         addDeploymentProcessor(batchBuilder, new NestedJarInlineProcessor(), NestedJarInlineProcessor.PRIORITY);
         addDeploymentProcessor(batchBuilder, new ManifestAttachmentProcessor(), ManifestAttachmentProcessor.PRIORITY);
-        addDeploymentProcessor(batchBuilder, new AnnotationIndexProcessor(), AnnotationIndexProcessor.PRIORITY);
+        final AnnotationIndexProcessor annotationIndexProcessor = new AnnotationIndexProcessor();
+        addDeploymentProcessor(batchBuilder, annotationIndexProcessor, AnnotationIndexProcessor.PRIORITY)
+                .addOptionalDependency(AnnotationIndexProcessor.EXECUTOR_NAME, Executor.class,
+                        annotationIndexProcessor.getExecutorInjector());
         addDeploymentProcessor(batchBuilder, new RarConfigProcessor(), RarConfigProcessor.PRIORITY);
 
         addDeploymentProcessor(batchBuilder, new ModuleDependencyProcessor(), ModuleDependencyProcessor.PRIORITY);
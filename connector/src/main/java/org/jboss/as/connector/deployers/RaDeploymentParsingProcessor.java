@@ -27,12 +27,16 @@ import static org.jboss.as.deployment.attachment.VirtualFileAttachment.getVirtua
 import java.io.File;
 import java.io.InputStream;
 import java.net.URL;
+import java.util.Collection;
+import java.util.Collections;
 
 import org.jboss.as.connector.descriptor.ConnectorXmlDescriptor;
+import org.jboss.as.deployment.AttachmentKey;
 import org.jboss.as.deployment.DeploymentPhases;
+import org.jboss.as.deployment.attachment.VirtualFileAttachment;
+import org.jboss.as.deployment.unit.ConcurrentDeploymentUnitProcessor;
 import org.jboss.as.deployment.unit.DeploymentUnitContext;
 import org.jboss.as.deployment.unit.DeploymentUnitProcessingException;
-import org.jboss.as.deployment.unit.DeploymentUnitProcessor;
 import org.jboss.jca.common.api.metadata.ra.Connector;
 import org.jboss.jca.common.metadata.ra.RaParser;
 import org.jboss.vfs.VFSUtils;
@@ -44,8 +48,10 @@ import org.jboss.vfs.VirtualFile;
  * metadata into IronJacamar's MetadataRepository
  * @author <a href="mailto:stefano.maestri@redhat.com">Stefano Maestri</a>
  */
-public class RaDeploymentParsingProcessor implements DeploymentUnitProcessor {
+public class RaDeploymentParsingProcessor implements ConcurrentDeploymentUnitProcessor {
     public static final long PRIORITY = DeploymentPhases.PARSE_DESCRIPTORS.plus(500L);
+    private static final Collection<AttachmentKey<?>> CONSUMED = Collections.<AttachmentKey<?>>singleton(VirtualFileAttachment.KEY);
+    private static final Collection<AttachmentKey<?>> PRODUCED = Collections.<AttachmentKey<?>>singleton(ConnectorXmlDescriptor.ATTACHMENT_KEY);
 
     /**
      * Construct a new instance.
@@ -96,4 +102,13 @@ public class RaDeploymentParsingProcessor implements DeploymentUnitProcessor {
         }
     }
 
+    /** {@inheritDoc} */
+    public Collection<AttachmentKey<?>> getConsumedAttachments() {
+        return CONSUMED;
+    }
+
+    /** {@inheritDoc} */
+    public Collection<AttachmentKey<?>> getProducedAttachments() {
+        return PRODUCED;
+    }
 }
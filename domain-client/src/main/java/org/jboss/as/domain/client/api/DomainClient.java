@@ -46,7 +46,8 @@ import org.jboss.as.model.ServerModel;
 public interface DomainClient extends Closeable {
 
     /**
-     * Get the current domain model.
+     * Get the current domain model.  The client keeps a copy of the model and, on later calls, brings it up to date
+     * with only the updates applied since.  Every call returns a new copy, which the caller may change.
      *
      * @return The domain model
      */
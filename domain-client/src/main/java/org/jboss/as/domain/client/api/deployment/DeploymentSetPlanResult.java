@@ -22,6 +22,7 @@
 
 package org.jboss.as.domain.client.api.deployment;
 
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -59,4 +60,12 @@ public interface DeploymentSetPlanResult {
      * @return map of deployment action results, keyed by {@link DeploymentAction#getId() deployment action id}
      */
     Map<UUID, DeploymentActionResult> getDeploymentActionResults();
+
+    /**
+     * Gets the timing of each window of servers in the server groups which
+     * {@link ServerGroupDeploymentPlan#isRollingToServers() roll to servers}.
+     *
+     * @return the window results, in the order the windows completed. Will not be <code>null</code>
+     */
+    List<RollingWindowResult> getRollingWindowResults();
 }
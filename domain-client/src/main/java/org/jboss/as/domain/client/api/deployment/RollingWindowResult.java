@@ -0,0 +1,126 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.domain.client.api.deployment;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Timing of one window of servers in a server group whose {@link ServerGroupDeploymentPlan}
+ * {@link ServerGroupDeploymentPlan#isRollingToServers() rolls to servers}.
+ *
+ * @author Brian Stansberry
+ */
+public class RollingWindowResult implements Serializable {
+
+    private static final long serialVersionUID = -3208410785286207145L;
+
+    private final String serverGroupName;
+    private final int window;
+    private final List<String> serverNames;
+    private final int failedServers;
+    private final long elapsedTime;
+    private final boolean cancelled;
+
+    public RollingWindowResult(final String serverGroupName, final int window, final List<String> serverNames,
+            final int failedServers, final long elapsedTime, final boolean cancelled) {
+        if (serverGroupName == null) {
+            throw new IllegalArgumentException("serverGroupName is null");
+        }
+        if (serverNames == null) {
+            throw new IllegalArgumentException("serverNames is null");
+        }
+        this.serverGroupName = serverGroupName;
+        this.window = window;
+        this.serverNames = new ArrayList<String>(serverNames);
+        this.failedServers = failedServers;
+        this.elapsedTime = elapsedTime;
+        this.cancelled = cancelled;
+    }
+
+    public String getServerGroupName() {
+        return serverGroupName;
+    }
+
+    /**
+     * Gets the position of the window in the roll out, starting at {@code 0}.
+     *
+     * @return the index of the window
+     */
+    public int getWindow() {
+        return window;
+    }
+
+    public List<String> getServerNames() {
+        return Collections.unmodifiableList(serverNames);
+    }
+
+    /**
+     * Gets the number of servers in the window whose update failed.
+     *
+     * @return the number of failed servers
+     */
+    public int getFailedServers() {
+        return failedServers;
+    }
+
+    /**
+     * Gets how long it took to update the servers in the window, not counting the pause before it.
+     *
+     * @return the elapsed time, in milliseconds
+     */
+    public long getElapsedTime() {
+        return elapsedTime;
+    }
+
+    /**
+     * Gets whether the window was cancelled because the server group exceeded its allowed server failures
+     * before the window was started.
+     *
+     * @return {@code true} if the updates to the servers in the window were cancelled
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    @Override
+    public String toString() {
+        return new StringBuilder(getClass().getSimpleName())
+            .append("{serverGroupName=")
+            .append(serverGroupName)
+            .append(",window=")
+            .append(window)
+            .append(",serverNames=")
+            .append(serverNames)
+            .append(",failedServers=")
+            .append(failedServers)
+            .append(",elapsedTime=")
+            .append(elapsedTime)
+            .append(",cancelled=")
+            .append(cancelled)
+            .append("}")
+            .toString();
+    }
+}
@@ -39,12 +39,15 @@ public class ServerGroupDeploymentPlan implements Serializable {
     private final boolean rollingToServers;
     private final int maxFailures;
     private final int maxFailurePercentage;
+    private final int rollingWindowSize;
+    private final long rollingWindowPause;
 
     public ServerGroupDeploymentPlan(final String serverGroupName) {
-        this(serverGroupName, false, false, 0, 0);
+        this(serverGroupName, false, false, 0, 0, 0, 0L);
     }
 
-    private ServerGroupDeploymentPlan(final String serverGroupName, final boolean rollback, final boolean rollingToServers, final int maxFailures, final int maxFailurePercentage) {
+    private ServerGroupDeploymentPlan(final String serverGroupName, final boolean rollback, final boolean rollingToServers, final int maxFailures, final int maxFailurePercentage,
+            final int rollingWindowSize, final long rollingWindowPause) {
         if (serverGroupName == null) {
             throw new IllegalArgumentException("serverGroupName is null");
         }
@@ -53,6 +56,8 @@ public class ServerGroupDeploymentPlan implements Serializable {
         this.rollingToServers = rollingToServers;
         this.maxFailures = maxFailures;
         this.maxFailurePercentage = maxFailurePercentage;
+        this.rollingWindowSize = rollingWindowSize;
+        this.rollingWindowPause = rollingWindowPause;
     }
 
     public String getServerGroupName() {
@@ -75,6 +80,25 @@ public class ServerGroupDeploymentPlan implements Serializable {
         return maxFailurePercentage;
     }
 
+    /**
+     * Gets the number of servers which are updated at the same time when {@link #isRollingToServers() rolling to
+     * servers}.
+     *
+     * @return the window size, or {@code 0} if the plan does not roll to servers
+     */
+    public int getRollingWindowSize() {
+        return rollingWindowSize;
+    }
+
+    /**
+     * Gets how long to wait after one window of servers is updated before starting on the next one.
+     *
+     * @return the pause, in milliseconds
+     */
+    public long getRollingWindowPause() {
+        return rollingWindowPause;
+    }
+
     @Override
     public boolean equals(Object obj) {
         return (obj instanceof ServerGroupDeploymentPlan
@@ -95,28 +119,40 @@ public class ServerGroupDeploymentPlan implements Serializable {
             .append(rollback)
             .append(",rollingToServers=")
             .append(rollingToServers)
+            .append(",rollingWindowSize=")
+            .append(rollingWindowSize)
+            .append(",rollingWindowPause=")
+            .append(rollingWindowPause)
             .append("}")
             .toString();
     }
 
     public ServerGroupDeploymentPlan createRollback() {
-        return new ServerGroupDeploymentPlan(serverGroupName, true, rollingToServers, maxFailures, maxFailurePercentage);
+        return new ServerGroupDeploymentPlan(serverGroupName, true, rollingToServers, maxFailures, maxFailurePercentage, rollingWindowSize, rollingWindowPause);
     }
 
     public ServerGroupDeploymentPlan createRollingToServers() {
-        return new ServerGroupDeploymentPlan(serverGroupName, rollback, true, maxFailures, maxFailurePercentage);
+        return createRollingToServers(1, 0L);
+    }
+
+    public ServerGroupDeploymentPlan createRollingToServers(int windowSize, long windowPause) {
+        if (windowSize < 1)
+            throw new IllegalArgumentException(String.format("Illegal windowSize value %s -- must be greater than zero", windowSize));
+        if (windowPause < 0)
+            throw new IllegalArgumentException(String.format("Illegal windowPause value %s -- must not be negative", windowPause));
+        return new ServerGroupDeploymentPlan(serverGroupName, rollback, true, maxFailures, maxFailurePercentage, windowSize, windowPause);
     }
 
     public ServerGroupDeploymentPlan createAllowFailures(int serverFailures) {
         if (serverFailures < 1)
             throw new IllegalArgumentException(String.format("Illegal serverFailures value %s -- must be greater than zero", serverFailures));
-        return new ServerGroupDeploymentPlan(serverGroupName, true, rollingToServers, serverFailures, maxFailurePercentage);
+        return new ServerGroupDeploymentPlan(serverGroupName, true, rollingToServers, serverFailures, maxFailurePercentage, rollingWindowSize, rollingWindowPause);
     }
 
     public ServerGroupDeploymentPlan createAllowFailurePercentage(int serverFailurePercentage) {
         if (serverFailurePercentage < 1 || serverFailurePercentage > 99)
             throw new IllegalArgumentException(String.format("Illegal serverFailures vaue %s -- must be greater than zero and less than 100 ", serverFailurePercentage));
-        return new ServerGroupDeploymentPlan(serverGroupName, true, rollingToServers, maxFailures, serverFailurePercentage);
+        return new ServerGroupDeploymentPlan(serverGroupName, true, rollingToServers, maxFailures, serverFailurePercentage, rollingWindowSize, rollingWindowPause);
     }
 
 }
@@ -22,6 +22,8 @@
 
 package org.jboss.as.domain.client.api.deployment;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * Variant of a {@link DeploymentPlanBuilder} that exposes
  * directives that are only applicable when controlling how a {@link DeploymentSetPlan}
@@ -51,6 +53,21 @@ public interface ServerGroupDeploymentPlanBuilder {
      */
     ServerGroupDeploymentPlanBuilder rollingToServers();
 
+    /**
+     * Indicates the deployment actions in the {@link DeploymentSetPlan} should
+     * be rolled out to the servers in the server group in windows of
+     * <code>windowSize</code> servers, the servers in a window being updated
+     * concurrently. Any configured limit on server failures is checked after
+     * each window, and the remaining windows are cancelled once it is exceeded.
+     *
+     * @param windowSize the number of servers to update at the same time. Must be greater than zero
+     * @param windowPause how long to wait after a window is complete before starting on the next one
+     * @param unit the unit of <code>windowPause</code>. Cannot be <code>null</code>
+     *
+     * @return a builder that can continue building the overall deployment plan
+     */
+    ServerGroupDeploymentPlanBuilder rollingToServers(int windowSize, long windowPause, TimeUnit unit);
+
     /**
      * Indicates that once the deployment actions in the {@link DeploymentSetPlan}
      * are applied to the servers in the current server group, they should then
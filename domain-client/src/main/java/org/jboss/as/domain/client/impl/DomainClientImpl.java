@@ -22,6 +22,8 @@
 
 package org.jboss.as.domain.client.impl;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -52,6 +54,7 @@ import org.jboss.as.model.AbstractServerModelUpdate;
 import org.jboss.as.model.DomainModel;
 import org.jboss.as.model.HostModel;
 import org.jboss.as.model.ServerModel;
+import org.jboss.as.model.UpdateFailedException;
 import org.jboss.as.model.UpdateResultHandler;
 import org.jboss.as.model.UpdateResultHandlerResponse;
 import org.jboss.as.protocol.ByteDataInput;
@@ -63,6 +66,7 @@ import static org.jboss.as.protocol.ProtocolUtils.unmarshal;
 import org.jboss.as.protocol.SimpleByteDataInput;
 import org.jboss.as.protocol.SimpleByteDataOutput;
 import static org.jboss.as.protocol.StreamUtils.safeClose;
+import org.jboss.as.protocol.mgmt.ManagementConnectionPool;
 import org.jboss.as.protocol.mgmt.ManagementException;
 import org.jboss.as.protocol.mgmt.ManagementRequest;
 import org.jboss.as.protocol.mgmt.ManagementRequestConnectionStrategy;
@@ -87,21 +91,36 @@ public class DomainClientImpl implements DomainClient {
 
     private volatile DomainDeploymentManager deploymentManager;
     private static final long CONNECTION_TIMEOUT = TimeUnit.SECONDS.toMillis(5L);
+    private static final int MAX_CONNECTIONS = 2;
 
-    private final InetAddress address;
-    private final int port;
     private final ThreadFactory threadFactory = Executors.defaultThreadFactory();
     private final ExecutorService executorService = Executors.newCachedThreadPool(threadFactory);
+    private final ManagementConnectionPool connectionPool;
+
+    // the model last fetched, never handed out; protected by {@code this}
+    private DomainModel domainModel;
 
     public DomainClientImpl(InetAddress address, int port) {
-        this.address = address;
-        this.port = port;
+        connectionPool = new ManagementConnectionPool(address, port, (int) CONNECTION_TIMEOUT, MAX_CONNECTIONS, executorService, threadFactory);
     }
 
     @Override
-    public DomainModel getDomainModel() {
+    public synchronized DomainModel getDomainModel() {
         try {
-            return new GetDomainOperation().executeForResult(getConnectionStrategy());
+            DomainModel current = null;
+            if (domainModel != null) {
+                try {
+                    current = new GetDomainUpdatesOperation(domainModel).executeForResult(getConnectionStrategy());
+                } catch (Exception e) {
+                    // fall back to fetching the whole model
+                }
+            }
+            if (current == null) {
+                current = new GetDomainOperation().executeForResult(getConnectionStrategy());
+            }
+            domainModel = current;
+            // callers may change the model they get, so each gets its own copy
+            return copy(current);
         } catch (Exception e) {
             throw new ManagementException("Failed to get domain model.", e);
         }
@@ -264,6 +283,7 @@ public class DomainClientImpl implements DomainClient {
     }
 
     public void close() throws IOException {
+        connectionPool.close();
         executorService.shutdown();
     }
 
@@ -296,6 +316,68 @@ public class DomainClientImpl implements DomainClient {
         }
     }
 
+    private class GetDomainUpdatesOperation extends DomainClientRequest<DomainModel> {
+        private final DomainModel domainModel;
+
+        private GetDomainUpdatesOperation(final DomainModel domainModel) {
+            this.domainModel = domainModel;
+        }
+
+        @Override
+        public final byte getRequestCode() {
+            return DomainClientProtocol.GET_DOMAIN_UPDATES_REQUEST;
+        }
+
+        @Override
+        protected final byte getResponseCode() {
+            return DomainClientProtocol.GET_DOMAIN_UPDATES_RESPONSE;
+        }
+
+        @Override
+        protected void sendRequest(final int protocolVersion, final OutputStream output) throws IOException {
+            final Marshaller marshaller = getMarshaller();
+            marshaller.start(createByteOutput(output));
+            marshaller.writeByte(DomainClientProtocol.PARAM_DOMAIN_MODEL_REVISION);
+            marshaller.writeLong(domainModel.getEpoch());
+            marshaller.writeLong(domainModel.getRevision());
+            marshaller.finish();
+        }
+
+        @Override
+        protected final DomainModel receiveResponse(final InputStream input) throws IOException {
+            final Unmarshaller unmarshaller = getUnmarshaller();
+            unmarshaller.start(createByteInput(input));
+            final byte header = unmarshaller.readByte();
+            if (header == DomainClientProtocol.PARAM_DOMAIN_MODEL) {
+                // the updates since our revision are no longer known
+                final DomainModel domainModel = unmarshal(unmarshaller, DomainModel.class);
+                unmarshaller.finish();
+                return domainModel;
+            }
+            if (header != DomainClientProtocol.RETURN_DOMAIN_MODEL_UPDATE_COUNT) {
+                throw new IOException("Invalid byte token.  Expecting '" + DomainClientProtocol.RETURN_DOMAIN_MODEL_UPDATE_COUNT + "' received '" + header + "'");
+            }
+            final int count = unmarshaller.readInt();
+            final List<AbstractDomainModelUpdate<?>> updates = new ArrayList<AbstractDomainModelUpdate<?>>(count);
+            for (int i = 0; i < count; i++) {
+                expectHeader(unmarshaller, DomainClientProtocol.PARAM_DOMAIN_MODEL_UPDATE);
+                updates.add(unmarshal(unmarshaller, AbstractDomainModelUpdate.class));
+            }
+            unmarshaller.finish();
+            // a failed update must not leave the kept model half updated
+            final DomainModel updated = copy(domainModel);
+            for (AbstractDomainModelUpdate<?> update : updates) {
+                try {
+                    updated.update(update);
+                } catch (UpdateFailedException e) {
+                    throw new IOException("Failed to apply domain model update " + update, e);
+                }
+            }
+            updated.setRevision(domainModel.getRevision() + count);
+            return updated;
+        }
+    }
+
     private class GetServerManagerNamesOperation extends DomainClientRequest<List<String>> {
         @Override
         public final byte getRequestCode() {
@@ -880,6 +962,19 @@ public class DomainClientImpl implements DomainClient {
         }
     }
 
+    private static DomainModel copy(final DomainModel domainModel) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final Marshaller marshaller = getMarshaller();
+        marshaller.start(createByteOutput(bytes));
+        marshaller.writeObject(domainModel);
+        marshaller.finish();
+        final Unmarshaller unmarshaller = getUnmarshaller();
+        unmarshaller.start(createByteInput(new ByteArrayInputStream(bytes.toByteArray())));
+        final DomainModel copy = unmarshal(unmarshaller, DomainModel.class);
+        unmarshaller.finish();
+        return copy;
+    }
+
     private static Marshaller getMarshaller() throws IOException {
         return ProtocolUtils.getMarshaller(CONFIG);
     }
@@ -889,6 +984,6 @@ public class DomainClientImpl implements DomainClient {
     }
 
     private ManagementRequestConnectionStrategy getConnectionStrategy() {
-        return new ManagementRequestConnectionStrategy.EstablishConnectingStrategy(address, port, CONNECTION_TIMEOUT, executorService, threadFactory);
+        return new ManagementRequestConnectionStrategy.PooledConnectionStrategy(connectionPool);
     }
 }
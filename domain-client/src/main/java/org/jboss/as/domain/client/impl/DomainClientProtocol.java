@@ -98,4 +98,9 @@ public interface DomainClientProtocol {
     int STOP_SERVER_RESPONSE = 0x79;
     int RESTART_SERVER_REQUEST = 0x7A;
     int RESTART_SERVER_RESPONSE = 0x7B;
+    int GET_DOMAIN_UPDATES_REQUEST = 0x7C;
+    int PARAM_DOMAIN_MODEL_REVISION = 0x7D;
+    int RETURN_DOMAIN_MODEL_UPDATE_COUNT = 0x7E;
+    int GET_DOMAIN_UPDATES_RESPONSE = 0x7F;
+    int RETURN_ROLLING_WINDOW_RESULT = 0x1A;
 }
@@ -23,7 +23,9 @@
 package org.jboss.as.domain.client.impl.deployment;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
@@ -38,6 +40,7 @@ import org.jboss.as.domain.client.api.deployment.DeploymentPlanResult;
 import org.jboss.as.domain.client.api.deployment.DeploymentSetPlan;
 import org.jboss.as.domain.client.api.deployment.DeploymentSetPlanResult;
 import org.jboss.as.domain.client.api.deployment.InvalidDeploymentPlanException;
+import org.jboss.as.domain.client.api.deployment.RollingWindowResult;
 import org.jboss.as.domain.client.impl.DomainClientProtocol;
 import org.jboss.as.domain.client.impl.DomainUpdateApplierResponse;
 import org.jboss.as.model.UpdateResultHandlerResponse;
@@ -121,11 +124,12 @@ public class DeploymentPlanResultReader {
         while (nextHeader != DomainClientProtocol.RETURN_DEPLOYMENT_ACTION_ID);
 
         // If the set plan generated server updates, those will come next
-        if (nextHeader == DomainClientProtocol.RETURN_SERVER_DEPLOYMENT) {
-            nextHeader = readerServerDeploymentResults(actionResults);
+        List<RollingWindowResult> windowResults = new ArrayList<RollingWindowResult>();
+        if (nextHeader == DomainClientProtocol.RETURN_SERVER_DEPLOYMENT || nextHeader == DomainClientProtocol.RETURN_ROLLING_WINDOW_RESULT) {
+            nextHeader = readerServerDeploymentResults(nextHeader, actionResults, windowResults);
         }
 
-        DeploymentSetPlanResult setResult = new DeploymentSetPlanResultImpl(setPlan, actionResults);
+        DeploymentSetPlanResult setResult = new DeploymentSetPlanResultImpl(setPlan, actionResults, windowResults);
         setResults.put(setId, setResult);
         return nextHeader;
     }
@@ -163,9 +167,13 @@ public class DeploymentPlanResultReader {
         return nextHeader;
     }
 
-    private byte readerServerDeploymentResults(Map<UUID, DeploymentActionResult> actionResults) throws IOException {
-        byte nextHeader;
+    private byte readerServerDeploymentResults(byte nextHeader, Map<UUID, DeploymentActionResult> actionResults, List<RollingWindowResult> windowResults) throws IOException {
         do {
+            if (nextHeader == DomainClientProtocol.RETURN_ROLLING_WINDOW_RESULT) {
+                windowResults.add(unmarshal(unmarshaller, RollingWindowResult.class));
+                nextHeader = unmarshaller.readByte();
+                continue;
+            }
             UUID actionId = unmarshal(unmarshaller, UUID.class);
             DeploymentActionResultImpl actionResult = (DeploymentActionResultImpl) actionResults.get(actionId);
             ServerIdentity serverId = readServerIdentity();
@@ -198,7 +206,7 @@ public class DeploymentPlanResultReader {
 
             nextHeader = unmarshaller.readByte();
         }
-        while (nextHeader == DomainClientProtocol.RETURN_SERVER_DEPLOYMENT);
+        while (nextHeader == DomainClientProtocol.RETURN_SERVER_DEPLOYMENT || nextHeader == DomainClientProtocol.RETURN_ROLLING_WINDOW_RESULT);
 
         return nextHeader;
     }
@@ -24,6 +24,7 @@ package org.jboss.as.domain.client.impl.deployment;
 
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -31,6 +32,7 @@ import org.jboss.as.domain.client.api.ServerUpdateResult;
 import org.jboss.as.domain.client.api.deployment.DeploymentActionResult;
 import org.jboss.as.domain.client.api.deployment.DeploymentSetPlan;
 import org.jboss.as.domain.client.api.deployment.DeploymentSetPlanResult;
+import org.jboss.as.domain.client.api.deployment.RollingWindowResult;
 import org.jboss.as.domain.client.api.deployment.ServerGroupDeploymentActionResult;
 import org.jboss.as.domain.client.api.deployment.ServerGroupDeploymentPlanResult;
 
@@ -43,13 +45,20 @@ public class DeploymentSetPlanResultImpl implements DeploymentSetPlanResult {
 
     private final DeploymentSetPlan plan;
     private final Map<UUID, DeploymentActionResult> results;
+    private final List<RollingWindowResult> windowResults;
     private Map<String, ServerGroupDeploymentPlanResult> resultsByServerGroup;
 
     public DeploymentSetPlanResultImpl(final DeploymentSetPlan plan, final Map<UUID, DeploymentActionResult> results) {
+        this(plan, results, Collections.<RollingWindowResult>emptyList());
+    }
+
+    public DeploymentSetPlanResultImpl(final DeploymentSetPlan plan, final Map<UUID, DeploymentActionResult> results, final List<RollingWindowResult> windowResults) {
         assert plan != null : "plan is null";
         assert results != null : "results is null";
+        assert windowResults != null : "windowResults is null";
         this.plan = plan;
         this.results = results;
+        this.windowResults = windowResults;
     }
 
     @Override
@@ -57,6 +66,11 @@ public class DeploymentSetPlanResultImpl implements DeploymentSetPlanResult {
         return Collections.unmodifiableMap(results);
     }
 
+    @Override
+    public List<RollingWindowResult> getRollingWindowResults() {
+        return Collections.unmodifiableList(windowResults);
+    }
+
     @Override
     public UUID getDeploymentSetId() {
         return plan.getId();
@@ -22,6 +22,8 @@
 
 package org.jboss.as.domain.client.impl.deployment;
 
+import java.util.concurrent.TimeUnit;
+
 import org.jboss.as.domain.client.api.deployment.RollbackDeploymentPlanBuilder;
 import org.jboss.as.domain.client.api.deployment.ServerGroupDeploymentPlan;
 import org.jboss.as.domain.client.api.deployment.ServerGroupDeploymentPlanBuilder;
@@ -63,6 +65,18 @@ class ServerGroupDeploymentPlanBuilderImpl extends InitialDeploymentSetBuilderIm
         return new ServerGroupDeploymentPlanBuilderImpl(this, setPlan, true);
     }
 
+    @Override
+    public ServerGroupDeploymentPlanBuilder rollingToServers(int windowSize, long windowPause, TimeUnit unit) {
+        DeploymentSetPlanImpl setPlan = getCurrentDeploymentSetPlan();
+        ServerGroupDeploymentPlan groupPlan = setPlan.getLatestServerGroupDeploymentPlan();
+        if (groupPlan == null) {
+            throw new IllegalStateException(String.format("No %s is configured", ServerGroupDeploymentPlan.class.getSimpleName()));
+        }
+        groupPlan = groupPlan.createRollingToServers(windowSize, unit.toMillis(windowPause));
+        setPlan = setPlan.storeServerGroup(groupPlan);
+        return new ServerGroupDeploymentPlanBuilderImpl(this, setPlan, true);
+    }
+
     @Override
     public ServerGroupDeploymentPlanBuilder rollingToServerGroup(String serverGroupName) {
         DeploymentSetPlanImpl setPlan = getCurrentDeploymentSetPlan();
@@ -0,0 +1,216 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.domain.controller;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.as.model.DeploymentUnitElement;
+import org.jboss.logging.Logger;
+
+/**
+ * Pushes the content of a deployment to a set of server managers before any of their servers needs it.
+ * <p>
+ * Transfers run in parallel, but every source serves at most a fixed number of them at a time, so the domain
+ * controller's uplink is not split between all hosts at once.  Every server manager which has received the verified
+ * content becomes a source for the hosts still waiting, so the number of transfers running grows with each
+ * completed one instead of every byte leaving the domain controller.  A host which fails to fetch from a peer is
+ * retried from the domain controller; the peer is no longer used as a source.
+ *
+ * @author Brian Stansberry
+ */
+public class DeploymentContentDistributor {
+
+    private static final Logger log = Logger.getLogger("org.jboss.as.domain.deployment");
+
+    /** The default number of transfers a single source serves at a time */
+    public static final int DEFAULT_TRANSFERS_PER_SOURCE = 4;
+    /** The default number of transfers running at a time */
+    public static final int DEFAULT_MAX_TRANSFERS = 8;
+
+    private final ExecutorService executorService;
+    private final int transfersPerSource;
+    private final int maxTransfers;
+
+    /**
+     * Create a new instance.
+     *
+     * @param executorService the executor to run the transfers on
+     * @param transfersPerSource the number of transfers a single source serves at a time
+     * @param maxTransfers the number of transfers running at a time
+     */
+    public DeploymentContentDistributor(final ExecutorService executorService, final int transfersPerSource, final int maxTransfers) {
+        if (transfersPerSource < 1) {
+            throw new IllegalArgumentException("transfersPerSource must be at least 1");
+        }
+        if (maxTransfers < 1) {
+            throw new IllegalArgumentException("maxTransfers must be at least 1");
+        }
+        this.executorService = executorService;
+        this.transfersPerSource = transfersPerSource;
+        this.maxTransfers = maxTransfers;
+    }
+
+    /**
+     * Distribute the content of a deployment, returning once every target holds the verified content or failed to
+     * obtain it.
+     *
+     * @param hash the SHA-1 of the content
+     * @param targets the server managers to distribute the content to
+     * @return the ids of the server managers which could not obtain the content. Will not be <code>null</code>
+     */
+    public Set<String> distribute(final byte[] hash, final Collection<ServerManagerClient> targets) {
+        final long start = System.nanoTime();
+        final String hex = DeploymentUnitElement.bytesToHexString(hash);
+        final CompletionService<Transfer> completionService = new ExecutorCompletionService<Transfer>(executorService);
+        final List<Source> sources = new ArrayList<Source>();
+        final Source domainController = new Source(null);
+        sources.add(domainController);
+        final LinkedList<Transfer> pending = new LinkedList<Transfer>();
+        for (ServerManagerClient target : targets) {
+            pending.add(new Transfer(hash, target));
+        }
+        final Set<String> failed = new HashSet<String>();
+        int running = 0;
+        int relayed = 0;
+
+        while (!pending.isEmpty() || running > 0) {
+            for (Iterator<Transfer> i = pending.iterator(); i.hasNext() && running < maxTransfers;) {
+                final Transfer transfer = i.next();
+                final Source source = transfer.fromDomainController ? domainController.available(transfersPerSource) : selectSource(sources, domainController);
+                if (source != null) {
+                    i.remove();
+                    source.active++;
+                    transfer.source = source;
+                    completionService.submit(transfer);
+                    running++;
+                }
+            }
+
+            final Transfer done;
+            try {
+                done = completionService.take().get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.warnf("Interrupted distributing deployment content [%s]", hex);
+                for (Transfer transfer : pending) {
+                    failed.add(transfer.target.getId());
+                }
+                // transfers still running will complete in the background
+                return failed;
+            } catch (ExecutionException e) {
+                // a transfer never throws
+                throw new IllegalStateException(e.getCause());
+            }
+            running--;
+            final Source source = done.source;
+            source.active--;
+            if (done.success) {
+                if (source != domainController) {
+                    relayed++;
+                }
+                final InetSocketAddress address = done.target.getManagementAddress();
+                if (address != null) {
+                    sources.add(new Source(address));
+                }
+            } else if (source != domainController) {
+                log.debugf("Failed to relay deployment content [%s] from %s to %s; retrying from the domain controller", hex, source.address, done.target.getId());
+                sources.remove(source);
+                done.fromDomainController = true;
+                pending.addFirst(done);
+            } else {
+                log.warnf("Failed to distribute deployment content [%s] to %s", hex, done.target.getId());
+                failed.add(done.target.getId());
+            }
+        }
+
+        log.debugf("Distributed deployment content [%s] to %d of %d server managers in %d ms, %d relayed by peers", hex,
+                Integer.valueOf(targets.size() - failed.size()), Integer.valueOf(targets.size()),
+                Long.valueOf(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)), Integer.valueOf(relayed));
+        return failed;
+    }
+
+    /**
+     * Pick the peer with the fewest running transfers, falling back to the domain controller only when every peer
+     * is busy, to keep as much traffic as possible off the domain controller.
+     */
+    private Source selectSource(final List<Source> sources, final Source domainController) {
+        Source selected = null;
+        for (Source source : sources) {
+            if (source != domainController && source.active < transfersPerSource && (selected == null || source.active < selected.active)) {
+                selected = source;
+            }
+        }
+        return selected != null ? selected : domainController.available(transfersPerSource);
+    }
+
+    private static class Source {
+        /** The management address of the source, or {@code null} for the domain controller */
+        private final InetSocketAddress address;
+        private int active;
+
+        private Source(final InetSocketAddress address) {
+            this.address = address;
+        }
+
+        private Source available(final int transfersPerSource) {
+            return active < transfersPerSource ? this : null;
+        }
+    }
+
+    private static class Transfer implements Callable<Transfer> {
+        private final byte[] hash;
+        private final ServerManagerClient target;
+        private Source source;
+        private boolean fromDomainController;
+        private volatile boolean success;
+
+        private Transfer(final byte[] hash, final ServerManagerClient target) {
+            this.hash = hash;
+            this.target = target;
+        }
+
+        @Override
+        public Transfer call() {
+            try {
+                success = target.fetchDeploymentContent(hash, source.address);
+            } catch (Throwable t) {
+                log.debugf(t, "Failed to fetch deployment content on %s", target.getId());
+                success = false;
+            }
+            return this;
+        }
+    }
+}
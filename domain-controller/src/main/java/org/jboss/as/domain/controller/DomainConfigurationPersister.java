@@ -2,7 +2,9 @@ package org.jboss.as.domain.controller;
 
 import java.io.IOException;
 import java.io.Reader;
+import java.util.List;
 
+import org.jboss.as.model.AbstractDomainModelUpdate;
 import org.jboss.as.model.DomainModel;
 
 /**
@@ -21,12 +23,28 @@ public interface DomainConfigurationPersister {
      */
     Reader getConfigurationReader() throws IOException;
 
+    /**
+     * Apply any changes which were persisted but may be missing from the configuration read from
+     * {@link #getConfigurationReader()}, as happens after a crash.
+     *
+     * @param domainModel the model read from the configuration. Cannot be <code>null</code>
+     * @return the number of recovered updates
+     */
+    int recoverConfiguration(DomainModel domainModel);
+
     /**
      * Persist the given domain model.
      *
      * @param domainModel the model. Cannot be <code>null</code>
+     * @param updates the updates which were applied to the model since it was last persisted. Cannot be <code>null</code>
+     */
+    void persistConfiguration(DomainModel domainModel, List<AbstractDomainModelUpdate<?>> updates);
+
+    /**
+     * Write any changes which are not yet in the configuration and release the resources held for persisting them.
+     * Configuration may be persisted again afterwards.
      */
-    void persistConfiguration(DomainModel domainModel);
+    void close();
 
 }
 
@@ -22,25 +22,16 @@
 
 package org.jboss.as.domain.controller;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
 import java.io.Reader;
+import java.util.List;
 
-import javax.xml.stream.XMLOutputFactory;
-import javax.xml.stream.XMLStreamException;
-
+import org.jboss.as.model.AbstractDomainModelUpdate;
+import org.jboss.as.model.ConfigurationJournal;
 import org.jboss.as.model.DomainModel;
 import org.jboss.as.model.Element;
-import org.jboss.logging.Logger;
-import org.jboss.staxmapper.XMLContentWriter;
-import org.jboss.staxmapper.XMLExtendedStreamWriter;
-import org.jboss.staxmapper.XMLMapper;
 
 /**
  * Default implementation of {@link DomainConfigurationPersister}.
@@ -53,11 +44,10 @@ public class DomainConfigurationPersisterImpl implements DomainConfigurationPers
     public static final String CONFIG_FILE = "domain.xml";
 
     /** Suffix to append to the config file name to create the backup copy. */
-    public static final String BACKUP_SUFFIX = ".last-known-good";
-
-    private static Logger logger = Logger.getLogger("org.jboss.as.domain");
+    public static final String BACKUP_SUFFIX = ConfigurationJournal.BACKUP_SUFFIX;
 
     private final File configFile;
+    private final ConfigurationJournal<DomainModel> journal;
 
     public DomainConfigurationPersisterImpl(File configDir) {
 
@@ -75,6 +65,7 @@ public class DomainConfigurationPersisterImpl implements DomainConfigurationPers
             }
         }
         this.configFile = configFile;
+        this.journal = new ConfigurationJournal<DomainModel>(configFile, Element.DOMAIN);
     }
 
     @Override
@@ -83,103 +74,18 @@ public class DomainConfigurationPersisterImpl implements DomainConfigurationPers
     }
 
     @Override
-    public void persistConfiguration(final DomainModel domainModel) {
-
-        FileOutputStream fos = null;
-        BufferedOutputStream bos = null;
-        OutputStreamWriter writer = null;
-        try {
-            backupConfigFile();
-            configFile.createNewFile();
-            fos = new FileOutputStream(configFile);
-            bos = new BufferedOutputStream(fos);
-            writer = new OutputStreamWriter(bos);
-            final XMLMapper mapper = XMLMapper.Factory.create();
-            mapper.deparseDocument(new RootElementWriter(domainModel), XMLOutputFactory.newInstance().createXMLStreamWriter(writer));
-        }
-        catch (Exception e) {
-            logger.errorf(e, "Failed persisting configuration file %s" , configFile.getAbsolutePath());
-        }
-        finally {
-             if (writer != null) {
-                 try {
-                    writer.close();
-                } catch (IOException e) {
-                    logger.warnf(e, "Failed closing writer to configuration file %s" , configFile.getAbsolutePath());
-                }
-             }
-             if (fos != null) {
-                 try {
-                    fos.close();
-                } catch (IOException e) {
-                    logger.warnf(e, "Failed closing output stream to configuration file %s" , configFile.getAbsolutePath());
-                }
-             }
-        }
-
-    }
-
-    private void backupConfigFile() throws IOException {
-        File backup = new File(configFile.getParent(), configFile.getName() + BACKUP_SUFFIX);
-        copyFile(configFile, backup);
+    public int recoverConfiguration(final DomainModel domainModel) {
+        return journal.recover(domainModel);
     }
 
-    private static void copyFile(File file, File backup) throws IOException {
-
-        if (backup.exists())
-            backup.delete();
-
-        if (!file.renameTo(backup)) {
-            FileOutputStream fos = null;
-            BufferedOutputStream bos = null;
-            FileInputStream fis = null;
-            try {
-                fos = new FileOutputStream(backup);
-                bos = new BufferedOutputStream(fos);
-                fis = new FileInputStream(file);
-                BufferedInputStream bis = new BufferedInputStream(fis);
-                byte[] bytes = new byte[8192];
-                int read;
-                while ((read = bis.read(bytes)) > -1) {
-                    bos.write(bytes, 0, read);
-                }
-            }
-            finally {
-                try {
-                    if (bos != null) {
-                        bos.close();
-                    }
-                 } catch (Exception ignored) {}
-                 try {
-                     if (fos != null) {
-                         fos.close();
-                     }
-                  } catch (Exception ignored) {}
-                  try {
-                      if (fis != null) {
-                          fis.close();
-                      }
-                   } catch (Exception ignored) {}
-            }
-        }
+    @Override
+    public void persistConfiguration(final DomainModel domainModel, final List<AbstractDomainModelUpdate<?>> updates) {
+        journal.persist(domainModel, updates);
     }
 
-    private static class RootElementWriter implements XMLContentWriter {
-
-        private final DomainModel domainModel;
-
-        private RootElementWriter(final DomainModel domainModel) {
-            this.domainModel = domainModel;
-        }
-
-        @Override
-        public void writeContent(XMLExtendedStreamWriter streamWriter) throws XMLStreamException {
-            streamWriter.writeStartDocument();
-            streamWriter.writeStartElement(Element.DOMAIN.getLocalName());
-            domainModel.writeContent(streamWriter);
-            streamWriter.writeEndDocument();
-        }
-
+    @Override
+    public void close() {
+        journal.close();
     }
 
 }
@@ -26,6 +26,7 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.Reader;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -36,11 +37,10 @@ import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
 
 import javax.xml.stream.XMLInputFactory;
 
@@ -78,14 +78,19 @@ public class DomainController implements Service<DomainController> {
     public static final ServiceName SERVICE_NAME = ServiceName.JBOSS.append("domain", "controller");
     private DomainModel domainModel;
     private final ConcurrentMap<String, ServerManagerClient> clients = new ConcurrentHashMap<String, ServerManagerClient>();
+    /** The revision each server manager's copy of the domain model is known to be at */
+    private final ConcurrentMap<String, Long> serverManagerRevisions = new ConcurrentHashMap<String, Long>();
+    private final DomainModelHistory history = new DomainModelHistory();
+    private final ConcurrentMap<ServerIdentity, ServerStatus> serverStatuses = new ConcurrentHashMap<ServerIdentity, ServerStatus>();
+    private final List<ServerStatusListener> serverStatusListeners = new CopyOnWriteArrayList<ServerStatusListener>();
     private final InjectedValue<XMLMapper> xmlMapper = new InjectedValue<XMLMapper>();
     private final InjectedValue<File> domainConfigDir = new InjectedValue<File>();
     private final InjectedValue<File> domainDeploymentsDir = new InjectedValue<File>();
     private final InjectedValue<ScheduledExecutorService> scheduledExecutorService = new InjectedValue<ScheduledExecutorService>();
     private volatile DomainConfigurationPersister configPersister;
-    private ScheduledFuture<?> pollingFuture;
     private DomainDeploymentHandler deploymentPlanHandler;
     private DomainDeploymentRepository deploymentRepository;
+    private DeploymentContentDistributor contentDistributor;
 
     public DomainController() {
     }
@@ -121,17 +126,14 @@ public class DomainController implements Service<DomainController> {
 
             log.info("Parsing Domain Configuration");
             domainModel = parseDomain(xmlMapper.getValue());
+            // revisions start over, so copies of an earlier model must not be mistaken for copies of this one
+            domainModel.setEpoch(System.currentTimeMillis());
+            serverManagerRevisions.clear();
+            serverStatuses.clear();
 
             deploymentPlanHandler = new DomainDeploymentHandler(this, scheduledExecutorService.getValue());
-            pollingFuture = scheduledExecutorService.getValue().scheduleAtFixedRate(new Runnable() {
-                public void run() {
-                    for(ServerManagerClient client : clients.values()) {
-                        if(!client.isActive()) {
-                            log.warnf("Registered Server Manager [%s] is no longer active", client.getId());
-                        }
-                    }
-                }
-            }, 30L, 30L, TimeUnit.SECONDS);
+            contentDistributor = new DeploymentContentDistributor(scheduledExecutorService.getValue(),
+                    DeploymentContentDistributor.DEFAULT_TRANSFERS_PER_SOURCE, DeploymentContentDistributor.DEFAULT_MAX_TRANSFERS);
         } catch (IllegalStateException e) {
             throw new StartException("Failed to start " + getClass().getSimpleName(), e);
         }
@@ -143,10 +145,10 @@ public class DomainController implements Service<DomainController> {
     @Override
     public synchronized void stop(final StopContext stopContext) {
         log.info("Stopping Domain Controller");
-        domainModel = null;
-        if(pollingFuture != null) {
-            pollingFuture.cancel(true);
+        if (configPersister != null) {
+            configPersister.close();
         }
+        domainModel = null;
     }
 
     @Override
@@ -166,6 +168,58 @@ public class DomainController implements Service<DomainController> {
         if(clients.remove(id) == null) {
             // TODO: Handle
         }
+        for (ServerIdentity server : serverStatuses.keySet()) {
+            if (server.getHostName().equals(id) && serverStatuses.remove(server) != null) {
+                notifyServerStatusListeners(server, ServerStatus.UNKNOWN);
+            }
+        }
+    }
+
+    /**
+     * Record server status transitions reported by a server manager.  Servers reported as
+     * {@link ServerStatus#DOES_NOT_EXIST} are dropped from the status table.  Reports from server managers which
+     * are not registered are ignored.
+     *
+     * @param serverManagerId the id of the reporting server manager
+     * @param statuses the servers whose status changed, along with their new status
+     */
+    public void serverStatusesChanged(final String serverManagerId, final Map<ServerIdentity, ServerStatus> statuses) {
+        if (!clients.containsKey(serverManagerId)) {
+            log.debugf("Ignoring server statuses from unregistered server manager %s", serverManagerId);
+            return;
+        }
+        for (Map.Entry<ServerIdentity, ServerStatus> entry : statuses.entrySet()) {
+            final ServerIdentity server = entry.getKey();
+            final ServerStatus status = entry.getValue();
+            final ServerStatus previous;
+            if (status == ServerStatus.DOES_NOT_EXIST) {
+                previous = serverStatuses.remove(server);
+            } else {
+                previous = serverStatuses.put(server, status);
+            }
+            if (previous != status) {
+                log.debugf("Server %s is now %s", server, status);
+                notifyServerStatusListeners(server, status);
+            }
+        }
+    }
+
+    public void addServerStatusListener(final ServerStatusListener listener) {
+        serverStatusListeners.add(listener);
+    }
+
+    public void removeServerStatusListener(final ServerStatusListener listener) {
+        serverStatusListeners.remove(listener);
+    }
+
+    private void notifyServerStatusListeners(final ServerIdentity server, final ServerStatus status) {
+        for (ServerStatusListener listener : serverStatusListeners) {
+            try {
+                listener.serverStatusChanged(server, status);
+            } catch (Throwable t) {
+                log.errorf(t, "Server status listener %s failed", listener);
+            }
+        }
     }
 
     // -----------------------------------  Operations invoked by DomainClient
@@ -174,6 +228,41 @@ public class DomainController implements Service<DomainController> {
         return domainModel;
     }
 
+    /**
+     * Gets the updates which bring a copy of the domain model at the given revision to the current revision.
+     *
+     * @param epoch the epoch of the copy
+     * @param revision the revision of the copy
+     * @return the updates, or {@code null} if they are no longer known and the whole model has to be transferred
+     */
+    public synchronized List<AbstractDomainModelUpdate<?>> getDomainModelUpdates(final long epoch, final long revision) {
+        if (epoch != domainModel.getEpoch()) {
+            // a copy of the model of an earlier start
+            return null;
+        }
+        return history.getUpdatesSince(revision, domainModel.getRevision());
+    }
+
+    /**
+     * Gets the updates which bring the copy of the domain model held by a registering server manager up to date.
+     * Only the domain controller knows which updates reached a server manager, so the server manager just has to
+     * say whether it still holds the copy it was last given.  The server manager is considered up to date
+     * afterwards.
+     *
+     * @param serverManagerId the id of the server manager
+     * @param epoch the epoch of the copy the server manager was last given
+     * @param revision the revision of the copy the server manager was last given, or {@code -1} if it holds none
+     * @return the updates, or {@code null} if the whole model has to be transferred
+     */
+    public synchronized List<AbstractDomainModelUpdate<?>> getDomainModelUpdates(final String serverManagerId, final long epoch, final long revision) {
+        final long current = domainModel.getRevision();
+        final Long known = serverManagerRevisions.put(serverManagerId, Long.valueOf(current));
+        if (revision < 0 || known == null || epoch != domainModel.getEpoch()) {
+            return null;
+        }
+        return history.getUpdatesSince(known.longValue(), current);
+    }
+
     public Set<String> getServerManagerNames() {
         return Collections.unmodifiableSet(clients.keySet());
     }
@@ -189,37 +278,28 @@ public class DomainController implements Service<DomainController> {
         }
     }
 
+    /**
+     * Gets the status of every server in the domain, as last reported by the server managers.
+     *
+     * @return a snapshot of the status table
+     */
     public Map<ServerIdentity, ServerStatus> getServerStatuses() {
-        Map<ServerIdentity, ServerStatus> result = new HashMap<ServerIdentity, ServerStatus>();
-        Map<String, Future<Map<ServerIdentity, ServerStatus>>> futures = new HashMap<String, Future<Map<ServerIdentity, ServerStatus>>>();
-        for (Map.Entry<String, ServerManagerClient> entry : clients.entrySet()) {
-            final ServerManagerClient client = entry.getValue();
-            Callable<Map<ServerIdentity, ServerStatus>> callable = new Callable<Map<ServerIdentity, ServerStatus>>() {
-
-                @Override
-                public Map<ServerIdentity, ServerStatus> call() {
-                    return client.getServerStatuses();
-                }
-
-            };
-            futures.put(entry.getKey(), scheduledExecutorService.getValue().submit(callable));
-        }
+        return new HashMap<ServerIdentity, ServerStatus>(serverStatuses);
+    }
 
-        for (Map.Entry<String, Future<Map<ServerIdentity, ServerStatus>>> entry : futures.entrySet()) {
-            try {
-                Map<ServerIdentity, ServerStatus> map = entry.getValue().get();
-                if (map != null) {
-                    result.putAll(map);
-                }
-            } catch (InterruptedException e) {
-                log.errorf("Interrupted while reading server statuses from server manager %s -- aborting", entry.getKey());
-                Thread.currentThread().interrupt();
-                break;
-            } catch (ExecutionException e) {
-                log.errorf(e, "Caught exception while reading server statuses from server manager %s -- ignoring that server manager", entry.getKey());
-            }
+    /**
+     * Gets the status of a server, as last reported by its server manager.
+     *
+     * @param server the server
+     * @return the status, {@link ServerStatus#UNKNOWN} if the server manager is not registered or
+     *      {@link ServerStatus#DOES_NOT_EXIST} if the server manager does not know the server
+     */
+    public ServerStatus getServerStatus(final ServerIdentity server) {
+        final ServerStatus status = serverStatuses.get(server);
+        if (status != null) {
+            return status;
         }
-        return result;
+        return clients.containsKey(server.getHostName()) ? ServerStatus.DOES_NOT_EXIST : ServerStatus.UNKNOWN;
     }
 
     public ServerModel getServerModel(final String serverManagerName, final String serverName) {
@@ -275,6 +355,7 @@ public class DomainController implements Service<DomainController> {
             for(final AbstractDomainModelUpdate<?> update : domainUpdates) {
                 domainModel.update(update);
             }
+            configPersister.recoverConfiguration(domainModel);
             return domainModel;
         } catch (RuntimeException e) {
             throw e;
@@ -398,10 +479,11 @@ public class DomainController implements Service<DomainController> {
             }
         }
         else {
+            final long revision = recordUpdates(updates);
             // Persist model
-            configPersister.persistConfiguration(domainModel);
+            configPersister.persistConfiguration(domainModel, updates);
             // Move on to server managers.
-            result = applyUpdatesToServerManagers(updates, rollbacks);
+            result = applyUpdatesToServerManagers(updates, rollbacks, revision);
         }
 
         return result;
@@ -430,6 +512,33 @@ public class DomainController implements Service<DomainController> {
         deploymentPlanHandler.executeDeploymentPlan(plan, responseQueue);
     }
 
+    /**
+     * Push deployment content to the given server managers ahead of their servers needing it.  Server managers
+     * which fail to obtain the content still pull it from the domain controller once a server needs it.
+     *
+     * @param hashes the SHA-1 hashes of the content
+     * @param serverManagerNames the names of the server managers to distribute the content to
+     * @return <code>true</code> if every server manager holds all the content
+     */
+    public boolean distributeDeploymentContent(final Collection<byte[]> hashes, final Set<String> serverManagerNames) {
+        final List<ServerManagerClient> targets = new ArrayList<ServerManagerClient>(serverManagerNames.size());
+        for (String serverManagerName : serverManagerNames) {
+            final ServerManagerClient client = clients.get(serverManagerName);
+            if (client != null) {
+                targets.add(client);
+            }
+        }
+        boolean ok = true;
+        for (byte[] hash : hashes) {
+            final Set<String> failed = contentDistributor.distribute(hash, targets);
+            if (!failed.isEmpty()) {
+                log.warnf("Server managers %s will fetch deployment content when needed", failed);
+                ok = false;
+            }
+        }
+        return ok;
+    }
+
     public DomainDeploymentRepository getDomainDeploymentRepository() {
         if (deploymentRepository == null) {
             throw new IllegalStateException("Must call start before requesting " + DomainDeploymentRepository.class.getSimpleName());
@@ -437,8 +546,17 @@ public class DomainController implements Service<DomainController> {
         return deploymentRepository;
     }
 
+    private synchronized long recordUpdates(final List<AbstractDomainModelUpdate<?>> updates) {
+        long revision = domainModel.getRevision();
+        for (AbstractDomainModelUpdate<?> update : updates) {
+            history.add(++revision, update);
+        }
+        domainModel.setRevision(revision);
+        return revision;
+    }
+
     private List<DomainUpdateApplierResponse> applyUpdatesToServerManagers(final List<AbstractDomainModelUpdate<?>> updates,
-            List<AbstractDomainModelUpdate<?>> rollbacks) {
+            List<AbstractDomainModelUpdate<?>> rollbacks, final long revision) {
 
         List<DomainUpdateApplierResponse> result = new ArrayList<DomainUpdateApplierResponse>(updates.size());
 
@@ -498,9 +616,15 @@ public class DomainController implements Service<DomainController> {
             }
         }
 
-        if (!ok) {
+        if (ok) {
+            for (String host : futures.keySet()) {
+                serverManagerRevisions.put(host, Long.valueOf(revision));
+            }
+        } else {
 
             // Some server manager failed, so we gotta roll 'em all back
+            // and none of them is at a known revision any more
+            serverManagerRevisions.keySet().removeAll(futures.keySet());
 
             // List of servers we fail to successfully roll back
             Set<String> outOfSync = new HashSet<String>();
@@ -566,7 +690,10 @@ public class DomainController implements Service<DomainController> {
             for (String host : outOfSync) {
                 // Rollback failed; need to push the whole model
                 ServerManagerClient client = clients.get(host);
-                client.updateDomainModel(domainModel);
+                synchronized (this) {
+                    client.updateDomainModel(domainModel);
+                    serverManagerRevisions.put(host, Long.valueOf(domainModel.getRevision()));
+                }
             }
 
             // Update the result list to record the rollbacks
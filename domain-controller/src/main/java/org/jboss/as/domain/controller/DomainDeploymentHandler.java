@@ -26,6 +26,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -171,6 +172,9 @@ public class DomainDeploymentHandler {
             return false;
         }
 
+        // Push new content to the affected hosts before any server needs it
+        distributeDeploymentContent(updateSet, rsps);
+
         // Apply to servers
         Runnable r = getServerUpdateTask(updateSet, rsps, responseQueue);
         r.run();
@@ -179,6 +183,26 @@ public class DomainDeploymentHandler {
         throw new UnsupportedOperationException("handle rollback");
     }
 
+    private void distributeDeploymentContent(final DeploymentSetUpdates updateSet, final List<DomainUpdateApplierResponse> rsps) {
+        List<byte[]> hashes = new ArrayList<byte[]>();
+        for (ActionUpdates au : updateSet.actionUpdates) {
+            byte[] hash = ((DeploymentActionImpl) au.action).getNewContentHash();
+            if (hash != null) {
+                hashes.add(hash);
+            }
+        }
+        Set<String> hosts = new HashSet<String>();
+        for (DomainUpdateApplierResponse duar : rsps) {
+            for (ServerIdentity serverId : duar.getServers()) {
+                hosts.add(serverId.getHostName());
+            }
+        }
+        if (hashes.size() > 0 && hosts.size() > 0) {
+            // Failures are not fatal; servers fall back to pulling the content themselves
+            domainController.distributeDeploymentContent(hashes, hosts);
+        }
+    }
+
     private ExecutorService getDeploymentExecutor() {
         return executorService;
     }
@@ -245,7 +269,8 @@ public class DomainDeploymentHandler {
                 }
 
                 if (groupPlan.isRollingToServers()) {
-                    concurrentList.add(new RollingUpdateTask(groupTasks));
+                    concurrentList.add(new WindowedUpdateTask(serverGroupName, new ArrayList<ServerIdentity>(servers), groupTasks, policy,
+                            groupPlan.getRollingWindowSize(), groupPlan.getRollingWindowPause(), getDeploymentExecutor(), responseQueue));
                 }
                 else {
                     concurrentList.add(new ConcurrentUpdateTask(groupTasks, getDeploymentExecutor()));
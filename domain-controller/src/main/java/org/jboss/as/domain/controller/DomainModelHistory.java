@@ -0,0 +1,126 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.domain.controller;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import org.jboss.as.model.AbstractDomainModelUpdate;
+
+/**
+ * The most recent updates applied to the domain model, by the revision each update produced.  Used to bring a copy of
+ * the domain model up to date without transferring the whole model.  Only the last {@code maxSize} updates are kept;
+ * a copy older than that has to be replaced.
+ *
+ * @author John Bailey
+ */
+public final class DomainModelHistory {
+
+    /** System property giving the number of updates to keep. */
+    public static final String SIZE_PROPERTY = "org.jboss.as.domain.controller.history-size";
+
+    private final int maxSize;
+
+    // protected by {@code this}
+    private final ArrayDeque<Entry> entries = new ArrayDeque<Entry>();
+
+    /**
+     * Construct a new instance, keeping the number of updates given by the {@value #SIZE_PROPERTY} system property.
+     */
+    public DomainModelHistory() {
+        this(Integer.getInteger(SIZE_PROPERTY, 1000).intValue());
+    }
+
+    /**
+     * Construct a new instance.
+     *
+     * @param maxSize the number of updates to keep
+     */
+    public DomainModelHistory(final int maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("maxSize is negative");
+        }
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Record an update.  Revisions must be recorded in order, without gaps.
+     *
+     * @param revision the revision of the model after the update
+     * @param update the update
+     */
+    public synchronized void add(final long revision, final AbstractDomainModelUpdate<?> update) {
+        final Entry last = entries.peekLast();
+        if (last != null && revision != last.revision + 1) {
+            // a gap; what came before can no longer be replayed
+            entries.clear();
+        }
+        entries.addLast(new Entry(revision, update));
+        if (entries.size() > maxSize) {
+            entries.removeFirst();
+        }
+    }
+
+    /**
+     * Get the updates which bring a model at the given revision to the current revision.
+     *
+     * @param revision the revision of the model to bring up to date
+     * @param currentRevision the current revision
+     * @return the updates in the order they must be applied, or {@code null} if the history does not reach back to
+     *      {@code revision}
+     */
+    public synchronized List<AbstractDomainModelUpdate<?>> getUpdatesSince(final long revision, final long currentRevision) {
+        if (revision == currentRevision) {
+            return Collections.emptyList();
+        }
+        final Entry first = entries.peekFirst();
+        final Entry last = entries.peekLast();
+        if (revision > currentRevision || first == null || first.revision > revision + 1 || last.revision != currentRevision) {
+            return null;
+        }
+        final List<AbstractDomainModelUpdate<?>> updates = new ArrayList<AbstractDomainModelUpdate<?>>((int) (currentRevision - revision));
+        final Iterator<Entry> it = entries.descendingIterator();
+        while (it.hasNext()) {
+            final Entry entry = it.next();
+            if (entry.revision <= revision) {
+                break;
+            }
+            updates.add(entry.update);
+        }
+        Collections.reverse(updates);
+        return updates;
+    }
+
+    private static final class Entry {
+        private final long revision;
+        private final AbstractDomainModelUpdate<?> update;
+
+        private Entry(final long revision, final AbstractDomainModelUpdate<?> update) {
+            this.revision = revision;
+            this.update = update;
+        }
+    }
+}
@@ -22,6 +22,7 @@
 
 package org.jboss.as.domain.controller;
 
+import java.net.InetSocketAddress;
 import java.util.List;
 import java.util.Map;
 
@@ -154,4 +155,24 @@ public interface ServerManagerClient {
      * @return the status of the server following the start attempt
      */
     ServerStatus restartServer(String serverName, long gracefulTimeout);
+
+    /**
+     * Get the address at which the server manager accepts management requests.  Other server managers fetch
+     * deployment content from this address once the server manager holds it.
+     *
+     * @return the address, or <code>null</code> if the server manager cannot relay content to other hosts
+     */
+    InetSocketAddress getManagementAddress();
+
+    /**
+     * Have the server manager fetch the content of a deployment into its local repository, unless it holds the
+     * content already.  The content is verified against its hash before it is accepted.
+     *
+     * @param hash the SHA-1 of the content. Cannot be <code>null</code>
+     * @param source the management address of the host to fetch the content from, or <code>null</code> to
+     *               fetch it from the domain controller
+     *
+     * @return <code>true</code> if the verified content is present in the server manager's repository afterwards
+     */
+    boolean fetchDeploymentContent(byte[] hash, InetSocketAddress source);
 }
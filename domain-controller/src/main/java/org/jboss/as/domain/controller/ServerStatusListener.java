@@ -0,0 +1,44 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.domain.controller;
+
+import org.jboss.as.domain.client.api.ServerIdentity;
+import org.jboss.as.domain.client.api.ServerStatus;
+
+/**
+ * Listener which is told about server status transitions reported to the domain controller.
+ *
+ * @author John Bailey
+ */
+public interface ServerStatusListener {
+
+    /**
+     * Called when the status of a server changes.  A server which is no longer known, either because it was removed
+     * from its host or because its server manager unregistered, is reported as {@link ServerStatus#DOES_NOT_EXIST}
+     * or {@link ServerStatus#UNKNOWN} respectively.  Implementations should not block.
+     *
+     * @param server the server
+     * @param status the new status of the server
+     */
+    void serverStatusChanged(ServerIdentity server, ServerStatus status);
+}
@@ -65,6 +65,19 @@ class ServerUpdatePolicy {
         }
     }
 
+    /**
+     * Gets whether more servers failed than the plan allows.
+     *
+     * @return {@code true} if no further servers should be updated
+     */
+    public synchronized boolean isFailed() {
+        return failureCount > maxFailed;
+    }
+
+    public synchronized int getFailureCount() {
+        return failureCount;
+    }
+
     public void recordServerResult(ServerIdentity server, List<UpdateResultHandlerResponse<?>> responses) {
 
         if (!serverGroupName.equals(server.getServerGroupName()) || !servers.contains(server)) {
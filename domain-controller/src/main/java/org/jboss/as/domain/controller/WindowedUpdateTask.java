@@ -0,0 +1,146 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.domain.controller;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.as.domain.client.api.ServerIdentity;
+import org.jboss.as.domain.client.api.deployment.RollingWindowResult;
+import org.jboss.as.domain.client.impl.DomainClientProtocol;
+
+/**
+ * A task that rolls other tasks out in windows.  The tasks in a window run concurrently, and the next window starts
+ * once the whole window is complete and the pause between windows has passed.  The update policy is checked after
+ * each window; once it has failed the remaining tasks are run without pausing, which just cancels them.  The timing
+ * of every window is sent to the client.
+ *
+ * @author Brian Stansberry
+ */
+class WindowedUpdateTask implements Runnable {
+
+    private final String serverGroupName;
+    private final List<ServerIdentity> servers;
+    private final List<Runnable> tasks;
+    private final ServerUpdatePolicy updatePolicy;
+    private final int windowSize;
+    private final long windowPause;
+    private final ExecutorService executorService;
+    private final BlockingQueue<List<StreamedResponse>> responseQueue;
+
+    /**
+     * Construct a new instance.
+     *
+     * @param serverGroupName the server group being updated
+     * @param servers the servers, in the same order as their tasks
+     * @param tasks the task updating each server
+     * @param updatePolicy the update policy of the server group
+     * @param windowSize the number of tasks to run at the same time
+     * @param windowPause the time to wait between windows, in milliseconds
+     * @param executorService the executor to run the tasks of a window on
+     * @param responseQueue the queue to send window results to
+     */
+    WindowedUpdateTask(final String serverGroupName, final List<ServerIdentity> servers, final List<Runnable> tasks,
+            final ServerUpdatePolicy updatePolicy, final int windowSize, final long windowPause,
+            final ExecutorService executorService, final BlockingQueue<List<StreamedResponse>> responseQueue) {
+        assert servers.size() == tasks.size() : "servers and tasks do not match";
+        this.serverGroupName = serverGroupName;
+        this.servers = servers;
+        this.tasks = tasks;
+        this.updatePolicy = updatePolicy;
+        this.windowSize = Math.max(1, windowSize);
+        this.windowPause = windowPause;
+        this.executorService = executorService;
+        this.responseQueue = responseQueue;
+    }
+
+    @Override
+    public void run() {
+        final int count = tasks.size();
+        for (int start = 0, window = 0; start < count; start += windowSize, window++) {
+            final int end = Math.min(count, start + windowSize);
+            boolean cancelled = updatePolicy.isFailed();
+            if (start > 0 && windowPause > 0 && !cancelled) {
+                try {
+                    Thread.sleep(windowPause);
+                } catch (InterruptedException e) {
+                    DomainDeploymentHandler.logger.errorf("%s interrupted pausing before window %d; returning", toString(), Integer.valueOf(window));
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                cancelled = updatePolicy.isFailed();
+            }
+
+            final List<Runnable> windowTasks = tasks.subList(start, end);
+            final int failuresBefore = updatePolicy.getFailureCount();
+            final long begin = System.nanoTime();
+            if (windowTasks.size() == 1 || cancelled) {
+                for (Runnable r : windowTasks) {
+                    r.run();
+                }
+            } else {
+                new ConcurrentUpdateTask(windowTasks, executorService).run();
+            }
+            final long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin);
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+
+            final List<String> serverNames = new ArrayList<String>(end - start);
+            for (ServerIdentity server : servers.subList(start, end)) {
+                serverNames.add(server.getServerName());
+            }
+            final int failures = updatePolicy.getFailureCount() - failuresBefore;
+            final RollingWindowResult result = new RollingWindowResult(serverGroupName, window, serverNames, failures, elapsed, cancelled);
+            DomainDeploymentHandler.logger.debugf("Completed %s", result);
+            try {
+                responseQueue.put(Collections.singletonList(new StreamedResponse((byte) DomainClientProtocol.RETURN_ROLLING_WINDOW_RESULT, result)));
+            } catch (InterruptedException e) {
+                DomainDeploymentHandler.logger.errorf("%s interrupted sending the result of window %d; returning", toString(), Integer.valueOf(window));
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("WindowedUpdateTask{serverGroup=");
+        sb.append(serverGroupName);
+        sb.append(", windowSize=");
+        sb.append(windowSize);
+        sb.append(", tasks={");
+        for (int i = 0; i < tasks.size(); i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(tasks.get(i).toString());
+        }
+        sb.append("}}");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.domain.controller.mgmt;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.as.domain.controller.FileRepository;
+import org.jboss.as.model.DeploymentUnitElement;
+import org.jboss.as.protocol.ByteDataInput;
+import org.jboss.as.protocol.ByteDataOutput;
+import org.jboss.as.protocol.SimpleByteDataInput;
+import org.jboss.as.protocol.SimpleByteDataOutput;
+import org.jboss.as.protocol.mgmt.ManagementRequest;
+import org.jboss.as.protocol.mgmt.ManagementRequestConnectionStrategy;
+import org.jboss.logging.Logger;
+
+import static org.jboss.as.protocol.ProtocolUtils.expectHeader;
+import static org.jboss.as.protocol.StreamUtils.safeClose;
+
+/**
+ * Pulls the content of a deployment from a {@link DeploymentContentOperationHandler} into a local repository.  The
+ * content is streamed into a temporary file while its SHA-1 is computed, and only moved into place once the hash
+ * matches the one the content was requested by.  Content which is already present locally is not transferred again.
+ *
+ * @author John Bailey
+ */
+public class DeploymentContentFetcher {
+    private static final Logger log = Logger.getLogger("org.jboss.as.management");
+
+    static final String CONTENT = "content";
+
+    private final FileRepository localFileRepository;
+    private final long connectTimeout;
+    private final long transferTimeout;
+    private final ExecutorService executorService;
+    private final ThreadFactory threadFactory;
+
+    /**
+     * Create a new instance.
+     *
+     * @param localFileRepository the repository to store the content in
+     * @param connectTimeout the timeout for connecting to the source (in seconds)
+     * @param transferTimeout the maximum time a single transfer may take (in seconds)
+     * @param executorService the executor service
+     * @param threadFactory the thread factory
+     */
+    public DeploymentContentFetcher(final FileRepository localFileRepository, final long connectTimeout, final long transferTimeout, final ExecutorService executorService, final ThreadFactory threadFactory) {
+        this.localFileRepository = localFileRepository;
+        this.connectTimeout = connectTimeout;
+        this.transferTimeout = transferTimeout;
+        this.executorService = executorService;
+        this.threadFactory = threadFactory;
+    }
+
+    /**
+     * Determine whether the content of a deployment is present in the local repository.
+     *
+     * @param hash the SHA-1 of the content
+     * @return {@code true} if the content is present
+     */
+    public boolean isAvailable(final byte[] hash) {
+        return new File(localFileRepository.getDeploymentRoot(hash), CONTENT).isFile();
+    }
+
+    /**
+     * Fetch the content of a deployment, unless it is present in the local repository already.
+     *
+     * @param hash the SHA-1 of the content
+     * @param address the address of the host to fetch the content from
+     * @param port the management port of the host to fetch the content from
+     * @return {@code true} if the verified content is present in the local repository afterwards
+     */
+    public boolean fetch(final byte[] hash, final InetAddress address, final int port) {
+        if (isAvailable(hash)) {
+            return true;
+        }
+        final ManagementRequestConnectionStrategy connectionStrategy = new ManagementRequestConnectionStrategy.EstablishConnectingStrategy(address, port, connectTimeout, executorService, threadFactory);
+        try {
+            return new GetDeploymentContentRequest(hash).execute(connectionStrategy).get(transferTimeout, TimeUnit.SECONDS).booleanValue();
+        } catch (Exception e) {
+            log.warnf(e, "Failed to fetch deployment content [%s] from %s:%d", DeploymentUnitElement.bytesToHexString(hash), address, Integer.valueOf(port));
+            return false;
+        }
+    }
+
+    private class GetDeploymentContentRequest extends ManagementRequest<Boolean> {
+        private final byte[] hash;
+
+        private GetDeploymentContentRequest(final byte[] hash) {
+            this.hash = hash;
+        }
+
+        @Override
+        protected final byte getHandlerId() {
+            return DeploymentContentProtocol.DEPLOYMENT_CONTENT_REQUEST;
+        }
+
+        @Override
+        protected final byte getRequestCode() {
+            return DeploymentContentProtocol.GET_DEPLOYMENT_CONTENT_REQUEST;
+        }
+
+        @Override
+        protected final byte getResponseCode() {
+            return DeploymentContentProtocol.GET_DEPLOYMENT_CONTENT_RESPONSE;
+        }
+
+        @Override
+        protected final void sendRequest(final int protocolVersion, final OutputStream outputStream) throws IOException {
+            ByteDataOutput output = null;
+            try {
+                output = new SimpleByteDataOutput(outputStream);
+                output.writeByte(DeploymentContentProtocol.PARAM_DEPLOYMENT_HASH);
+                output.writeInt(hash.length);
+                output.write(hash);
+                output.close();
+            } finally {
+                safeClose(output);
+            }
+        }
+
+        @Override
+        protected final Boolean receiveResponse(final InputStream inputStream) throws IOException {
+            final String hex = DeploymentUnitElement.bytesToHexString(hash);
+            ByteDataInput input = null;
+            File tmp = null;
+            try {
+                input = new SimpleByteDataInput(inputStream);
+                expectHeader(input, DeploymentContentProtocol.PARAM_CONTENT_SIZE);
+                final long length = input.readLong();
+                if (length < 0L) {
+                    log.debugf("Deployment content [%s] is not available from the source", hex);
+                    return Boolean.FALSE;
+                }
+                final File root = localFileRepository.getDeploymentRoot(hash);
+                if (!root.isDirectory() && !root.mkdirs()) {
+                    throw new IOException("Unable to create local directory " + root);
+                }
+                tmp = File.createTempFile(CONTENT, "tmp", root);
+                final MessageDigest messageDigest = getMessageDigest();
+                final OutputStream fileOut = new DigestOutputStream(new BufferedOutputStream(new FileOutputStream(tmp), 65536), messageDigest);
+                long totalRead = 0L;
+                try {
+                    final byte[] buffer = new byte[65536];
+                    int read;
+                    while (totalRead < length && (read = input.read(buffer, 0, (int) Math.min(length - totalRead, (long) buffer.length))) != -1) {
+                        fileOut.write(buffer, 0, read);
+                        totalRead += read;
+                    }
+                    fileOut.close();
+                } finally {
+                    safeClose(fileOut);
+                }
+                if (totalRead != length) {
+                    throw new IOException("Did not read the entire content. Missing: " + (length - totalRead));
+                }
+                if (!Arrays.equals(hash, messageDigest.digest())) {
+                    log.warnf("Discarding deployment content [%s]; the received content does not match its hash", hex);
+                    return Boolean.FALSE;
+                }
+                final File content = new File(root, CONTENT);
+                if (!tmp.renameTo(content) && !content.isFile()) {
+                    throw new IOException("Cannot move " + tmp.getAbsolutePath() + " to " + content.getAbsolutePath());
+                }
+                log.debugf("Received deployment content [%s] of length %d", hex, Long.valueOf(length));
+                return Boolean.TRUE;
+            } finally {
+                safeClose(input);
+                if (tmp != null && tmp.exists() && !tmp.delete()) {
+                    tmp.deleteOnExit();
+                }
+            }
+        }
+    }
+
+    private static MessageDigest getMessageDigest() throws IOException {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("Cannot obtain SHA-1 " + MessageDigest.class.getSimpleName(), e);
+        }
+    }
+}
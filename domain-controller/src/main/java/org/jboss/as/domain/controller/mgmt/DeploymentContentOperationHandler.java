@@ -0,0 +1,146 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.domain.controller.mgmt;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.jboss.as.domain.controller.FileRepository;
+import org.jboss.as.model.DeploymentUnitElement;
+import org.jboss.as.protocol.ByteDataInput;
+import org.jboss.as.protocol.ByteDataOutput;
+import org.jboss.as.protocol.Connection;
+import org.jboss.as.protocol.SimpleByteDataInput;
+import org.jboss.as.protocol.SimpleByteDataOutput;
+import org.jboss.as.protocol.StreamUtils;
+import org.jboss.as.protocol.mgmt.AbstractMessageHandler;
+import org.jboss.as.protocol.mgmt.ManagementOperationHandler;
+import org.jboss.as.protocol.mgmt.ManagementProtocol;
+import org.jboss.as.protocol.mgmt.ManagementResponse;
+import org.jboss.logging.Logger;
+
+import static org.jboss.as.protocol.ProtocolUtils.expectHeader;
+import static org.jboss.as.protocol.StreamUtils.safeClose;
+
+/**
+ * {@link org.jboss.as.protocol.mgmt.ManagementOperationHandler} implementation which streams the content of a
+ * deployment out of a local repository.  It is installed on the domain controller as well as on every server
+ * manager, so a host which already holds the content can relay it to its peers.
+ *
+ * @author John Bailey
+ */
+public class DeploymentContentOperationHandler extends AbstractMessageHandler implements ManagementOperationHandler {
+    private static final Logger log = Logger.getLogger("org.jboss.as.management");
+
+    private final FileRepository localFileRepository;
+
+    /**
+     * Create a new instance.
+     *
+     * @param localFileRepository the repository holding the content to serve
+     */
+    public DeploymentContentOperationHandler(final FileRepository localFileRepository) {
+        this.localFileRepository = localFileRepository;
+    }
+
+    /** {@inheritDoc} */
+    public final byte getIdentifier() {
+        return DeploymentContentProtocol.DEPLOYMENT_CONTENT_REQUEST;
+    }
+
+    /**
+     * Handles the request.  Reads the requested command byte. Once the command is available it will get the
+     * appropriate operation and execute it.
+     *
+     * @param connection  The connection
+     * @param input The connection input
+     * @throws IOException If any problems occur performing the operation
+     */
+    @Override
+    public void handle(final Connection connection, final InputStream input) throws IOException {
+        expectHeader(input, ManagementProtocol.REQUEST_OPERATION);
+        final byte commandCode = StreamUtils.readByte(input);
+        if (commandCode != DeploymentContentProtocol.GET_DEPLOYMENT_CONTENT_REQUEST) {
+            throw new IOException("Invalid command code " + commandCode + " received");
+        }
+        new GetDeploymentContentOperation().handle(connection, input);
+    }
+
+    private class GetDeploymentContentOperation extends ManagementResponse {
+        private File content;
+
+        @Override
+        protected final byte getResponseCode() {
+            return DeploymentContentProtocol.GET_DEPLOYMENT_CONTENT_RESPONSE;
+        }
+
+        @Override
+        protected final void readRequest(final InputStream inputStream) throws IOException {
+            ByteDataInput input = null;
+            try {
+                input = new SimpleByteDataInput(inputStream);
+                expectHeader(input, DeploymentContentProtocol.PARAM_DEPLOYMENT_HASH);
+                final byte[] hash = new byte[input.readInt()];
+                input.readFully(hash);
+                content = new File(localFileRepository.getDeploymentRoot(hash), DeploymentContentFetcher.CONTENT);
+                log.debugf("Requested deployment content [%s]", DeploymentUnitElement.bytesToHexString(hash));
+            } finally {
+                safeClose(input);
+            }
+        }
+
+        @Override
+        protected final void sendResponse(final OutputStream outputStream) throws IOException {
+            ByteDataOutput output = null;
+            InputStream fileIn = null;
+            try {
+                output = new SimpleByteDataOutput(outputStream);
+                output.writeByte(DeploymentContentProtocol.PARAM_CONTENT_SIZE);
+                if (!content.isFile()) {
+                    output.writeLong(-1L);
+                } else {
+                    final long length = content.length();
+                    output.writeLong(length);
+                    fileIn = new FileInputStream(content);
+                    final byte[] buffer = new byte[65536];
+                    long remaining = length;
+                    int read;
+                    while (remaining > 0L && (read = fileIn.read(buffer, 0, (int) Math.min(remaining, (long) buffer.length))) != -1) {
+                        output.write(buffer, 0, read);
+                        remaining -= read;
+                    }
+                    if (remaining != 0L) {
+                        throw new IOException("Deployment content " + content + " changed while it was being sent");
+                    }
+                }
+                output.close();
+            } finally {
+                safeClose(fileIn);
+                safeClose(output);
+            }
+        }
+    }
+}
@@ -152,6 +152,8 @@ public class  DomainControllerClientOperationHandler extends AbstractMessageHand
         switch (commandByte) {
             case DomainClientProtocol.GET_DOMAIN_REQUEST:
                 return new GetDomainOperation();
+            case DomainClientProtocol.GET_DOMAIN_UPDATES_REQUEST:
+                return new GetDomainUpdatesOperation();
             case DomainClientProtocol.APPLY_UPDATES_REQUEST:
                 return new ApplyDomainModelUpdatesOperation();
             case DomainClientProtocol.APPLY_UPDATE_REQUEST:
@@ -196,11 +198,56 @@ public class  DomainControllerClientOperationHandler extends AbstractMessageHand
                 final Marshaller marshaller = getMarshaller();
                 marshaller.start(createByteOutput(outputStream));
                 marshaller.writeByte(DomainClientProtocol.PARAM_DOMAIN_MODEL);
-                marshaller.writeObject(domainController.getDomainModel());
+                synchronized (domainController) {
+                    marshaller.writeObject(domainController.getDomainModel());
+                }
                 marshaller.finish();
         }
     }
 
+    private class GetDomainUpdatesOperation extends ManagementResponse {
+
+        private long epoch;
+        private long revision;
+
+        @Override
+        protected final byte getResponseCode() {
+            return DomainClientProtocol.GET_DOMAIN_UPDATES_RESPONSE;
+        }
+
+        @Override
+        protected final void readRequest(final InputStream inputStream) throws IOException {
+            final Unmarshaller unmarshaller = getUnmarshaller();
+            unmarshaller.start(createByteInput(inputStream));
+            expectHeader(unmarshaller, DomainClientProtocol.PARAM_DOMAIN_MODEL_REVISION);
+            epoch = unmarshaller.readLong();
+            revision = unmarshaller.readLong();
+            unmarshaller.finish();
+        }
+
+        @Override
+        protected void sendResponse(final OutputStream outputStream) throws IOException {
+            final Marshaller marshaller = getMarshaller();
+            marshaller.start(createByteOutput(outputStream));
+            // keep the revision from moving on until the model or the updates are written
+            synchronized (domainController) {
+                final List<AbstractDomainModelUpdate<?>> updates = domainController.getDomainModelUpdates(epoch, revision);
+                if (updates == null) {
+                    marshaller.writeByte(DomainClientProtocol.PARAM_DOMAIN_MODEL);
+                    marshaller.writeObject(domainController.getDomainModel());
+                } else {
+                    marshaller.writeByte(DomainClientProtocol.RETURN_DOMAIN_MODEL_UPDATE_COUNT);
+                    marshaller.writeInt(updates.size());
+                    for (AbstractDomainModelUpdate<?> update : updates) {
+                        marshaller.writeByte(DomainClientProtocol.PARAM_DOMAIN_MODEL_UPDATE);
+                        marshaller.writeObject(update);
+                    }
+                }
+            }
+            marshaller.finish();
+        }
+    }
+
     private class GetServerManagerNamesOperation extends ManagementResponse {
 
         @Override
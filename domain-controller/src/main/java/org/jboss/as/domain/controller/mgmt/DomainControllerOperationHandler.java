@@ -30,12 +30,17 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.InetAddress;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
+import org.jboss.as.domain.client.api.ServerIdentity;
+import org.jboss.as.domain.client.api.ServerStatus;
 import org.jboss.as.domain.controller.DomainController;
 import org.jboss.as.domain.controller.FileRepository;
 import org.jboss.as.domain.controller.ServerManagerClient;
+import org.jboss.as.model.AbstractDomainModelUpdate;
 import org.jboss.as.model.DeploymentUnitElement;
 import org.jboss.as.protocol.ProtocolUtils;
 import org.jboss.as.protocol.mgmt.AbstractMessageHandler;
@@ -52,8 +57,11 @@ import static org.jboss.as.protocol.StreamUtils.readUTFZBytes;
 import static org.jboss.as.protocol.StreamUtils.safeClose;
 
 import static org.jboss.as.protocol.ProtocolUtils.expectHeader;
+import static org.jboss.as.protocol.ProtocolUtils.unmarshal;
 import org.jboss.logging.Logger;
 import org.jboss.marshalling.Marshaller;
+import org.jboss.marshalling.Unmarshaller;
+import static org.jboss.marshalling.Marshalling.createByteInput;
 import static org.jboss.marshalling.Marshalling.createByteOutput;
 import org.jboss.msc.inject.Injector;
 import org.jboss.msc.service.Service;
@@ -159,6 +167,8 @@ public class  DomainControllerOperationHandler extends AbstractMessageHandler im
                 return new GetFileOperation();
             case DomainControllerProtocol.UNREGISTER_REQUEST:
                 return new UnregisterOperation();
+            case DomainControllerProtocol.SERVER_STATUS_CHANGE_REQUEST:
+                return new ServerStatusChangeOperation();
             default: {
                 return null;
             }
@@ -179,6 +189,10 @@ public class  DomainControllerOperationHandler extends AbstractMessageHandler im
     }
 
     private class RegisterOperation extends DomainControllerOperation {
+        private String serverManagerId;
+        private long epoch;
+        private long revision;
+
         @Override
         protected final byte getResponseCode() {
             return DomainControllerProtocol.REGISTER_RESPONSE;
@@ -195,9 +209,13 @@ public class  DomainControllerOperationHandler extends AbstractMessageHandler im
                 input.readFully(addressBytes);
                 expectHeader(input, DomainControllerProtocol.PARAM_SERVER_MANAGER_PORT);
                 final int port = input.readInt();
+                expectHeader(input, DomainControllerProtocol.PARAM_DOMAIN_MODEL_REVISION);
+                epoch = input.readLong();
+                revision = input.readLong();
                 final InetAddress address = InetAddress.getByAddress(addressBytes);
                 final ServerManagerClient client = new RemoteDomainControllerClient(serverManagerId, address, port, executorService, threadFactory);
                 domainController.addClient(client);
+                this.serverManagerId = serverManagerId;
                 log.infof("Server manager registered [%s]", client);
             } finally {
                 safeClose(input);
@@ -208,8 +226,22 @@ public class  DomainControllerOperationHandler extends AbstractMessageHandler im
         protected final void sendResponse(final OutputStream output) throws IOException {
             final Marshaller marshaller = getMarshaller();
             marshaller.start(createByteOutput(output));
-            marshaller.writeByte(DomainControllerProtocol.PARAM_DOMAIN_MODEL);
-            marshaller.writeObject(domainController.getDomainModel());
+            // keep the revision from moving on until the model or the updates are written
+            synchronized (domainController) {
+                final List<AbstractDomainModelUpdate<?>> updates = domainController.getDomainModelUpdates(serverManagerId, epoch, revision);
+                if (updates == null) {
+                    marshaller.writeByte(DomainControllerProtocol.PARAM_DOMAIN_MODEL);
+                    marshaller.writeObject(domainController.getDomainModel());
+                } else {
+                    log.debugf("Sending %d domain model updates to server manager [%s]", Integer.valueOf(updates.size()), serverManagerId);
+                    marshaller.writeByte(DomainControllerProtocol.PARAM_DOMAIN_MODEL_UPDATE_COUNT);
+                    marshaller.writeInt(updates.size());
+                    for (AbstractDomainModelUpdate<?> update : updates) {
+                        marshaller.writeByte(DomainControllerProtocol.PARAM_DOMAIN_MODEL_UPDATE);
+                        marshaller.writeObject(update);
+                    }
+                }
+            }
             marshaller.finish();
         }
     }
@@ -227,6 +259,33 @@ public class  DomainControllerOperationHandler extends AbstractMessageHandler im
         }
     }
 
+    private class ServerStatusChangeOperation extends DomainControllerOperation {
+        @Override
+        protected final byte getResponseCode() {
+            return DomainControllerProtocol.SERVER_STATUS_CHANGE_RESPONSE;
+        }
+
+        @Override
+        protected final void readRequest(final String serverManagerId, final InputStream input) throws IOException {
+            final Unmarshaller unmarshaller = getUnmarshaller();
+            unmarshaller.start(createByteInput(input));
+            expectHeader(unmarshaller, DomainControllerProtocol.PARAM_SERVER_STATUS_COUNT);
+            final int count = unmarshaller.readInt();
+            final Map<ServerIdentity, ServerStatus> statuses = new HashMap<ServerIdentity, ServerStatus>();
+            for (int i = 0; i < count; i++) {
+                expectHeader(unmarshaller, DomainControllerProtocol.PARAM_SERVER_GROUP_NAME);
+                final String serverGroupName = unmarshaller.readUTF();
+                expectHeader(unmarshaller, DomainControllerProtocol.PARAM_SERVER_NAME);
+                final String serverName = unmarshaller.readUTF();
+                expectHeader(unmarshaller, DomainControllerProtocol.PARAM_SERVER_STATUS);
+                final ServerStatus status = unmarshal(unmarshaller, ServerStatus.class);
+                statuses.put(new ServerIdentity(serverManagerId, serverGroupName, serverName), status);
+            }
+            unmarshaller.finish();
+            domainController.serverStatusesChanged(serverManagerId, statuses);
+        }
+    }
+
     private class GetFileOperation extends DomainControllerOperation {
         private File localPath;
 
@@ -344,4 +403,8 @@ public class  DomainControllerOperationHandler extends AbstractMessageHandler im
     private static Marshaller getMarshaller() throws IOException {
         return ProtocolUtils.getMarshaller(ProtocolUtils.MODULAR_CONFIG);
     }
+
+    private static Unmarshaller getUnmarshaller() throws IOException {
+        return ProtocolUtils.getUnmarshaller(ProtocolUtils.MODULAR_CONFIG);
+    }
 }
@@ -44,4 +44,13 @@ public interface DomainControllerProtocol {
     int FILE_START = 0x22;
     int FILE_END = 0x23;
     int SYNC_FILE_RESPONSE = 0x24;
+    int PARAM_DOMAIN_MODEL_REVISION = 0x25;
+    int PARAM_DOMAIN_MODEL_UPDATE_COUNT = 0x26;
+    int PARAM_DOMAIN_MODEL_UPDATE = 0x27;
+    int SERVER_STATUS_CHANGE_REQUEST = 0x28;
+    int PARAM_SERVER_STATUS_COUNT = 0x29;
+    int PARAM_SERVER_GROUP_NAME = 0x30;
+    int PARAM_SERVER_NAME = 0x31;
+    int PARAM_SERVER_STATUS = 0x32;
+    int SERVER_STATUS_CHANGE_RESPONSE = 0x33;
 }
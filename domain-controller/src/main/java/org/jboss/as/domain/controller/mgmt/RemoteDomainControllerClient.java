@@ -26,6 +26,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -184,6 +185,21 @@ public class RemoteDomainControllerClient implements ServerManagerClient {
         }
     }
 
+    @Override
+    public InetSocketAddress getManagementAddress() {
+        return new InetSocketAddress(address, port);
+    }
+
+    @Override
+    public boolean fetchDeploymentContent(final byte[] hash, final InetSocketAddress source) {
+        try {
+            return new FetchDeploymentContentRequest(hash, source).executeForResult(getConnectionStrategy());
+        }
+        catch (Exception e) {
+            return false;
+        }
+    }
+
     @Override
     public String toString() {
         return "RemoteDomainControllerClient{" +
@@ -579,6 +595,55 @@ public class RemoteDomainControllerClient implements ServerManagerClient {
         }
     }
 
+    private class FetchDeploymentContentRequest extends ServerManagerRequest<Boolean> {
+        private final byte[] hash;
+        private final InetSocketAddress source;
+
+        private FetchDeploymentContentRequest(final byte[] hash, final InetSocketAddress source) {
+            this.hash = hash;
+            this.source = source;
+        }
+
+        @Override
+        public final byte getRequestCode() {
+            return ServerManagerProtocol.FETCH_DEPLOYMENT_CONTENT_REQUEST;
+        }
+
+        @Override
+        protected final byte getResponseCode() {
+            return ServerManagerProtocol.FETCH_DEPLOYMENT_CONTENT_RESPONSE;
+        }
+
+        @Override
+        protected void sendRequest(final int protocolVersion, final OutputStream output) throws IOException {
+            final Marshaller marshaller = getMarshaller();
+            marshaller.start(createByteOutput(output));
+            marshaller.writeByte(ServerManagerProtocol.PARAM_DEPLOYMENT_HASH);
+            marshaller.writeInt(hash.length);
+            marshaller.write(hash);
+            marshaller.writeByte(ServerManagerProtocol.PARAM_SOURCE_ADDRESS);
+            marshaller.writeBoolean(source != null);
+            if (source != null) {
+                final byte[] sourceAddress = source.getAddress().getAddress();
+                marshaller.writeInt(sourceAddress.length);
+                marshaller.write(sourceAddress);
+                marshaller.writeByte(ServerManagerProtocol.PARAM_SOURCE_PORT);
+                marshaller.writeInt(source.getPort());
+            }
+            marshaller.finish();
+        }
+
+        @Override
+        protected Boolean receiveResponse(final InputStream input) throws IOException {
+            final Unmarshaller unmarshaller = getUnmarshaller();
+            unmarshaller.start(createByteInput(input));
+            ProtocolUtils.expectHeader(unmarshaller, ServerManagerProtocol.RETURN_CONTENT_AVAILABLE);
+            final boolean available = unmarshaller.readBoolean();
+            unmarshaller.finish();
+            return Boolean.valueOf(available);
+        }
+    }
+
     private static Marshaller getMarshaller() throws IOException {
         return ProtocolUtils.getMarshaller(ProtocolUtils.MODULAR_CONFIG);
     }
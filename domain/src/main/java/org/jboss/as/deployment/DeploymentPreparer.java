@@ -0,0 +1,434 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.deployment;
+
+import static org.jboss.as.deployment.attachment.DeploymentHashAttachment.attachDeploymentHash;
+import static org.jboss.as.deployment.attachment.VirtualFileAttachment.attachVirtualFile;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.jar.Manifest;
+
+import org.jboss.as.deployment.attachment.ManifestAttachment;
+import org.jboss.as.deployment.chain.DeploymentChain;
+import org.jboss.as.deployment.chain.DeploymentChainProvider;
+import org.jboss.as.deployment.module.MountHandle;
+import org.jboss.as.deployment.module.NestedMounts;
+import org.jboss.as.deployment.processor.AnnotationIndexCache;
+import org.jboss.as.deployment.unit.DeploymentMetrics;
+import org.jboss.as.deployment.unit.DeploymentUnitContextImpl;
+import org.jboss.as.deployment.unit.DeploymentUnitMetrics;
+import org.jboss.logging.Logger;
+import org.jboss.msc.inject.Injector;
+import org.jboss.msc.service.Service;
+import org.jboss.msc.service.ServiceName;
+import org.jboss.msc.service.StartContext;
+import org.jboss.msc.service.StartException;
+import org.jboss.msc.service.StopContext;
+import org.jboss.msc.value.InjectedValue;
+import org.jboss.vfs.VFS;
+import org.jboss.vfs.VFSUtils;
+import org.jboss.vfs.VirtualFile;
+
+/**
+ * Service which prepares the deployments of a booting server while the rest of the boot is still in progress.  Once
+ * the deployment repository and the deployment chains are up, each deployment is mounted and run through the
+ * processors of its chain which come before {@link DeploymentPhases#MODULE_DEPENDENCIES}, that is the structure,
+ * validate and parse phases, which do not depend on runtime services.  The deployment is completed from that point
+ * when it is installed.
+ * <p>
+ * The preparation is speculative: the processors run without a batch, and if one of them fails, or if the chain of a
+ * deployment has changed by the time it is installed, the preparation is discarded and the deployment is processed
+ * from scratch.  Processors in these phases must therefore leave anything they need the batch for, such as service
+ * listeners, until the deployment is installed.
+ *
+ * @author John E. Bailey
+ */
+public final class DeploymentPreparer implements Service<DeploymentPreparer> {
+    private static final Logger log = Logger.getLogger("org.jboss.as.deployment");
+
+    public static final ServiceName SERVICE_NAME = ServiceName.JBOSS.append("deployment", "preparer");
+
+    /**
+     * The priority of the first deployment processor which is not run during preparation.
+     */
+    public static final long PRIORITY_LIMIT = DeploymentPhases.MODULE_DEPENDENCIES.priority();
+
+    private static final String MOUNT_PHASE = "mount";
+
+    private final InjectedValue<ServerDeploymentRepository> deploymentRepository = new InjectedValue<ServerDeploymentRepository>();
+    private final InjectedValue<AnnotationIndexCache> annotationIndexCache = new InjectedValue<AnnotationIndexCache>();
+    private final InjectedValue<DeploymentMetrics> deploymentMetrics = new InjectedValue<DeploymentMetrics>();
+    private final AtomicInteger preparedCount = new AtomicInteger();
+    private final AtomicLong timeSaved = new AtomicLong();
+
+    // protected by {@code this}
+    private final Map<String, Entry> entries = new HashMap<String, Entry>();
+    // protected by {@code this}
+    private ExecutorService executor;
+
+    /**
+     * Add a deployment to prepare.  Deployments must be added before the service starts.
+     *
+     * @param deploymentName the unique name of the deployment
+     * @param runtimeName the runtime name of the deployment
+     * @param deploymentHash the hash of the deployment content
+     */
+    public synchronized void addDeployment(final String deploymentName, final String runtimeName, final byte[] deploymentHash) {
+        if (executor != null) {
+            throw new IllegalStateException("Deployment preparation already started");
+        }
+        entries.put(deploymentName, new Entry(deploymentName, runtimeName, deploymentHash));
+    }
+
+    /**
+     * Take the prepared deployment of the given name, waiting for its preparation to finish.  The caller owns the
+     * prepared deployment afterwards, and must close it if it is not installed.
+     *
+     * @param deploymentName the unique name of the deployment
+     * @param deploymentHash the hash of the deployment content
+     * @return the prepared deployment, or {@code null} if the deployment has to be processed from scratch
+     */
+    public PreparedDeployment takeDeployment(final String deploymentName, final byte[] deploymentHash) {
+        final Entry entry;
+        synchronized (this) {
+            // nothing is prepared unless the service started
+            entry = executor == null ? null : entries.remove(deploymentName);
+        }
+        if (entry == null) {
+            return null;
+        }
+        if (!Arrays.equals(entry.deploymentHash, deploymentHash)) {
+            entry.discard();
+            return null;
+        }
+        final long start = System.nanoTime();
+        final PreparedDeployment prepared = entry.await();
+        final long waited = System.nanoTime() - start;
+        if (prepared == null) {
+            return null;
+        }
+        final DeploymentChain deploymentChain = prepared.getDeploymentChain();
+        if (DeploymentChainProvider.INSTANCE.determineDeploymentChain(prepared.getContext()) != deploymentChain || !deploymentChain.isResumable(prepared.getContext())) {
+            log.debugf("Discarding the preparation of deployment %s, as its deployment chain has changed", deploymentName);
+            prepared.close();
+            return null;
+        }
+        // only the preparation which is used counts towards the annotation index cache statistics
+        final AnnotationIndexCache annotationIndexCache = this.annotationIndexCache.getOptionalValue();
+        final AnnotationIndexCache detached = prepared.getContext().getAttachment(AnnotationIndexCache.ATTACHMENT_KEY);
+        if (annotationIndexCache != null && detached != null) {
+            annotationIndexCache.addStatistics(detached);
+            prepared.getContext().putAttachment(AnnotationIndexCache.ATTACHMENT_KEY, annotationIndexCache);
+        }
+        final long saved = prepared.getPreparationTime() - waited;
+        if (saved > 0L) {
+            timeSaved.addAndGet(saved);
+        }
+        preparedCount.incrementAndGet();
+        return prepared;
+    }
+
+    /**
+     * Get the number of deployments taken prepared.
+     *
+     * @return the number of deployments
+     */
+    public int getPreparedCount() {
+        return preparedCount.get();
+    }
+
+    /**
+     * Get the preparation time which did not have to be waited for when the prepared deployments were taken.
+     *
+     * @return the time saved, in milliseconds
+     */
+    public long getTimeSaved() {
+        return TimeUnit.NANOSECONDS.toMillis(timeSaved.get());
+    }
+
+    public synchronized void start(final StartContext context) throws StartException {
+        if (entries.isEmpty()) {
+            return;
+        }
+        final int threads = Math.min(entries.size(), Runtime.getRuntime().availableProcessors());
+        executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            public Thread newThread(final Runnable r) {
+                final Thread thread = new Thread(r, "Deployment Preparer " + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        for (Entry entry : entries.values()) {
+            executor.execute(entry);
+        }
+        executor.shutdown();
+    }
+
+    public void stop(final StopContext context) {
+        final List<Entry> remaining;
+        final List<Runnable> dropped;
+        synchronized (this) {
+            dropped = executor == null ? Collections.<Runnable>emptyList() : executor.shutdownNow();
+            remaining = new ArrayList<Entry>(entries.values());
+            entries.clear();
+        }
+        // a deployment may be waited for although its preparation never ran
+        for (Runnable entry : dropped) {
+            ((Entry) entry).abandon();
+        }
+        for (Entry entry : remaining) {
+            entry.discard();
+        }
+    }
+
+    public DeploymentPreparer getValue() throws IllegalStateException {
+        return this;
+    }
+
+    public Injector<ServerDeploymentRepository> getDeploymentRepositoryInjector() {
+        return deploymentRepository;
+    }
+
+    public Injector<AnnotationIndexCache> getAnnotationIndexCacheInjector() {
+        return annotationIndexCache;
+    }
+
+    public Injector<DeploymentMetrics> getDeploymentMetricsInjector() {
+        return deploymentMetrics;
+    }
+
+    private PreparedDeployment prepare(final Entry entry) throws Exception {
+        final long start = System.nanoTime();
+        final DeploymentMetrics deploymentMetrics = this.deploymentMetrics.getOptionalValue();
+        final DeploymentUnitMetrics metrics = deploymentMetrics == null ? null : deploymentMetrics.createMetrics(entry.deploymentName);
+        final VirtualFile deploymentRoot = VFS.getChild("deployments/" + entry.runtimeName);
+
+        final Closeable handle;
+        final DeploymentUnitMetrics.Sample mountSample = metrics == null ? null : metrics.begin(MOUNT_PHASE);
+        try {
+            handle = deploymentRepository.getValue().mountDeploymentContent(entry.deploymentName, entry.runtimeName, entry.deploymentHash, deploymentRoot);
+        } finally {
+            if (mountSample != null)
+                mountSample.end();
+        }
+
+        // No batch exists yet; it is provided when the deployment is installed
+        final DeploymentUnitContextImpl context = new DeploymentUnitContextImpl(DeploymentService.getServiceName(entry.deploymentName).getSimpleName(), null, null);
+        final PreparedDeployment prepared = new PreparedDeployment(handle, deploymentRoot, context);
+        try {
+            attachVirtualFile(context, deploymentRoot);
+            context.putAttachment(MountHandle.ATTACHMENT_KEY, new MountHandle(handle));
+            attachDeploymentHash(context, entry.deploymentHash);
+            // the cache statistics of a preparation are only kept if it is used
+            final AnnotationIndexCache annotationIndexCache = this.annotationIndexCache.getOptionalValue();
+            if (annotationIndexCache != null)
+                context.putAttachment(AnnotationIndexCache.ATTACHMENT_KEY, annotationIndexCache.createDetached());
+            if (metrics != null)
+                context.putAttachment(DeploymentUnitMetrics.ATTACHMENT_KEY, metrics);
+            final Manifest manifest = VFSUtils.getManifest(deploymentRoot);
+            if (manifest != null)
+                ManifestAttachment.attachManifest(context, manifest);
+
+            final DeploymentChain deploymentChain = DeploymentChainProvider.INSTANCE.determineDeploymentChain(context);
+            if (deploymentChain == null)
+                throw new IllegalStateException("Failed determine the deployment chain for deployment root: " + deploymentRoot);
+            deploymentChain.processDeployment(context, PRIORITY_LIMIT);
+            prepared.deploymentChain = deploymentChain;
+            prepared.preparationTime = System.nanoTime() - start;
+            log.debugf("Prepared deployment %s in %dms", entry.deploymentName, Long.valueOf(TimeUnit.NANOSECONDS.toMillis(prepared.preparationTime)));
+            return prepared;
+        } catch (Exception e) {
+            prepared.close();
+            throw e;
+        } catch (Error e) {
+            prepared.close();
+            throw e;
+        }
+    }
+
+    /**
+     * A deployment which has been mounted and run through the processors before {@link #PRIORITY_LIMIT}.
+     */
+    public static final class PreparedDeployment {
+        private final Closeable handle;
+        private final VirtualFile deploymentRoot;
+        private final DeploymentUnitContextImpl context;
+        private DeploymentChain deploymentChain;
+        private long preparationTime;
+
+        private PreparedDeployment(final Closeable handle, final VirtualFile deploymentRoot, final DeploymentUnitContextImpl context) {
+            this.handle = handle;
+            this.deploymentRoot = deploymentRoot;
+            this.context = context;
+        }
+
+        /**
+         * Get the handle of the deployment mount.
+         *
+         * @return the mount handle
+         */
+        public Closeable getHandle() {
+            return handle;
+        }
+
+        /**
+         * Get the mount point of the deployment.
+         *
+         * @return the deployment root
+         */
+        public VirtualFile getDeploymentRoot() {
+            return deploymentRoot;
+        }
+
+        /**
+         * Get the context of the deployment unit so far, which has no batch.
+         *
+         * @return the deployment unit context
+         */
+        public DeploymentUnitContextImpl getContext() {
+            return context;
+        }
+
+        /**
+         * Get the deployment chain which prepared the deployment.
+         *
+         * @return the deployment chain
+         */
+        public DeploymentChain getDeploymentChain() {
+            return deploymentChain;
+        }
+
+        /**
+         * Get the time it took to prepare the deployment.
+         *
+         * @return the time in nanoseconds
+         */
+        public long getPreparationTime() {
+            return preparationTime;
+        }
+
+        /**
+         * Discard the deployment, closing the mounts made during preparation.
+         */
+        public void close() {
+            final NestedMounts nestedMounts = context.getAttachment(NestedMounts.ATTACHMENT_KEY);
+            if (nestedMounts != null) {
+                for (NestedMounts.Entry entry : nestedMounts) {
+                    entry.mount().close();
+                }
+            }
+            VFSUtils.safeClose(handle);
+        }
+    }
+
+    private final class Entry implements Runnable {
+        private final String deploymentName;
+        private final String runtimeName;
+        private final byte[] deploymentHash;
+
+        // protected by {@code this}
+        private boolean done;
+        // protected by {@code this}
+        private boolean discarded;
+        // protected by {@code this}
+        private PreparedDeployment prepared;
+
+        private Entry(final String deploymentName, final String runtimeName, final byte[] deploymentHash) {
+            this.deploymentName = deploymentName;
+            this.runtimeName = runtimeName;
+            this.deploymentHash = deploymentHash;
+        }
+
+        public void run() {
+            PreparedDeployment prepared = null;
+            try {
+                prepared = prepare(this);
+            } catch (Throwable t) {
+                log.debugf(t, "Failed to prepare deployment %s; it is processed when it is installed", deploymentName);
+            }
+            synchronized (this) {
+                if (discarded && prepared != null) {
+                    prepared.close();
+                    prepared = null;
+                }
+                this.prepared = prepared;
+                done = true;
+                notifyAll();
+            }
+        }
+
+        PreparedDeployment await() {
+            boolean intr = false;
+            try {
+                synchronized (this) {
+                    while (! done) {
+                        try {
+                            wait();
+                        } catch (InterruptedException e) {
+                            intr = true;
+                        }
+                    }
+                    final PreparedDeployment prepared = this.prepared;
+                    this.prepared = null;
+                    return prepared;
+                }
+            } finally {
+                if (intr) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        void abandon() {
+            synchronized (this) {
+                done = true;
+                notifyAll();
+            }
+        }
+
+        void discard() {
+            synchronized (this) {
+                discarded = true;
+                if (prepared != null) {
+                    prepared.close();
+                    prepared = null;
+                }
+            }
+        }
+    }
+}
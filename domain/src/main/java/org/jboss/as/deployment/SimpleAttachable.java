@@ -26,15 +26,33 @@ import java.util.HashMap;
 import java.util.Map;
 
 /**
- * A simple implementation of {@link Attachable} which may be used as a base class or on a standalone basis.
+ * A simple implementation of {@link Attachable} which may be used as a base class or on a standalone basis.  Access to
+ * the attachments is synchronized, so processors running concurrently may share an instance.
  *
  * @author <a href="mailto:david.lloyd@redhat.com">David M. Lloyd</a>
  */
 public class SimpleAttachable implements Attachable {
     private final Map<AttachmentKey<?>, Object> attachments = new HashMap<AttachmentKey<?>, Object>();
 
+    /**
+     * Construct a new instance with no attachments.
+     */
+    public SimpleAttachable() {
+    }
+
+    /**
+     * Construct a new instance with the attachments of another instance.
+     *
+     * @param other the instance to copy the attachments of
+     */
+    protected SimpleAttachable(final SimpleAttachable other) {
+        synchronized (other) {
+            attachments.putAll(other.attachments);
+        }
+    }
+
     /** {@inheritDoc} */
-    public <T> T getAttachment(final AttachmentKey<T> key) {
+    public synchronized <T> T getAttachment(final AttachmentKey<T> key) {
         if (key == null) {
             return null;
         }
@@ -42,7 +60,7 @@ public class SimpleAttachable implements Attachable {
     }
 
     /** {@inheritDoc} */
-    public <T> T putAttachment(final AttachmentKey<T> key, final T value) {
+    public synchronized <T> T putAttachment(final AttachmentKey<T> key, final T value) {
         if (key == null) {
             throw new IllegalArgumentException("key is null");
         }
@@ -50,7 +68,7 @@ public class SimpleAttachable implements Attachable {
     }
 
     /** {@inheritDoc} */
-    public <T> T removeAttachment(final AttachmentKey<T> key) {
+    public synchronized <T> T removeAttachment(final AttachmentKey<T> key) {
         if (key == null) {
             return null;
         }
@@ -0,0 +1,43 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.deployment.attachment;
+
+import org.jboss.as.deployment.AttachmentKey;
+import org.jboss.as.deployment.unit.DeploymentUnitContext;
+
+/**
+ * Utility to help attach and retrieve the repository hash of the deployment content from a deployment context.
+ *
+ * @author John E. Bailey
+ */
+public class DeploymentHashAttachment {
+    public static final AttachmentKey<byte[]> KEY = AttachmentKey.create(byte[].class);
+
+    public static void attachDeploymentHash(final DeploymentUnitContext context, final byte[] deploymentHash) {
+        context.putAttachment(KEY, deploymentHash);
+    }
+
+    public static byte[] getDeploymentHashAttachment(final DeploymentUnitContext context) {
+        return context.getAttachment(KEY);
+    }
+}
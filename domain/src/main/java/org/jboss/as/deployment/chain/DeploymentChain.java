@@ -22,6 +22,8 @@
 
 package org.jboss.as.deployment.chain;
 
+import org.jboss.as.deployment.unit.DeploymentUnitContext;
+import org.jboss.as.deployment.unit.DeploymentUnitProcessingException;
 import org.jboss.as.deployment.unit.DeploymentUnitProcessor;
 import org.jboss.msc.service.ServiceName;
 
@@ -56,4 +58,23 @@ public interface DeploymentChain extends DeploymentUnitProcessor {
      * @param priority The priority location to remove the processor from
      */
     void removeProcessor(DeploymentUnitProcessor processor, long priority);
+
+    /**
+     * Process the deployment unit with only the processors of a priority lower than the given limit.  A later
+     * {@link #processDeployment(DeploymentUnitContext)} of the same context runs the remaining processors.
+     *
+     * @param context the deployment unit context
+     * @param priorityLimit the priority of the first processor not to run
+     * @throws DeploymentUnitProcessingException if an error occurs during processing
+     */
+    void processDeployment(DeploymentUnitContext context, long priorityLimit) throws DeploymentUnitProcessingException;
+
+    /**
+     * Determine whether the processing of a deployment unit started by {@link #processDeployment(DeploymentUnitContext, long)}
+     * can be completed, which is not the case if processors below the limit have been added or removed since.
+     *
+     * @param context the deployment unit context
+     * @return {@code true} if the remaining processors may be run
+     */
+    boolean isResumable(DeploymentUnitContext context);
 }
@@ -22,20 +22,54 @@
 
 package org.jboss.as.deployment.chain;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
+import org.jboss.as.deployment.AttachmentKey;
+import org.jboss.as.deployment.unit.ConcurrentDeploymentUnitProcessor;
 import org.jboss.as.deployment.unit.DeploymentUnitContext;
 import org.jboss.as.deployment.unit.DeploymentUnitProcessingException;
+import org.jboss.as.deployment.unit.DeploymentUnitMetrics;
 import org.jboss.as.deployment.unit.DeploymentUnitProcessor;
+import org.jboss.logging.Logger;
+import org.jboss.msc.inject.Injector;
+import org.jboss.msc.service.ServiceName;
+import org.jboss.msc.value.InjectedValue;
 
 /**
  * Deployment chain implementation used to execute multiple DeploymentUnitProcessor instances in priority order.
+ * <p>
+ * If an executor is injected, processors which declare their attachments by implementing
+ * {@link ConcurrentDeploymentUnitProcessor} run concurrently with the other declaring processors they do not depend
+ * on.  A processor depends on every processor of a lower priority which writes an attachment it reads or writes, or
+ * which reads an attachment it writes; processors which do not declare their attachments depend on, and are
+ * depended on by, every other processor.  The deploying thread runs processors as well, so processing never waits
+ * for the executor to have a free thread.
+ * <p>
+ * If {@link DeploymentUnitMetrics} are attached to the deployment, the cost of each processor is recorded in them.
  *
  * @author John E. Bailey
  */
 public class DeploymentChainImpl implements DeploymentChain {
+    private static final Logger log = Logger.getLogger("org.jboss.as.deployment");
+
+    /**
+     * The name of the executor used to run independent processors concurrently.
+     */
+    public static final ServiceName EXECUTOR_NAME = ServiceName.JBOSS.append("thread", "executor", "deployment");
+
+    private static final AttachmentKey<Progress> PROGRESS_KEY = AttachmentKey.create(Progress.class);
+
     private final Set<OrderedProcessor> orderedProcessors = new ConcurrentSkipListSet<OrderedProcessor>();
+    private final InjectedValue<Executor> executor = new InjectedValue<Executor>();
     private final String name;
 
     public DeploymentChainImpl(String name) {
@@ -48,19 +82,71 @@ public class DeploymentChainImpl implements DeploymentChain {
     }
 
     /**
-     * Process the deployment unit using the chain of DeploymentUnitProcessor instances.
+     * Process the deployment unit using the chain of DeploymentUnitProcessor instances.  If the processing was started
+     * by {@link #processDeployment(DeploymentUnitContext, long)}, only the remaining processors run.
      *
      * @param context the deployment unit context
      * @throws org.jboss.as.deployment.unit.DeploymentUnitProcessingException
      *          if an error occurs during processing
      */
     public void processDeployment(DeploymentUnitContext context) throws DeploymentUnitProcessingException {
-        final Set<OrderedProcessor> processors = this.orderedProcessors;
-        for(OrderedProcessor orderedProcessor : processors) {
-            orderedProcessor.processor.processDeployment(context);
+        final Progress progress = context.getAttachment(PROGRESS_KEY);
+        if(progress != null && progress.chain == this) {
+            process(context, getProcessors(progress.priorityLimit, Long.MAX_VALUE));
+        } else {
+            process(context, getProcessors(Long.MIN_VALUE, Long.MAX_VALUE));
+        }
+    }
+
+    @Override
+    public void processDeployment(DeploymentUnitContext context, long priorityLimit) throws DeploymentUnitProcessingException {
+        final OrderedProcessor[] processors = getProcessors(Long.MIN_VALUE, priorityLimit);
+        process(context, processors);
+        context.putAttachment(PROGRESS_KEY, new Progress(this, priorityLimit, processors));
+    }
+
+    @Override
+    public boolean isResumable(DeploymentUnitContext context) {
+        final Progress progress = context.getAttachment(PROGRESS_KEY);
+        return progress != null && progress.chain == this && Arrays.equals(progress.processors, getProcessors(Long.MIN_VALUE, progress.priorityLimit));
+    }
+
+    private void process(final DeploymentUnitContext context, final OrderedProcessor[] processors) throws DeploymentUnitProcessingException {
+        final long[] times = new long[processors.length];
+        final Executor executor = this.executor.getOptionalValue();
+        final DeploymentUnitMetrics metrics = context.getAttachment(DeploymentUnitMetrics.ATTACHMENT_KEY);
+        final long start = System.nanoTime();
+        if(executor == null || countConcurrent(processors) < 2) {
+            for(int i = 0; i < processors.length; i++) {
+                final long processorStart = System.nanoTime();
+                processors[i].process(context, metrics);
+                times[i] = System.nanoTime() - processorStart;
+            }
+        } else {
+            new ChainExecution(processors, context, metrics, times, executor).execute();
+        }
+        if(log.isDebugEnabled()) {
+            final StringBuilder builder = new StringBuilder();
+            for(int i = 0; i < processors.length; i++) {
+                if(i > 0) {
+                    builder.append(", ");
+                }
+                builder.append(processors[i].processor.getClass().getSimpleName()).append('=').append(times[i] / 1000L).append("us");
+            }
+            log.debugf("Processed deployment %s with chain %s in %dms: %s", context.getName(), name, Long.valueOf((System.nanoTime() - start) / 1000000L), builder);
         }
     }
 
+    private OrderedProcessor[] getProcessors(final long fromPriority, final long toPriority) {
+        final List<OrderedProcessor> processors = new ArrayList<OrderedProcessor>();
+        for(OrderedProcessor processor : orderedProcessors) {
+            if(processor.processingOrder >= fromPriority && processor.processingOrder < toPriority) {
+                processors.add(processor);
+            }
+        }
+        return processors.toArray(new OrderedProcessor[processors.size()]);
+    }
+
     @Override
     public void addProcessor(DeploymentUnitProcessor processor, long priority) {
         final Set<OrderedProcessor> processors = this.orderedProcessors;
@@ -73,15 +159,214 @@ public class DeploymentChainImpl implements DeploymentChain {
         orderedProcessors.remove(new OrderedProcessor(processor, priority));
     }
 
+    /**
+     * Get the injector for the executor used to run independent processors concurrently.
+     *
+     * @return the injector
+     */
+    public Injector<Executor> getExecutorInjector() {
+        return executor;
+    }
+
     @Override
     public String toString() {
         return "DeploymentChainImpl{name='" + name + "' processors=" + orderedProcessors + "}";
     }
 
+    private static int countConcurrent(final OrderedProcessor[] processors) {
+        int count = 0;
+        for(OrderedProcessor processor : processors) {
+            if(processor.produced != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * A single run of the chain over the processor graph.  Ready processors are taken by the deploying thread and by
+     * helper tasks on the executor, of which at most one is queued at a time.
+     */
+    private static final class ChainExecution implements Runnable {
+        private final OrderedProcessor[] processors;
+        private final DeploymentUnitContext context;
+        private final DeploymentUnitMetrics metrics;
+        private final long[] times;
+        private final Executor executor;
+        private final ClassLoader classLoader;
+        private final int[][] dependents;
+
+        // protected by {@code this}
+        private final int[] waiting;
+        // protected by {@code this}
+        private final ArrayDeque<Integer> ready = new ArrayDeque<Integer>();
+        // protected by {@code this}
+        private int unfinished;
+        // protected by {@code this}
+        private int running;
+        // protected by {@code this}
+        private Throwable failure;
+        // protected by {@code this}
+        private boolean helperQueued;
+
+        ChainExecution(final OrderedProcessor[] processors, final DeploymentUnitContext context, final DeploymentUnitMetrics metrics, final long[] times, final Executor executor) {
+            this.processors = processors;
+            this.context = context;
+            this.metrics = metrics;
+            this.times = times;
+            this.executor = executor;
+            classLoader = Thread.currentThread().getContextClassLoader();
+            final int size = processors.length;
+            dependents = new int[size][];
+            waiting = new int[size];
+            for(int i = 0; i < size; i++) {
+                final List<Integer> list = new ArrayList<Integer>();
+                for(int j = i + 1; j < size; j++) {
+                    if(processors[j].dependsOn(processors[i])) {
+                        list.add(Integer.valueOf(j));
+                        waiting[j]++;
+                    }
+                }
+                dependents[i] = new int[list.size()];
+                for(int k = 0; k < dependents[i].length; k++) {
+                    dependents[i][k] = list.get(k).intValue();
+                }
+            }
+            for(int i = 0; i < size; i++) {
+                if(waiting[i] == 0) {
+                    ready.add(Integer.valueOf(i));
+                }
+            }
+            unfinished = size;
+        }
+
+        void execute() throws DeploymentUnitProcessingException {
+            boolean intr = false;
+            try {
+                for(;;) {
+                    run();
+                    synchronized (this) {
+                        while(running > 0 && (ready.isEmpty() || failure != null)) {
+                            try {
+                                wait();
+                            } catch(InterruptedException e) {
+                                intr = true;
+                            }
+                        }
+                        if(failure != null) {
+                            if(failure instanceof DeploymentUnitProcessingException) {
+                                throw (DeploymentUnitProcessingException) failure;
+                            } else if(failure instanceof RuntimeException) {
+                                throw (RuntimeException) failure;
+                            } else if(failure instanceof Error) {
+                                throw (Error) failure;
+                            }
+                            throw new DeploymentUnitProcessingException("Deployment processor failed", failure);
+                        }
+                        if(unfinished == 0) {
+                            return;
+                        }
+                    }
+                }
+            } finally {
+                if(intr) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        public void run() {
+            for(;;) {
+                final int index;
+                final boolean more;
+                synchronized (this) {
+                    if(failure != null || ready.isEmpty()) {
+                        return;
+                    }
+                    index = ready.poll().intValue();
+                    running++;
+                    more = !ready.isEmpty() && !helperQueued;
+                    if(more) {
+                        helperQueued = true;
+                    }
+                }
+                if(more) {
+                    queueHelper();
+                }
+                Throwable problem = null;
+                final long start = System.nanoTime();
+                try {
+                    processors[index].process(context, metrics);
+                } catch(Throwable t) {
+                    problem = t;
+                }
+                final long time = System.nanoTime() - start;
+                synchronized (this) {
+                    times[index] = time;
+                    running--;
+                    unfinished--;
+                    if(problem != null) {
+                        if(failure == null) {
+                            failure = problem;
+                        }
+                    } else {
+                        for(int dependent : dependents[index]) {
+                            if(--waiting[dependent] == 0) {
+                                ready.add(Integer.valueOf(dependent));
+                            }
+                        }
+                    }
+                    notifyAll();
+                }
+            }
+        }
+
+        private void queueHelper() {
+            try {
+                executor.execute(new Runnable() {
+                    public void run() {
+                        synchronized (ChainExecution.this) {
+                            helperQueued = false;
+                        }
+                        final Thread thread = Thread.currentThread();
+                        final ClassLoader old = thread.getContextClassLoader();
+                        thread.setContextClassLoader(classLoader);
+                        try {
+                            ChainExecution.this.run();
+                        } finally {
+                            thread.setContextClassLoader(old);
+                        }
+                    }
+                });
+            } catch(RejectedExecutionException e) {
+                synchronized (this) {
+                    helperQueued = false;
+                }
+            }
+        }
+    }
+
+    /**
+     * The processors already run for a deployment unit by {@link #processDeployment(DeploymentUnitContext, long)}.
+     */
+    private static final class Progress {
+        private final DeploymentChainImpl chain;
+        private final long priorityLimit;
+        private final OrderedProcessor[] processors;
+
+        private Progress(final DeploymentChainImpl chain, final long priorityLimit, final OrderedProcessor[] processors) {
+            this.chain = chain;
+            this.priorityLimit = priorityLimit;
+            this.processors = processors;
+        }
+    }
+
     private static final class OrderedProcessor implements Comparable<OrderedProcessor> {
         private final DeploymentUnitProcessor processor;
         private final String name;
         private final long processingOrder;
+        private final Set<AttachmentKey<?>> consumed;
+        private final Set<AttachmentKey<?>> produced;
 
         private OrderedProcessor(final DeploymentUnitProcessor processor, final long processingOrder) {
             if (processor == null)
@@ -90,6 +375,37 @@ public class DeploymentChainImpl implements DeploymentChain {
             this.processor = processor;
             this.name = processor.getClass().getName();
             this.processingOrder = processingOrder;
+            if (processor instanceof ConcurrentDeploymentUnitProcessor) {
+                final ConcurrentDeploymentUnitProcessor concurrentProcessor = (ConcurrentDeploymentUnitProcessor) processor;
+                this.consumed = new HashSet<AttachmentKey<?>>(concurrentProcessor.getConsumedAttachments());
+                this.produced = new HashSet<AttachmentKey<?>>(concurrentProcessor.getProducedAttachments());
+            } else {
+                this.consumed = null;
+                this.produced = null;
+            }
+        }
+
+        private void process(final DeploymentUnitContext context, final DeploymentUnitMetrics metrics) throws DeploymentUnitProcessingException {
+            if (metrics == null) {
+                processor.processDeployment(context);
+                return;
+            }
+            final DeploymentUnitMetrics.Sample sample = metrics.begin(name);
+            try {
+                processor.processDeployment(context);
+            } finally {
+                sample.end();
+            }
+        }
+
+        /**
+         * Determine whether this processor has to run after the given processor of a lower priority.
+         */
+        private boolean dependsOn(final OrderedProcessor other) {
+            if (produced == null || other.produced == null)
+                return true;
+            return !Collections.disjoint(other.produced, consumed) || !Collections.disjoint(other.produced, produced)
+                    || !Collections.disjoint(other.consumed, produced);
         }
 
         @Override
@@ -22,6 +22,8 @@
 
 package org.jboss.as.deployment.chain;
 
+import java.util.concurrent.Executor;
+
 import org.jboss.as.deployment.module.DeploymentModuleLoader;
 import org.jboss.as.deployment.module.DeploymentModuleLoaderProcessor;
 import org.jboss.as.deployment.module.DeploymentModuleLoaderService;
@@ -63,13 +65,17 @@ public class JarDeploymentActivator implements ServiceActivator {
         final BatchBuilder batchBuilder = context.getBatchBuilder();
         batchBuilder.addServiceValueIfNotExist(DeploymentChainProviderService.SERVICE_NAME, new DeploymentChainProviderService());
 
-        final Value<DeploymentChain> deploymentChainValue = Values.immediateValue((DeploymentChain)new DeploymentChainImpl(JAR_DEPLOYMENT_CHAIN_SERVICE_NAME.toString()))   ;
+        final DeploymentChainImpl deploymentChain = new DeploymentChainImpl(JAR_DEPLOYMENT_CHAIN_SERVICE_NAME.toString());
+        final Value<DeploymentChain> deploymentChainValue = Values.immediateValue((DeploymentChain)deploymentChain);
         final DeploymentChainService deploymentChainService = new DeploymentChainService(deploymentChainValue);
         batchBuilder.addService(JAR_DEPLOYMENT_CHAIN_SERVICE_NAME, deploymentChainService)
-            .addDependency(DeploymentChainProviderService.SERVICE_NAME, DeploymentChainProvider.class, new DeploymentChainProviderInjector<DeploymentChain>(deploymentChainValue, new JarDeploymentChainSelector(), JAR_DEPLOYMENT_CHAIN_PRIORITY));
+            .addDependency(DeploymentChainProviderService.SERVICE_NAME, DeploymentChainProvider.class, new DeploymentChainProviderInjector<DeploymentChain>(deploymentChainValue, new JarDeploymentChainSelector(), JAR_DEPLOYMENT_CHAIN_PRIORITY))
+            .addOptionalDependency(DeploymentChainImpl.EXECUTOR_NAME, Executor.class, deploymentChain.getExecutorInjector());
 
         addDeploymentProcessor(batchBuilder, new ManifestAttachmentProcessor(), ManifestAttachmentProcessor.PRIORITY);
-        addDeploymentProcessor(batchBuilder, new AnnotationIndexProcessor(), AnnotationIndexProcessor.PRIORITY);
+        final AnnotationIndexProcessor annotationIndexProcessor = new AnnotationIndexProcessor();
+        addDeploymentProcessor(batchBuilder, annotationIndexProcessor, AnnotationIndexProcessor.PRIORITY)
+            .addOptionalDependency(AnnotationIndexProcessor.EXECUTOR_NAME, Executor.class, annotationIndexProcessor.getExecutorInjector());
         addDeploymentProcessor(batchBuilder, new ModuleDependencyProcessor(), ModuleDependencyProcessor.PRIORITY);
         addDeploymentProcessor(batchBuilder, new ModuleConfigProcessor(), ModuleConfigProcessor.PRIORITY);
         final InjectedValue<DeploymentModuleLoader> moduleLoaderInjector = new InjectedValue<DeploymentModuleLoader>();
@@ -75,6 +75,12 @@ public class FileSystemDeploymentService implements Service<FileSystemDeployment
 
     private static final ServiceName BASE_SERVICE_NAME = ServiceName.JBOSS.append("server", "deployment", "filesystem");
 
+    /**
+     * The scheduled pool of the threads subsystem running the scans; if none is configured each scanner uses a
+     * private single thread.
+     */
+    public static final ServiceName EXECUTOR_NAME = ServiceName.JBOSS.append("thread", "executor", "deployment-scanner");
+
     public static ServiceName getServiceName(String path) {
         return BASE_SERVICE_NAME.append(path);
     }
@@ -97,11 +103,8 @@ public class FileSystemDeploymentService implements Service<FileSystemDeployment
             .addDependency(ServerDeploymentRepository.SERVICE_NAME, ServerDeploymentRepository.class, service.injectedDeploymentRepository)
             .addDependency(ServerModel.SERVICE_NAME, ServerModel.class, service.injectedServerModel)
             .addDependency(pathService, String.class, service.pathValue)
+            .addOptionalDependency(EXECUTOR_NAME, ScheduledExecutorService.class, service.injectedScheduleExecutor)
             .setInitialMode(Mode.ACTIVE);
-
-        // FIXME inject ScheduledExecutorService from an external service dependency
-        final ScheduledExecutorService hack = Executors.newSingleThreadScheduledExecutor();
-        service.injectedScheduleExecutor.inject(hack);
         return serviceBuilder;
     }
 
@@ -118,6 +121,8 @@ public class FileSystemDeploymentService implements Service<FileSystemDeployment
     private final InjectedValue<ServerModel> injectedServerModel = new InjectedValue<ServerModel>();
     private final InjectedValue<String> pathValue = new InjectedValue<String>();
 
+    private ScheduledExecutorService scheduledExecutor;
+    private boolean privateExecutor;
     private File deploymentDir;
     private int scanInterval = 0;
     private volatile boolean scanEnabled;
@@ -160,13 +165,11 @@ public class FileSystemDeploymentService implements Service<FileSystemDeployment
     // ---------------------------------------------------------------  Service
 
     @Override
-    public void start(StartContext context) throws StartException {
+    public synchronized void start(StartContext context) throws StartException {
 
         // Validate injections
-        String type = ScheduledExecutorService.class.getSimpleName();
+        String type = ServerDeploymentManager.class.getSimpleName();
         try {
-            injectedScheduleExecutor.getValue();
-            type = ServerDeploymentManager.class.getSimpleName();
             injectedDeploymentManager.getValue();
             type = ServerDeploymentRepository.class.getSimpleName();
             injectedDeploymentRepository.getValue();
@@ -188,6 +191,12 @@ public class FileSystemDeploymentService implements Service<FileSystemDeployment
             throw new StartException(type + "not injected");
         }
 
+        scheduledExecutor = injectedScheduleExecutor.getOptionalValue();
+        privateExecutor = scheduledExecutor == null;
+        if (privateExecutor) {
+            scheduledExecutor = Executors.newSingleThreadScheduledExecutor();
+        }
+
         // Build list of existing ".deployed" files
         establishDeployedContentList(deploymentDir);
 
@@ -199,6 +208,10 @@ public class FileSystemDeploymentService implements Service<FileSystemDeployment
     @Override
     public synchronized void stop(StopContext context) {
         cancelScan();
+        if (privateExecutor) {
+            scheduledExecutor.shutdown();
+        }
+        scheduledExecutor = null;
     }
 
     @Override
@@ -449,7 +462,7 @@ public class FileSystemDeploymentService implements Service<FileSystemDeployment
 
     private synchronized void startScan() {
 
-        if (scanEnabled) {
+        if (scanEnabled && scheduledExecutor != null) {
 
             Runnable r = new Runnable() {
                 public void run() {
@@ -462,10 +475,10 @@ public class FileSystemDeploymentService implements Service<FileSystemDeployment
             };
 
             if (scanInterval > 0) {
-                scanTask = injectedScheduleExecutor.getValue().scheduleWithFixedDelay(r, 0, scanInterval, TimeUnit.MILLISECONDS);
+                scanTask = scheduledExecutor.scheduleWithFixedDelay(r, 0, scanInterval, TimeUnit.MILLISECONDS);
             }
             else {
-                scanTask = injectedScheduleExecutor.getValue().schedule(r, scanInterval, TimeUnit.MILLISECONDS);
+                scanTask = scheduledExecutor.schedule(r, scanInterval, TimeUnit.MILLISECONDS);
             }
         }
     }
@@ -25,13 +25,18 @@ package org.jboss.as.deployment.module;
 import static org.jboss.as.deployment.attachment.VirtualFileAttachment.getVirtualFileAttachment;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.jar.Manifest;
 
+import org.jboss.as.deployment.AttachmentKey;
 import org.jboss.as.deployment.DeploymentPhases;
 import org.jboss.as.deployment.attachment.ManifestAttachment;
+import org.jboss.as.deployment.attachment.VirtualFileAttachment;
+import org.jboss.as.deployment.unit.ConcurrentDeploymentUnitProcessor;
 import org.jboss.as.deployment.unit.DeploymentUnitContext;
 import org.jboss.as.deployment.unit.DeploymentUnitProcessingException;
-import org.jboss.as.deployment.unit.DeploymentUnitProcessor;
 import org.jboss.vfs.VFSUtils;
 import org.jboss.vfs.VirtualFile;
 
@@ -43,8 +48,10 @@ import org.jboss.vfs.VirtualFile;
  * @author Thomas.Diesler@jboss.com
  * @since 14-Oct-2010
  */
-public class ManifestAttachmentProcessor implements DeploymentUnitProcessor {
+public class ManifestAttachmentProcessor implements ConcurrentDeploymentUnitProcessor {
     public static final long PRIORITY = DeploymentPhases.PARSE_DESCRIPTORS.plus(100L);
+    private static final Collection<AttachmentKey<?>> CONSUMED = Arrays.<AttachmentKey<?>>asList(VirtualFileAttachment.KEY, ManifestAttachment.KEY);
+    private static final Collection<AttachmentKey<?>> PRODUCED = Collections.<AttachmentKey<?>>singleton(ManifestAttachment.KEY);
 
     /**
      * Process the deployment root for the manifest.
@@ -68,4 +75,14 @@ public class ManifestAttachmentProcessor implements DeploymentUnitProcessor {
             throw new DeploymentUnitProcessingException("Failed to get manifest for deployment " + deploymentRoot, e);
         }
     }
+
+    /** {@inheritDoc} */
+    public Collection<AttachmentKey<?>> getConsumedAttachments() {
+        return CONSUMED;
+    }
+
+    /** {@inheritDoc} */
+    public Collection<AttachmentKey<?>> getProducedAttachments() {
+        return PRODUCED;
+    }
 }
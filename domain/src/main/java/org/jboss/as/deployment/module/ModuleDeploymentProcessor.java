@@ -27,6 +27,7 @@ import java.io.IOException;
 import org.jboss.as.deployment.AttachmentKey;
 import org.jboss.as.deployment.DeploymentPhases;
 import org.jboss.as.deployment.unit.DeploymentUnitContext;
+import org.jboss.as.deployment.unit.DeploymentUnitMetrics;
 import org.jboss.as.deployment.unit.DeploymentUnitProcessingException;
 import org.jboss.as.deployment.unit.DeploymentUnitProcessor;
 import org.jboss.modules.DependencySpec;
@@ -47,6 +48,10 @@ import org.jboss.msc.service.StartException;
 public class ModuleDeploymentProcessor implements DeploymentUnitProcessor {
     public static final long PRIORITY = DeploymentPhases.MODULARIZE.plus(750L);
     public static final AttachmentKey<Module> MODULE_ATTACHMENT_KEY = new AttachmentKey<Module>(Module.class);
+    /**
+     * The name under which loading the deployment module is recorded in the {@link DeploymentUnitMetrics}.
+     */
+    public static final String LOAD_MODULE_PHASE = "module-load";
 
 
     /**
@@ -83,12 +88,17 @@ public class ModuleDeploymentProcessor implements DeploymentUnitProcessor {
 
         deploymentModuleLoader.addModuleSpec(moduleSpec);
 
+        final DeploymentUnitMetrics metrics = context.getAttachment(DeploymentUnitMetrics.ATTACHMENT_KEY);
+        final DeploymentUnitMetrics.Sample sample = metrics == null ? null : metrics.begin(LOAD_MODULE_PHASE);
         try {
             final Module module = deploymentModuleLoader.loadModule(moduleIdentifier);
             context.putAttachment(MODULE_ATTACHMENT_KEY, module);
             context.getBatchServiceBuilder().addListener(new ModuleRemoveListener(deploymentModuleLoader, module));
         } catch (ModuleLoadException e) {
             throw new DeploymentUnitProcessingException("Failed to load module: " + moduleIdentifier, e);
+        } finally {
+            if(sample != null)
+                sample.end();
         }
     }
 
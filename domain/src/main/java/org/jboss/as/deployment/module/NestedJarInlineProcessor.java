@@ -90,7 +90,20 @@ public class NestedJarInlineProcessor implements DeploymentUnitProcessor {
         }
 
         context.putAttachment(NestedMounts.ATTACHMENT_KEY, mounts);
-        context.getBatchServiceBuilder().addListener(new CloseListener(mounts.getClosables()));
+        // A deployment prepared during boot has no batch yet; the listener is added once it is installed
+        if (context.getBatchServiceBuilder() != null)
+            addCloseListener(context);
+    }
+
+    /**
+     * Close the nested mounts of the deployment when its deployment service stops.
+     *
+     * @param context the deployment unit context, with its batch
+     */
+    public static void addCloseListener(DeploymentUnitContext context) {
+        final NestedMounts mounts = context.getAttachment(NestedMounts.ATTACHMENT_KEY);
+        if (mounts != null)
+            context.getBatchServiceBuilder().addListener(new CloseListener(mounts.getClosables()));
     }
 
     static class CloseListener implements ServiceListener<Void> {
@@ -0,0 +1,230 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.deployment.processor;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jboss.as.deployment.AttachmentKey;
+import org.jboss.jandex.Index;
+import org.jboss.jandex.IndexReader;
+import org.jboss.jandex.IndexWriter;
+import org.jboss.logging.Logger;
+import org.jboss.msc.service.BatchBuilder;
+import org.jboss.msc.service.Service;
+import org.jboss.msc.service.ServiceName;
+import org.jboss.msc.service.StartContext;
+import org.jboss.msc.service.StartException;
+import org.jboss.msc.service.StopContext;
+import org.jboss.vfs.VFSUtils;
+
+/**
+ * Persistent cache of annotation indexes, keyed by the SHA-1 of the indexed archive.  Indexes are stored in the same
+ * hash-addressed layout as the deployment repository, as an {@code index} file next to the {@code content} file of a
+ * deployment, so byte-identical content is never indexed twice.  Nested archives are keyed by their own hash, so an
+ * unchanged library is reused even when the deployment around it changes.
+ *
+ * @author John E. Bailey
+ */
+public class AnnotationIndexCache implements AnnotationIndexCacheMBean, Service<AnnotationIndexCache> {
+    private static final Logger log = Logger.getLogger("org.jboss.as.deployment");
+
+    public static final ServiceName SERVICE_NAME = ServiceName.JBOSS.append("deployment", "annotation-index-cache");
+    public static final AttachmentKey<AnnotationIndexCache> ATTACHMENT_KEY = AttachmentKey.create(AnnotationIndexCache.class);
+    public static final String OBJECT_NAME = "jboss.deployment:type=AnnotationIndexCache";
+
+    private static final String INDEX = "index";
+    private static final int VERSION = 1;
+
+    private final File root;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong timeSaved = new AtomicLong();
+
+    /**
+     * Creates an instance of AnnotationIndexCache and configures the BatchBuilder to install it.
+     *
+     * @param batchBuilder service batch builder to use to install the service
+     * @param root the root of the deployment repository
+     */
+    public static void addService(final BatchBuilder batchBuilder, final File root) {
+        batchBuilder.addService(SERVICE_NAME, new AnnotationIndexCache(root));
+    }
+
+    /**
+     * Construct a new instance.
+     *
+     * @param root the directory under which the indexes are stored
+     */
+    public AnnotationIndexCache(final File root) {
+        this.root = root;
+    }
+
+    /**
+     * Create a cache over the same indexes which counts its hits, misses and time saved apart from this cache, for
+     * work which may be discarded.  Its counts are added to this cache by {@link #addStatistics(AnnotationIndexCache)}.
+     *
+     * @return the detached cache
+     */
+    public AnnotationIndexCache createDetached() {
+        return new AnnotationIndexCache(root);
+    }
+
+    /**
+     * Add the hits, misses and time saved of a detached cache to this cache.
+     *
+     * @param detached the cache created by {@link #createDetached()}
+     */
+    public void addStatistics(final AnnotationIndexCache detached) {
+        hits.addAndGet(detached.hits.get());
+        misses.addAndGet(detached.misses.get());
+        timeSaved.addAndGet(detached.timeSaved.get());
+    }
+
+    /**
+     * Get the cached index of the archive with the given hash.
+     *
+     * @param hash the SHA-1 of the archive
+     * @return the index, or {@code null} if no usable index is cached
+     */
+    public Index getIndex(final byte[] hash) {
+        final File file = getIndexFile(hash);
+        if (file.exists()) {
+            final long start = System.nanoTime();
+            try {
+                final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+                try {
+                    if (in.readInt() == VERSION) {
+                        final long buildTime = in.readLong();
+                        final Index index = new IndexReader(in).read();
+                        final long saved = buildTime - (System.nanoTime() - start);
+                        if (saved > 0L) {
+                            timeSaved.addAndGet(saved);
+                        }
+                        hits.incrementAndGet();
+                        return index;
+                    }
+                } finally {
+                    VFSUtils.safeClose(in);
+                }
+            } catch (IOException e) {
+                log.debugf(e, "Ignoring unreadable annotation index %s", file);
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Store the index of the archive with the given hash.  The index only becomes visible once it is completely
+     * written; failures are logged and otherwise ignored, as the index can always be rebuilt.
+     *
+     * @param hash the SHA-1 of the archive
+     * @param index the index
+     * @param buildTime the time it took to build the index, in nanoseconds
+     */
+    public void putIndex(final byte[] hash, final Index index, final long buildTime) {
+        final File file = getIndexFile(hash);
+        final File dir = file.getParentFile();
+        File tmp = null;
+        try {
+            if (!dir.mkdirs() && !dir.isDirectory()) {
+                throw new IOException("Cannot create directory " + dir.getAbsolutePath());
+            }
+            tmp = File.createTempFile(INDEX, "tmp", dir);
+            final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+            try {
+                out.writeInt(VERSION);
+                out.writeLong(buildTime);
+                new IndexWriter(out).write(index);
+                out.close();
+            } finally {
+                VFSUtils.safeClose(out);
+            }
+            if (!tmp.renameTo(file) && !file.exists()) {
+                throw new IOException("Cannot move " + tmp.getAbsolutePath() + " to " + file.getAbsolutePath());
+            }
+        } catch (IOException e) {
+            log.warnf(e, "Failed to store annotation index %s", file);
+        } finally {
+            if (tmp != null && tmp.exists() && !tmp.delete()) {
+                tmp.deleteOnExit();
+            }
+        }
+    }
+
+    /** {@inheritDoc} */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /** {@inheritDoc} */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /** {@inheritDoc} */
+    public long getTimeSaved() {
+        return TimeUnit.NANOSECONDS.toMillis(timeSaved.get());
+    }
+
+    public void start(final StartContext context) throws StartException {
+        if (!root.mkdirs() && !root.isDirectory()) {
+            throw new StartException("Failed to create annotation index cache directory " + root.getAbsolutePath());
+        }
+    }
+
+    public void stop(final StopContext context) {
+        log.debugf("Annotation index cache stopped after %d hits and %d misses", Long.valueOf(hits.get()), Long.valueOf(misses.get()));
+    }
+
+    public AnnotationIndexCache getValue() throws IllegalStateException {
+        return this;
+    }
+
+    private File getIndexFile(final byte[] hash) {
+        final String sha1 = bytesToHexString(hash);
+        return new File(new File(new File(root, sha1.substring(0, 2)), sha1.substring(2)), INDEX);
+    }
+
+    private static final char[] table = {
+            '0', '1', '2', '3', '4', '5', '6', '7',
+            '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'
+    };
+
+    private static String bytesToHexString(final byte[] bytes) {
+        final StringBuilder builder = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            builder.append(table[b >> 4 & 0x0f]).append(table[b & 0x0f]);
+        }
+        return builder.toString();
+    }
+}
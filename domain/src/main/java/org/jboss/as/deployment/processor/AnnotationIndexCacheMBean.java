@@ -0,0 +1,52 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.deployment.processor;
+
+/**
+ * Management view of the {@link AnnotationIndexCache}.
+ *
+ * @author John E. Bailey
+ */
+public interface AnnotationIndexCacheMBean {
+
+    /**
+     * Get the number of archives whose annotation index was loaded from the cache.
+     *
+     * @return the number of cache hits
+     */
+    long getHits();
+
+    /**
+     * Get the number of archives which had to be indexed because no cached index was found.
+     *
+     * @return the number of cache misses
+     */
+    long getMisses();
+
+    /**
+     * Get the total time, in milliseconds, saved by loading cached indexes instead of rebuilding them.
+     *
+     * @return the time saved
+     */
+    long getTimeSaved();
+}
@@ -24,30 +24,94 @@ package org.jboss.as.deployment.processor;
 
 import org.jboss.as.deployment.AttachmentKey;
 import org.jboss.as.deployment.DeploymentPhases;
+import org.jboss.as.deployment.attachment.DeploymentHashAttachment;
+import org.jboss.as.deployment.attachment.VirtualFileAttachment;
+import org.jboss.as.deployment.module.NestedMounts;
+import org.jboss.as.deployment.unit.ConcurrentDeploymentUnitProcessor;
 import org.jboss.as.deployment.unit.DeploymentUnitContext;
 import org.jboss.as.deployment.unit.DeploymentUnitProcessingException;
-import org.jboss.as.deployment.unit.DeploymentUnitProcessor;
+import org.jboss.jandex.AnnotationInstance;
+import org.jboss.jandex.ClassInfo;
+import org.jboss.jandex.DotName;
 import org.jboss.jandex.Index;
 import org.jboss.jandex.Indexer;
+import org.jboss.logging.Logger;
+import org.jboss.msc.inject.Injector;
+import org.jboss.msc.service.ServiceName;
+import org.jboss.msc.value.InjectedValue;
 import org.jboss.vfs.VFSUtils;
 import org.jboss.vfs.VirtualFile;
+import org.jboss.vfs.VirtualFileFilter;
 import org.jboss.vfs.VisitorAttributes;
 import org.jboss.vfs.util.SuffixMatchFilter;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import static org.jboss.as.deployment.attachment.DeploymentHashAttachment.getDeploymentHashAttachment;
 import static org.jboss.as.deployment.attachment.VirtualFileAttachment.getVirtualFileAttachment;
 
 /**
  * Deployment unit processor responsible for creating and attaching an annotation index for a deployment unit.
+ * <p>
+ * If an {@link AnnotationIndexCache} is attached to the deployment, the index of content which was indexed before is
+ * loaded from the cache.  Otherwise the deployment is split into partitions, one for each nested jar and one for
+ * each chunk of the remaining class files, which are indexed on their own and merged.  A nested jar which was
+ * indexed before is loaded from the cache.  If the {@link #EXECUTOR_NAME annotation-indexer} executor is configured
+ * in the threads subsystem, the partitions are indexed in parallel on it, so its size bounds the parallelism.
  *
  * @author John E. Bailey
  */
-public class AnnotationIndexProcessor implements DeploymentUnitProcessor {
+public class AnnotationIndexProcessor implements ConcurrentDeploymentUnitProcessor {
+    private static final Logger log = Logger.getLogger("org.jboss.as.deployment");
+
     public static final AttachmentKey<Index> ATTACHMENT_KEY = new AttachmentKey<Index>(Index.class);
     public static final long PRIORITY = DeploymentPhases.PARSE_DESCRIPTORS.plus(200L);
 
+    /**
+     * The name of the threads subsystem executor used to index deployments in parallel, if one is configured.
+     */
+    public static final ServiceName EXECUTOR_NAME = ServiceName.JBOSS.append("thread", "executor", "annotation-indexer");
+
+    private static final Collection<AttachmentKey<?>> CONSUMED = Arrays.<AttachmentKey<?>>asList(VirtualFileAttachment.KEY, NestedMounts.ATTACHMENT_KEY, AnnotationIndexCache.ATTACHMENT_KEY, DeploymentHashAttachment.KEY, ATTACHMENT_KEY);
+    private static final Collection<AttachmentKey<?>> PRODUCED = Collections.<AttachmentKey<?>>singleton(ATTACHMENT_KEY);
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final int CHUNK_SIZE = 500;
+
+    private final InjectedValue<Executor> executor = new InjectedValue<Executor>();
+
+    /**
+     * Construct a new instance which indexes on the deploying thread unless an executor is injected.
+     */
+    public AnnotationIndexProcessor() {
+    }
+
+    /**
+     * Construct a new instance which indexes in parallel on the given executor.
+     *
+     * @param executor the executor
+     */
+    public AnnotationIndexProcessor(final Executor executor) {
+        this.executor.inject(executor);
+    }
+
     /**
      * Process this deployment for annotations.  This will use an annotation indexer to create an index of all annotations
      * found in this deployment and attach it to the deployment unit context.
@@ -60,22 +124,278 @@ public class AnnotationIndexProcessor implements DeploymentUnitProcessor {
             return;
 
         final VirtualFile virtualFile = getVirtualFileAttachment(context);
-        final Indexer indexer = new Indexer();
+        final AnnotationIndexCache cache = context.getAttachment(AnnotationIndexCache.ATTACHMENT_KEY);
+        final byte[] deploymentHash = getDeploymentHashAttachment(context);
+        final boolean cached = cache != null && deploymentHash != null;
         try {
-            final List<VirtualFile> classChildren = virtualFile.getChildren(new SuffixMatchFilter(".class", VisitorAttributes.RECURSE_LEAVES_ONLY));
-            for(VirtualFile classFile : classChildren) {
-                InputStream inputStream = null;
-                try {
-                    inputStream = classFile.openStream();
-                    indexer.index(inputStream);
-                } finally {
-                    VFSUtils.safeClose(inputStream);
+            Index index = cached ? cache.getIndex(deploymentHash) : null;
+            if(index != null) {
+                log.debugf("Loaded cached annotation index for %s", virtualFile.getName());
+            } else {
+                final long start = System.nanoTime();
+                index = index(context, virtualFile, cache);
+                if(cached) {
+                    cache.putIndex(deploymentHash, index, System.nanoTime() - start);
                 }
             }
-            final Index index = indexer.complete();
             context.putAttachment(ATTACHMENT_KEY, index);
         } catch(Throwable t) {
             throw new DeploymentUnitProcessingException("Failed to index deployment root for annotations", t);
         }
     }
+
+    public Injector<Executor> getExecutorInjector() {
+        return executor;
+    }
+
+    /** {@inheritDoc} */
+    public Collection<AttachmentKey<?>> getConsumedAttachments() {
+        return CONSUMED;
+    }
+
+    /** {@inheritDoc} */
+    public Collection<AttachmentKey<?>> getProducedAttachments() {
+        return PRODUCED;
+    }
+
+    private Index index(final DeploymentUnitContext context, final VirtualFile virtualFile, final AnnotationIndexCache cache) throws Exception {
+        final List<Callable<Index>> partitions = new ArrayList<Callable<Index>>();
+        final Set<VirtualFile> nestedJars = new HashSet<VirtualFile>();
+        final NestedMounts mounts = context.getAttachment(NestedMounts.ATTACHMENT_KEY);
+        if(mounts != null) {
+            for(NestedMounts.Entry entry : mounts) {
+                nestedJars.add(entry.file());
+                partitions.add(new JarPartition(entry.file(), cache));
+            }
+        }
+        final List<VirtualFile> classFiles = getClassFiles(virtualFile, nestedJars);
+        for(int i = 0; i < classFiles.size(); i += CHUNK_SIZE) {
+            partitions.add(new ClassFilesPartition(classFiles.subList(i, Math.min(i + CHUNK_SIZE, classFiles.size()))));
+        }
+        switch(partitions.size()) {
+            case 0:
+                return new Indexer().complete();
+            case 1:
+                return partitions.get(0).call();
+            default:
+                return merge(new PartitionRunner(partitions, executor.getOptionalValue()).execute());
+        }
+    }
+
+    private static List<VirtualFile> getClassFiles(final VirtualFile root, final Set<VirtualFile> excluded) throws IOException {
+        final VisitorAttributes attributes;
+        if(excluded.isEmpty()) {
+            attributes = VisitorAttributes.RECURSE_LEAVES_ONLY;
+        } else {
+            attributes = new VisitorAttributes();
+            attributes.setLeavesOnly(true);
+            attributes.setRecurseFilter(new VirtualFileFilter() {
+                public boolean accepts(final VirtualFile file) {
+                    return !excluded.contains(file);
+                }
+            });
+        }
+        return root.getChildren(new SuffixMatchFilter(".class", attributes));
+    }
+
+    private static Index index(final List<VirtualFile> classFiles) throws IOException {
+        final Indexer indexer = new Indexer();
+        for(VirtualFile classFile : classFiles) {
+            InputStream inputStream = null;
+            try {
+                inputStream = classFile.openStream();
+                indexer.index(inputStream);
+            } finally {
+                VFSUtils.safeClose(inputStream);
+            }
+        }
+        return indexer.complete();
+    }
+
+    /**
+     * Compute the SHA-1 of a mounted nested jar.  Opening the mount point of a zip mount reads the archive itself.
+     *
+     * @return the hash, or {@code null} if the archive can not be read
+     */
+    private static byte[] hash(final VirtualFile jar) {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            return null;
+        }
+        InputStream inputStream = null;
+        try {
+            inputStream = jar.openStream();
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while((read = inputStream.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            return digest.digest();
+        } catch (IOException e) {
+            log.debugf(e, "Not caching the annotation index of %s", jar.getName());
+            return null;
+        } finally {
+            VFSUtils.safeClose(inputStream);
+        }
+    }
+
+    /**
+     * Merge the indexes of the parts of a deployment.  A class found in more than one part is taken from the first.
+     */
+    static Index merge(final List<Index> indexes) {
+        final Map<DotName, List<AnnotationInstance>> annotations = new HashMap<DotName, List<AnnotationInstance>>();
+        final Map<DotName, List<ClassInfo>> subclasses = new HashMap<DotName, List<ClassInfo>>();
+        final Map<DotName, ClassInfo> classes = new HashMap<DotName, ClassInfo>();
+        for(Index index : indexes) {
+            for(ClassInfo classInfo : index.getKnownClasses()) {
+                if(classes.containsKey(classInfo.name())) {
+                    continue;
+                }
+                classes.put(classInfo.name(), classInfo);
+                final DotName superName = classInfo.superName();
+                if(superName != null) {
+                    List<ClassInfo> list = subclasses.get(superName);
+                    if(list == null) {
+                        list = new ArrayList<ClassInfo>();
+                        subclasses.put(superName, list);
+                    }
+                    list.add(classInfo);
+                }
+                for(Map.Entry<DotName, List<AnnotationInstance>> entry : classInfo.annotations().entrySet()) {
+                    List<AnnotationInstance> list = annotations.get(entry.getKey());
+                    if(list == null) {
+                        list = new ArrayList<AnnotationInstance>();
+                        annotations.put(entry.getKey(), list);
+                    }
+                    list.addAll(entry.getValue());
+                }
+            }
+        }
+        return Index.create(annotations, subclasses, classes);
+    }
+
+    /**
+     * A nested jar, which is loaded from the cache if the same jar was indexed before.
+     */
+    private static final class JarPartition implements Callable<Index> {
+        private final VirtualFile jar;
+        private final AnnotationIndexCache cache;
+
+        JarPartition(final VirtualFile jar, final AnnotationIndexCache cache) {
+            this.jar = jar;
+            this.cache = cache;
+        }
+
+        public Index call() throws Exception {
+            final byte[] jarHash = cache == null ? null : hash(jar);
+            Index index = jarHash == null ? null : cache.getIndex(jarHash);
+            if(index == null) {
+                final long start = System.nanoTime();
+                index = index(getClassFiles(jar, Collections.<VirtualFile>emptySet()));
+                if(jarHash != null) {
+                    cache.putIndex(jarHash, index, System.nanoTime() - start);
+                }
+            }
+            return index;
+        }
+    }
+
+    /**
+     * A chunk of the class files outside of the nested jars.
+     */
+    private static final class ClassFilesPartition implements Callable<Index> {
+        private final List<VirtualFile> classFiles;
+
+        ClassFilesPartition(final List<VirtualFile> classFiles) {
+            this.classFiles = classFiles;
+        }
+
+        public Index call() throws Exception {
+            return index(classFiles);
+        }
+    }
+
+    /**
+     * Indexes a list of partitions.  The deploying thread takes partitions itself while at most one helper task waits
+     * on the executor at a time; each helper that starts takes partitions as well and queues the next helper, so the
+     * number of threads indexing grows up to the size of the executor.  Since the deploying thread never waits for a
+     * partition which was not started, a busy or saturated executor only costs parallelism.
+     */
+    private static final class PartitionRunner implements Runnable {
+        private final List<Callable<Index>> partitions;
+        private final Executor executor;
+        private final Index[] results;
+        private final AtomicInteger next = new AtomicInteger();
+        private final AtomicBoolean helperQueued = new AtomicBoolean();
+
+        // protected by {@code this}
+        private int remaining;
+        // protected by {@code this}
+        private Throwable failure;
+
+        PartitionRunner(final List<Callable<Index>> partitions, final Executor executor) {
+            this.partitions = partitions;
+            this.executor = executor;
+            results = new Index[partitions.size()];
+            remaining = partitions.size();
+        }
+
+        List<Index> execute() throws Exception {
+            run();
+            synchronized (this) {
+                while(remaining > 0) {
+                    wait();
+                }
+                if(failure instanceof Exception) {
+                    throw (Exception) failure;
+                } else if(failure != null) {
+                    throw (Error) failure;
+                }
+            }
+            return Arrays.asList(results);
+        }
+
+        public void run() {
+            final int size = partitions.size();
+            int i;
+            while((i = next.getAndIncrement()) < size) {
+                if(i + 1 < size) {
+                    queueHelper();
+                }
+                Index index = null;
+                Throwable problem = null;
+                try {
+                    index = partitions.get(i).call();
+                } catch(Throwable t) {
+                    problem = t;
+                }
+                synchronized (this) {
+                    results[i] = index;
+                    if(problem != null && failure == null) {
+                        failure = problem;
+                    }
+                    if(--remaining == 0) {
+                        notifyAll();
+                    }
+                }
+            }
+        }
+
+        private void queueHelper() {
+            if(executor != null && helperQueued.compareAndSet(false, true)) {
+                try {
+                    executor.execute(new Runnable() {
+                        public void run() {
+                            helperQueued.set(false);
+                            PartitionRunner.this.run();
+                        }
+                    });
+                } catch(RejectedExecutionException e) {
+                    helperQueued.set(false);
+                }
+            }
+        }
+    }
 }
@@ -22,13 +22,18 @@
 
 package org.jboss.as.deployment.processor;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+import org.jboss.as.deployment.AttachmentKey;
 import org.jboss.as.deployment.DeploymentPhases;
 import org.jboss.as.deployment.attachment.VirtualFileAttachment;
 import org.jboss.as.deployment.module.ModuleConfig;
 import org.jboss.as.deployment.module.ModuleDependencies;
+import org.jboss.as.deployment.unit.ConcurrentDeploymentUnitProcessor;
 import org.jboss.as.deployment.unit.DeploymentUnitContext;
 import org.jboss.as.deployment.unit.DeploymentUnitProcessingException;
-import org.jboss.as.deployment.unit.DeploymentUnitProcessor;
 import org.jboss.modules.ModuleIdentifier;
 import org.jboss.msc.service.ServiceActivator;
 import org.jboss.vfs.VirtualFile;
@@ -38,10 +43,12 @@ import org.jboss.vfs.VirtualFile;
  *
  * @author John Bailey
  */
-public class ServiceActivatorDependencyProcessor implements DeploymentUnitProcessor {
+public class ServiceActivatorDependencyProcessor implements ConcurrentDeploymentUnitProcessor {
     public static final long PRIORITY = DeploymentPhases.PARSE_DESCRIPTORS.plus(300L);
     private static final String SERVICE_ACTIVATOR_PATH = "META-INF/services/" + ServiceActivator.class.getName();
     private static final ModuleConfig.Dependency MSC_DEP = new ModuleConfig.Dependency(ModuleIdentifier.create("org.jboss.msc"), true, false, false);
+    private static final Collection<AttachmentKey<?>> CONSUMED = Collections.<AttachmentKey<?>>singleton(VirtualFileAttachment.KEY);
+    private static final Collection<AttachmentKey<?>> PRODUCED = Arrays.<AttachmentKey<?>>asList(ServiceActivatorMarker.ATTACHMENT_KEY, ModuleDependencies.KEY);
 
     /**
      * Add the dependencies if the deployment contains a service activator loader entry.
@@ -57,4 +64,14 @@ public class ServiceActivatorDependencyProcessor implements DeploymentUnitProces
             ModuleDependencies.addDependency(context, MSC_DEP);
         }
     }
+
+    /** {@inheritDoc} */
+    public Collection<AttachmentKey<?>> getConsumedAttachments() {
+        return CONSUMED;
+    }
+
+    /** {@inheritDoc} */
+    public Collection<AttachmentKey<?>> getProducedAttachments() {
+        return PRODUCED;
+    }
 }
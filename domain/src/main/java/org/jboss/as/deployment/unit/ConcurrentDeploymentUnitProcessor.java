@@ -0,0 +1,55 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.deployment.unit;
+
+import java.util.Collection;
+
+import org.jboss.as.deployment.AttachmentKey;
+
+/**
+ * A deployment processor which declares the attachments it reads and writes.  A deployment chain may run such a
+ * processor concurrently with any other declaring processor it shares no attachment with, as long as neither writes
+ * an attachment the other reads or writes.  Processors which do not implement this interface are never run
+ * concurrently with any other processor.
+ * <p>
+ * A processor implementing this interface must not touch any attachment it does not declare, and must not use the
+ * batch builder or service builder of the context.
+ *
+ * @author John E. Bailey
+ */
+public interface ConcurrentDeploymentUnitProcessor extends DeploymentUnitProcessor {
+
+    /**
+     * Get the keys of the attachments this processor reads.
+     *
+     * @return the attachment keys
+     */
+    Collection<AttachmentKey<?>> getConsumedAttachments();
+
+    /**
+     * Get the keys of the attachments this processor writes, including any it also reads.
+     *
+     * @return the attachment keys
+     */
+    Collection<AttachmentKey<?>> getProducedAttachments();
+}
@@ -0,0 +1,203 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.deployment.unit;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jboss.logging.Logger;
+import org.jboss.msc.service.BatchBuilder;
+import org.jboss.msc.service.Service;
+import org.jboss.msc.service.ServiceName;
+import org.jboss.msc.service.StartContext;
+import org.jboss.msc.service.StartException;
+import org.jboss.msc.service.StopContext;
+
+/**
+ * Collects the {@link DeploymentUnitMetrics} of every deployment while enabled, and keeps per phase totals of wall
+ * time, CPU time and allocated bytes.  Each measured deployment is also logged as a single line.  Measuring is off
+ * unless the {@value #ENABLED_PROPERTY} system property is {@code true} or it is enabled through the management
+ * interface; while it is off deployments are not measured at all.
+ *
+ * @author John E. Bailey
+ */
+public class DeploymentMetrics implements DeploymentMetricsMBean, Service<DeploymentMetrics> {
+    private static final Logger log = Logger.getLogger("org.jboss.as.deployment.metrics");
+
+    public static final ServiceName SERVICE_NAME = ServiceName.JBOSS.append("deployment", "metrics");
+    public static final String OBJECT_NAME = "jboss.deployment:type=DeploymentMetrics";
+    public static final String ENABLED_PROPERTY = "org.jboss.as.deployment.metrics";
+
+    private final ConcurrentMap<String, PhaseStatistics> statistics = new ConcurrentHashMap<String, PhaseStatistics>();
+    private final AtomicLong deploymentCount = new AtomicLong();
+    private volatile boolean enabled;
+    private volatile String lastDeployment;
+
+    /**
+     * Creates an instance of DeploymentMetrics and configures the BatchBuilder to install it.
+     *
+     * @param batchBuilder service batch builder to use to install the service
+     */
+    public static void addService(final BatchBuilder batchBuilder) {
+        batchBuilder.addService(SERVICE_NAME, new DeploymentMetrics(Boolean.getBoolean(ENABLED_PROPERTY)));
+    }
+
+    /**
+     * Construct a new instance.
+     *
+     * @param enabled {@code true} to measure deployments from the start
+     */
+    public DeploymentMetrics(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Create the metrics for a new deployment.
+     *
+     * @param deploymentName the name of the deployment
+     * @return the metrics to attach to the deployment unit, or {@code null} if deployments are not measured
+     */
+    public DeploymentUnitMetrics createMetrics(final String deploymentName) {
+        return enabled ? new DeploymentUnitMetrics(deploymentName) : null;
+    }
+
+    /**
+     * Add the metrics of a processed deployment to the totals and log them.
+     *
+     * @param metrics the metrics of the deployment
+     */
+    public void deploymentProcessed(final DeploymentUnitMetrics metrics) {
+        for (DeploymentUnitMetrics.Phase phase : metrics.getPhases()) {
+            PhaseStatistics phaseStatistics = statistics.get(phase.getName());
+            if (phaseStatistics == null) {
+                final PhaseStatistics newStatistics = new PhaseStatistics();
+                phaseStatistics = statistics.putIfAbsent(phase.getName(), newStatistics);
+                if (phaseStatistics == null) {
+                    phaseStatistics = newStatistics;
+                }
+            }
+            phaseStatistics.add(phase);
+        }
+        deploymentCount.incrementAndGet();
+        final String description = metrics.toString();
+        lastDeployment = description;
+        log.info(description);
+    }
+
+    /** {@inheritDoc} */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** {@inheritDoc} */
+    public void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /** {@inheritDoc} */
+    public long getDeploymentCount() {
+        return deploymentCount.get();
+    }
+
+    /** {@inheritDoc} */
+    public String[] getPhaseNames() {
+        return statistics.keySet().toArray(new String[0]);
+    }
+
+    /** {@inheritDoc} */
+    public long getInvocationCount(final String phase) {
+        final PhaseStatistics phaseStatistics = statistics.get(phase);
+        return phaseStatistics == null ? 0L : phaseStatistics.invocations.get();
+    }
+
+    /** {@inheritDoc} */
+    public long getWallTime(final String phase) {
+        final PhaseStatistics phaseStatistics = statistics.get(phase);
+        return phaseStatistics == null ? 0L : TimeUnit.NANOSECONDS.toMillis(phaseStatistics.wallTime.get());
+    }
+
+    /** {@inheritDoc} */
+    public long getCpuTime(final String phase) {
+        final PhaseStatistics phaseStatistics = statistics.get(phase);
+        if (phaseStatistics == null) {
+            return 0L;
+        }
+        final long cpuTime = phaseStatistics.cpuTime.get();
+        return cpuTime < 0L ? -1L : TimeUnit.NANOSECONDS.toMillis(cpuTime);
+    }
+
+    /** {@inheritDoc} */
+    public long getAllocatedBytes(final String phase) {
+        final PhaseStatistics phaseStatistics = statistics.get(phase);
+        return phaseStatistics == null ? 0L : phaseStatistics.allocatedBytes.get();
+    }
+
+    /** {@inheritDoc} */
+    public String getLastDeployment() {
+        return lastDeployment;
+    }
+
+    /** {@inheritDoc} */
+    public void reset() {
+        statistics.clear();
+        deploymentCount.set(0L);
+        lastDeployment = null;
+    }
+
+    public void start(final StartContext context) throws StartException {
+    }
+
+    public void stop(final StopContext context) {
+    }
+
+    public DeploymentMetrics getValue() throws IllegalStateException {
+        return this;
+    }
+
+    private static final class PhaseStatistics {
+        private final AtomicLong invocations = new AtomicLong();
+        private final AtomicLong wallTime = new AtomicLong();
+        // negative once any invocation could not be measured
+        private final AtomicLong cpuTime = new AtomicLong();
+        private final AtomicLong allocatedBytes = new AtomicLong();
+
+        private void add(final DeploymentUnitMetrics.Phase phase) {
+            invocations.incrementAndGet();
+            wallTime.addAndGet(phase.getWallTime());
+            add(cpuTime, phase.getCpuTime());
+            add(allocatedBytes, phase.getAllocatedBytes());
+        }
+
+        private static void add(final AtomicLong total, final long value) {
+            long current;
+            do {
+                current = total.get();
+                if (current < 0L) {
+                    return;
+                }
+            } while (!total.compareAndSet(current, value < 0L ? -1L : current + value));
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.deployment.unit;
+
+/**
+ * Management view of the {@link DeploymentMetrics}.  Times are totals over all deployments since the last reset.
+ *
+ * @author John E. Bailey
+ */
+public interface DeploymentMetricsMBean {
+
+    /**
+     * Determine whether deployments are being measured.
+     *
+     * @return {@code true} if enabled
+     */
+    boolean isEnabled();
+
+    /**
+     * Start or stop measuring deployments.  Deployments already in progress are not affected.
+     *
+     * @param enabled {@code true} to measure new deployments
+     */
+    void setEnabled(boolean enabled);
+
+    /**
+     * Get the number of deployments measured.
+     *
+     * @return the number of deployments
+     */
+    long getDeploymentCount();
+
+    /**
+     * Get the names of all measured phases.
+     *
+     * @return the phase names
+     */
+    String[] getPhaseNames();
+
+    /**
+     * Get the number of times a phase was run.
+     *
+     * @param phase the phase name
+     * @return the number of invocations
+     */
+    long getInvocationCount(String phase);
+
+    /**
+     * Get the total wall time of a phase, in milliseconds.
+     *
+     * @param phase the phase name
+     * @return the wall time
+     */
+    long getWallTime(String phase);
+
+    /**
+     * Get the total CPU time of a phase, in milliseconds.
+     *
+     * @param phase the phase name
+     * @return the CPU time, or {@code -1} if it could not be measured
+     */
+    long getCpuTime(String phase);
+
+    /**
+     * Get the total number of bytes allocated by a phase.
+     *
+     * @param phase the phase name
+     * @return the allocated bytes, or {@code -1} if they could not be measured
+     */
+    long getAllocatedBytes(String phase);
+
+    /**
+     * Get the description of the last measured deployment.
+     *
+     * @return the description, or {@code null} if no deployment was measured
+     */
+    String getLastDeployment();
+
+    /**
+     * Discard all collected metrics.
+     */
+    void reset();
+}
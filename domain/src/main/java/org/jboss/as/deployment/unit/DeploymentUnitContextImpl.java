@@ -48,6 +48,21 @@ public class DeploymentUnitContextImpl extends SimpleAttachable implements Deplo
         this.serviceBuilder = serviceBuilder;
     }
 
+    /**
+     * Construct a new instance which continues the processing of a deployment unit started without a batch, with
+     * the attachments of the given context.
+     *
+     * @param context The context of the deployment unit so far
+     * @param batchBuilder The batch builder
+     * @param serviceBuilder The batch service builder for the deployment service
+     */
+    public DeploymentUnitContextImpl(DeploymentUnitContextImpl context, BatchBuilder batchBuilder, BatchServiceBuilder<Void> serviceBuilder) {
+        super(context);
+        this.name = context.name;
+        this.batchBuilder = batchBuilder;
+        this.serviceBuilder = serviceBuilder;
+    }
+
     /** {@inheritDoc} */
     public String getName() {
         return name;
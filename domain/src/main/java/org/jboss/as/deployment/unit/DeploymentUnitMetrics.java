@@ -0,0 +1,237 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.deployment.unit;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jboss.as.deployment.AttachmentKey;
+
+/**
+ * The cost of each phase of the deployment of a single unit: wall time, CPU time and allocated bytes of the thread
+ * running the phase.  An instance is only attached to deployment units while {@link DeploymentMetrics} is enabled,
+ * so phases check for the attachment and skip measuring altogether otherwise.
+ * <p>
+ * CPU time is only measured if the JVM supports and has enabled thread CPU time measurement, and allocated bytes
+ * only if the platform {@link ThreadMXBean} is the {@code com.sun.management} variant with allocation measurement
+ * enabled.  Unavailable values are reported as {@code -1}.
+ *
+ * @author John E. Bailey
+ */
+public final class DeploymentUnitMetrics {
+    public static final AttachmentKey<DeploymentUnitMetrics> ATTACHMENT_KEY = AttachmentKey.create(DeploymentUnitMetrics.class);
+
+    private static final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+    private static final Method getThreadAllocatedBytes;
+    private static final Method isThreadAllocatedMemoryEnabled;
+
+    static {
+        Method allocatedBytes = null;
+        Method allocatedMemoryEnabled = null;
+        try {
+            final Class<?> sunThreadMXBean = Class.forName("com.sun.management.ThreadMXBean");
+            if (sunThreadMXBean.isInstance(threadMXBean)) {
+                allocatedBytes = sunThreadMXBean.getMethod("getThreadAllocatedBytes", long.class);
+                allocatedMemoryEnabled = sunThreadMXBean.getMethod("isThreadAllocatedMemoryEnabled");
+            }
+        } catch (Throwable ignored) {
+            // not available on this JVM
+        }
+        getThreadAllocatedBytes = allocatedBytes;
+        isThreadAllocatedMemoryEnabled = allocatedMemoryEnabled;
+    }
+
+    private final String deploymentName;
+    private final long startTime = System.nanoTime();
+    // protected by {@code phases}
+    private final List<Phase> phases = new ArrayList<Phase>();
+
+    /**
+     * Construct a new instance.
+     *
+     * @param deploymentName the name of the deployment
+     */
+    public DeploymentUnitMetrics(final String deploymentName) {
+        this.deploymentName = deploymentName;
+    }
+
+    /**
+     * Start measuring a phase on the current thread.  The phase is recorded when the returned sample is ended on the
+     * same thread.
+     *
+     * @param name the phase name, usually the class name of a deployment processor
+     * @return the running sample
+     */
+    public Sample begin(final String name) {
+        return new Sample(name);
+    }
+
+    /**
+     * Get the name of the deployment.
+     *
+     * @return the deployment name
+     */
+    public String getDeploymentName() {
+        return deploymentName;
+    }
+
+    /**
+     * Get the time since these metrics were created, in nanoseconds.
+     *
+     * @return the elapsed time
+     */
+    public long getElapsedTime() {
+        return System.nanoTime() - startTime;
+    }
+
+    /**
+     * Get the phases recorded so far, in the order they ended.
+     *
+     * @return a copy of the recorded phases
+     */
+    public List<Phase> getPhases() {
+        synchronized (phases) {
+            return new ArrayList<Phase>(phases);
+        }
+    }
+
+    /**
+     * Describe the deployment as a single line of {@code key=value} pairs, with times in microseconds.
+     *
+     * @return the description
+     */
+    public String toString() {
+        final StringBuilder builder = new StringBuilder();
+        builder.append("deployment=").append(deploymentName).append(" wall=").append(getElapsedTime() / 1000L);
+        for (Phase phase : getPhases()) {
+            builder.append(' ').append(phase.getName()).append("={wall=").append(phase.getWallTime() / 1000L);
+            builder.append(",cpu=").append(phase.getCpuTime() < 0L ? -1L : phase.getCpuTime() / 1000L);
+            builder.append(",alloc=").append(phase.getAllocatedBytes()).append('}');
+        }
+        return builder.toString();
+    }
+
+    private static long currentThreadCpuTime() {
+        try {
+            if (threadMXBean.isCurrentThreadCpuTimeSupported() && threadMXBean.isThreadCpuTimeEnabled()) {
+                return threadMXBean.getCurrentThreadCpuTime();
+            }
+        } catch (UnsupportedOperationException ignored) {
+        }
+        return -1L;
+    }
+
+    private static long currentThreadAllocatedBytes() {
+        if (getThreadAllocatedBytes != null) {
+            try {
+                if (((Boolean) isThreadAllocatedMemoryEnabled.invoke(threadMXBean)).booleanValue()) {
+                    return ((Long) getThreadAllocatedBytes.invoke(threadMXBean, Long.valueOf(Thread.currentThread().getId()))).longValue();
+                }
+            } catch (Exception ignored) {
+            }
+        }
+        return -1L;
+    }
+
+    /**
+     * A phase which is being measured.
+     */
+    public final class Sample {
+        private final String name;
+        private final long wallStart;
+        private final long cpuStart;
+        private final long allocatedStart;
+
+        private Sample(final String name) {
+            this.name = name;
+            cpuStart = currentThreadCpuTime();
+            allocatedStart = currentThreadAllocatedBytes();
+            wallStart = System.nanoTime();
+        }
+
+        /**
+         * Stop measuring and record the phase.
+         */
+        public void end() {
+            final long wallTime = System.nanoTime() - wallStart;
+            final long cpuEnd = currentThreadCpuTime();
+            final long allocatedEnd = currentThreadAllocatedBytes();
+            final Phase phase = new Phase(name, wallTime, cpuStart < 0L || cpuEnd < 0L ? -1L : cpuEnd - cpuStart,
+                    allocatedStart < 0L || allocatedEnd < 0L ? -1L : allocatedEnd - allocatedStart);
+            synchronized (phases) {
+                phases.add(phase);
+            }
+        }
+    }
+
+    /**
+     * The recorded cost of one phase.
+     */
+    public static final class Phase {
+        private final String name;
+        private final long wallTime;
+        private final long cpuTime;
+        private final long allocatedBytes;
+
+        Phase(final String name, final long wallTime, final long cpuTime, final long allocatedBytes) {
+            this.name = name;
+            this.wallTime = wallTime;
+            this.cpuTime = cpuTime;
+            this.allocatedBytes = allocatedBytes;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Get the wall time of the phase, in nanoseconds.
+         *
+         * @return the wall time
+         */
+        public long getWallTime() {
+            return wallTime;
+        }
+
+        /**
+         * Get the CPU time of the phase, in nanoseconds.
+         *
+         * @return the CPU time, or {@code -1} if it could not be measured
+         */
+        public long getCpuTime() {
+            return cpuTime;
+        }
+
+        /**
+         * Get the number of bytes allocated during the phase.
+         *
+         * @return the allocated bytes, or {@code -1} if they could not be measured
+         */
+        public long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+    }
+}
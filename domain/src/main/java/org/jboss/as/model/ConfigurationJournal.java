@@ -0,0 +1,627 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStreamWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+
+import org.jboss.logging.Logger;
+import org.jboss.staxmapper.XMLContentWriter;
+import org.jboss.staxmapper.XMLExtendedStreamWriter;
+import org.jboss.staxmapper.XMLMapper;
+
+/**
+ * Persists a model to its XML configuration file.
+ * <p>
+ * By default every change rewrites the whole file, which is first written to a temporary file and synced, then moved
+ * into place; the previous file is kept as the {@code .last-known-good} backup.  When the
+ * {@value #JOURNAL_PROPERTY} system property is {@code true}, the updates of every change are instead appended to a
+ * {@code .journal} file next to the configuration and synced, which is all the caller waits for.  A background thread
+ * writes the whole model at most once per {@value #SNAPSHOT_DELAY_PROPERTY} milliseconds, however many changes were
+ * made in between, and then drops the journal records covered by the snapshot.
+ * <p>
+ * After a crash the configuration file may miss the most recent journaled changes.  {@link #recover(AbstractModel)}
+ * replays them onto the model parsed from that file.  As a snapshot may already contain changes which were journaled
+ * after it was started, replay skips updates which fail against the parsed model, logging each of them.
+ * <p>
+ * The model keeps changing while a snapshot is written, so snapshots are written from a replica of the model.  The
+ * replica is copied from the model once, when the first change is journaled; after that the snapshot thread brings
+ * it up to date by applying the journaled updates to it, so persisting a change costs no more than the journal
+ * record, however large the model.
+ *
+ * @param <M> the model type
+ *
+ * @author Brian Stansberry
+ */
+public final class ConfigurationJournal<M extends AbstractModel<M>> {
+
+    private static final Logger log = Logger.getLogger("org.jboss.as.model");
+
+    /** System property which enables the update journal. */
+    public static final String JOURNAL_PROPERTY = "org.jboss.as.model.journal";
+
+    /** System property giving the time in milliseconds between a journaled change and the following snapshot. */
+    public static final String SNAPSHOT_DELAY_PROPERTY = "org.jboss.as.model.journal.snapshot-delay";
+
+    /** Suffix to append to the config file name to create the backup copy. */
+    public static final String BACKUP_SUFFIX = ".last-known-good";
+
+    /** Suffix to append to the config file name to create the journal. */
+    public static final String JOURNAL_SUFFIX = ".journal";
+
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final File configFile;
+    private final File journalFile;
+    private final File backupFile;
+    private final File tempFile;
+    private final Element rootElement;
+    private final boolean journaled;
+    private final long snapshotDelay;
+
+    // protected by {@code this}
+    private ScheduledExecutorService executor;
+
+    // protected by {@code this}
+    private FileOutputStream journal;
+    // protected by {@code this}
+    private long journalLength;
+    /** the replica of the model the snapshots are written from, or {@code null} if it must be copied again */
+    // protected by {@code this}; updated outside of the lock only by the snapshot task which took the pending updates
+    private M replica;
+    /** the serialized update lists which are not applied to {@link #replica} yet */
+    // protected by {@code this}
+    private List<byte[]> pendingUpdates = new ArrayList<byte[]>();
+    /** the length of the journal covered by {@link #replica} with the {@link #pendingUpdates} applied */
+    // protected by {@code this}
+    private long modelJournalLength;
+    // protected by {@code this}
+    private int modelCopies;
+    // protected by {@code this}
+    private boolean snapshotScheduled;
+
+    private final Runnable snapshotTask = new Runnable() {
+        public void run() {
+            snapshot();
+        }
+    };
+
+    /**
+     * Construct a new instance, using the {@value #JOURNAL_PROPERTY} and {@value #SNAPSHOT_DELAY_PROPERTY} system
+     * properties.
+     *
+     * @param configFile the configuration file
+     * @param rootElement the root element of the configuration file
+     */
+    public ConfigurationJournal(final File configFile, final Element rootElement) {
+        this(configFile, rootElement, Boolean.getBoolean(JOURNAL_PROPERTY), Long.getLong(SNAPSHOT_DELAY_PROPERTY, 500L).longValue());
+    }
+
+    /**
+     * Construct a new instance.
+     *
+     * @param configFile the configuration file
+     * @param rootElement the root element of the configuration file
+     * @param journaled {@code true} to journal updates and write snapshots in the background
+     * @param snapshotDelay the time in milliseconds between a journaled change and the following snapshot
+     */
+    public ConfigurationJournal(final File configFile, final Element rootElement, final boolean journaled, final long snapshotDelay) {
+        if (configFile == null) {
+            throw new IllegalArgumentException("configFile is null");
+        }
+        if (rootElement == null) {
+            throw new IllegalArgumentException("rootElement is null");
+        }
+        this.configFile = configFile;
+        journalFile = new File(configFile.getParentFile(), configFile.getName() + JOURNAL_SUFFIX);
+        backupFile = new File(configFile.getParentFile(), configFile.getName() + BACKUP_SUFFIX);
+        tempFile = new File(configFile.getParentFile(), configFile.getName() + TEMP_SUFFIX);
+        this.rootElement = rootElement;
+        this.journaled = journaled;
+        this.snapshotDelay = snapshotDelay;
+    }
+
+    /**
+     * Get the configuration file.
+     *
+     * @return the configuration file
+     */
+    public File getConfigFile() {
+        return configFile;
+    }
+
+    /**
+     * Determine whether there are journaled updates which are not known to be in the configuration file.
+     *
+     * @return {@code true} if {@link #recover(AbstractModel)} has anything to replay
+     */
+    public boolean isRecoveryNeeded() {
+        return journalFile.length() > 0L;
+    }
+
+    /**
+     * Persist a change to the model.  Failures are logged.  The model must not change until this method returns.
+     *
+     * @param model the model, with the updates already applied
+     * @param updates the updates which were applied to the model
+     */
+    public void persist(final M model, final List<? extends AbstractModelUpdate<M, ?>> updates) {
+        if (journaled) {
+            synchronized (this) {
+                try {
+                    final byte[] record = append(updates);
+                    if (replica == null) {
+                        // the copy already contains these updates
+                        replica = copy(model);
+                        modelCopies++;
+                        pendingUpdates.clear();
+                    } else {
+                        pendingUpdates.add(record);
+                    }
+                    modelJournalLength = journalLength;
+                } catch (IOException e) {
+                    log.errorf(e, "Failed journaling updates to %s, writing it instead", configFile.getAbsolutePath());
+                    // the replica may have missed these updates
+                    replica = null;
+                    pendingUpdates.clear();
+                    if (writeSnapshot(model)) {
+                        truncateJournal(journalLength);
+                        snapshotScheduled = false;
+                    }
+                    return;
+                }
+                if (! snapshotScheduled) {
+                    snapshotScheduled = true;
+                    if (executor == null) {
+                        executor = Executors.newSingleThreadScheduledExecutor(new SnapshotThreadFactory(configFile.getName()));
+                    }
+                    executor.schedule(snapshotTask, snapshotDelay, TimeUnit.MILLISECONDS);
+                }
+            }
+        } else {
+            writeSnapshot(model);
+        }
+    }
+
+    /**
+     * Replay the journaled updates onto the model read from the configuration file, write the model and discard the
+     * journal.  A truncated or corrupt record, as left by a crash while it was written, ends the replay.
+     *
+     * @param model the model read from the configuration file
+     * @return the number of replayed updates
+     */
+    public synchronized int recover(final M model) {
+        if (! journalFile.exists()) {
+            return 0;
+        }
+        int count = 0;
+        int skipped = 0;
+        try {
+            final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(journalFile)));
+            try {
+                List<AbstractModelUpdate<M, ?>> updates;
+                while ((updates = readRecord(in)) != null) {
+                    for (AbstractModelUpdate<M, ?> update : updates) {
+                        try {
+                            model.update(update);
+                            count++;
+                        } catch (UpdateFailedException e) {
+                            // most likely written by a snapshot which was started after the update was journaled
+                            log.warnf(e, "Skipping journaled update %s which cannot be applied to %s", update, configFile.getAbsolutePath());
+                            skipped++;
+                        }
+                    }
+                }
+            } finally {
+                safeClose(in);
+            }
+        } catch (IOException e) {
+            log.errorf(e, "Failed reading journal %s", journalFile.getAbsolutePath());
+        }
+        if (skipped > 0) {
+            log.warnf("Skipped %d journaled updates to %s", Integer.valueOf(skipped), configFile.getAbsolutePath());
+        }
+        if (count > 0) {
+            log.infof("Recovered %d journaled updates to %s", Integer.valueOf(count), configFile.getAbsolutePath());
+            writeSnapshot(model);
+        }
+        closeJournal();
+        if (! journalFile.delete() && journalFile.exists()) {
+            log.warnf("Failed deleting journal %s", journalFile.getAbsolutePath());
+        }
+        return count;
+    }
+
+    /**
+     * Write any pending snapshot and stop the snapshot thread.  The journal may be used again afterwards.
+     */
+    public void close() {
+        final ScheduledExecutorService executor;
+        synchronized (this) {
+            executor = this.executor;
+            this.executor = null;
+        }
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(snapshotDelay + 30000L, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (this) {
+            if (snapshotScheduled) {
+                snapshotScheduled = false;
+                final M replica = this.replica;
+                final List<byte[]> pending = pendingUpdates;
+                pendingUpdates = new ArrayList<byte[]>();
+                if (replica != null && updateReplica(replica, pending) && writeSnapshot(replica)) {
+                    truncateJournal(modelJournalLength);
+                }
+            }
+            closeJournal();
+        }
+    }
+
+    /**
+     * Get the number of times the whole model was copied.
+     *
+     * @return the number of copies
+     */
+    synchronized int getModelCopies() {
+        return modelCopies;
+    }
+
+    /**
+     * Append a record of the updates to the journal.
+     *
+     * @return the serialized updates
+     */
+    // protected by {@code this}
+    private byte[] append(final List<? extends AbstractModelUpdate<M, ?>> updates) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+        final ObjectOutputStream oos = new ObjectOutputStream(bytes);
+        oos.writeObject(new ArrayList<AbstractModelUpdate<M, ?>>(updates));
+        oos.close();
+        final CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+
+        if (journal == null) {
+            journal = new FileOutputStream(journalFile, true);
+            journalLength = journalFile.length();
+        }
+        final ByteArrayOutputStream record = new ByteArrayOutputStream(bytes.size() + 12);
+        final DataOutputStream out = new DataOutputStream(record);
+        out.writeInt(bytes.size());
+        out.writeLong(crc.getValue());
+        bytes.writeTo(out);
+        out.flush();
+        journal.write(record.toByteArray());
+        journal.getFD().sync();
+        journalLength += record.size();
+        return bytes.toByteArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    private M copy(final M model) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(8192);
+        final ObjectOutputStream oos = new ObjectOutputStream(bytes);
+        oos.writeObject(model);
+        oos.close();
+        final ObjectInputStream ois = new ContextObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        try {
+            return (M) ois.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Cannot load model class: " + e.getMessage());
+        } finally {
+            safeClose(ois);
+        }
+    }
+
+    /**
+     * Apply updates to the replica.  Called by the snapshot task, or with the snapshot thread stopped.
+     *
+     * @param replica the replica
+     * @param pending the serialized update lists, in journal order
+     * @return {@code true} if the replica is up to date, {@code false} if it is discarded
+     */
+    private boolean updateReplica(final M replica, final List<byte[]> pending) {
+        try {
+            for (byte[] bytes : pending) {
+                for (AbstractModelUpdate<M, ?> update : readUpdates(bytes)) {
+                    replica.update(update);
+                }
+            }
+            return true;
+        } catch (Exception e) {
+            log.errorf(e, "Failed updating the replica of %s, copying the model again on the next change", configFile.getAbsolutePath());
+            synchronized (this) {
+                if (this.replica == replica) {
+                    this.replica = null;
+                }
+            }
+            return false;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<AbstractModelUpdate<M, ?>> readRecord(final DataInputStream in) throws IOException {
+        final byte[] bytes;
+        final long checksum;
+        try {
+            final int length = in.readInt();
+            if (length <= 0) {
+                return null;
+            }
+            checksum = in.readLong();
+            bytes = new byte[length];
+            in.readFully(bytes);
+        } catch (EOFException e) {
+            return null;
+        }
+        final CRC32 crc = new CRC32();
+        crc.update(bytes);
+        if (crc.getValue() != checksum) {
+            log.warnf("Ignoring corrupt record at the end of journal %s", journalFile.getAbsolutePath());
+            return null;
+        }
+        return readUpdates(bytes);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<AbstractModelUpdate<M, ?>> readUpdates(final byte[] bytes) throws IOException {
+        final ObjectInputStream ois = new ContextObjectInputStream(new ByteArrayInputStream(bytes));
+        try {
+            return (List<AbstractModelUpdate<M, ?>>) ois.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Cannot load journaled update class: " + e.getMessage());
+        } finally {
+            safeClose(ois);
+        }
+    }
+
+    private void snapshot() {
+        final M replica;
+        final List<byte[]> pending;
+        final long length;
+        synchronized (this) {
+            if (! snapshotScheduled) {
+                return;
+            }
+            snapshotScheduled = false;
+            replica = this.replica;
+            pending = pendingUpdates;
+            pendingUpdates = new ArrayList<byte[]>();
+            length = modelJournalLength;
+        }
+        // the journal stays until a later snapshot covers it
+        if (replica == null || ! updateReplica(replica, pending)) {
+            return;
+        }
+        // changes made while the snapshot is written stay in the journal
+        if (writeSnapshot(replica)) {
+            synchronized (this) {
+                // unless the journal was written over in the meantime
+                if (this.replica == replica) {
+                    truncateJournal(length);
+                }
+            }
+        }
+    }
+
+    /**
+     * Drop the first {@code length} bytes of the journal, which are covered by a snapshot.
+     */
+    // protected by {@code this}
+    private void truncateJournal(final long length) {
+        try {
+            if (length >= journalLength) {
+                if (journal != null) {
+                    journal.getChannel().truncate(0L);
+                    journal.getFD().sync();
+                } else if (! journalFile.delete() && journalFile.exists()) {
+                    throw new IOException("Cannot delete " + journalFile.getAbsolutePath());
+                }
+                journalLength = 0L;
+                modelJournalLength = 0L;
+                return;
+            }
+            closeJournal();
+            final File tmp = new File(journalFile.getParentFile(), journalFile.getName() + TEMP_SUFFIX);
+            final FileInputStream in = new FileInputStream(journalFile);
+            try {
+                final FileOutputStream out = new FileOutputStream(tmp);
+                try {
+                    long skipped = 0L;
+                    while (skipped < length) {
+                        skipped += in.skip(length - skipped);
+                    }
+                    copy(in, out);
+                    out.getFD().sync();
+                } finally {
+                    safeClose(out);
+                }
+            } finally {
+                safeClose(in);
+            }
+            rename(tmp, journalFile);
+            journalLength -= length;
+            modelJournalLength = Math.max(0L, modelJournalLength - length);
+        } catch (IOException e) {
+            // the journal is still valid, replay will skip what is already in the snapshot
+            log.warnf(e, "Failed compacting journal %s", journalFile.getAbsolutePath());
+        }
+    }
+
+    // protected by {@code this}
+    private void closeJournal() {
+        if (journal != null) {
+            safeClose(journal);
+            journal = null;
+        }
+    }
+
+    private boolean writeSnapshot(final M model) {
+        try {
+            final FileOutputStream fos = new FileOutputStream(tempFile);
+            try {
+                final OutputStreamWriter writer = new OutputStreamWriter(new BufferedOutputStream(fos));
+                final XMLMapper mapper = XMLMapper.Factory.create();
+                mapper.deparseDocument(new RootElementWriter(model), XMLOutputFactory.newInstance().createXMLStreamWriter(writer));
+                writer.flush();
+                fos.getFD().sync();
+            } finally {
+                safeClose(fos);
+            }
+            if (configFile.exists()) {
+                backupFile.delete();
+                if (! configFile.renameTo(backupFile)) {
+                    copyFile(configFile, backupFile);
+                }
+            }
+            rename(tempFile, configFile);
+            return true;
+        } catch (Exception e) {
+            log.errorf(e, "Failed persisting configuration file %s", configFile.getAbsolutePath());
+            return false;
+        }
+    }
+
+    private static void rename(final File from, final File to) throws IOException {
+        if (! from.renameTo(to)) {
+            to.delete();
+            if (! from.renameTo(to)) {
+                throw new IOException("Cannot move " + from.getAbsolutePath() + " to " + to.getAbsolutePath());
+            }
+        }
+    }
+
+    private static void copyFile(final File file, final File backup) throws IOException {
+        final FileInputStream in = new FileInputStream(file);
+        try {
+            final FileOutputStream out = new FileOutputStream(backup);
+            try {
+                copy(in, out);
+            } finally {
+                safeClose(out);
+            }
+        } finally {
+            safeClose(in);
+        }
+    }
+
+    private static void copy(final InputStream in, final FileOutputStream out) throws IOException {
+        final byte[] bytes = new byte[8192];
+        int read;
+        while ((read = in.read(bytes)) > -1) {
+            out.write(bytes, 0, read);
+        }
+    }
+
+    private static void safeClose(final Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception ignored) {
+        }
+    }
+
+    private class RootElementWriter implements XMLContentWriter {
+
+        private final M model;
+
+        private RootElementWriter(final M model) {
+            this.model = model;
+        }
+
+        @Override
+        public void writeContent(final XMLExtendedStreamWriter streamWriter) throws XMLStreamException {
+            streamWriter.writeStartDocument();
+            streamWriter.writeStartElement(rootElement.getLocalName());
+            model.writeContent(streamWriter);
+            streamWriter.writeEndDocument();
+        }
+    }
+
+    /**
+     * Subsystem updates are loaded from the extension modules, which are visible to the thread context class loader
+     * rather than to this module.
+     */
+    private static final class ContextObjectInputStream extends ObjectInputStream {
+
+        private ContextObjectInputStream(final InputStream in) throws IOException {
+            super(in);
+        }
+
+        @Override
+        protected Class<?> resolveClass(final ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            final ClassLoader loader = Thread.currentThread().getContextClassLoader();
+            if (loader != null) {
+                try {
+                    return Class.forName(desc.getName(), false, loader);
+                } catch (ClassNotFoundException ignored) {
+                }
+            }
+            return super.resolveClass(desc);
+        }
+    }
+
+    private static final class SnapshotThreadFactory implements ThreadFactory {
+
+        private final String name;
+
+        private SnapshotThreadFactory(final String name) {
+            this.name = name;
+        }
+
+        public Thread newThread(final Runnable r) {
+            final Thread thread = new Thread(r, name + " snapshot");
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
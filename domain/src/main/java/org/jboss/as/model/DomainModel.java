@@ -54,6 +54,8 @@ public final class DomainModel extends AbstractModel<DomainModel> {
     private final Map<String, InterfaceElement> interfaces = new LinkedHashMap<String, InterfaceElement>();
     private final Map<String, SocketBindingGroupElement> bindingGroups = new LinkedHashMap<String, SocketBindingGroupElement>();
     private PropertiesElement systemProperties = new PropertiesElement(Element.PROPERTY, true);
+    private volatile long epoch;
+    private volatile long revision;
 
     private static final QName ELEMENT_NAME = new QName(Namespace.CURRENT.getUriString(), Element.DOMAIN.getLocalName());
 
@@ -64,6 +66,45 @@ public final class DomainModel extends AbstractModel<DomainModel> {
         super(ELEMENT_NAME);
     }
 
+    /**
+     * Gets the epoch of this model.  The domain controller gives its model a new epoch every time it starts, as the
+     * revisions start over; revisions of models with different epochs cannot be compared.
+     *
+     * @return the epoch, or {@code 0} if the model was never loaded by a domain controller
+     */
+    public long getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * Sets the epoch of this model.
+     *
+     * @param epoch the epoch
+     */
+    public void setEpoch(final long epoch) {
+        this.epoch = epoch;
+    }
+
+    /**
+     * Gets the revision of this model.  The domain controller increments the revision of its model for every update
+     * it applies, so a copy of the model at a known revision can be brought up to date by applying only the updates
+     * made since.
+     *
+     * @return the revision, or {@code 0} if the model was never updated by the domain controller
+     */
+    public long getRevision() {
+        return revision;
+    }
+
+    /**
+     * Sets the revision of this model.
+     *
+     * @param revision the revision
+     */
+    public void setRevision(final long revision) {
+        this.revision = revision;
+    }
+
     /**
      * Gets the extension modules available for use in this domain.
      *
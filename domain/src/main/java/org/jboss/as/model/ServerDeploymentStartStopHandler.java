@@ -23,6 +23,7 @@
 package org.jboss.as.model;
 
 import java.io.Serializable;
+import static org.jboss.as.deployment.attachment.DeploymentHashAttachment.attachDeploymentHash;
 import static org.jboss.as.deployment.attachment.VirtualFileAttachment.attachVirtualFile;
 
 import java.io.Closeable;
@@ -30,14 +31,19 @@ import java.io.IOException;
 import java.util.jar.Manifest;
 
 import org.jboss.as.deployment.DeploymentFailureListener;
+import org.jboss.as.deployment.DeploymentPreparer;
 import org.jboss.as.deployment.ServerDeploymentRepository;
 import org.jboss.as.deployment.DeploymentService;
 import org.jboss.as.deployment.attachment.ManifestAttachment;
 import org.jboss.as.deployment.chain.DeploymentChain;
 import org.jboss.as.deployment.chain.DeploymentChainProvider;
 import org.jboss.as.deployment.module.MountHandle;
+import org.jboss.as.deployment.module.NestedJarInlineProcessor;
+import org.jboss.as.deployment.processor.AnnotationIndexCache;
+import org.jboss.as.deployment.unit.DeploymentMetrics;
 import org.jboss.as.deployment.unit.DeploymentUnitContext;
 import org.jboss.as.deployment.unit.DeploymentUnitContextImpl;
+import org.jboss.as.deployment.unit.DeploymentUnitMetrics;
 import org.jboss.as.deployment.unit.DeploymentUnitProcessingException;
 import org.jboss.logging.Logger;
 import org.jboss.msc.service.AbstractServiceListener;
@@ -63,6 +69,7 @@ import org.jboss.vfs.VirtualFile;
 class ServerDeploymentStartStopHandler implements Serializable {
     private static final long serialVersionUID = 4804538479425267270L;
     private static final Logger log = Logger.getLogger("org.jboss.as.deployment");
+    private static final String MOUNT_PHASE = "mount";
 
 
     <P> void deploy(final String deploymentName, final String runtimeName, final byte[] deploymentHash, final ServiceContainer serviceContainer,
@@ -149,20 +156,36 @@ class ServerDeploymentStartStopHandler implements Serializable {
         log.infof("Activating deployment: %s", deploymentName);
 
         Closeable handle = null;
+        final DeploymentMetrics deploymentMetrics = getDeploymentMetrics(serviceContainer);
+        final DeploymentPreparer deploymentPreparer = getDeploymentPreparer(serviceContainer);
+        final DeploymentPreparer.PreparedDeployment prepared = deploymentPreparer == null ? null : deploymentPreparer.takeDeployment(deploymentName, deploymentHash);
+        DeploymentUnitMetrics metrics = null;
         try {
-            final ServerDeploymentRepository deploymentRepo = getDeploymentRepository(serviceContainer);
-            // The mount point we will use for the repository file
-//          final VirtualFile deploymentRoot = VFS.getChild(getFullyQualifiedDeploymentPath(runtimeName));
-            final VirtualFile deploymentRoot = VFS.getChild("deployments/" + runtimeName);
-
-            // Mount virtual file
-            try {
-                handle = deploymentRepo.mountDeploymentContent(deploymentName, runtimeName, deploymentHash, deploymentRoot);
-            } catch (IOException e) {
-                throw new RuntimeException("Failed to mount deployment archive", e);
+            final BatchBuilder batchBuilder = context.getBatchBuilder();
+            final VirtualFile deploymentRoot;
+            if (prepared != null) {
+                handle = prepared.getHandle();
+                deploymentRoot = prepared.getDeploymentRoot();
+                metrics = prepared.getContext().getAttachment(DeploymentUnitMetrics.ATTACHMENT_KEY);
+            } else {
+                metrics = deploymentMetrics == null ? null : deploymentMetrics.createMetrics(deploymentName);
+                final ServerDeploymentRepository deploymentRepo = getDeploymentRepository(serviceContainer);
+                // The mount point we will use for the repository file
+//              deploymentRoot = VFS.getChild(getFullyQualifiedDeploymentPath(runtimeName));
+                deploymentRoot = VFS.getChild("deployments/" + runtimeName);
+
+                // Mount virtual file
+                final DeploymentUnitMetrics.Sample mountSample = metrics == null ? null : metrics.begin(MOUNT_PHASE);
+                try {
+                    handle = deploymentRepo.mountDeploymentContent(deploymentName, runtimeName, deploymentHash, deploymentRoot);
+                } catch (IOException e) {
+                    throw new RuntimeException("Failed to mount deployment archive", e);
+                } finally {
+                    if (mountSample != null)
+                        mountSample.end();
+                }
             }
 
-            final BatchBuilder batchBuilder = context.getBatchBuilder();
             // Create deployment service
             DeploymentService deploymentService = new DeploymentService(handle);
             BatchServiceBuilder<Void> serviceBuilder = batchBuilder.addService(deploymentServiceName, deploymentService);
@@ -176,23 +199,39 @@ class ServerDeploymentStartStopHandler implements Serializable {
             // Add a deployment failure listener to the batch
             deploymentSubBatch.addListener(new DeploymentFailureListener(deploymentServiceName));
 
-            // Create the deployment unit context
-            final DeploymentUnitContext deploymentUnitContext = new DeploymentUnitContextImpl(deploymentServiceName.getSimpleName(), deploymentSubBatch, serviceBuilder);
-            attachVirtualFile(deploymentUnitContext, deploymentRoot);
-            deploymentUnitContext.putAttachment(MountHandle.ATTACHMENT_KEY, new MountHandle(handle));
+            final DeploymentUnitContext deploymentUnitContext;
+            final DeploymentChain deploymentChain;
+            if (prepared != null) {
+                // Continue from where the preparation stopped
+                deploymentUnitContext = new DeploymentUnitContextImpl(prepared.getContext(), deploymentSubBatch, serviceBuilder);
+                NestedJarInlineProcessor.addCloseListener(deploymentUnitContext);
+                deploymentChain = prepared.getDeploymentChain();
+                log.debugf("Installing deployment %s prepared during boot", deploymentName);
+            } else {
+                // Create the deployment unit context
+                deploymentUnitContext = new DeploymentUnitContextImpl(deploymentServiceName.getSimpleName(), deploymentSubBatch, serviceBuilder);
+                attachVirtualFile(deploymentUnitContext, deploymentRoot);
+                deploymentUnitContext.putAttachment(MountHandle.ATTACHMENT_KEY, new MountHandle(handle));
+                attachDeploymentHash(deploymentUnitContext, deploymentHash);
+                final AnnotationIndexCache annotationIndexCache = getAnnotationIndexCache(serviceContainer);
+                if (annotationIndexCache != null)
+                    deploymentUnitContext.putAttachment(AnnotationIndexCache.ATTACHMENT_KEY, annotationIndexCache);
+                if (metrics != null)
+                    deploymentUnitContext.putAttachment(DeploymentUnitMetrics.ATTACHMENT_KEY, metrics);
+
+                // Get the optional Manifest for this deployment
+                try {
+                    Manifest manifest = VFSUtils.getManifest(deploymentRoot);
+                    if (manifest != null)
+                        ManifestAttachment.attachManifest(deploymentUnitContext, manifest);
+                } catch (IOException e) {
+                    throw new RuntimeException("Failed to get manifest for deployment " + deploymentRoot, e);
+                }
 
-            // Get the optional Manifest for this deployment
-            try {
-                Manifest manifest = VFSUtils.getManifest(deploymentRoot);
-                if (manifest != null)
-                    ManifestAttachment.attachManifest(deploymentUnitContext, manifest);
-            } catch (IOException e) {
-                throw new RuntimeException("Failed to get manifest for deployment " + deploymentRoot, e);
+                deploymentChain = DeploymentChainProvider.INSTANCE.determineDeploymentChain(deploymentUnitContext);
             }
 
             // Execute the deployment chain
-            final DeploymentChainProvider deploymentChainProvider = DeploymentChainProvider.INSTANCE;
-            final DeploymentChain deploymentChain = deploymentChainProvider.determineDeploymentChain(deploymentUnitContext);
             log.debugf("Executing deployment '%s' with chain: %s", deploymentName, deploymentChain);
             if(deploymentChain == null)
                 throw new RuntimeException("Failed determine the deployment chain for deployment root: " + deploymentRoot);
@@ -202,11 +241,18 @@ class ServerDeploymentStartStopHandler implements Serializable {
                 throw new RuntimeException("Failed to process deployment chain.", e);
             }
         } catch(Throwable t) {
-            VFSUtils.safeClose(handle);
+            if (prepared != null) {
+                prepared.close();
+            } else {
+                VFSUtils.safeClose(handle);
+            }
             if (t instanceof RuntimeException) {
                 throw (RuntimeException) t;
             }
             throw new RuntimeException("Failed to activate deployment unit " + deploymentName, t);
+        } finally {
+            if (metrics != null && deploymentMetrics != null)
+                deploymentMetrics.deploymentProcessed(metrics);
         }
     }
 
@@ -216,6 +262,33 @@ class ServerDeploymentStartStopHandler implements Serializable {
         return serviceController.getValue();
     }
 
+    private AnnotationIndexCache getAnnotationIndexCache(ServiceContainer serviceContainer) {
+        @SuppressWarnings("unchecked")
+        ServiceController<AnnotationIndexCache> serviceController = (ServiceController<AnnotationIndexCache>) serviceContainer.getService(AnnotationIndexCache.SERVICE_NAME);
+        if (serviceController == null || serviceController.getState() != ServiceController.State.UP) {
+            return null;
+        }
+        return serviceController.getValue();
+    }
+
+    private DeploymentPreparer getDeploymentPreparer(ServiceContainer serviceContainer) {
+        @SuppressWarnings("unchecked")
+        ServiceController<DeploymentPreparer> serviceController = (ServiceController<DeploymentPreparer>) serviceContainer.getService(DeploymentPreparer.SERVICE_NAME);
+        if (serviceController == null || serviceController.getState() != ServiceController.State.UP) {
+            return null;
+        }
+        return serviceController.getValue();
+    }
+
+    private DeploymentMetrics getDeploymentMetrics(ServiceContainer serviceContainer) {
+        @SuppressWarnings("unchecked")
+        ServiceController<DeploymentMetrics> serviceController = (ServiceController<DeploymentMetrics>) serviceContainer.getService(DeploymentMetrics.SERVICE_NAME);
+        if (serviceController == null || serviceController.getState() != ServiceController.State.UP) {
+            return null;
+        }
+        return serviceController.getValue();
+    }
+
 //    private static String getFullyQualifiedDeploymentPath(String name) {
 //        final String fileName = name;
 //        String path = System.getProperty("jboss.server.deploy.dir");
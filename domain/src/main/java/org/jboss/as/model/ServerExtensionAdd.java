@@ -41,6 +41,10 @@ public final class ServerExtensionAdd extends AbstractServerModelUpdate<Void> {
         this.moduleName = moduleName;
     }
 
+    public String getModuleName() {
+        return moduleName;
+    }
+
     /** {@inheritDoc} */
     protected void applyUpdate(final ServerModel element) throws UpdateFailedException {
         element.addExtension(moduleName);
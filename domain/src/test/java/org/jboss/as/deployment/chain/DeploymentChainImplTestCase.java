@@ -0,0 +1,240 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.deployment.chain;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.as.deployment.AttachmentKey;
+import org.jboss.as.deployment.unit.ConcurrentDeploymentUnitProcessor;
+import org.jboss.as.deployment.unit.DeploymentUnitContext;
+import org.jboss.as.deployment.unit.DeploymentUnitContextImpl;
+import org.jboss.as.deployment.unit.DeploymentUnitProcessingException;
+import org.jboss.as.deployment.unit.DeploymentUnitProcessor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test to verify the DeploymentChainImpl runs independent processors concurrently while keeping dependent processors
+ * in priority order.
+ *
+ * @author John E. Bailey
+ */
+public class DeploymentChainImplTestCase {
+
+    private static final AttachmentKey<String> KEY_A = AttachmentKey.create(String.class);
+    private static final AttachmentKey<String> KEY_B = AttachmentKey.create(String.class);
+
+    private final List<String> order = Collections.synchronizedList(new ArrayList<String>());
+    private ExecutorService executor;
+    private DeploymentChainImpl chain;
+
+    @Before
+    public void setup() {
+        executor = Executors.newFixedThreadPool(2);
+        chain = new DeploymentChainImpl("test.chain");
+        chain.getExecutorInjector().inject(executor);
+    }
+
+    @After
+    public void cleanup() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testIndependentProcessorsRunConcurrently() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(2);
+        chain.addProcessor(new LatchProcessor("first", latch, KEY_A), 100L);
+        chain.addProcessor(new LatchProcessor("second", latch, KEY_B), 200L);
+        final DeploymentUnitContext context = context();
+        chain.processDeployment(context);
+        assertEquals("first", context.getAttachment(KEY_A));
+        assertEquals("second", context.getAttachment(KEY_B));
+    }
+
+    @Test
+    public void testDependentProcessorsRunInOrder() throws Exception {
+        chain.addProcessor(new RecordingProcessor("producer", Collections.<AttachmentKey<?>>emptySet(), KEY_A), 100L);
+        chain.addProcessor(new RecordingProcessor("consumer", Collections.<AttachmentKey<?>>singleton(KEY_A), KEY_B) {
+            public void processDeployment(final DeploymentUnitContext context) throws DeploymentUnitProcessingException {
+                assertEquals("producer", context.getAttachment(KEY_A));
+                super.processDeployment(context);
+            }
+        }, 200L);
+        chain.processDeployment(context());
+        assertEquals(Arrays.asList("producer", "consumer"), order);
+    }
+
+    @Test
+    public void testUndeclaredProcessorIsNotConcurrent() throws Exception {
+        chain.addProcessor(new RecordingProcessor("first", Collections.<AttachmentKey<?>>emptySet(), KEY_A) {
+            public void processDeployment(final DeploymentUnitContext context) throws DeploymentUnitProcessingException {
+                sleep();
+                super.processDeployment(context);
+            }
+        }, 100L);
+        chain.addProcessor(new DeploymentUnitProcessor() {
+            public void processDeployment(final DeploymentUnitContext context) throws DeploymentUnitProcessingException {
+                order.add("undeclared");
+            }
+        }, 200L);
+        chain.addProcessor(new RecordingProcessor("last", Collections.<AttachmentKey<?>>emptySet(), KEY_B), 300L);
+        chain.processDeployment(context());
+        assertEquals(Arrays.asList("first", "undeclared", "last"), order);
+    }
+
+    @Test
+    public void testFailure() throws Exception {
+        final DeploymentUnitProcessingException failure = new DeploymentUnitProcessingException("expected");
+        chain.addProcessor(new RecordingProcessor("failing", Collections.<AttachmentKey<?>>emptySet(), KEY_A) {
+            public void processDeployment(final DeploymentUnitContext context) throws DeploymentUnitProcessingException {
+                throw failure;
+            }
+        }, 100L);
+        chain.addProcessor(new RecordingProcessor("independent", Collections.<AttachmentKey<?>>emptySet(), KEY_B), 200L);
+        chain.addProcessor(new RecordingProcessor("dependent", Collections.<AttachmentKey<?>>singleton(KEY_A), KEY_B), 300L);
+        try {
+            chain.processDeployment(context());
+            fail("Expected failure");
+        } catch (DeploymentUnitProcessingException e) {
+            assertSame(failure, e);
+        }
+        assertTrue(!order.contains("dependent"));
+    }
+
+    @Test
+    public void testWithoutExecutor() throws Exception {
+        final DeploymentChainImpl chain = new DeploymentChainImpl("test.chain");
+        chain.addProcessor(new RecordingProcessor("first", Collections.<AttachmentKey<?>>emptySet(), KEY_A), 100L);
+        chain.addProcessor(new RecordingProcessor("second", Collections.<AttachmentKey<?>>emptySet(), KEY_B), 200L);
+        chain.processDeployment(context());
+        assertEquals(Arrays.asList("first", "second"), order);
+    }
+
+    @Test
+    public void testResume() throws Exception {
+        chain.addProcessor(new RecordingProcessor("early", Collections.<AttachmentKey<?>>emptySet(), KEY_A), 100L);
+        chain.addProcessor(new RecordingProcessor("late", Collections.<AttachmentKey<?>>singleton(KEY_A), KEY_B), 300L);
+        final DeploymentUnitContextImpl prepared = new DeploymentUnitContextImpl("test-deployment", null, null);
+        chain.processDeployment(prepared, 200L);
+        assertEquals(Arrays.asList("early"), order);
+        assertTrue(chain.isResumable(prepared));
+
+        // a processor after the limit does not prevent resuming
+        chain.addProcessor(new RecordingProcessor("later", Collections.<AttachmentKey<?>>emptySet(), KEY_B) {}, 400L);
+        assertTrue(chain.isResumable(prepared));
+
+        final DeploymentUnitContext context = new DeploymentUnitContextImpl(prepared, null, null);
+        chain.processDeployment(context);
+        assertEquals(Arrays.asList("early", "late", "later"), order);
+        assertEquals("early", context.getAttachment(KEY_A));
+    }
+
+    @Test
+    public void testNotResumable() throws Exception {
+        chain.addProcessor(new RecordingProcessor("early", Collections.<AttachmentKey<?>>emptySet(), KEY_A), 100L);
+        final DeploymentUnitContext prepared = context();
+        assertFalse(chain.isResumable(prepared));
+        chain.processDeployment(prepared, 200L);
+        chain.addProcessor(new RecordingProcessor("missed", Collections.<AttachmentKey<?>>emptySet(), KEY_B), 150L);
+        assertFalse(chain.isResumable(prepared));
+        assertFalse(new DeploymentChainImpl("other.chain").isResumable(prepared));
+    }
+
+    private static DeploymentUnitContext context() {
+        return new DeploymentUnitContextImpl("test-deployment", null, null);
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(50L);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private class RecordingProcessor implements ConcurrentDeploymentUnitProcessor {
+        private final String name;
+        private final Collection<AttachmentKey<?>> consumed;
+        private final AttachmentKey<String> produced;
+
+        RecordingProcessor(final String name, final Collection<AttachmentKey<?>> consumed, final AttachmentKey<String> produced) {
+            this.name = name;
+            this.consumed = consumed;
+            this.produced = produced;
+        }
+
+        public void processDeployment(final DeploymentUnitContext context) throws DeploymentUnitProcessingException {
+            order.add(name);
+            context.putAttachment(produced, name);
+        }
+
+        public Collection<AttachmentKey<?>> getConsumedAttachments() {
+            return consumed;
+        }
+
+        public Collection<AttachmentKey<?>> getProducedAttachments() {
+            return Collections.<AttachmentKey<?>>singleton(produced);
+        }
+    }
+
+    /**
+     * Processor which only completes once the other processor sharing its latch has started, so it fails if the
+     * processors are run one after the other.
+     */
+    private class LatchProcessor extends RecordingProcessor {
+        private final CountDownLatch latch;
+
+        LatchProcessor(final String name, final CountDownLatch latch, final AttachmentKey<String> produced) {
+            super(name, Collections.<AttachmentKey<?>>emptySet(), produced);
+            this.latch = latch;
+        }
+
+        public void processDeployment(final DeploymentUnitContext context) throws DeploymentUnitProcessingException {
+            latch.countDown();
+            try {
+                if (!latch.await(5L, TimeUnit.SECONDS)) {
+                    throw new DeploymentUnitProcessingException("Processors were not run concurrently");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new DeploymentUnitProcessingException("Interrupted", e);
+            }
+            super.processDeployment(context);
+        }
+    }
+}
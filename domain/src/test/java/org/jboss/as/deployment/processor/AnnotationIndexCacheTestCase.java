@@ -0,0 +1,161 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.deployment.processor;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.Arrays;
+
+import org.jboss.jandex.DotName;
+import org.jboss.jandex.Index;
+import org.jboss.jandex.Indexer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test to verify the annotation index cache stores and reloads indexes by content hash.
+ *
+ * @author John E. Bailey
+ */
+public class AnnotationIndexCacheTestCase {
+
+    private static final DotName MARKER = DotName.createSimple(Marker.class.getName());
+    private static final byte[] HASH_A = new byte[] {0x01, 0x23, 0x45, 0x67, (byte) 0x89, (byte) 0xab, (byte) 0xcd, (byte) 0xef};
+    private static final byte[] HASH_B = new byte[] {(byte) 0xfe, (byte) 0xdc, (byte) 0xba, (byte) 0x98, 0x76, 0x54, 0x32, 0x10};
+
+    private File root;
+    private AnnotationIndexCache cache;
+
+    @Before
+    public void setup() throws Exception {
+        root = File.createTempFile("annotation-index-cache", "test");
+        assertTrue(root.delete());
+        cache = new AnnotationIndexCache(root);
+        cache.start(null);
+    }
+
+    @After
+    public void cleanup() {
+        delete(root);
+    }
+
+    @Test
+    public void testMissThenHit() throws Exception {
+        assertNull(cache.getIndex(HASH_A));
+        assertEquals(0L, cache.getHits());
+        assertEquals(1L, cache.getMisses());
+
+        cache.putIndex(HASH_A, index(AnnotatedA.class, AnnotatedB.class), 1000000000L);
+        assertTrue(new File(new File(new File(root, "01"), "23456789abcdef"), "index").isFile());
+
+        final Index index = cache.getIndex(HASH_A);
+        assertNotNull(index);
+        assertEquals(2, index.getAnnotations(MARKER).size());
+        assertEquals(1L, cache.getHits());
+        assertEquals(1L, cache.getMisses());
+        assertTrue(cache.getTimeSaved() > 0L);
+
+        assertNull(cache.getIndex(HASH_B));
+        assertEquals(2L, cache.getMisses());
+    }
+
+    @Test
+    public void testPersistent() throws Exception {
+        cache.putIndex(HASH_A, index(AnnotatedA.class), 0L);
+
+        final AnnotationIndexCache restarted = new AnnotationIndexCache(root);
+        restarted.start(null);
+        final Index index = restarted.getIndex(HASH_A);
+        assertNotNull(index);
+        assertNotNull(index.getClassByName(DotName.createSimple(AnnotatedA.class.getName())));
+        assertEquals(1L, restarted.getHits());
+        assertEquals(0L, restarted.getTimeSaved());
+    }
+
+    @Test
+    public void testDetached() throws Exception {
+        cache.putIndex(HASH_A, index(AnnotatedA.class), 1000000000L);
+        final AnnotationIndexCache detached = cache.createDetached();
+        assertNotNull(detached.getIndex(HASH_A));
+        assertNull(detached.getIndex(HASH_B));
+        assertEquals(0L, cache.getHits());
+        assertEquals(0L, cache.getMisses());
+
+        cache.addStatistics(detached);
+        assertEquals(1L, cache.getHits());
+        assertEquals(1L, cache.getMisses());
+        assertTrue(cache.getTimeSaved() > 0L);
+    }
+
+    @Test
+    public void testMerge() throws Exception {
+        final Index merged = AnnotationIndexProcessor.merge(Arrays.asList(index(AnnotatedA.class), index(AnnotatedB.class, AnnotatedA.class)));
+        assertEquals(2, merged.getAnnotations(MARKER).size());
+        assertEquals(1, merged.getKnownSubclasses(DotName.createSimple(AnnotatedA.class.getName())).size());
+        assertNotNull(merged.getClassByName(DotName.createSimple(AnnotatedB.class.getName())));
+    }
+
+    private static Index index(final Class<?>... classes) throws IOException {
+        final Indexer indexer = new Indexer();
+        for (Class<?> clazz : classes) {
+            final InputStream stream = clazz.getResourceAsStream(clazz.getName().substring(clazz.getName().lastIndexOf('.') + 1) + ".class");
+            try {
+                indexer.index(stream);
+            } finally {
+                stream.close();
+            }
+        }
+        return indexer.complete();
+    }
+
+    private static void delete(final File file) {
+        final File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    public @interface Marker {
+    }
+
+    @Marker
+    public static class AnnotatedA {
+    }
+
+    @Marker
+    public static class AnnotatedB extends AnnotatedA {
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.deployment.processor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.jboss.as.deployment.attachment.VirtualFileAttachment;
+import org.jboss.as.deployment.unit.DeploymentUnitContext;
+import org.jboss.as.deployment.unit.DeploymentUnitContextImpl;
+import org.jboss.jandex.AnnotationInstance;
+import org.jboss.jandex.ClassInfo;
+import org.jboss.jandex.DotName;
+import org.jboss.jandex.Index;
+import org.jboss.vfs.VFS;
+import org.jboss.vfs.VirtualFile;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test of indexing a deployment on one thread and in parallel.  By default a few hundred classes are indexed and the
+ * parallel index is checked against the sequential one.  Set the {@code org.jboss.as.test.benchmark} system property
+ * to {@code true} to index 20000 classes and print the timings; the number of generated classes can also be set with
+ * the {@code org.jboss.as.deployment.test.class-count} system property.
+ *
+ * @author John E. Bailey
+ */
+public class ParallelAnnotationIndexTestCase {
+
+    private static final boolean BENCHMARK = Boolean.getBoolean("org.jboss.as.test.benchmark");
+    private static final int CLASSES = Integer.getInteger("org.jboss.as.deployment.test.class-count", BENCHMARK ? 20000 : 300).intValue();
+    private static final int PACKAGES = 20;
+    private static final String MARKER = "org.jboss.as.deployment.processor.test.Marker";
+
+    private static File root;
+
+    @BeforeClass
+    public static void generateDeployment() throws Exception {
+        root = File.createTempFile("parallel-index", "test");
+        assertTrue(root.delete());
+        for (int i = 0; i < CLASSES; i++) {
+            final String name = "org/jboss/as/deployment/processor/test/p" + (i % PACKAGES) + "/Class" + i;
+            final File file = new File(root, name + ".class");
+            final File dir = file.getParentFile();
+            assertTrue(dir.isDirectory() || dir.mkdirs());
+            final FileOutputStream out = new FileOutputStream(file);
+            try {
+                out.write(classFile(name));
+            } finally {
+                out.close();
+            }
+        }
+    }
+
+    @AfterClass
+    public static void cleanup() {
+        delete(root);
+    }
+
+    @Test
+    public void testParallelIndexMatchesSequential() throws Exception {
+        final VirtualFile deploymentRoot = VFS.getChild(root.getAbsolutePath());
+        final Index sequential = process(new AnnotationIndexProcessor(), deploymentRoot);
+        final ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            final Index parallel = process(new AnnotationIndexProcessor(executor), deploymentRoot);
+            assertEquals(CLASSES, sequential.getKnownClasses().size());
+            assertEquals(classNames(sequential.getKnownClasses()), classNames(parallel.getKnownClasses()));
+            assertEquals(annotatedClassNames(sequential), annotatedClassNames(parallel));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testOneThread() throws Exception {
+        index(1);
+    }
+
+    @Test
+    public void testFourThreads() throws Exception {
+        index(4);
+    }
+
+    @Test
+    public void testSixteenThreads() throws Exception {
+        index(16);
+    }
+
+    private void index(final int threads) throws Exception {
+        // the deploying thread indexes as well
+        final ExecutorService executor = threads > 1 ? Executors.newFixedThreadPool(threads - 1) : null;
+        try {
+            final AnnotationIndexProcessor processor = executor == null ? new AnnotationIndexProcessor() : new AnnotationIndexProcessor(executor);
+            final VirtualFile deploymentRoot = VFS.getChild(root.getAbsolutePath());
+
+            // warm up
+            process(processor, deploymentRoot);
+
+            final long start = System.nanoTime();
+            final Index index = process(processor, deploymentRoot);
+            final long time = System.nanoTime() - start;
+
+            assertEquals(CLASSES, index.getKnownClasses().size());
+            assertEquals(CLASSES, index.getAnnotations(DotName.createSimple(MARKER)).size());
+            if (BENCHMARK) {
+                System.out.printf("Indexed %d classes on %d thread(s): %d ms\n", Integer.valueOf(CLASSES), Integer.valueOf(threads), Long.valueOf(time / 1000000L));
+            }
+        } finally {
+            if (executor != null) {
+                executor.shutdown();
+            }
+        }
+    }
+
+    private static Index process(final AnnotationIndexProcessor processor, final VirtualFile deploymentRoot) throws Exception {
+        final DeploymentUnitContext context = new DeploymentUnitContextImpl("parallel-index", null, null);
+        VirtualFileAttachment.attachVirtualFile(context, deploymentRoot);
+        processor.processDeployment(context);
+        return context.getAttachment(AnnotationIndexProcessor.ATTACHMENT_KEY);
+    }
+
+    private static Set<DotName> classNames(final Collection<ClassInfo> classes) {
+        final Set<DotName> names = new HashSet<DotName>();
+        for (ClassInfo classInfo : classes) {
+            names.add(classInfo.name());
+        }
+        return names;
+    }
+
+    private static Set<DotName> annotatedClassNames(final Index index) {
+        final Set<DotName> names = new HashSet<DotName>();
+        for (AnnotationInstance annotation : index.getAnnotations(DotName.createSimple(MARKER))) {
+            names.add(((ClassInfo) annotation.target()).name());
+        }
+        return names;
+    }
+
+    /**
+     * Generate a minimal class file for an empty public class annotated with the marker annotation.
+     */
+    private static byte[] classFile(final String name) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        final DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0xCAFEBABE);
+        out.writeShort(0);
+        out.writeShort(49);
+        // constant pool
+        out.writeShort(7);
+        out.writeByte(1);
+        out.writeUTF(name);
+        out.writeByte(7);
+        out.writeShort(1);
+        out.writeByte(1);
+        out.writeUTF("java/lang/Object");
+        out.writeByte(7);
+        out.writeShort(3);
+        out.writeByte(1);
+        out.writeUTF("RuntimeVisibleAnnotations");
+        out.writeByte(1);
+        out.writeUTF("L" + MARKER.replace('.', '/') + ";");
+        // public super, this class, super class, no interfaces, fields or methods
+        out.writeShort(0x0021);
+        out.writeShort(2);
+        out.writeShort(4);
+        out.writeShort(0);
+        out.writeShort(0);
+        out.writeShort(0);
+        // one attribute holding the annotation
+        out.writeShort(1);
+        out.writeShort(5);
+        out.writeInt(6);
+        out.writeShort(1);
+        out.writeShort(6);
+        out.writeShort(0);
+        out.close();
+        return bytes.toByteArray();
+    }
+
+    private static void delete(final File file) {
+        final File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.deployment.unit;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.jboss.as.deployment.chain.DeploymentChainImpl;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test to verify deployment processors are measured only while the deployment metrics are enabled.
+ *
+ * @author John E. Bailey
+ */
+public class DeploymentMetricsTestCase {
+
+    @Test
+    public void testDisabled() throws Exception {
+        final DeploymentMetrics deploymentMetrics = new DeploymentMetrics(false);
+        assertNull(deploymentMetrics.createMetrics("test-deployment"));
+    }
+
+    @Test
+    public void testChainIsMeasured() throws Exception {
+        final DeploymentMetrics deploymentMetrics = new DeploymentMetrics(true);
+        final DeploymentUnitMetrics metrics = deploymentMetrics.createMetrics("test-deployment");
+        assertNotNull(metrics);
+
+        final DeploymentChainImpl chain = new DeploymentChainImpl("test.chain");
+        chain.addProcessor(new AllocatingProcessor(), 100L);
+        chain.addProcessor(new SleepingProcessor(), 200L);
+        final DeploymentUnitContext context = new DeploymentUnitContextImpl("test-deployment", null, null);
+        context.putAttachment(DeploymentUnitMetrics.ATTACHMENT_KEY, metrics);
+        chain.processDeployment(context);
+
+        final List<DeploymentUnitMetrics.Phase> phases = metrics.getPhases();
+        assertEquals(2, phases.size());
+        assertEquals(AllocatingProcessor.class.getName(), phases.get(0).getName());
+        assertEquals(SleepingProcessor.class.getName(), phases.get(1).getName());
+        assertTrue(phases.get(1).getWallTime() >= 10000000L);
+        final long allocated = phases.get(0).getAllocatedBytes();
+        assertTrue(allocated == -1L || allocated >= 1024L * 1024L);
+
+        deploymentMetrics.deploymentProcessed(metrics);
+        deploymentMetrics.deploymentProcessed(metrics);
+        assertEquals(2L, deploymentMetrics.getDeploymentCount());
+        assertEquals(2L, deploymentMetrics.getInvocationCount(SleepingProcessor.class.getName()));
+        assertTrue(deploymentMetrics.getWallTime(SleepingProcessor.class.getName()) >= 20L);
+        assertTrue(Arrays.asList(deploymentMetrics.getPhaseNames()).contains(AllocatingProcessor.class.getName()));
+        assertTrue(deploymentMetrics.getLastDeployment().startsWith("deployment=test-deployment "));
+
+        deploymentMetrics.reset();
+        assertEquals(0L, deploymentMetrics.getDeploymentCount());
+        assertEquals(0, deploymentMetrics.getPhaseNames().length);
+    }
+
+    private static class AllocatingProcessor implements DeploymentUnitProcessor {
+        private volatile byte[] buffer;
+
+        public void processDeployment(final DeploymentUnitContext context) throws DeploymentUnitProcessingException {
+            buffer = new byte[1024 * 1024];
+        }
+    }
+
+    private static class SleepingProcessor implements DeploymentUnitProcessor {
+        public void processDeployment(final DeploymentUnitContext context) throws DeploymentUnitProcessingException {
+            try {
+                Thread.sleep(10L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.model;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.Collections;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test to verify journaled configuration changes are replayed after a crash and dropped once they are written.
+ *
+ * @author Brian Stansberry
+ */
+public class ConfigurationJournalTestCase {
+
+    private File dir;
+    private File configFile;
+    private File journalFile;
+
+    @Before
+    public void setup() throws Exception {
+        dir = File.createTempFile("configuration-journal", "test");
+        assertTrue(dir.delete());
+        assertTrue(dir.mkdirs());
+        configFile = new File(dir, "domain.xml");
+        journalFile = new File(dir, "domain.xml" + ConfigurationJournal.JOURNAL_SUFFIX);
+    }
+
+    @After
+    public void cleanup() {
+        final File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    @Test
+    public void testRecover() throws Exception {
+        // never snapshots, as if the process died right after the change
+        final ConfigurationJournal<DomainModel> journal = new ConfigurationJournal<DomainModel>(configFile, Element.DOMAIN, true, Long.MAX_VALUE);
+        final DomainModel model = new DomainModel();
+        final DomainSystemPropertyUpdate update = new DomainSystemPropertyUpdate(new PropertyAdd("prop1", "value1"));
+        model.update(update);
+        journal.persist(model, Collections.singletonList(update));
+        assertTrue(journal.isRecoveryNeeded());
+        assertFalse(configFile.exists());
+
+        final ConfigurationJournal<DomainModel> restarted = new ConfigurationJournal<DomainModel>(configFile, Element.DOMAIN, false, 0L);
+        final DomainModel recovered = new DomainModel();
+        assertEquals(1, restarted.recover(recovered));
+        assertEquals("value1", recovered.getSystemProperties().getProperty("prop1"));
+        assertTrue(configFile.exists());
+        assertFalse(journalFile.exists());
+        assertFalse(restarted.isRecoveryNeeded());
+    }
+
+    @Test
+    public void testSnapshotDropsJournal() throws Exception {
+        final ConfigurationJournal<DomainModel> journal = new ConfigurationJournal<DomainModel>(configFile, Element.DOMAIN, true, 0L);
+        final DomainModel model = new DomainModel();
+        final DomainSystemPropertyUpdate update = new DomainSystemPropertyUpdate(new PropertyAdd("prop1", "value1"));
+        model.update(update);
+        journal.persist(model, Collections.singletonList(update));
+        journal.close();
+        assertTrue(configFile.exists());
+        assertFalse(journal.isRecoveryNeeded());
+    }
+
+    @Test
+    public void testSnapshotOfPersistedModel() throws Exception {
+        final ConfigurationJournal<DomainModel> journal = new ConfigurationJournal<DomainModel>(configFile, Element.DOMAIN, true, Long.MAX_VALUE);
+        final DomainModel model = new DomainModel();
+        final DomainSystemPropertyUpdate update = new DomainSystemPropertyUpdate(new PropertyAdd("prop1", "value1"));
+        model.update(update);
+        journal.persist(model, Collections.singletonList(update));
+        // a change which is not persisted yet must not reach the snapshot
+        model.update(new DomainSystemPropertyUpdate(new PropertyAdd("prop2", "value2")));
+        journal.close();
+        final String content = read(configFile);
+        assertTrue(content.contains("prop1"));
+        assertFalse(content.contains("prop2"));
+    }
+
+    @Test
+    public void testBurstCopiesModelOnce() throws Exception {
+        final ConfigurationJournal<DomainModel> journal = new ConfigurationJournal<DomainModel>(configFile, Element.DOMAIN, true, Long.MAX_VALUE);
+        final DomainModel model = new DomainModel();
+        for (int i = 0; i < 100; i++) {
+            final DomainSystemPropertyUpdate update = new DomainSystemPropertyUpdate(new PropertyAdd("prop" + i, "value" + i));
+            model.update(update);
+            journal.persist(model, Collections.singletonList(update));
+        }
+        assertEquals(1, journal.getModelCopies());
+        journal.close();
+        assertEquals(1, journal.getModelCopies());
+        final String content = read(configFile);
+        for (int i = 0; i < 100; i++) {
+            assertTrue(content.contains("\"prop" + i + "\""));
+        }
+        assertFalse(journal.isRecoveryNeeded());
+    }
+
+    @Test
+    public void testWithoutJournal() throws Exception {
+        final ConfigurationJournal<DomainModel> journal = new ConfigurationJournal<DomainModel>(configFile, Element.DOMAIN, false, 0L);
+        final DomainModel model = new DomainModel();
+        journal.persist(model, Collections.<DomainSystemPropertyUpdate>emptyList());
+        assertTrue(configFile.exists());
+        journal.persist(model, Collections.<DomainSystemPropertyUpdate>emptyList());
+        assertTrue(new File(dir, "domain.xml" + ConfigurationJournal.BACKUP_SUFFIX).exists());
+        assertFalse(journalFile.exists());
+    }
+
+    private static String read(final File file) throws Exception {
+        final InputStream in = new FileInputStream(file);
+        try {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] bytes = new byte[8192];
+            int read;
+            while ((read = in.read(bytes)) > -1) {
+                out.write(bytes, 0, read);
+            }
+            return out.toString("UTF-8");
+        } finally {
+            in.close();
+        }
+    }
+}
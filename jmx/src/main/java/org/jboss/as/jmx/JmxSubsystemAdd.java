@@ -22,6 +22,10 @@
 
 package org.jboss.as.jmx;
 
+import javax.management.MBeanServer;
+
+import org.jboss.as.deployment.processor.AnnotationIndexCache;
+import org.jboss.as.deployment.unit.DeploymentMetrics;
 import org.jboss.as.jmx.mbean.ManagedServiceContainerService;
 import org.jboss.as.model.AbstractSubsystemAdd;
 import org.jboss.as.model.UpdateContext;
@@ -47,6 +51,16 @@ public final class JmxSubsystemAdd extends AbstractSubsystemAdd<JmxSubsystemElem
         MBeanServerService.addService(batchBuilder);
         JMXConnectorService.addService(batchBuilder);
         ManagedServiceContainerService.addService(batchBuilder);
+
+        final MBeanRegistrationService<AnnotationIndexCache> annotationIndexCacheRegistration = new MBeanRegistrationService<AnnotationIndexCache>(AnnotationIndexCache.OBJECT_NAME);
+        batchBuilder.addService(MBeanRegistrationService.SERVICE_NAME.append("annotation-index-cache"), annotationIndexCacheRegistration)
+            .addDependency(MBeanServerService.SERVICE_NAME, MBeanServer.class, annotationIndexCacheRegistration.getMBeanServerInjector())
+            .addDependency(AnnotationIndexCache.SERVICE_NAME, AnnotationIndexCache.class, annotationIndexCacheRegistration.getValueInjector());
+
+        final MBeanRegistrationService<DeploymentMetrics> deploymentMetricsRegistration = new MBeanRegistrationService<DeploymentMetrics>(DeploymentMetrics.OBJECT_NAME);
+        batchBuilder.addService(MBeanRegistrationService.SERVICE_NAME.append("deployment-metrics"), deploymentMetricsRegistration)
+            .addDependency(MBeanServerService.SERVICE_NAME, MBeanServer.class, deploymentMetricsRegistration.getMBeanServerInjector())
+            .addDependency(DeploymentMetrics.SERVICE_NAME, DeploymentMetrics.class, deploymentMetricsRegistration.getValueInjector());
     }
 
     @Override
@@ -45,6 +45,8 @@ public class AsyncHandlerAdd extends AbstractHandlerAdd {
 
     private int queueLength;
 
+    private QueueType queueType;
+
     protected AsyncHandlerAdd(final String name) {
         super(name);
     }
@@ -53,6 +55,7 @@ public class AsyncHandlerAdd extends AbstractHandlerAdd {
         final AsyncHandlerElement element = new AsyncHandlerElement(name);
         element.setOverflowAction(overflowAction);
         element.setQueueLength(queueLength);
+        if (queueType != null) element.setQueueType(queueType);
         element.setSubhandlers(getSubhandlers());
         return element;
     }
@@ -73,13 +76,21 @@ public class AsyncHandlerAdd extends AbstractHandlerAdd {
         this.queueLength = queueLength;
     }
 
+    public QueueType getQueueType() {
+        return queueType;
+    }
+
+    public void setQueueType(final QueueType queueType) {
+        this.queueType = queueType;
+    }
+
     /**
      * {@inheritDoc}
      */
     protected <P> void applyUpdate(UpdateContext updateContext, UpdateResultHandler<? super Void, P> resultHandler, P param) {
         try {
             final BatchBuilder builder = updateContext.getBatchBuilder();
-            final AsyncHandlerService service = new AsyncHandlerService();
+            final AsyncHandlerService service = new AsyncHandlerService(getName());
             final BatchServiceBuilder<Handler> serviceBuilder = builder.addService(LogServices.handlerName(getName()), service);
             final List<InjectedValue<Handler>> list = new ArrayList<InjectedValue<Handler>>();
             for (String handlerName : getSubhandlers()) {
@@ -89,6 +100,7 @@ public class AsyncHandlerAdd extends AbstractHandlerAdd {
             }
             service.addHandlers(list);
             service.setQueueLength(queueLength);
+            if (queueType != null) service.setQueueType(queueType);
             service.setLevel(Level.parse(getLevelName()));
             service.setOverflowAction(overflowAction);
             serviceBuilder.setInitialMode(ServiceController.Mode.ACTIVE);
@@ -38,6 +38,8 @@ public final class AsyncHandlerElement extends AbstractHandlerElement<AsyncHandl
 
     private OverflowAction overflowAction = OverflowAction.BLOCK;
 
+    private QueueType queueType = QueueType.BLOCKING;
+
     protected AsyncHandlerElement(final String name) {
         super(name, ELEMENT_NAME);
     }
@@ -54,11 +56,19 @@ public final class AsyncHandlerElement extends AbstractHandlerElement<AsyncHandl
         this.overflowAction = overflowAction;
     }
 
+    void setQueueType(final QueueType queueType) {
+        this.queueType = queueType;
+    }
+
     protected void writeElements(final XMLExtendedStreamWriter streamWriter) throws XMLStreamException {
         streamWriter.writeEmptyElement(Element.QUEUE_LENGTH.getLocalName());
         streamWriter.writeAttribute(Attribute.VALUE.getLocalName(), Integer.toString(queueLength));
         streamWriter.writeEmptyElement(Element.OVERFLOW_ACTION.getLocalName());
         streamWriter.writeAttribute(Attribute.VALUE.getLocalName(), overflowAction.name().toLowerCase(Locale.US));
+        if (queueType != QueueType.BLOCKING) {
+            streamWriter.writeEmptyElement(Element.QUEUE_TYPE.getLocalName());
+            streamWriter.writeAttribute(Attribute.VALUE.getLocalName(), queueType.name().toLowerCase(Locale.US).replace('_', '-'));
+        }
         super.writeElements(streamWriter);
     }
 
@@ -66,6 +76,7 @@ public final class AsyncHandlerElement extends AbstractHandlerElement<AsyncHandl
         final AsyncHandlerAdd add = new AsyncHandlerAdd(name);
         add.setOverflowAction(overflowAction);
         add.setQueueLength(queueLength);
+        add.setQueueType(queueType);
         return add;
     }
 }
@@ -22,8 +22,13 @@
 
 package org.jboss.as.logging;
 
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
 import java.util.List;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.jboss.logging.Logger;
+import org.jboss.logmanager.ExtHandler;
 import org.jboss.logmanager.handlers.AsyncHandler;
 import org.jboss.msc.service.Service;
 import org.jboss.msc.service.StartContext;
@@ -39,18 +44,37 @@ import java.util.logging.Level;
  */
 public final class AsyncHandlerService implements Service<Handler> {
 
+    private static final Logger log = Logger.getLogger("org.jboss.as.logging");
+
+    private final String name;
+
     private final List<InjectedValue<Handler>> subhandlers = new ArrayList<InjectedValue<Handler>>();
 
     private OverflowAction overflowAction;
 
     private int queueLength;
 
-    private AsyncHandler value;
+    private QueueType queueType = QueueType.BLOCKING;
+
+    private ExtHandler value;
 
     private Level level;
 
+    private ObjectName objectName;
+
+    public AsyncHandlerService(final String name) {
+        this.name = name;
+    }
+
     public synchronized void start(final StartContext context) throws StartException {
-        final AsyncHandler handler = new AsyncHandler(queueLength);
+        final ExtHandler handler;
+        if (queueType == QueueType.RING_BUFFER) {
+            final RingBufferAsyncHandler ringBufferHandler = new RingBufferAsyncHandler(queueLength);
+            registerMBean(ringBufferHandler);
+            handler = ringBufferHandler;
+        } else {
+            handler = new AsyncHandler(queueLength);
+        }
         value = handler;
         final OverflowAction action = overflowAction;
         setAction(handler, action);
@@ -62,10 +86,41 @@ public final class AsyncHandlerService implements Service<Handler> {
         if (level != null) handler.setLevel(level);
     }
 
-    private static void setAction(final AsyncHandler handler, final OverflowAction action) {
-        if (handler == null) {
+    private void registerMBean(final RingBufferAsyncHandler handler) {
+        try {
+            final ObjectName objectName = new ObjectName("jboss.logging:type=AsyncHandler,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(handler, objectName);
+            this.objectName = objectName;
+        } catch (Exception e) {
+            log.warnf(e, "Failed to register metrics of async handler '%s'", name);
+        }
+    }
+
+    private void unregisterMBean() {
+        final ObjectName objectName = this.objectName;
+        if (objectName != null) {
+            this.objectName = null;
+            try {
+                final MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+                mbeanServer.unregisterMBean(objectName);
+            } catch (Exception e) {
+                log.debugf(e, "Failed to unregister metrics of async handler '%s'", name);
+            }
+        }
+    }
+
+    private static void setAction(final ExtHandler handler, final OverflowAction action) {
+        if (handler instanceof RingBufferAsyncHandler) {
+            ((RingBufferAsyncHandler) handler).setOverflowAction(action);
+            return;
+        }
+        if (! (handler instanceof AsyncHandler)) {
             return;
         }
+        setAction((AsyncHandler) handler, action);
+    }
+
+    private static void setAction(final AsyncHandler handler, final OverflowAction action) {
         switch (action) {
             case BLOCK: {
                 handler.setOverflowAction(AsyncHandler.OverflowAction.BLOCK);
@@ -79,7 +134,8 @@ public final class AsyncHandlerService implements Service<Handler> {
     }
 
     public synchronized void stop(final StopContext context) {
-        final AsyncHandler handler = value;
+        final ExtHandler handler = value;
+        unregisterMBean();
         handler.close();
         handler.setLevel(Level.OFF);
         handler.clearHandlers();
@@ -99,9 +155,13 @@ public final class AsyncHandlerService implements Service<Handler> {
         this.queueLength = queueLength;
     }
 
+    public synchronized void setQueueType(final QueueType queueType) {
+        this.queueType = queueType;
+    }
+
     public synchronized void setLevel(final Level level) {
         this.level = level;
-        final AsyncHandler handler = value;
+        final ExtHandler handler = value;
         if (handler != null) {
             handler.setLevel(level);
         }
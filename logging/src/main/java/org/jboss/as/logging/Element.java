@@ -58,6 +58,7 @@ public enum Element {
     PERIODIC_ROTATING_FILE_HANDLER("periodic-rotating-file-handler"),
     PROPERTIES("properties"),
     QUEUE_LENGTH("queue-length"),
+    QUEUE_TYPE("queue-type"),
     REPLACE("replace"),
     ROOT_LOGGER("root-logger"),
     ROTATE_SIZE("rotate-size"),
@@ -814,7 +814,7 @@ public final class LoggingSubsystemParser implements XMLElementReader<ParseResul
         // Attributes
         String name = null;
         boolean autoflush = true;
-        final EnumSet<Attribute> required = EnumSet.of(Attribute.FILE_NAME, Attribute.NAME);
+        final EnumSet<Attribute> required = EnumSet.of(Attribute.NAME);
         final int count = reader.getAttributeCount();
         for (int i = 0; i < count; i++) {
             final String value = reader.getAttributeValue(i);
@@ -841,6 +841,7 @@ public final class LoggingSubsystemParser implements XMLElementReader<ParseResul
         String levelName = null;
         List<String> subhandlers = null;
         int queueLength = 0;
+        QueueType queueType = null;
         OverflowAction overflowAction = OverflowAction.BLOCK;
         final EnumSet<Element> encountered = EnumSet.noneOf(Element.class);
         while (reader.nextTag() != END_ELEMENT) {
@@ -865,6 +866,10 @@ public final class LoggingSubsystemParser implements XMLElementReader<ParseResul
                     overflowAction = OverflowAction.valueOf(readStringAttributeElement(reader, "value").toUpperCase(Locale.US));
                     break;
                 }
+                case QUEUE_TYPE: {
+                    queueType = QueueType.valueOf(readStringAttributeElement(reader, "value").toUpperCase(Locale.US).replace('-', '_'));
+                    break;
+                }
                 default: {
                     throw unexpectedElement(reader);
                 }
@@ -874,6 +879,7 @@ public final class LoggingSubsystemParser implements XMLElementReader<ParseResul
         if (subhandlers != null) add.setSubhandlers(subhandlers.toArray(new String[subhandlers.size()]));
         if (queueLength > 0) add.setQueueLength(queueLength);
         add.setOverflowAction(overflowAction);
+        if (queueType != null) add.setQueueType(queueType);
         add.setAutoflush(Boolean.valueOf(autoflush));
         add.setLevelName(levelName);
         list.add(add);
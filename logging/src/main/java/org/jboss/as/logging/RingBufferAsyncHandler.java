@@ -0,0 +1,302 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.logging;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.ErrorManager;
+import java.util.logging.Handler;
+
+import org.jboss.logmanager.ExtHandler;
+import org.jboss.logmanager.ExtLogRecord;
+
+/**
+ * An asynchronous handler which passes records to its writer thread through a preallocated ring buffer.
+ * <p>
+ * Logging threads do not share a lock.  Each one claims the next slot with a single compare-and-set on the tail
+ * sequence, stores its record and publishes the slot by advancing that slot's own sequence number, so concurrent
+ * producers only ever contend on the claim.  The writer thread drains whatever is published in batches and flushes
+ * the subhandlers once per batch rather than once per record.  When the buffer is full the configured
+ * {@link OverflowAction} either makes the logging thread wait for a free slot or discards the record.
+ *
+ * @author <a href="mailto:david.lloyd@redhat.com">David M. Lloyd</a>
+ */
+public final class RingBufferAsyncHandler extends ExtHandler implements RingBufferAsyncHandlerMBean, Runnable {
+
+    private static final int MAX_BATCH = 256;
+    private static final int SAMPLE_MASK = 15;
+    private static final int SPINS = 64;
+    private static final long IDLE_PARK = TimeUnit.MILLISECONDS.toNanos(100L);
+    private static final long FULL_PARK = TimeUnit.MICROSECONDS.toNanos(50L);
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<ExtLogRecord> records;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private final Thread thread;
+
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong sampledEnqueues = new AtomicLong();
+    private final AtomicLong sampledEnqueueTime = new AtomicLong();
+    private final AtomicLong maxEnqueueTime = new AtomicLong();
+
+    // only written by the writer thread
+    private volatile long head;
+    private volatile boolean waiting;
+    private volatile boolean closed;
+    private volatile OverflowAction overflowAction = OverflowAction.BLOCK;
+
+    /**
+     * Construct a new instance.
+     *
+     * @param queueLength the minimum number of slots; rounded up to a power of two
+     */
+    public RingBufferAsyncHandler(final int queueLength) {
+        this(queueLength, Executors.defaultThreadFactory());
+    }
+
+    /**
+     * Construct a new instance.
+     *
+     * @param queueLength the minimum number of slots; rounded up to a power of two
+     * @param threadFactory the factory for the writer thread
+     */
+    public RingBufferAsyncHandler(final int queueLength, final ThreadFactory threadFactory) {
+        if (queueLength < 1) {
+            throw new IllegalArgumentException("queueLength must be at least 1");
+        }
+        if (queueLength > 1 << 30) {
+            throw new IllegalArgumentException("queueLength is too large");
+        }
+        final int capacity = Integer.highestOneBit(queueLength) == queueLength ? queueLength : Integer.highestOneBit(queueLength) << 1;
+        this.capacity = capacity;
+        mask = capacity - 1;
+        records = new AtomicReferenceArray<ExtLogRecord>(capacity);
+        sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            // slot i is free for the producer claiming sequence i
+            sequences.set(i, i);
+        }
+        final Thread thread = threadFactory.newThread(this);
+        thread.setName("Async log writer");
+        thread.setDaemon(true);
+        this.thread = thread;
+        thread.start();
+    }
+
+    /**
+     * Set the action to take when the ring buffer is full.
+     *
+     * @param overflowAction the overflow action
+     */
+    public void setOverflowAction(final OverflowAction overflowAction) {
+        if (overflowAction == null) {
+            throw new IllegalArgumentException("overflowAction is null");
+        }
+        this.overflowAction = overflowAction;
+    }
+
+    protected void doPublish(final ExtLogRecord record) {
+        if (closed) {
+            return;
+        }
+        // the record is read on another thread
+        record.copyAll();
+        final long start = System.nanoTime();
+        boolean waited = false;
+        int spins = 0;
+        long pos;
+        int idx;
+        for (;;) {
+            pos = tail.get();
+            idx = (int) pos & mask;
+            final long diff = sequences.get(idx) - pos;
+            if (diff == 0L) {
+                if (tail.compareAndSet(pos, pos + 1L)) {
+                    break;
+                }
+            } else if (diff < 0L) {
+                // the writer has not consumed this slot from the previous lap yet
+                if (overflowAction == OverflowAction.DISCARD || closed) {
+                    dropped.incrementAndGet();
+                    return;
+                }
+                waited = true;
+                if (waiting) {
+                    LockSupport.unpark(thread);
+                }
+                if (spins++ < SPINS) {
+                    Thread.yield();
+                } else {
+                    LockSupport.parkNanos(FULL_PARK);
+                }
+            }
+        }
+        records.set(idx, record);
+        sequences.set(idx, pos + 1L);
+        if (waiting) {
+            LockSupport.unpark(thread);
+        }
+        if (waited || (pos & SAMPLE_MASK) == 0L) {
+            recordEnqueueTime(System.nanoTime() - start);
+        }
+    }
+
+    private void recordEnqueueTime(final long time) {
+        sampledEnqueues.incrementAndGet();
+        sampledEnqueueTime.addAndGet(time);
+        long max;
+        do {
+            max = maxEnqueueTime.get();
+        } while (time > max && ! maxEnqueueTime.compareAndSet(max, time));
+    }
+
+    public void run() {
+        long head = this.head;
+        int idle = 0;
+        for (;;) {
+            final Handler[] handlers = getHandlers();
+            int batch = 0;
+            while (batch < MAX_BATCH) {
+                final int idx = (int) head & mask;
+                if (sequences.get(idx) != head + 1L) {
+                    break;
+                }
+                final ExtLogRecord record = records.get(idx);
+                records.set(idx, null);
+                // free the slot for the producer one lap ahead
+                sequences.set(idx, head + capacity);
+                head++;
+                batch++;
+                for (Handler handler : handlers) {
+                    try {
+                        handler.publish(record);
+                    } catch (Exception e) {
+                        reportError("Failed to publish log record", e, ErrorManager.WRITE_FAILURE);
+                    }
+                }
+            }
+            this.head = head;
+            if (batch > 0) {
+                for (Handler handler : handlers) {
+                    try {
+                        handler.flush();
+                    } catch (Exception e) {
+                        reportError("Failed to flush handler", e, ErrorManager.FLUSH_FAILURE);
+                    }
+                }
+                idle = 0;
+                continue;
+            }
+            if (closed && tail.get() == head) {
+                return;
+            }
+            if (idle++ < SPINS) {
+                Thread.yield();
+                continue;
+            }
+            waiting = true;
+            // a producer which published before seeing the flag has left its record in the next slot
+            if (sequences.get((int) head & mask) != head + 1L && ! closed) {
+                LockSupport.parkNanos(this, IDLE_PARK);
+            }
+            waiting = false;
+        }
+    }
+
+    /**
+     * Wait until the writer thread has written every record published so far, then flush the subhandlers.
+     */
+    public void flush() {
+        if (Thread.currentThread() != thread) {
+            final long target = tail.get();
+            int spins = 0;
+            while (head < target && thread.isAlive()) {
+                LockSupport.unpark(thread);
+                if (spins++ < SPINS) {
+                    Thread.yield();
+                } else {
+                    LockSupport.parkNanos(FULL_PARK);
+                }
+            }
+        }
+        for (Handler handler : getHandlers()) {
+            handler.flush();
+        }
+    }
+
+    /**
+     * Stop accepting records and wait for the writer thread to write the ones already queued.  The subhandlers are
+     * not closed.
+     */
+    public void close() throws SecurityException {
+        closed = true;
+        LockSupport.unpark(thread);
+        boolean intr = false;
+        try {
+            while (thread.isAlive()) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    intr = true;
+                }
+            }
+        } finally {
+            if (intr) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public int getQueueLength() {
+        return capacity;
+    }
+
+    public int getQueueDepth() {
+        final long depth = tail.get() - head;
+        return depth < 0L ? 0 : (int) Math.min(depth, (long) capacity);
+    }
+
+    public long getEnqueuedCount() {
+        return tail.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public long getAverageEnqueueTime() {
+        final long count = sampledEnqueues.get();
+        return count == 0L ? 0L : sampledEnqueueTime.get() / count;
+    }
+
+    public long getMaxEnqueueTime() {
+        return maxEnqueueTime.get();
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.logging;
+
+/**
+ * Management view of a {@link RingBufferAsyncHandler}.
+ *
+ * @author <a href="mailto:david.lloyd@redhat.com">David M. Lloyd</a>
+ */
+public interface RingBufferAsyncHandlerMBean {
+
+    /**
+     * Get the number of slots in the ring buffer.
+     *
+     * @return the capacity
+     */
+    int getQueueLength();
+
+    /**
+     * Get the number of records currently waiting to be written.
+     *
+     * @return the queue depth
+     */
+    int getQueueDepth();
+
+    /**
+     * Get the number of records accepted by the handler.
+     *
+     * @return the number of records
+     */
+    long getEnqueuedCount();
+
+    /**
+     * Get the number of records discarded because the ring buffer was full.
+     *
+     * @return the number of records
+     */
+    long getDroppedCount();
+
+    /**
+     * Get the average time, in nanoseconds, a logging thread spent handing a record to the handler.  The time is
+     * sampled rather than measured for every record, but always includes records which had to wait for a free slot.
+     *
+     * @return the average enqueue time
+     */
+    long getAverageEnqueueTime();
+
+    /**
+     * Get the longest time, in nanoseconds, a logging thread spent handing a record to the handler.
+     *
+     * @return the maximum enqueue time
+     */
+    long getMaxEnqueueTime();
+}
@@ -0,0 +1,158 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.logging;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+import org.jboss.logmanager.ExtHandler;
+import org.jboss.logmanager.handlers.AsyncHandler;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Benchmark for the blocking queue and ring buffer async handlers with 1, 8 and 32 logging threads.  By default only
+ * a few thousand records are logged; set the {@code org.jboss.as.test.benchmark} system property to {@code true} for
+ * two hundred thousand records and printed timings.  The number of records can also be set with the
+ * {@code org.jboss.as.logging.test.records} system property.
+ *
+ * @author <a href="mailto:david.lloyd@redhat.com">David M. Lloyd</a>
+ */
+public class AsyncHandlerBenchmarkTestCase {
+
+    private static final boolean BENCHMARK = Boolean.getBoolean("org.jboss.as.test.benchmark");
+    private static final int RECORDS = Integer.getInteger("org.jboss.as.logging.test.records", BENCHMARK ? 200000 : 8000).intValue();
+    private static final int QUEUE_LENGTH = 1024;
+
+    @Test
+    public void testOneThread() throws Exception {
+        benchmark(1);
+    }
+
+    @Test
+    public void testEightThreads() throws Exception {
+        benchmark(8);
+    }
+
+    @Test
+    public void testThirtyTwoThreads() throws Exception {
+        benchmark(32);
+    }
+
+    @Test
+    public void testDiscard() throws Exception {
+        final CountingHandler counter = new CountingHandler();
+        final RingBufferAsyncHandler handler = new RingBufferAsyncHandler(QUEUE_LENGTH);
+        handler.setOverflowAction(OverflowAction.DISCARD);
+        handler.setHandlers(new Handler[] { counter });
+        final long total = run(handler, 8, RECORDS / 8);
+        handler.close();
+        assertEquals(total, handler.getEnqueuedCount() + handler.getDroppedCount());
+        assertEquals(handler.getEnqueuedCount(), counter.count.get());
+        assertEquals(0, handler.getQueueDepth());
+    }
+
+    private void benchmark(final int threads) throws Exception {
+        final int records = RECORDS / threads;
+
+        final CountingHandler blockingCounter = new CountingHandler();
+        final AsyncHandler blockingHandler = new AsyncHandler(QUEUE_LENGTH);
+        blockingHandler.setOverflowAction(AsyncHandler.OverflowAction.BLOCK);
+        blockingHandler.setHandlers(new Handler[] { blockingCounter });
+
+        final CountingHandler ringBufferCounter = new CountingHandler();
+        final RingBufferAsyncHandler ringBufferHandler = new RingBufferAsyncHandler(QUEUE_LENGTH);
+        ringBufferHandler.setHandlers(new Handler[] { ringBufferCounter });
+
+        // warm up
+        run(blockingHandler, threads, records);
+        run(ringBufferHandler, threads, records);
+
+        final long blockingTime = time(blockingHandler, blockingCounter, threads, records);
+        final long ringBufferTime = time(ringBufferHandler, ringBufferCounter, threads, records);
+        blockingHandler.close();
+        ringBufferHandler.close();
+
+        assertEquals(0L, ringBufferHandler.getDroppedCount());
+        if (! BENCHMARK) {
+            return;
+        }
+        System.out.printf("Logged %d records on %d thread(s): blocking queue %d ms, ring buffer %d ms (average enqueue %d ns, max %d ns)\n",
+                Integer.valueOf(records * threads), Integer.valueOf(threads), Long.valueOf(blockingTime / 1000000L), Long.valueOf(ringBufferTime / 1000000L),
+                Long.valueOf(ringBufferHandler.getAverageEnqueueTime()), Long.valueOf(ringBufferHandler.getMaxEnqueueTime()));
+    }
+
+    private static long time(final ExtHandler handler, final CountingHandler counter, final int threads, final int records) throws Exception {
+        final long before = counter.count.get();
+        final long start = System.nanoTime();
+        final long total = run(handler, threads, records);
+        // wait for the writer thread as well
+        while (counter.count.get() - before < total) {
+            Thread.yield();
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static long run(final ExtHandler handler, final int threads, final int records) throws Exception {
+        final CountDownLatch start = new CountDownLatch(1);
+        final Thread[] loggers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            loggers[i] = new Thread(new Runnable() {
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int j = 0; j < records; j++) {
+                        handler.publish(new LogRecord(Level.INFO, "Benchmark message"));
+                    }
+                }
+            });
+            loggers[i].start();
+        }
+        start.countDown();
+        for (Thread logger : loggers) {
+            logger.join();
+        }
+        return (long) threads * records;
+    }
+
+    private static final class CountingHandler extends Handler {
+        private final AtomicLong count = new AtomicLong();
+
+        public void publish(final LogRecord record) {
+            count.incrementAndGet();
+        }
+
+        public void flush() {
+        }
+
+        public void close() {
+        }
+    }
+}
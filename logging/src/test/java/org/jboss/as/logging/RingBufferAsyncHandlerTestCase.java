@@ -0,0 +1,193 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.logging;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author <a href="mailto:david.lloyd@redhat.com">David M. Lloyd</a>
+ */
+public class RingBufferAsyncHandlerTestCase {
+
+    private RingBufferAsyncHandler handler;
+
+    @After
+    public void cleanup() {
+        if (handler != null) {
+            handler.close();
+        }
+    }
+
+    @Test
+    public void testDeliveredInOrderPerProducer() throws Exception {
+        final int producers = 4;
+        final int records = 2000;
+        final RecordingHandler recorder = new RecordingHandler();
+        handler = new RingBufferAsyncHandler(16);
+        handler.setHandlers(new Handler[] { recorder });
+
+        final CountDownLatch start = new CountDownLatch(1);
+        final Thread[] threads = new Thread[producers];
+        for (int i = 0; i < producers; i++) {
+            final int producer = i;
+            threads[i] = new Thread(new Runnable() {
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int j = 0; j < records; j++) {
+                        handler.publish(new LogRecord(Level.INFO, producer + ":" + j));
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        handler.flush();
+
+        final List<String> messages = recorder.getMessages();
+        assertEquals(producers * records, messages.size());
+        final int[] next = new int[producers];
+        for (String message : messages) {
+            final int separator = message.indexOf(':');
+            final int producer = Integer.parseInt(message.substring(0, separator));
+            assertEquals(next[producer]++, Integer.parseInt(message.substring(separator + 1)));
+        }
+        for (int i = 0; i < producers; i++) {
+            assertEquals(records, next[i]);
+        }
+        assertEquals(0L, handler.getDroppedCount());
+    }
+
+    @Test
+    public void testDiscardWhenFull() throws Exception {
+        final BlockingHandler blocker = new BlockingHandler();
+        handler = new RingBufferAsyncHandler(4);
+        handler.setOverflowAction(OverflowAction.DISCARD);
+        handler.setHandlers(new Handler[] { blocker });
+
+        // the writer takes the first record and then blocks, leaving all four slots free
+        handler.publish(new LogRecord(Level.INFO, "0"));
+        assertTrue(blocker.entered.await(10L, TimeUnit.SECONDS));
+        for (int i = 1; i <= 4; i++) {
+            handler.publish(new LogRecord(Level.INFO, Integer.toString(i)));
+        }
+        assertEquals(0L, handler.getDroppedCount());
+        assertEquals(4, handler.getQueueDepth());
+
+        handler.publish(new LogRecord(Level.INFO, "5"));
+        handler.publish(new LogRecord(Level.INFO, "6"));
+        assertEquals(2L, handler.getDroppedCount());
+        assertEquals(5L, handler.getEnqueuedCount());
+
+        blocker.release.countDown();
+        handler.flush();
+        assertEquals(Arrays.asList("0", "1", "2", "3", "4"), blocker.getMessages());
+    }
+
+    @Test
+    public void testCloseDrains() throws Exception {
+        final BlockingHandler blocker = new BlockingHandler();
+        handler = new RingBufferAsyncHandler(8);
+        handler.setHandlers(new Handler[] { blocker });
+
+        handler.publish(new LogRecord(Level.INFO, "0"));
+        assertTrue(blocker.entered.await(10L, TimeUnit.SECONDS));
+        for (int i = 1; i <= 5; i++) {
+            handler.publish(new LogRecord(Level.INFO, Integer.toString(i)));
+        }
+
+        final Thread closer = new Thread(new Runnable() {
+            public void run() {
+                handler.close();
+            }
+        });
+        closer.start();
+        closer.join(100L);
+        // close waits for the queued records
+        assertTrue(closer.isAlive());
+        blocker.release.countDown();
+        closer.join();
+
+        assertEquals(Arrays.asList("0", "1", "2", "3", "4", "5"), blocker.getMessages());
+        assertEquals(0, handler.getQueueDepth());
+
+        // nothing is accepted once closed
+        handler.publish(new LogRecord(Level.INFO, "6"));
+        assertEquals(6L, handler.getEnqueuedCount());
+    }
+
+    private static class RecordingHandler extends Handler {
+        private final List<String> messages = Collections.synchronizedList(new ArrayList<String>());
+
+        public void publish(final LogRecord record) {
+            messages.add(record.getMessage());
+        }
+
+        public void flush() {
+        }
+
+        public void close() {
+        }
+
+        List<String> getMessages() {
+            synchronized (messages) {
+                return new ArrayList<String>(messages);
+            }
+        }
+    }
+
+    private static final class BlockingHandler extends RecordingHandler {
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        public void publish(final LogRecord record) {
+            super.publish(record);
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.deployment.managedbean.container;
+
+import java.lang.reflect.Method;
+
+import javax.interceptor.ExcludeClassInterceptors;
+
+/**
+ * The interceptor chain of a single managed bean method, computed once when the managed bean container is created.
+ * Methods excluded from the class interceptors, and all methods of beans without interceptors, are invoked directly
+ * without creating an invocation context.
+ *
+ * @author John E. Bailey
+ */
+final class InterceptorChain {
+    private final Method method;
+    private final boolean intercepted;
+
+    /**
+     * Create the chain of a method.
+     *
+     * @param method The managed bean method
+     */
+    InterceptorChain(final Method method) {
+        if (!method.isAccessible()) {
+            method.setAccessible(true);
+        }
+        this.method = method;
+        this.intercepted = !method.isAnnotationPresent(ExcludeClassInterceptors.class);
+    }
+
+    /**
+     * Invoke the method on a managed bean instance through the interceptors, unless the method is excluded.
+     *
+     * @param target The managed bean instance
+     * @param arguments The arguments to the method invocation
+     * @param interceptors The interceptor instances of the managed bean instance
+     * @return The result of the invocation
+     * @throws Exception if the method or an interceptor fails
+     */
+    Object invoke(final Object target, final Object[] arguments, final ManagedBeanInterceptor.AroundInvokeInterceptor<?>[] interceptors) throws Exception {
+        if (intercepted && interceptors.length > 0) {
+            return new InvocationContext<Object>(target, method, arguments, interceptors).proceed();
+        }
+        return method.invoke(target, arguments);
+    }
+
+    /**
+     * Determine whether the class interceptors apply to the method.
+     *
+     * @return {@code true} if the method is intercepted
+     */
+    boolean isIntercepted() {
+        return intercepted;
+    }
+}
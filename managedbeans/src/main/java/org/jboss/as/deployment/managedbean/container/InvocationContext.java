@@ -24,13 +24,12 @@ package org.jboss.as.deployment.managedbean.container;
 
 import java.lang.reflect.Method;
 import java.util.Collections;
-import java.util.Iterator;
-import java.util.List;
 import java.util.Map;
 
 /**
  * Implementation of {@link javax.interceptor.InvocationContext} which supports the execution of managed bean method invocations
- * with an associated interceptor chain.  Uses a simple iterator to manage stepping through the interceptor chain.
+ * with an associated interceptor chain.  Steps through the interceptor chain by index, so the context is the only object
+ * allocated for an invocation besides what reflection needs.
  *
  * @param <T> The target object type
  *
@@ -40,7 +39,9 @@ public class InvocationContext<T> implements javax.interceptor.InvocationContext
     private T target;
     private Method method;
     private Object[] parameters;
-    private final Iterator<ManagedBeanInterceptor.AroundInvokeInterceptor<?>> interceptors;
+    private final ManagedBeanInterceptor.AroundInvokeInterceptor<?>[] interceptors;
+    private final Object[] interceptorArguments = { this };
+    private int next;
     private final Map<String, Object> contextData = Collections.emptyMap();
 
     /**
@@ -51,11 +52,11 @@ public class InvocationContext<T> implements javax.interceptor.InvocationContext
      * @param parameters The parameters to the method
      * @param interceptors The interceptor chain
      */
-    public InvocationContext(final T target, final Method method, final Object[] parameters, final List<ManagedBeanInterceptor.AroundInvokeInterceptor<?>> interceptors) {
+    public InvocationContext(final T target, final Method method, final Object[] parameters, final ManagedBeanInterceptor.AroundInvokeInterceptor<?>[] interceptors) {
         this.target = target;
         this.method = method;
         this.parameters = parameters;
-        this.interceptors = interceptors.iterator();
+        this.interceptors = interceptors;
     }
 
     /** {@inheritDoc} */
@@ -98,11 +99,19 @@ public class InvocationContext<T> implements javax.interceptor.InvocationContext
      * @throws Exception
      */
     public Object proceed() throws Exception {
-        if(interceptors.hasNext()) {
-            final ManagedBeanInterceptor.AroundInvokeInterceptor<?> interceptor = interceptors.next();
-            return interceptor.intercept(this);
+        if(next < interceptors.length) {
+            return interceptors[next++].intercept(this);
         } else {
             return method.invoke(target, parameters);
         }
     }
+
+    /**
+     * Get the argument array passed to the {@code @AroundInvoke} methods, which only holds this context.
+     *
+     * @return The argument array
+     */
+    Object[] getInterceptorArguments() {
+        return interceptorArguments;
+    }
 }
@@ -23,13 +23,16 @@
 package org.jboss.as.deployment.managedbean.container;
 
 import java.lang.reflect.Method;
-import java.util.ArrayList;
+import java.lang.reflect.Modifier;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import static org.jboss.as.deployment.managedbean.container.SecurityActions.getContextClassLoader;
 import static org.jboss.as.deployment.managedbean.container.SecurityActions.setContextClassLoader;
 
 /**
- * Container responsible for holding onto the components necessary for creating instance of managed beans.
+ * Container responsible for holding onto the components necessary for creating instance of managed beans.  The
+ * interceptor chain of each method of an intercepted managed bean is computed when the container is created.
  *
  * @param <T> The managed bean object type
  *
@@ -42,6 +45,8 @@ public class ManagedBeanContainer<T> {
     private final List<Method> preDestroyMethods;
     private final List<ResourceInjection<?>> resourceInjections;
     private final List<ManagedBeanInterceptor<?>> interceptors;
+    private final ConcurrentMap<Method, InterceptorChain> interceptorChains = new ConcurrentHashMap<Method, InterceptorChain>();
+    private volatile Class<? extends T> proxyClass;
 
     /**
      * Construct with managed bean configuration.
@@ -60,6 +65,16 @@ public class ManagedBeanContainer<T> {
         this.preDestroyMethods = preDestroyMethods;
         this.resourceInjections = resourceInjections;
         this.interceptors = interceptors;
+        if (!interceptors.isEmpty()) {
+            for (Class<?> current = beanClass; current != null && current != Object.class; current = current.getSuperclass()) {
+                for (Method method : current.getDeclaredMethods()) {
+                    final int modifiers = method.getModifiers();
+                    if (!Modifier.isStatic(modifiers) && !Modifier.isPrivate(modifiers)) {
+                        interceptorChains.put(method, new InterceptorChain(method));
+                    }
+                }
+            }
+        }
     }
 
     /**
@@ -99,16 +114,17 @@ public class ManagedBeanContainer<T> {
 
         if(!interceptors.isEmpty()) {
             // Create a proxy
-            final List<ManagedBeanInterceptor.AroundInvokeInterceptor<?>> aroundInvokeInterceptors = new ArrayList<ManagedBeanInterceptor.AroundInvokeInterceptor<?>>(interceptors.size());
+            final ManagedBeanInterceptor.AroundInvokeInterceptor<?>[] aroundInvokeInterceptors = new ManagedBeanInterceptor.AroundInvokeInterceptor<?>[interceptors.size()];
+            int i = 0;
             for(ManagedBeanInterceptor<?> managedBeanInterceptor : interceptors) {
                 try {
-                    aroundInvokeInterceptors.add(managedBeanInterceptor.createInstance());
+                    aroundInvokeInterceptors[i++] = managedBeanInterceptor.createInstance();
                 } catch (Throwable t) {
                     throw new RuntimeException("Failed to create instance of interceptor " + managedBeanInterceptor.toString(), t);
                 }
             }
             try {
-                managedBean = ManagedBeanProxyHandler.createProxy(beanClass, deploymentClassLoader, managedBean, aroundInvokeInterceptors);
+                managedBean = ManagedBeanProxyHandler.createProxy(getProxyClass(), this, deploymentClassLoader, managedBean, aroundInvokeInterceptors);
             } catch (Throwable t) {
                 throw new RuntimeException("Unable to create managed bean proxy for " + beanClass, t);
             }
@@ -116,5 +132,48 @@ public class ManagedBeanContainer<T> {
         return managedBean;
     }
 
+    /**
+     * Get the interceptor chain of a managed bean method.
+     *
+     * @param method The method
+     * @return The interceptor chain
+     */
+    InterceptorChain getInterceptorChain(final Method method) {
+        InterceptorChain interceptorChain = interceptorChains.get(method);
+        if (interceptorChain == null) {
+            // inherited from Object, or called on a bean without interceptors
+            final InterceptorChain newChain = new InterceptorChain(method);
+            interceptorChain = interceptorChains.putIfAbsent(method, newChain);
+            if (interceptorChain == null) {
+                interceptorChain = newChain;
+            }
+        }
+        return interceptorChain;
+    }
 
+    /**
+     * Get the proxy class for the managed bean, generating it on first use.
+     *
+     * @return The proxy class
+     */
+    private Class<? extends T> getProxyClass() {
+        Class<? extends T> proxyClass = this.proxyClass;
+        if (proxyClass == null) {
+            synchronized (this) {
+                proxyClass = this.proxyClass;
+                if (proxyClass == null) {
+                    this.proxyClass = proxyClass = ManagedBeanProxyHandler.createProxyClass(beanClass);
+                }
+            }
+        }
+        return proxyClass;
+    }
+
+    /**
+     * Drop the generated proxy class, so it can be unloaded with the deployment.  It is generated again if another
+     * instance is created.
+     */
+    void releaseProxyClass() {
+        proxyClass = null;
+    }
 }
@@ -59,8 +59,8 @@ public class ManagedBeanInterceptor<T> {
     }
 
     static class AroundInvokeInterceptor<T> {
-        private T target;
-        private Method aroundInvokeMethod;
+        private final T target;
+        private final Method aroundInvokeMethod;
 
         AroundInvokeInterceptor(T target, Method aroundInvokeMethod) {
             this.target = target;
@@ -68,7 +68,7 @@ public class ManagedBeanInterceptor<T> {
         }
 
         Object intercept(final InvocationContext<?> invocationContext) throws Exception {
-            return aroundInvokeMethod.invoke(target, invocationContext);
+            return aroundInvokeMethod.invoke(target, invocationContext.getInterceptorArguments());
         }
     }
 
@@ -26,32 +26,50 @@ import javassist.util.proxy.MethodHandler;
 import javassist.util.proxy.ProxyFactory;
 import javassist.util.proxy.ProxyObject;
 
-import javax.interceptor.ExcludeClassInterceptors;
 import java.lang.reflect.Method;
-import java.util.List;
 import static org.jboss.as.deployment.managedbean.container.SecurityActions.getContextClassLoader;
 import static org.jboss.as.deployment.managedbean.container.SecurityActions.setContextClassLoader;
 
 /**
- * Method handler used to proxy managed bean method invocations.  For each method called it will check to see if the method
- * supports interception and will execute a new {@link InvocationContext}.  If the method does not support interceptors,
- * it will run the method directly on the managed bean instance.
+ * Method handler used to proxy managed bean method invocations.  For each method called it will look up the
+ * {@link InterceptorChain} the container computed for the method, which executes a new {@link InvocationContext} if the
+ * method supports interception, or runs the method directly on the managed bean instance if it does not.
  *
  * @author John E. Bailey
  */
 public class ManagedBeanProxyHandler<T> /* extends ProxyHandler<T> */ implements MethodHandler {
-    private final List<ManagedBeanInterceptor.AroundInvokeInterceptor<?>> interceptors;
+    private final ManagedBeanInterceptor.AroundInvokeInterceptor<?>[] interceptors;
+    private final ManagedBeanContainer<T> container;
     private final T instance;
     private final ClassLoader deploymentClassLoader;
 
-    public static <T> T createProxy(final Class<T> managedBeanClass, final ClassLoader deploymentClassLoader, final T managedBean, final List<ManagedBeanInterceptor.AroundInvokeInterceptor<?>> interceptors) throws IllegalAccessException, InstantiationException {
-        final ManagedBeanProxyHandler<T> handler = new ManagedBeanProxyHandler<T>(managedBean, interceptors, deploymentClassLoader);
-        //return ProxyFactory.createProxy(managedBeanClass, );
+    /**
+     * Generate the proxy class for a managed bean class.  The class is defined in the class loader of the managed
+     * bean class and is not cached by javassist, so it can be unloaded with the deployment once the caller drops it.
+     *
+     * @param managedBeanClass The managed bean class
+     * @return The proxy class
+     */
+    public static <T> Class<? extends T> createProxyClass(final Class<T> managedBeanClass) {
         final ProxyFactory proxyFactory = new ProxyFactory();
+        proxyFactory.setUseCache(false);
         proxyFactory.setSuperclass(managedBeanClass);
+        return castClass(proxyFactory.createClass(), managedBeanClass);
+    }
 
-        final Class<? extends T> type = castClass(proxyFactory.createClass(), managedBeanClass);
-        T proxy = type.newInstance();
+    /**
+     * Create a proxy for a managed bean instance.
+     *
+     * @param proxyClass The proxy class, as returned by {@link #createProxyClass(Class)}
+     * @param container The container holding the interceptor chains of the managed bean methods
+     * @param deploymentClassLoader The classloader for the deployment
+     * @param managedBean The managed bean instance
+     * @param interceptors The interceptor chain
+     * @return The proxy
+     */
+    public static <T> T createProxy(final Class<? extends T> proxyClass, final ManagedBeanContainer<T> container, final ClassLoader deploymentClassLoader, final T managedBean, final ManagedBeanInterceptor.AroundInvokeInterceptor<?>[] interceptors) throws IllegalAccessException, InstantiationException {
+        final ManagedBeanProxyHandler<T> handler = new ManagedBeanProxyHandler<T>(managedBean, container, interceptors, deploymentClassLoader);
+        final T proxy = proxyClass.newInstance();
         ((ProxyObject)proxy).setHandler(handler);
         return proxy;
     }
@@ -66,11 +84,13 @@ public class ManagedBeanProxyHandler<T> /* extends ProxyHandler<T> */ implements
      * Create an instance.
      *
      * @param managedBeanInstance The managed bean instance
+     * @param container The managed bean container
      * @param interceptors The interceptor chain
      */
-    private ManagedBeanProxyHandler(final T managedBeanInstance, final List<ManagedBeanInterceptor.AroundInvokeInterceptor<?>> interceptors, final ClassLoader deploymentClassLoader) {
+    private ManagedBeanProxyHandler(final T managedBeanInstance, final ManagedBeanContainer<T> container, final ManagedBeanInterceptor.AroundInvokeInterceptor<?>[] interceptors, final ClassLoader deploymentClassLoader) {
         //super(managedBeanInstance);
         this.instance = managedBeanInstance;
+        this.container = container;
         this.interceptors = interceptors;
         this.deploymentClassLoader = deploymentClassLoader;
     }
@@ -87,10 +107,7 @@ public class ManagedBeanProxyHandler<T> /* extends ProxyHandler<T> */ implements
         final ClassLoader contextCl = getContextClassLoader();
         setContextClassLoader(deploymentClassLoader);
         try {
-            if(!method.isAnnotationPresent(ExcludeClassInterceptors.class)) {
-                return new InvocationContext<T>(instance, method, arguments, interceptors).proceed();
-            }
-            return method.invoke(instance, arguments);
+            return container.getInterceptorChain(method).invoke(instance, arguments, interceptors);
         } catch(Throwable t) {
             throw new RuntimeException(t);
         } finally {
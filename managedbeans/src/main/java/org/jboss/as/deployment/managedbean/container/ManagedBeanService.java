@@ -32,7 +32,7 @@ import org.jboss.msc.service.StopContext;
 /**
  * Service responsible for managing the life-cycle of a managed bean container.  Once this service is started it will
  * register the managed bean container with the registry and in essence mark the managed bean in service.  It will
- * un-register the container from the registry when stopped.
+ * un-register the container from the registry and release its proxy class when stopped.
  *
  * @author John E. Bailey
  */
@@ -62,6 +62,7 @@ public class ManagedBeanService<T> implements Service<ManagedBeanContainer<T>> {
         final ServiceName serviceName = context.getController().getName();
         log.infof("Stopping managed bean %s", serviceName);
         ManagedBeanRegistry.unregister(context.getController().getName().toString(), container);
+        container.releaseProxyClass();
     }
 
     /**
@@ -0,0 +1,131 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.deployment.managedbean.container;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.interceptor.ExcludeClassInterceptors;
+import javax.interceptor.InvocationContext;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Benchmark for calls on managed bean proxies through 0, 1 and 5 interceptors.  By default only a thousand calls
+ * are made; set the {@code org.jboss.as.test.benchmark} system property to {@code true} for a million calls and
+ * printed timings.  The number of calls can also be set with the
+ * {@code org.jboss.as.deployment.managedbean.test.calls} system property.
+ *
+ * @author John E. Bailey
+ */
+public class ManagedBeanInvocationBenchmarkTestCase {
+
+    private static final boolean BENCHMARK = Boolean.getBoolean("org.jboss.as.test.benchmark");
+    private static final int CALLS = Integer.getInteger("org.jboss.as.deployment.managedbean.test.calls", BENCHMARK ? 1000000 : 1000).intValue();
+
+    @Test
+    public void testInterceptorChain() throws Exception {
+        final CalculatorBean bean = createContainer(2).createInstance();
+        CountingInterceptor.invocations = 0;
+        assertEquals(2, bean.increment(1));
+        assertEquals(2, CountingInterceptor.invocations);
+        assertEquals(0, bean.decrement(1));
+        assertEquals(2, CountingInterceptor.invocations);
+    }
+
+    @Test
+    public void testNoInterceptors() throws Exception {
+        benchmark(0);
+    }
+
+    @Test
+    public void testOneInterceptor() throws Exception {
+        benchmark(1);
+    }
+
+    @Test
+    public void testFiveInterceptors() throws Exception {
+        benchmark(5);
+    }
+
+    private void benchmark(final int interceptorCount) throws Exception {
+        final CalculatorBean bean;
+        if (interceptorCount == 0) {
+            // the container only proxies beans with interceptors
+            final ManagedBeanContainer<CalculatorBean> container = createContainer(0);
+            bean = ManagedBeanProxyHandler.createProxy(ManagedBeanProxyHandler.createProxyClass(CalculatorBean.class), container,
+                    CalculatorBean.class.getClassLoader(), new CalculatorBean(), new ManagedBeanInterceptor.AroundInvokeInterceptor<?>[0]);
+        } else {
+            bean = createContainer(interceptorCount).createInstance();
+        }
+
+        int value = 0;
+        // warm up
+        for (int i = 0; i < CALLS / 10; i++) {
+            value = bean.increment(value);
+        }
+        final long start = System.nanoTime();
+        for (int i = 0; i < CALLS; i++) {
+            value = bean.increment(value);
+        }
+        final long time = System.nanoTime() - start;
+        assertEquals(CALLS + CALLS / 10, value);
+        if (BENCHMARK) {
+            System.out.printf("Calls through %d interceptor(s): %d ns/call\n", Integer.valueOf(interceptorCount), Long.valueOf(time / CALLS));
+        }
+    }
+
+    private static ManagedBeanContainer<CalculatorBean> createContainer(final int interceptorCount) throws Exception {
+        final Method aroundInvoke = CountingInterceptor.class.getMethod("intercept", InvocationContext.class);
+        final List<ManagedBeanInterceptor<?>> interceptors = new ArrayList<ManagedBeanInterceptor<?>>();
+        for (int i = 0; i < interceptorCount; i++) {
+            interceptors.add(new ManagedBeanInterceptor<CountingInterceptor>(CountingInterceptor.class, aroundInvoke, Collections.<ResourceInjection<?>>emptyList()));
+        }
+        return new ManagedBeanContainer<CalculatorBean>(CalculatorBean.class, CalculatorBean.class.getClassLoader(), Collections.<Method>emptyList(),
+                Collections.<Method>emptyList(), Collections.<ResourceInjection<?>>emptyList(), interceptors);
+    }
+
+    public static class CalculatorBean {
+        public int increment(final int value) {
+            return value + 1;
+        }
+
+        @ExcludeClassInterceptors
+        public int decrement(final int value) {
+            return value - 1;
+        }
+    }
+
+    public static class CountingInterceptor {
+        static int invocations;
+
+        public Object intercept(final InvocationContext context) throws Exception {
+            invocations++;
+            return context.proceed();
+        }
+    }
+}
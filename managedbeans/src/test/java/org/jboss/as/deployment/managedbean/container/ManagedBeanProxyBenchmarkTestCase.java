@@ -0,0 +1,154 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.deployment.managedbean.container;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import javax.interceptor.InvocationContext;
+
+import org.jboss.as.deployment.managedbean.TestInterceptor;
+import org.jboss.as.deployment.managedbean.TestManagedBean;
+import org.junit.Test;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Benchmark for creating intercepted managed bean instances with a proxy class generated for every instance, as it
+ * used to be, and with the proxy class cached by the container.  By default only a couple of hundred instances are
+ * created; set the {@code org.jboss.as.test.benchmark} system property to {@code true} for two thousand instances and
+ * printed timings.  The number of instances can also be set with the
+ * {@code org.jboss.as.deployment.managedbean.test.instances} system property.
+ *
+ * @author John E. Bailey
+ */
+public class ManagedBeanProxyBenchmarkTestCase {
+
+    private static final boolean BENCHMARK = Boolean.getBoolean("org.jboss.as.test.benchmark");
+    private static final int INSTANCES = Integer.getInteger("org.jboss.as.deployment.managedbean.test.instances", BENCHMARK ? 2000 : 200).intValue();
+
+    @Test
+    public void testProxyClassIsCached() throws Exception {
+        final ManagedBeanContainer<TestManagedBean> container = createContainer();
+        final TestManagedBean first = container.createInstance();
+        final TestManagedBean second = container.createInstance();
+        assertNotSame(first, second);
+        assertSame(first.getClass(), second.getClass());
+        assertTrue(first.getClass() != TestManagedBean.class);
+
+        container.releaseProxyClass();
+        assertNotSame(first.getClass(), container.createInstance().getClass());
+    }
+
+    @Test
+    public void testProxyClassIsPerContainer() throws Exception {
+        final ManagedBeanContainer<TestManagedBean> container = createContainer();
+        final ManagedBeanContainer<TestManagedBean> other = createContainer();
+        final Class<?> proxyClass = container.createInstance().getClass();
+        for (int i = 0; i < 10; i++) {
+            assertSame(proxyClass, container.createInstance().getClass());
+        }
+        assertNotSame(proxyClass, other.createInstance().getClass());
+    }
+
+    @Test
+    public void testProxyClassIsCachedAcrossThreads() throws Exception {
+        final ManagedBeanContainer<TestManagedBean> container = createContainer();
+        final Class<?>[] proxyClasses = new Class<?>[8];
+        final Thread[] threads = new Thread[proxyClasses.length];
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        for (int i = 0; i < threads.length; i++) {
+            final int index = i;
+            threads[i] = new Thread(new Runnable() {
+                public void run() {
+                    try {
+                        startLatch.await();
+                        proxyClasses[index] = container.createInstance().getClass();
+                    } catch (Exception e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        startLatch.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        for (Class<?> proxyClass : proxyClasses) {
+            assertNotNull(proxyClass);
+            assertSame(proxyClasses[0], proxyClass);
+        }
+    }
+
+    @Test
+    public void testInstanceCreation() throws Exception {
+        final ManagedBeanInterceptor.AroundInvokeInterceptor<?>[] interceptors = { createInterceptor().createInstance() };
+        final ClassLoader classLoader = TestManagedBean.class.getClassLoader();
+        final ManagedBeanContainer<TestManagedBean> container = createContainer();
+
+        // warm up
+        for (int i = 0; i < INSTANCES / 10; i++) {
+            ManagedBeanProxyHandler.createProxy(ManagedBeanProxyHandler.createProxyClass(TestManagedBean.class), container, classLoader, new TestManagedBean(), interceptors);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < INSTANCES; i++) {
+            ManagedBeanProxyHandler.createProxy(ManagedBeanProxyHandler.createProxyClass(TestManagedBean.class), container, classLoader, new TestManagedBean(), interceptors);
+        }
+        final long uncached = System.nanoTime() - start;
+
+        final Class<?> proxyClass = container.createInstance().getClass();
+        for (int i = 0; i < INSTANCES / 10; i++) {
+            container.createInstance();
+        }
+        start = System.nanoTime();
+        for (int i = 0; i < INSTANCES; i++) {
+            container.createInstance();
+        }
+        final long cached = System.nanoTime() - start;
+        assertSame(proxyClass, container.createInstance().getClass());
+
+        if (BENCHMARK) {
+            System.out.printf("Proxy class per instance: %d instances/s\n", Long.valueOf(INSTANCES * 1000000000L / Math.max(uncached, 1L)));
+            System.out.printf("Cached proxy class: %d instances/s\n", Long.valueOf(INSTANCES * 1000000000L / Math.max(cached, 1L)));
+        }
+    }
+
+    private static ManagedBeanContainer<TestManagedBean> createContainer() throws Exception {
+        final List<ManagedBeanInterceptor<?>> interceptors = new ArrayList<ManagedBeanInterceptor<?>>();
+        interceptors.add(createInterceptor());
+        return new ManagedBeanContainer<TestManagedBean>(TestManagedBean.class, TestManagedBean.class.getClassLoader(), Collections.<Method>emptyList(),
+                Collections.<Method>emptyList(), Collections.<ResourceInjection<?>>emptyList(), interceptors);
+    }
+
+    private static ManagedBeanInterceptor<TestInterceptor> createInterceptor() throws Exception {
+        final Method aroundInvoke = TestInterceptor.class.getMethod("intercept", InvocationContext.class);
+        return new ManagedBeanInterceptor<TestInterceptor>(TestInterceptor.class, aroundInvoke, Collections.<ResourceInjection<?>>emptyList());
+    }
+}
@@ -22,8 +22,6 @@
 
 package org.jboss.as.naming;
 
-import org.jboss.as.naming.util.FastCopyHashMap;
-
 import javax.naming.Binding;
 import javax.naming.CannotProceedException;
 import javax.naming.CompositeName;
@@ -38,13 +36,16 @@ import javax.naming.event.NamingEvent;
 import javax.naming.event.NamingListener;
 import javax.naming.spi.ResolveResult;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static org.jboss.as.naming.util.NamingUtils.asReference;
 import static org.jboss.as.naming.util.NamingUtils.cannotProceedException;
+import static org.jboss.as.naming.util.NamingUtils.cast;
 import static org.jboss.as.naming.util.NamingUtils.emptyName;
 import static org.jboss.as.naming.util.NamingUtils.emptyNameException;
 import static org.jboss.as.naming.util.NamingUtils.getLastComponent;
@@ -58,6 +59,9 @@ import static org.jboss.as.naming.util.NamingUtils.notAContextException;
  * In-memory implementation of the NamingStore.  The backing for the entries is a basic tree structure with either context
  * nodes or binding nodes.  The context nodes are allowed to have children and can be represented by a NamingContext.  A
  * binding node is only allowed to have a normal object binding.
+ * <p>
+ * The children of a context node are held in a concurrent map, so lookups never lock and a single bind or unbind does
+ * not copy the other entries of the context.
  *
  * @author John E. Bailey
  */
@@ -138,6 +142,48 @@ public class InMemoryNamingStore implements NamingStore {
         root.accept(new UnbindVisitor(callingContext, name));
     }
 
+    /**
+     * Bind a set of entries into one context.  The context is only located once, and all the names are checked before
+     * any entry is bound.  Either every entry is bound or, if any name is already bound, none is.  Concurrent lookups may
+     * see part of a batch while it is being bound.
+     *
+     * @param callingContext The calling context
+     * @param contextName The name of the context to bind the entries into
+     * @param bindings The entries, each named by its name within the context
+     * @throws NamingException
+     */
+    public void bind(final Context callingContext, final Name contextName, final List<Binding> bindings) throws NamingException {
+        final List<Name> names = new ArrayList<Name>(bindings.size());
+        for (Binding binding : bindings) {
+            names.add(childName(contextName, binding.getName()));
+        }
+        for (Name name : names) {
+            checkPermissions(name, JndiPermission.Action.BIND);
+        }
+        root.accept(new BindAllVisitor(callingContext, contextName, names, bindings));
+    }
+
+    /**
+     * Unbind a set of entries from one context.  The context is only located once, and all the entries must exist
+     * before any is unbound.  Either every entry is unbound or, if any entry is missing, none is.  Concurrent lookups
+     * may see part of a batch while it is being unbound.
+     *
+     * @param callingContext The calling context
+     * @param contextName The name of the context to unbind the entries from
+     * @param childNames The names of the entries within the context
+     * @throws NamingException
+     */
+    public void unbind(final Context callingContext, final Name contextName, final List<String> childNames) throws NamingException {
+        final List<Name> names = new ArrayList<Name>(childNames.size());
+        for (String childName : childNames) {
+            names.add(childName(contextName, childName));
+        }
+        for (Name name : names) {
+            checkPermissions(name, JndiPermission.Action.UNBIND);
+        }
+        root.accept(new UnbindAllVisitor(callingContext, contextName, names));
+    }
+
     /**
      * Lookup the object value of a binding node in the tree.
      *
@@ -152,7 +198,28 @@ public class InMemoryNamingStore implements NamingStore {
             return new NamingContext(emptyName, this, new Hashtable<String, Object>());
         }
         checkPermissions(name, JndiPermission.Action.LOOKUP);
-        return root.accept(new LookupVisitor(name));
+
+        // Walk the tree by component index; nothing is allocated unless the name continues past a binding
+        ContextNode contextNode = root;
+        int index = 0;
+        for (;;) {
+            final String childName = name.get(index++);
+            final TreeNode node = contextNode.children.get(childName);
+            if (node == null) {
+                throw nameNotFoundException(childName, contextNode.fullName);
+            }
+            if (isRemainderEmpty(name, index)) {
+                return node.binding.getObject();
+            }
+            if (node instanceof ContextNode) {
+                contextNode = (ContextNode) node;
+            } else {
+                final Name remainingName = name.getSuffix(index);
+                final Object boundObject = node.binding.getObject();
+                checkReferenceForContinuation(remainingName, boundObject);
+                return new ResolveResult(boundObject, remainingName);
+            }
+        }
     }
 
     /**
@@ -198,12 +265,16 @@ public class InMemoryNamingStore implements NamingStore {
     }
 
     /**
-     * Close the store.  This will clear all children from the root node.
+     * Close the store.  This will clear all children from the root node and stop the event coordinator.
      *
      * @throws NamingException
      */
     public void close() throws NamingException {
         root.clear();
+        final NamingEventCoordinator coordinator = this.eventCoordinator;
+        if (coordinator != null) {
+            coordinator.close();
+        }
     }
 
     /**
@@ -247,6 +318,19 @@ public class InMemoryNamingStore implements NamingStore {
         }
     }
 
+    private static Name childName(final Name contextName, final String childName) throws NamingException {
+        if (childName == null || childName.length() == 0) {
+            throw emptyNameException();
+        }
+        final Name name = cast(contextName.clone());
+        return name.add(childName);
+    }
+
+    private static boolean isRemainderEmpty(final Name name, final int index) {
+        final int size = name.size();
+        return index == size || (index == size - 1 && "".equals(name.get(index)));
+    }
+
     private void checkPermissions(final Name name, JndiPermission.Action permission) {
         if (securityManager == null)
             securityManager = System.getSecurityManager();
@@ -269,42 +353,32 @@ public class InMemoryNamingStore implements NamingStore {
     }
 
     private class ContextNode extends TreeNode {
-        private volatile Map<String, TreeNode> children = Collections.emptyMap();
+        private final ConcurrentMap<String, TreeNode> children = new ConcurrentHashMap<String, TreeNode>();
 
         private ContextNode(final Name fullName, final NamingContext context) {
             super(fullName, new Binding(getLastComponent(fullName), Context.class.getName(), context));
         }
 
-        private synchronized void addChild(final String childName, final TreeNode childNode) throws NamingException {
-            if (children.containsKey(childName)) {
-                throw nameAlreadyBoundException(fullName.add(childName));
+        private void addChild(final String childName, final TreeNode childNode) throws NamingException {
+            if (children.putIfAbsent(childName, childNode) != null) {
+                throw nameAlreadyBoundException(childNode.fullName);
             }
-            final Map<String, TreeNode> copy = new FastCopyHashMap<String, TreeNode>(children);
-            copy.put(childName, childNode);
-            children = copy;
         }
 
-        private synchronized TreeNode replaceChild(final String childName, final TreeNode childNode) throws NamingException {
-            final Map<String, TreeNode> copy = new FastCopyHashMap<String, TreeNode>(children);
-            final TreeNode existing = copy.put(childName, childNode);
-            children = copy;
-            return existing;
+        private TreeNode replaceChild(final String childName, final TreeNode childNode) throws NamingException {
+            return children.put(childName, childNode);
         }
 
-        private synchronized TreeNode removeChild(final String childName) throws NameNotFoundException {
-            if (!children.containsKey(childName)) {
+        private TreeNode removeChild(final String childName) throws NameNotFoundException {
+            final TreeNode existing = children.remove(childName);
+            if (existing == null) {
                 throw nameNotFoundException(childName, fullName);
             }
-            final Map<String, TreeNode> copy = new FastCopyHashMap<String, TreeNode>(children);
-            final TreeNode existing = copy.remove(childName);
-            children = copy;
             return existing;
         }
 
-        private synchronized void clear() {
-            final Map<String, TreeNode> copy = new FastCopyHashMap<String, TreeNode>(children);
-            copy.clear();
-            children = copy;
+        private void clear() {
+            children.clear();
         }
 
         protected final <T> T accept(NodeVisitor<T> visitor) throws NamingException {
@@ -329,27 +403,31 @@ public class InMemoryNamingStore implements NamingStore {
     }
 
     private abstract class NodeTraversingVisitor<T> implements NodeVisitor<T> {
-        private Name currentName;
         protected final Name targetName;
+        private final int depth;
+        private int index;
 
         private NodeTraversingVisitor(final Name targetName) {
-            this.currentName = targetName;
+            this(targetName, targetName.size());
+        }
+
+        private NodeTraversingVisitor(final Name targetName, final int depth) {
             this.targetName = targetName;
+            this.depth = depth;
         }
 
         public final T visit(final BindingNode bindingNode) throws NamingException {
-            if (isEmpty(currentName)) {
+            if (isRemainderEmpty()) {
                 return found(bindingNode);
             }
             return foundReferenceInsteadOfContext(bindingNode);
         }
 
         public final T visit(final ContextNode contextNode) throws NamingException {
-            if (isEmpty(currentName)) {
+            if (isRemainderEmpty()) {
                 return found(contextNode);
             }
-            final String childName = currentName.get(0);
-            currentName = currentName.getSuffix(1);
+            final String childName = targetName.get(index++);
             final TreeNode node = contextNode.children.get(childName);
             if (node == null) {
                 throw nameNotFoundException(childName, contextNode.fullName);
@@ -357,23 +435,24 @@ public class InMemoryNamingStore implements NamingStore {
             return node.accept(this);
         }
 
+        private boolean isRemainderEmpty() {
+            return index == depth || (index == depth - 1 && "".equals(targetName.get(index)));
+        }
+
         protected abstract T found(ContextNode contextNode) throws NamingException;
 
         protected abstract T found(BindingNode bindingNode) throws NamingException;
 
         protected T foundReferenceInsteadOfContext(BindingNode bindingNode) throws NamingException {
             final Object object = bindingNode.binding.getObject();
-            checkReferenceForContinuation(currentName, object);
+            checkReferenceForContinuation(targetName.getSuffix(index), object);
             throw notAContextException(bindingNode.fullName);
         }
     }
 
     private abstract class BindingContextVisitor<T> extends NodeTraversingVisitor<T> {
-        protected final Name targetName;
-
         private BindingContextVisitor(final Name targetName) {
-            super(targetName.getPrefix(targetName.size() - 1));
-            this.targetName = targetName;
+            super(targetName, targetName.size() - 1);
         }
 
         protected final T found(final ContextNode contextNode) throws NamingException {
@@ -466,24 +545,93 @@ public class InMemoryNamingStore implements NamingStore {
         }
     }
 
-    private final class LookupVisitor extends NodeTraversingVisitor<Object> {
-        private LookupVisitor(final Name targetName) {
-            super(targetName);
+    private final class BindAllVisitor extends NodeTraversingVisitor<Void> {
+        private final Context callingContext;
+        private final List<Name> names;
+        private final List<Binding> bindings;
+
+        private BindAllVisitor(final Context callingContext, final Name contextName, final List<Name> names, final List<Binding> bindings) {
+            super(contextName);
+            this.callingContext = callingContext;
+            this.names = names;
+            this.bindings = bindings;
+        }
+
+        protected Void found(final ContextNode contextNode) throws NamingException {
+            final Set<String> childNames = new HashSet<String>();
+            for (Name name : names) {
+                final String childName = getLastComponent(name);
+                if (contextNode.children.containsKey(childName) || !childNames.add(childName)) {
+                    throw nameAlreadyBoundException(name);
+                }
+            }
+            final List<BindingNode> added = new ArrayList<BindingNode>(names.size());
+            try {
+                for (int i = 0; i < names.size(); i++) {
+                    final Name name = names.get(i);
+                    final Binding entry = bindings.get(i);
+                    final String childName = getLastComponent(name);
+                    final BindingNode node = new BindingNode(name, new Binding(childName, entry.getClassName(), entry.getObject(), true));
+                    contextNode.addChild(childName, node);
+                    added.add(node);
+                }
+            } catch (NamingException e) {
+                // A concurrent bind took one of the names; take back the entries this batch added
+                for (BindingNode node : added) {
+                    contextNode.children.remove(node.binding.getName(), node);
+                }
+                throw e;
+            }
+            for (BindingNode node : added) {
+                fireEvent(callingContext, node.fullName, null, node.binding, NamingEvent.OBJECT_ADDED, "bind");
+            }
+            return null;
         }
 
-        protected Object found(final ContextNode contextNode) throws NamingException {
-            return contextNode.binding.getObject();
+        protected Void found(final BindingNode bindingNode) throws NamingException {
+            checkReferenceForContinuation(emptyName(), bindingNode.binding.getObject());
+            throw notAContextException(targetName);
         }
+    }
+
+    private final class UnbindAllVisitor extends NodeTraversingVisitor<Void> {
+        private final Context callingContext;
+        private final List<Name> names;
 
-        protected Object found(final BindingNode bindingNode) throws NamingException {
-            return bindingNode.binding.getObject();
+        private UnbindAllVisitor(final Context callingContext, final Name contextName, final List<Name> names) {
+            super(contextName);
+            this.callingContext = callingContext;
+            this.names = names;
         }
 
-        protected Object foundReferenceInsteadOfContext(final BindingNode bindingNode) throws NamingException {
-            final Name remainingName = targetName.getSuffix(bindingNode.fullName.size());
-            final Object boundObject = bindingNode.binding.getObject();
-            checkReferenceForContinuation(remainingName, boundObject);
-            return new ResolveResult(boundObject, remainingName);
+        protected Void found(final ContextNode contextNode) throws NamingException {
+            for (Name name : names) {
+                final String childName = getLastComponent(name);
+                if (!contextNode.children.containsKey(childName)) {
+                    throw nameNotFoundException(childName, contextNode.fullName);
+                }
+            }
+            final List<TreeNode> removed = new ArrayList<TreeNode>(names.size());
+            try {
+                for (Name name : names) {
+                    removed.add(contextNode.removeChild(getLastComponent(name)));
+                }
+            } catch (NamingException e) {
+                // A concurrent unbind took one of the entries; put back the entries this batch removed
+                for (TreeNode node : removed) {
+                    contextNode.children.putIfAbsent(getLastComponent(node.fullName), node);
+                }
+                throw e;
+            }
+            for (int i = 0; i < names.size(); i++) {
+                fireEvent(callingContext, names.get(i), removed.get(i).binding, null, NamingEvent.OBJECT_REMOVED, "unbind");
+            }
+            return null;
+        }
+
+        protected Void found(final BindingNode bindingNode) throws NamingException {
+            checkReferenceForContinuation(emptyName(), bindingNode.binding.getObject());
+            throw notAContextException(targetName);
         }
     }
 
@@ -24,6 +24,7 @@ package org.jboss.as.naming;
 
 import javax.naming.spi.ObjectFactory;
 import org.jboss.as.naming.context.ObjectFactoryBuilder;
+import org.jboss.as.naming.util.NameCache;
 import org.jboss.as.naming.util.NameParser;
 import org.jboss.as.naming.util.NamingUtils;
 
@@ -102,6 +103,9 @@ public class NamingContext implements EventContext {
     /* The name parser */
     private static final NameParser nameParser = new NameParser();
 
+    /* Absolute names of looked up strings, for strings which resolve to the same name in every context */
+    private static final NameCache absoluteNames = new NameCache(Integer.getInteger("org.jboss.as.naming.name-cache-size", 1024).intValue());
+
     /* The naming store providing the back-end storage */
     private final NamingStore namingStore;
 
@@ -160,7 +164,26 @@ public class NamingContext implements EventContext {
             return new NamingContext(prefix, namingStore, environment);
         }
 
-        final Name absoluteName = getAbsoluteName(name);
+        return lookupAbsolute(getAbsoluteName(name));
+    }
+
+    /** {@inheritDoc} */
+    public Object lookup(final String name) throws NamingException {
+        if (!prefix.isEmpty() && !name.startsWith("java:") && !name.startsWith("/")) {
+            return lookup(parseName(name));
+        }
+        Name absoluteName = absoluteNames.get(name);
+        if (absoluteName == null) {
+            final Name parsed = parseName(name);
+            if (isEmpty(parsed)) {
+                return lookup(parsed);
+            }
+            absoluteName = absoluteNames.put(name, getAbsoluteName(parsed));
+        }
+        return lookupAbsolute(absoluteName);
+    }
+
+    private Object lookupAbsolute(final Name absoluteName) throws NamingException {
         Object result;
         try {
             result = namingStore.lookup(absoluteName);
@@ -195,11 +218,6 @@ public class NamingContext implements EventContext {
         return result;
     }
 
-    /** {@inheritDoc} */
-    public Object lookup(final String name) throws NamingException {
-        return lookup(parseName(name));
-    }
-
     /** {@inheritDoc} */
     public void bind(final Name name, Object object) throws NamingException {
         final Name absoluteName = getAbsoluteName(name);
@@ -456,7 +474,8 @@ public class NamingContext implements EventContext {
         try {
             final ObjectFactoryBuilder factoryBuilder = ObjectFactoryBuilder.INSTANCE;
             final ObjectFactory objectFactory = factoryBuilder.createObjectFactory(object, environment);
-            return objectFactory.getObjectInstance(object, name, this, environment);
+            // the name may be shared through the name cache, and factories are free to modify it
+            return objectFactory.getObjectInstance(object, (Name) name.clone(), this, environment);
         } catch(NamingException e) {
             throw e;
         } catch(Throwable t) {
@@ -23,15 +23,19 @@
 package org.jboss.as.naming;
 
 import org.jboss.as.naming.util.FastCopyHashMap;
+import org.jboss.logging.Logger;
 
 import javax.naming.Binding;
+import javax.naming.CompositeName;
+import javax.naming.InvalidNameException;
 import javax.naming.Name;
 import javax.naming.event.EventContext;
 import javax.naming.event.NamespaceChangeListener;
 import javax.naming.event.NamingEvent;
 import javax.naming.event.NamingListener;
 import javax.naming.event.ObjectChangeListener;
-import java.util.Arrays;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
@@ -39,23 +43,68 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.jboss.as.naming.util.NamingUtils.isEmpty;
 
 /**
- * Coordinator responsible for passing @(code NamingEvent} instances to registered @{code NamingListener} instances.  Two
- * maps are used to managed a mapping between a listener and its configuration as well as a mapping from target name to a list
- * of listener configurations.  These maps are updated atomically on listener add and remove.
+ * Coordinator responsible for passing @(code NamingEvent} instances to registered @{code NamingListener} instances.
+ * Listener registrations are kept in a tree indexed by name component, so firing an event only visits the nodes along
+ * the event's name.  If no listener matches, no event is created and nothing is dispatched.  The tree and the mapping
+ * from a listener to its registrations are updated atomically on listener add and remove.
+ * <p>
+ * Each listener receives its events in the order they were fired, from its own queue.  The queues are drained by the
+ * dispatch executor, so a slow listener only delays its own events.
  *
  * @author John E. Bailey
  */
 public class NamingEventCoordinator {
-    private volatile Map<TargetScope, List<ListenerHolder>> holdersByTarget = Collections.emptyMap();
+    private static final Logger log = Logger.getLogger("org.jboss.as.naming");
+
+    private final TargetNode root = new TargetNode(null, null);
     private volatile Map<NamingListener, ListenerHolder> holdersByListener = Collections.emptyMap();
 
-    private final Executor executor = Executors.newSingleThreadExecutor();
+    private final Executor executor;
+    private final ExecutorService ownedExecutor;
 
     static final Integer[] DEFAULT_SCOPES = {EventContext.OBJECT_SCOPE, EventContext.ONELEVEL_SCOPE, EventContext.SUBTREE_SCOPE};
 
+    /**
+     * Construct an instance which dispatches events on its own daemon threads.  At most one thread is busy per
+     * listener with pending events.  The threads are stopped by {@link #close()}.
+     */
+    public NamingEventCoordinator() {
+        ownedExecutor = Executors.newCachedThreadPool(new DispatchThreadFactory());
+        executor = ownedExecutor;
+    }
+
+    /**
+     * Construct an instance which dispatches events with the given executor.
+     *
+     * @param executor The dispatch executor
+     */
+    public NamingEventCoordinator(final Executor executor) {
+        if (executor == null) {
+            throw new IllegalArgumentException("Executor can not be null");
+        }
+        this.executor = executor;
+        ownedExecutor = null;
+    }
+
+    /**
+     * Stop dispatching events.  If the coordinator started its own threads, they finish the events already fired and
+     * then exit.  An executor passed in on construction is left running for its owner to shut down.
+     */
+    void close() {
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdown();
+        }
+    }
+
     /**
      * Add a listener to the coordinator with a given target name and event scope.  This information is used when an
      * event is fired to determine whether or not to fire this listener.
@@ -65,26 +114,19 @@ public class NamingEventCoordinator {
      * @param namingListener The listener
      */
     synchronized void addListener(final String target, final int scope, final NamingListener namingListener) {
-        final TargetScope targetScope = new TargetScope(target, scope);
+        final TargetNode node = getOrCreateNode(target);
+        final TargetScope targetScope = new TargetScope(node, scope);
         // Do we have a holder for this listener
         ListenerHolder holder = holdersByListener.get(namingListener);
         if (holder == null) {
-            holder = new ListenerHolder(namingListener, targetScope);
+            holder = new ListenerHolder(namingListener);
             final Map<NamingListener, ListenerHolder> byListenerCopy = new FastCopyHashMap<NamingListener, ListenerHolder>(holdersByListener);
             byListenerCopy.put(namingListener, holder);
             holdersByListener = byListenerCopy;
-        } else {
-            holder.addTarget(targetScope);
         }
-
-        List<ListenerHolder> holdersForTarget = holdersByTarget.get(targetScope);
-        if (holdersForTarget == null) {
-            holdersForTarget = new CopyOnWriteArrayList<ListenerHolder>();
-            final Map<TargetScope, List<ListenerHolder>> byTargetCopy = new FastCopyHashMap<TargetScope, List<ListenerHolder>>(holdersByTarget);
-            byTargetCopy.put(targetScope, holdersForTarget);
-            holdersByTarget = byTargetCopy;
+        if (holder.targets.add(targetScope)) {
+            node.getHolders(scope).add(holder);
         }
-        holdersForTarget.add(holder);
     }
 
     /**
@@ -99,20 +141,16 @@ public class NamingEventCoordinator {
         if (holder == null) {
             return;
         }
+        holder.removed = true;
 
         final Map<NamingListener, ListenerHolder> byListenerCopy = new FastCopyHashMap<NamingListener, ListenerHolder>(holdersByListener);
         byListenerCopy.remove(namingListener);
         holdersByListener = byListenerCopy;
 
-        final Map<TargetScope, List<ListenerHolder>> byTargetCopy = new FastCopyHashMap<TargetScope, List<ListenerHolder>>(holdersByTarget);
         for (TargetScope targetScope : holder.targets) {
-            final List<ListenerHolder> holders = holdersByTarget.get(targetScope);
-            holders.remove(holder);
-            if (holders.isEmpty()) {
-                byTargetCopy.remove(targetScope);
-            }
+            targetScope.node.getHolders(targetScope.scope).remove(holder);
+            targetScope.node.prune();
         }
-        holdersByTarget = byTargetCopy;
     }
 
     /**
@@ -128,106 +166,218 @@ public class NamingEventCoordinator {
      * @param scopes The scopes this event should be fired against
      */
     void fireEvent(final EventContext context, final Name name, final Binding existingBinding, final Binding newBinding, int type, final String changeInfo, final Integer... scopes) {
-        final String target = name.toString();
-        final Set<Integer> scopeSet = new HashSet<Integer>(Arrays.asList(scopes));
-        final NamingEvent event = new NamingEvent(context, type, newBinding, existingBinding, changeInfo);
-
-        final Set<ListenerHolder> holdersToFire = new HashSet<ListenerHolder>();
+        final int size = name.size();
+        final boolean objectScope = contains(scopes, EventContext.OBJECT_SCOPE);
+        final boolean oneLevelScope = contains(scopes, EventContext.ONELEVEL_SCOPE);
+        final boolean subtreeScope = contains(scopes, EventContext.SUBTREE_SCOPE);
 
-        // Check for OBJECT_SCOPE based listeners
-        if (scopeSet.contains(EventContext.OBJECT_SCOPE)) {
-            final TargetScope targetScope = new TargetScope(target, EventContext.OBJECT_SCOPE);
-            final List<ListenerHolder> holders = holdersByTarget.get(targetScope);
-            if (holders != null) {
-                for (ListenerHolder holder : holders) {
-                    holdersToFire.add(holder);
+        // Walk down the registrations along the name.  At depth i the node is the target for the name's first i components.
+        List<ListenerHolder> holdersToFire = null;
+        TargetNode node = root;
+        for (int i = 0; node != null; i++) {
+            if (subtreeScope && i > 0 && i < size) {
+                holdersToFire = collect(holdersToFire, node.subtreeHolders);
+            }
+            if (oneLevelScope && i == size - 1) {
+                holdersToFire = collect(holdersToFire, node.oneLevelHolders);
+            }
+            if (i == size) {
+                if (objectScope) {
+                    holdersToFire = collect(holdersToFire, node.objectHolders);
                 }
+                break;
             }
+            node = node.children.get(name.get(i));
+        }
+        if (holdersToFire == null) {
+            return;
         }
 
-        // Check for ONELEVEL_SCOPE based listeners
-        if (scopeSet.contains(EventContext.ONELEVEL_SCOPE) && !name.isEmpty()) {
-            final TargetScope targetScope = new TargetScope(name.getPrefix(name.size() - 1).toString(), EventContext.ONELEVEL_SCOPE);
-            final List<ListenerHolder> holders = holdersByTarget.get(targetScope);
-            if (holders != null) {
-                for (ListenerHolder holder : holders) {
-                    holdersToFire.add(holder);
-                }
+        final NamingEvent event = new NamingEvent(context, type, newBinding, existingBinding, changeInfo);
+        for (ListenerHolder holder : holdersToFire) {
+            holder.deliver(event);
+        }
+    }
+
+    private static boolean contains(final Integer[] scopes, final int scope) {
+        for (Integer candidate : scopes) {
+            if (candidate.intValue() == scope) {
+                return true;
             }
         }
+        return false;
+    }
 
-        // Check for SUBTREE_SCOPE based listeners
-        if (scopeSet.contains(EventContext.SUBTREE_SCOPE) && !name.isEmpty()) {
-            for (int i = 1; i < name.size(); i++) {
-                final Name parentName = name.getPrefix(i);
-                final TargetScope targetScope = new TargetScope(parentName.toString(), EventContext.SUBTREE_SCOPE);
-                final List<ListenerHolder> holders = holdersByTarget.get(targetScope);
-                if (holders != null) {
-                    for (ListenerHolder holder : holders) {
-                        holdersToFire.add(holder);
-                    }
-                }
+    private static List<ListenerHolder> collect(List<ListenerHolder> holdersToFire, final List<ListenerHolder> holders) {
+        if (holders.isEmpty()) {
+            return holdersToFire;
+        }
+        for (ListenerHolder holder : holders) {
+            if (holdersToFire == null) {
+                holdersToFire = new ArrayList<ListenerHolder>(holders.size());
+            }
+            // A listener registered for more than one matching target still only gets the event once
+            if (!holdersToFire.contains(holder)) {
+                holdersToFire.add(holder);
             }
         }
+        return holdersToFire;
+    }
 
-        executor.execute(new FireEventTask(holdersToFire, event));
+    // protected by {@code this}
+    private TargetNode getOrCreateNode(final String target) {
+        final Name name;
+        try {
+            name = new CompositeName(target);
+        } catch (InvalidNameException e) {
+            throw new IllegalArgumentException("Invalid listener target " + target, e);
+        }
+        TargetNode node = root;
+        if (isEmpty(name)) {
+            return node;
+        }
+        for (int i = 0; i < name.size(); i++) {
+            final String component = name.get(i);
+            TargetNode child = node.children.get(component);
+            if (child == null) {
+                child = new TargetNode(node, component);
+                final Map<String, TargetNode> childrenCopy = new FastCopyHashMap<String, TargetNode>(node.children);
+                childrenCopy.put(component, child);
+                node.children = childrenCopy;
+            }
+            node = child;
+        }
+        return node;
     }
 
-    private class FireEventTask implements Runnable {
-        private final Set<ListenerHolder> listenerHolders;
-        private final NamingEvent event;
+    private static void fire(final NamingListener listener, final NamingEvent event) {
+        switch (event.getType()) {
+            case NamingEvent.OBJECT_ADDED:
+                if (listener instanceof NamespaceChangeListener)
+                    ((NamespaceChangeListener) listener).objectAdded(event);
+                break;
+            case NamingEvent.OBJECT_REMOVED:
+                if (listener instanceof NamespaceChangeListener)
+                    ((NamespaceChangeListener) listener).objectRemoved(event);
+                break;
+            case NamingEvent.OBJECT_RENAMED:
+                if (listener instanceof NamespaceChangeListener)
+                    ((NamespaceChangeListener) listener).objectRenamed(event);
+                break;
+            case NamingEvent.OBJECT_CHANGED:
+                if (listener instanceof ObjectChangeListener)
+                    ((ObjectChangeListener) listener).objectChanged(event);
+                break;
+        }
+    }
+
+    /**
+     * A node of the registration tree.  Children and holder lists are only modified under the coordinator's lock.
+     */
+    private static final class TargetNode {
+        private final TargetNode parent;
+        private final String component;
+        private volatile Map<String, TargetNode> children = Collections.emptyMap();
+        private final List<ListenerHolder> objectHolders = new CopyOnWriteArrayList<ListenerHolder>();
+        private final List<ListenerHolder> oneLevelHolders = new CopyOnWriteArrayList<ListenerHolder>();
+        private final List<ListenerHolder> subtreeHolders = new CopyOnWriteArrayList<ListenerHolder>();
+
+        private TargetNode(final TargetNode parent, final String component) {
+            this.parent = parent;
+            this.component = component;
+        }
 
-        private FireEventTask(Set<ListenerHolder> listenerHolders, NamingEvent event) {
-            this.listenerHolders = listenerHolders;
-            this.event = event;
+        private List<ListenerHolder> getHolders(final int scope) {
+            switch (scope) {
+                case EventContext.OBJECT_SCOPE:
+                    return objectHolders;
+                case EventContext.ONELEVEL_SCOPE:
+                    return oneLevelHolders;
+                case EventContext.SUBTREE_SCOPE:
+                    return subtreeHolders;
+                default:
+                    throw new IllegalArgumentException("Invalid event scope " + scope);
+            }
         }
 
-        @Override
-        public void run() {
-            for (ListenerHolder holder : listenerHolders) {
-                final NamingListener listener = holder.listener;
-                switch (event.getType()) {
-                    case NamingEvent.OBJECT_ADDED:
-                        if (listener instanceof NamespaceChangeListener)
-                            ((NamespaceChangeListener) listener).objectAdded(event);
-                        break;
-                    case NamingEvent.OBJECT_REMOVED:
-                        if (listener instanceof NamespaceChangeListener)
-                            ((NamespaceChangeListener) listener).objectRemoved(event);
-                        break;
-                    case NamingEvent.OBJECT_RENAMED:
-                        if (listener instanceof NamespaceChangeListener)
-                            ((NamespaceChangeListener) listener).objectRenamed(event);
-                        break;
-                    case NamingEvent.OBJECT_CHANGED:
-                        if (listener instanceof ObjectChangeListener)
-                            ((ObjectChangeListener) listener).objectChanged(event);
-                        break;
-                }
+        private void prune() {
+            TargetNode node = this;
+            while (node.parent != null && node.children.isEmpty() && node.objectHolders.isEmpty()
+                    && node.oneLevelHolders.isEmpty() && node.subtreeHolders.isEmpty()) {
+                final Map<String, TargetNode> childrenCopy = new FastCopyHashMap<String, TargetNode>(node.parent.children);
+                childrenCopy.remove(node.component);
+                node.parent.children = childrenCopy;
+                node = node.parent;
             }
         }
     }
 
-    private class ListenerHolder {
-        private volatile Set<TargetScope> targets = new HashSet<TargetScope>();
+    /**
+     * A registered listener with its own queue of pending events.  The queue is drained by one task at a time, so the
+     * listener sees its events in order.
+     */
+    private final class ListenerHolder implements Runnable {
+        // protected by the coordinator
+        private final Set<TargetScope> targets = new HashSet<TargetScope>();
         private final NamingListener listener;
+        private volatile boolean removed;
+
+        // protected by {@code this}
+        private final ArrayDeque<NamingEvent> events = new ArrayDeque<NamingEvent>();
+        // protected by {@code this}
+        private boolean scheduled;
 
-        private ListenerHolder(final NamingListener listener, final TargetScope initialTarget) {
+        private ListenerHolder(final NamingListener listener) {
             this.listener = listener;
-            addTarget(initialTarget);
         }
 
-        private synchronized void addTarget(final TargetScope targetScope) {
-            targets.add(targetScope);
+        private void deliver(final NamingEvent event) {
+            synchronized (this) {
+                events.add(event);
+                if (scheduled) {
+                    return;
+                }
+                scheduled = true;
+            }
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                synchronized (this) {
+                    scheduled = false;
+                    events.clear();
+                }
+                log.warnf(e, "Failed to dispatch naming event to %s", listener);
+            }
+        }
+
+        public void run() {
+            for (;;) {
+                final NamingEvent event;
+                synchronized (this) {
+                    event = events.poll();
+                    if (event == null) {
+                        scheduled = false;
+                        return;
+                    }
+                }
+                if (removed) {
+                    continue;
+                }
+                try {
+                    fire(listener, event);
+                } catch (Throwable t) {
+                    log.warnf(t, "Naming listener %s failed to handle event", listener);
+                }
+            }
         }
     }
 
-    private class TargetScope {
-        private final String target;
+    private static final class TargetScope {
+        private final TargetNode node;
         private final int scope;
 
-        private TargetScope(String target, int scope) {
-            this.target = target;
+        private TargetScope(final TargetNode node, final int scope) {
+            this.node = node;
             this.scope = scope;
         }
 
@@ -238,17 +388,22 @@ public class NamingEventCoordinator {
 
             TargetScope that = (TargetScope) o;
 
-            if (scope != that.scope) return false;
-            if (target != null ? !target.equals(that.target) : that.target != null) return false;
-
-            return true;
+            return scope == that.scope && node == that.node;
         }
 
         @Override
         public int hashCode() {
-            int result = target != null ? target.hashCode() : 0;
-            result = 31 * result + scope;
-            return result;
+            return 31 * System.identityHashCode(node) + scope;
+        }
+    }
+
+    private static final class DispatchThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        public Thread newThread(final Runnable task) {
+            final Thread thread = new Thread(task, "naming-event-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
         }
     }
 }
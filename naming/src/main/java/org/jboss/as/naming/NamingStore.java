@@ -68,6 +68,27 @@ public interface NamingStore {
      */
     void unbind(Context context, Name name) throws NamingException;
 
+    /**
+     * Bind a set of objects into one context of the naming store.  The context must be created before this can be
+     * executed, and none of the entries may already exist.
+     *
+     * @param context The calling context
+     * @param contextName The name of the context to bind the entries into
+     * @param bindings The entries, each named by its name within the context
+     * @throws NamingException If any problems occur
+     */
+    void bind(Context context, Name contextName, List<Binding> bindings) throws NamingException;
+
+    /**
+     * Unbind a set of objects from one context of the naming store.  An entry must exist for each name.
+     *
+     * @param context The calling context
+     * @param contextName The name of the context to unbind the entries from
+     * @param names The names of the entries within the context
+     * @throws NamingException If any problems occur
+     */
+    void unbind(Context context, Name contextName, List<String> names) throws NamingException;
+
     /**
      * Look up an object from the naming store.  An entry for this name must already exist.
      *
@@ -24,6 +24,7 @@ package org.jboss.as.naming.context;
 
 import javax.naming.RefAddr;
 import javax.naming.Reference;
+import javax.naming.spi.ObjectFactory;
 import org.jboss.modules.Module;
 import org.jboss.modules.ModuleIdentifier;
 
@@ -37,6 +38,9 @@ public class ModularReference extends Reference {
     private static final long serialVersionUID = -4805781394834948096L;
     private final ModuleIdentifier moduleIdentifier;
 
+    /* The factory loaded from the module, kept with the bound reference so it is only loaded once */
+    private transient volatile ObjectFactory objectFactory;
+
     /**
      * Create a ModuleReference from a target type and factory class.
      *
@@ -117,4 +121,12 @@ public class ModularReference extends Reference {
     public ModuleIdentifier getModuleIdentifier() {
         return moduleIdentifier;
     }
+
+    ObjectFactory getObjectFactory() {
+        return objectFactory;
+    }
+
+    void setObjectFactory(final ObjectFactory objectFactory) {
+        this.objectFactory = objectFactory;
+    }
 }
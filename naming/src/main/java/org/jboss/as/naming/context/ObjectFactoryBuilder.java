@@ -106,9 +106,15 @@ public class ObjectFactoryBuilder implements javax.naming.spi.ObjectFactoryBuild
     }
 
     private ObjectFactory factoryFromModularReference(ModularReference modularReference, final Hashtable<?, ?> environment) throws Exception {
-        final Module module = Module.getCurrentModuleLoader().loadModule(modularReference.getModuleIdentifier());
-        final ClassLoader classLoader = module.getClassLoader();
-        return factoryFromReference(modularReference, classLoader, environment);
+        // The factory class is always loaded from the same module, so the instance can be reused for later lookups
+        ObjectFactory objectFactory = modularReference.getObjectFactory();
+        if (objectFactory == null) {
+            final Module module = Module.getCurrentModuleLoader().loadModule(modularReference.getModuleIdentifier());
+            final ClassLoader classLoader = module.getClassLoader();
+            objectFactory = factoryFromReference(modularReference, classLoader, environment);
+            modularReference.setObjectFactory(objectFactory);
+        }
+        return objectFactory;
     }
 
     private ObjectFactory factoryFromReference(final Reference reference, final ClassLoader classLoader, final Hashtable<?, ?> environment) throws Exception {
@@ -22,6 +22,7 @@
 
 package org.jboss.as.naming.service;
 
+import java.util.concurrent.Executor;
 import javax.naming.NamingException;
 
 import org.jboss.as.naming.InMemoryNamingStore;
@@ -29,11 +30,13 @@ import org.jboss.as.naming.NamingContext;
 import org.jboss.as.naming.NamingEventCoordinator;
 import org.jboss.as.naming.NamingStore;
 import org.jboss.logging.Logger;
+import org.jboss.msc.inject.Injector;
 import org.jboss.msc.service.Service;
 import org.jboss.msc.service.ServiceName;
 import org.jboss.msc.service.StartContext;
 import org.jboss.msc.service.StartException;
 import org.jboss.msc.service.StopContext;
+import org.jboss.msc.value.InjectedValue;
 
 /**
  * Service responsible for creating and managing the life-cycle of the Naming Server.
@@ -42,9 +45,11 @@ import org.jboss.msc.service.StopContext;
  */
 public class NamingService implements Service<NamingStore> {
     public static final ServiceName SERVICE_NAME = ServiceName.JBOSS.append("naming");
+    public static final ServiceName EVENT_EXECUTOR_NAME = ServiceName.JBOSS.append("thread", "executor", "naming-event");
     private static final Logger log = Logger.getLogger("org.jboss.as.naming");
     private NamingStore namingStore;
     private final boolean supportEvents;
+    private final InjectedValue<Executor> eventExecutor = new InjectedValue<Executor>();
 
     /**
      * Construct a new instance.
@@ -64,9 +69,10 @@ public class NamingService implements Service<NamingStore> {
     public synchronized void start(StartContext context) throws StartException {
         log.info("Starting Naming Service ");
         try {
-            if(supportEvents)
-                namingStore = new InMemoryNamingStore(new NamingEventCoordinator());
-            else
+            if(supportEvents) {
+                final Executor executor = eventExecutor.getOptionalValue();
+                namingStore = new InMemoryNamingStore(executor != null ? new NamingEventCoordinator(executor) : new NamingEventCoordinator());
+            } else
                 namingStore = new InMemoryNamingStore();
             NamingContext.setActiveNamingStore(namingStore);
         } catch (Throwable t) {
@@ -88,6 +94,16 @@ public class NamingService implements Service<NamingStore> {
         }
     }
 
+    /**
+     * Get the injector for the executor naming events are dispatched with.  Without one, the naming store
+     * dispatches events on its own threads, which are stopped when this service stops.
+     *
+     * @return The injector
+     */
+    public Injector<Executor> getEventExecutorInjector() {
+        return eventExecutor;
+    }
+
     /**
      * Get the naming store value.
      *
@@ -34,6 +34,7 @@ import org.jboss.msc.service.BatchBuilder;
 import org.jboss.msc.service.ServiceName;
 import org.jboss.msc.value.Values;
 
+import java.util.concurrent.Executor;
 import javax.management.MBeanServer;
 import javax.naming.Context;
 import javax.naming.NamingException;
@@ -60,7 +61,9 @@ public final class NamingSubsystemAdd extends AbstractSubsystemAdd<NamingSubsyst
 
         // Create the Naming Service
         final BatchBuilder builder = updateContext.getBatchBuilder();
-        builder.addService(NamingService.SERVICE_NAME, new NamingService(true));
+        final NamingService namingService = new NamingService(true);
+        builder.addService(NamingService.SERVICE_NAME, namingService)
+            .addOptionalDependency(NamingService.EVENT_EXECUTOR_NAME, Executor.class, namingService.getEventExecutorInjector());
 
         // Create java: context service
         final JavaContextService javaContextService = new JavaContextService();
@@ -0,0 +1,85 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.naming.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.naming.Name;
+
+/**
+ * Bounded cache of parsed names keyed by their string form.  Reads do not lock or allocate.  The cache does not track
+ * usage; once it holds the maximum number of names it is simply emptied, so a working set which fits is kept and an
+ * unbounded stream of distinct names cannot grow it.
+ * <p>
+ * Cached names are shared between callers and must be treated as read-only.
+ *
+ * @author John E. Bailey
+ */
+public class NameCache {
+    private final ConcurrentMap<String, Name> names = new ConcurrentHashMap<String, Name>();
+    private final int maxSize;
+
+    /**
+     * Create a new instance.
+     *
+     * @param maxSize The maximum number of names to hold
+     */
+    public NameCache(final int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Get the cached name for a string.
+     *
+     * @param name The string form of the name
+     * @return The cached name, or {@code null} if it is not cached
+     */
+    public Name get(final String name) {
+        return names.get(name);
+    }
+
+    /**
+     * Cache a name.  If another thread cached the same string first, its name is returned instead.
+     *
+     * @param name The string form of the name
+     * @param parsed The parsed name
+     * @return The cached name
+     */
+    public Name put(final String name, final Name parsed) {
+        if (maxSize <= 0) {
+            return parsed;
+        }
+        if (names.size() >= maxSize) {
+            names.clear();
+        }
+        final Name existing = names.putIfAbsent(name, parsed);
+        return existing != null ? existing : parsed;
+    }
+
+    /**
+     * Remove all cached names.
+     */
+    public void clear() {
+        names.clear();
+    }
+}
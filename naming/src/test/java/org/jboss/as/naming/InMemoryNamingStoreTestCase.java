@@ -30,14 +30,18 @@ import javax.naming.CompositeName;
 import javax.naming.Context;
 import javax.naming.InvalidNameException;
 import javax.naming.Name;
+import javax.naming.NameAlreadyBoundException;
 import javax.naming.NameClassPair;
 import javax.naming.NameNotFoundException;
+import javax.naming.NamingException;
 import javax.naming.Reference;
 import javax.naming.spi.ResolveResult;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
@@ -132,6 +136,152 @@ public class InMemoryNamingStoreTestCase {
         } catch(NameNotFoundException expected) {}
     }
 
+    @Test
+    public void testBindAllAndLookup() throws Exception {
+        final Name contextName = new CompositeName("subcontext");
+        nameStore.createSubcontext(null, contextName);
+        final Object object = new Object();
+        final Object objectTwo = new Object();
+        nameStore.bind(null, contextName, Arrays.asList(new Binding("test", Object.class.getName(), object), new Binding("testTwo", Object.class.getName(), objectTwo)));
+        assertEquals(object, nameStore.lookup(new CompositeName("subcontext/test")));
+        assertEquals(objectTwo, nameStore.lookup(new CompositeName("subcontext/testTwo")));
+        assertEquals(2, nameStore.list(contextName).size());
+    }
+
+    @Test
+    public void testBindAllAlreadyBound() throws Exception {
+        final Name name = new CompositeName("test");
+        nameStore.bind(null, name, new Object(), Object.class.getName());
+        try {
+            nameStore.bind(null, new CompositeName(), Arrays.asList(new Binding("testTwo", new Object()), new Binding("test", new Object())));
+            fail("Should have thrown and NameAlreadyBoundException");
+        } catch(NameAlreadyBoundException expected) {}
+        try {
+            nameStore.lookup(new CompositeName("testTwo"));
+            fail("Should have thrown and NameNotFoundException");
+        } catch(NameNotFoundException expected) {}
+    }
+
+    @Test
+    public void testUnbindAll() throws Exception {
+        nameStore.bind(null, new CompositeName(), Arrays.asList(new Binding("test", new Object()), new Binding("testTwo", new Object()), new Binding("testThree", new Object())));
+        try {
+            nameStore.unbind(null, new CompositeName(), Arrays.asList("test", "testFour"));
+            fail("Should have thrown and NameNotFoundException");
+        } catch(NameNotFoundException expected) {}
+        assertEquals(3, nameStore.list(new CompositeName()).size());
+        nameStore.unbind(null, new CompositeName(), Arrays.asList("test", "testTwo"));
+        final List<NameClassPair> results = nameStore.list(new CompositeName());
+        assertEquals(1, results.size());
+        assertEquals("testThree", results.get(0).getName());
+    }
+
+    @Test
+    public void testBindAllDuplicateName() throws Exception {
+        try {
+            nameStore.bind(null, new CompositeName(), Arrays.asList(new Binding("test", new Object()), new Binding("testTwo", new Object()), new Binding("test", new Object())));
+            fail("Should have thrown and NameAlreadyBoundException");
+        } catch(NameAlreadyBoundException expected) {}
+        assertEquals(0, nameStore.list(new CompositeName()).size());
+    }
+
+    @Test
+    public void testBindAllRacingBind() throws Exception {
+        final Name contextName = new CompositeName("subcontext");
+        nameStore.createSubcontext(null, contextName);
+        final List<Binding> bindings = new ArrayList<Binding>();
+        final List<String> childNames = new ArrayList<String>();
+        for (int i = 0; i < 100; i++) {
+            bindings.add(new Binding("test" + i, new Object()));
+            childNames.add("test" + i);
+        }
+        final Name racingName = new CompositeName("subcontext/test99");
+        final AtomicBoolean done = new AtomicBoolean();
+        final Thread racer = new Thread(new Runnable() {
+            public void run() {
+                try {
+                    while (!done.get()) {
+                        try {
+                            nameStore.bind(null, racingName, new Object(), Object.class.getName());
+                            nameStore.unbind(null, racingName);
+                        } catch(NameAlreadyBoundException ignored) {}
+                    }
+                } catch (NamingException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+        racer.start();
+        try {
+            for (int i = 0; i < 1000; i++) {
+                try {
+                    nameStore.bind(null, contextName, bindings);
+                } catch(NameAlreadyBoundException expected) {
+                    // None of the batch may be left behind; only the racing name can be bound
+                    final List<NameClassPair> results = nameStore.list(contextName);
+                    assertTrue(results.size() <= 1);
+                    for (NameClassPair result : results) {
+                        assertEquals("test99", result.getName());
+                    }
+                    continue;
+                }
+                assertEquals(bindings.get(0).getObject(), nameStore.lookup(new CompositeName("subcontext/test0")));
+                nameStore.unbind(null, contextName, childNames);
+            }
+        } finally {
+            done.set(true);
+            racer.join();
+        }
+    }
+
+    @Test
+    public void testUnbindAllRacingUnbind() throws Exception {
+        final Name contextName = new CompositeName("subcontext");
+        nameStore.createSubcontext(null, contextName);
+        final List<Binding> bindings = new ArrayList<Binding>();
+        final List<String> childNames = new ArrayList<String>();
+        for (int i = 0; i < 99; i++) {
+            bindings.add(new Binding("test" + i, new Object()));
+            childNames.add("test" + i);
+        }
+        childNames.add("test99");
+        final Name racingName = new CompositeName("subcontext/test99");
+        final AtomicBoolean done = new AtomicBoolean();
+        final Thread racer = new Thread(new Runnable() {
+            public void run() {
+                try {
+                    while (!done.get()) {
+                        try {
+                            nameStore.bind(null, racingName, new Object(), Object.class.getName());
+                            nameStore.unbind(null, racingName);
+                        } catch(NameNotFoundException ignored) {}
+                    }
+                } catch (NamingException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+        nameStore.bind(null, contextName, bindings);
+        racer.start();
+        try {
+            for (int i = 0; i < 1000; i++) {
+                try {
+                    nameStore.unbind(null, contextName, childNames);
+                } catch(NameNotFoundException expected) {
+                    // Every entry of the batch except the racing name must still be bound
+                    final List<NameClassPair> results = nameStore.list(contextName);
+                    assertTrue(results.size() >= 99);
+                    assertEquals(bindings.get(0).getObject(), nameStore.lookup(new CompositeName("subcontext/test0")));
+                    continue;
+                }
+                nameStore.bind(null, contextName, bindings);
+            }
+        } finally {
+            done.set(true);
+            racer.join();
+        }
+    }
+
     @Test
     public void testCreateSubcontextEmptyName() throws Exception {
         try {
@@ -0,0 +1,104 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.naming;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.naming.Binding;
+import javax.naming.CompositeName;
+import javax.naming.Name;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Benchmark for binding a large number of names into one context, one at a time and as a single batch.  By default
+ * only a few hundred names are bound; set the {@code org.jboss.as.test.benchmark} system property to {@code true} for
+ * fifty thousand names and printed timings.  The number of names can also be set with the
+ * {@code org.jboss.as.naming.test.bindings} system property.
+ *
+ * @author John E. Bailey
+ */
+public class NamingBindBenchmarkTestCase {
+
+    private static final boolean BENCHMARK = Boolean.getBoolean("org.jboss.as.test.benchmark");
+    private static final int BINDINGS = Integer.getInteger("org.jboss.as.naming.test.bindings", BENCHMARK ? 50000 : 500).intValue();
+
+    private final Name contextName;
+    private InMemoryNamingStore namingStore;
+
+    public NamingBindBenchmarkTestCase() throws Exception {
+        contextName = new CompositeName("resources");
+    }
+
+    @Before
+    public void setup() throws Exception {
+        namingStore = new InMemoryNamingStore();
+        namingStore.createSubcontext(null, contextName);
+    }
+
+    @After
+    public void cleanup() throws Exception {
+        namingStore.close();
+    }
+
+    @Test
+    public void testBind() throws Exception {
+        final Object object = new Object();
+        final List<Name> names = new ArrayList<Name>(BINDINGS);
+        for (int i = 0; i < BINDINGS; i++) {
+            names.add(new CompositeName("resources/resource" + i));
+        }
+        final long start = System.nanoTime();
+        for (Name name : names) {
+            namingStore.bind(null, name, object, Object.class.getName());
+        }
+        final long time = System.nanoTime() - start;
+        assertEquals(BINDINGS, namingStore.list(contextName).size());
+        report("one at a time", time);
+    }
+
+    @Test
+    public void testBindAll() throws Exception {
+        final Object object = new Object();
+        final List<Binding> bindings = new ArrayList<Binding>(BINDINGS);
+        for (int i = 0; i < BINDINGS; i++) {
+            bindings.add(new Binding("resource" + i, Object.class.getName(), object));
+        }
+        final long start = System.nanoTime();
+        namingStore.bind(null, contextName, bindings);
+        final long time = System.nanoTime() - start;
+        assertEquals(BINDINGS, namingStore.list(contextName).size());
+        report("as a batch", time);
+    }
+
+    private static void report(final String description, final long time) {
+        if (! BENCHMARK) {
+            return;
+        }
+        System.out.printf("Bound %d names %s: %d ms\n", Integer.valueOf(BINDINGS), description, Long.valueOf(time / 1000000L));
+    }
+}
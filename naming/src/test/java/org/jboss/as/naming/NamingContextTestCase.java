@@ -49,6 +49,7 @@ import java.util.Set;
 
 import static org.jboss.as.naming.util.NamingUtils.asReference;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -115,6 +116,15 @@ public class NamingContextTestCase {
         assertEquals("test", result);
     }
 
+    @Test
+    public void testLookupReferenceWithNameModifyingFactory() throws Exception {
+        final Reference reference = new Reference(String.class.getName(), new StringRefAddr("blah", "test"), NameModifyingObjectFactory.class.getName(), null);
+        namingContext.bind(new CompositeName("test"), reference);
+        // the second lookup gets the name from the name cache
+        assertEquals("test", namingContext.lookup("test"));
+        assertEquals("test", namingContext.lookup("test"));
+    }
+
     @Test
     public void testBindAndLookupWithContinuation() throws Exception {
         namingContext.createSubcontext("comp");
@@ -167,6 +177,38 @@ public class NamingContextTestCase {
     }
 
 
+    @Test
+    public void testLookupStringForms() throws Exception {
+        final Object value = new Object();
+        namingContext.createSubcontext("comp").createSubcontext("env").bind("value", value);
+        // each form twice, the second time from the name cache
+        for (int i = 0; i < 2; i++) {
+            assertSame(value, namingContext.lookup("java:comp/env/value"));
+            assertSame(value, namingContext.lookup("/comp/env/value"));
+            assertSame(value, namingContext.lookup("comp/env/value"));
+            assertSame(value, namingContext.lookup(new CompositeName("java:comp/env/value")));
+            assertTrue(namingContext.lookup("java:comp/env/") instanceof Context);
+        }
+    }
+
+    @Test
+    public void testLookupRelativeStringInSubcontexts() throws Exception {
+        final Context one = namingContext.createSubcontext("one");
+        final Context two = namingContext.createSubcontext("two");
+        one.bind("value", "one");
+        two.bind("value", "two");
+        two.bind("one", "nested");
+        // relative names depend on the context, so they must not be shared through the name cache
+        for (int i = 0; i < 2; i++) {
+            assertEquals("one", namingContext.lookup("one/value"));
+            assertEquals("one", one.lookup("value"));
+            assertEquals("two", two.lookup("value"));
+            assertEquals("one", two.lookup("java:one/value"));
+            assertEquals("two", one.lookup("/two/value"));
+            assertEquals("nested", two.lookup("one"));
+        }
+    }
+
     @Test
     public void testLookupNameNotFound() throws Exception {
         try {
@@ -509,6 +551,14 @@ public class NamingContextTestCase {
         }
     }
 
+    public  static class NameModifyingObjectFactory implements ObjectFactory {
+        @Override
+        public Object getObjectInstance(Object obj, Name name, Context nameCtx, Hashtable<?, ?> environment) throws Exception {
+            name.add("modified");
+            return asReference(obj).get(0).getContent();
+        }
+    }
+
     public  static class TestObjectFactoryWithNameResolution implements ObjectFactory {
         @Override
         public Object getObjectInstance(Object obj, Name name, Context nameCtx, Hashtable<?, ?> environment) throws Exception {
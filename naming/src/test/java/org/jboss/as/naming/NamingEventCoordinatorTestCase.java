@@ -32,11 +32,15 @@ import javax.naming.event.NamingEvent;
 import javax.naming.event.NamingExceptionEvent;
 import javax.naming.event.ObjectChangeListener;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -160,8 +164,110 @@ public class NamingEventCoordinatorTestCase {
         assertEquals(1, subtreeListenerThree.capturedEvents.size());
     }
 
+    @Test
+    public void testFireNoMatchingListener() throws Exception {
+        final NamingEventCoordinator coordinator = new NamingEventCoordinator();
+
+        final CollectingListener objectListener = new CollectingListener(0);
+        coordinator.addListener("foo/bar", EventContext.OBJECT_SCOPE, objectListener);
+        coordinator.removeListener(objectListener);
+        final CollectingListener subtreeListener = new CollectingListener(1);
+        coordinator.addListener("foo", EventContext.SUBTREE_SCOPE, subtreeListener);
+
+        coordinator.fireEvent(context, new CompositeName("baz/bar"), null, null, NamingEvent.OBJECT_ADDED, "bind", EventContext.OBJECT_SCOPE, EventContext.ONELEVEL_SCOPE, EventContext.SUBTREE_SCOPE);
+        coordinator.fireEvent(context, new CompositeName("foo/bar"), null, null, NamingEvent.OBJECT_ADDED, "bind", EventContext.OBJECT_SCOPE, EventContext.ONELEVEL_SCOPE, EventContext.SUBTREE_SCOPE);
+
+        assertTrue(subtreeListener.latch.await(1L, TimeUnit.SECONDS));
+        assertTrue(objectListener.capturedEvents.isEmpty());
+        assertEquals(1, subtreeListener.capturedEvents.size());
+    }
+
+    @Test
+    public void testSlowListener() throws Exception {
+        final NamingEventCoordinator coordinator = new NamingEventCoordinator();
+
+        final CountDownLatch release = new CountDownLatch(1);
+        final CollectingListener slowListener = new CollectingListener(3) {
+            public void objectAdded(NamingEvent evt) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.objectAdded(evt);
+            }
+        };
+        coordinator.addListener("test", EventContext.ONELEVEL_SCOPE, slowListener);
+        final CollectingListener listener = new CollectingListener(3);
+        coordinator.addListener("test", EventContext.ONELEVEL_SCOPE, listener);
+
+        for (int i = 0; i < 3; i++) {
+            coordinator.fireEvent(context, new CompositeName("test/path" + i), null, null, NamingEvent.OBJECT_ADDED, "bind" + i, EventContext.ONELEVEL_SCOPE);
+        }
+
+        // the slow listener does not hold up the other one
+        assertTrue(listener.latch.await(1L, TimeUnit.SECONDS));
+        assertTrue(slowListener.capturedEvents.isEmpty());
+        release.countDown();
+        assertTrue(slowListener.latch.await(1L, TimeUnit.SECONDS));
+
+        // each listener gets its events in order
+        for (int i = 0; i < 3; i++) {
+            assertEquals("bind" + i, listener.capturedEvents.get(i).getChangeInfo());
+            assertEquals("bind" + i, slowListener.capturedEvents.get(i).getChangeInfo());
+        }
+    }
+
+    @Test
+    public void testClose() throws Exception {
+        final NamingEventCoordinator coordinator = new NamingEventCoordinator();
+
+        final CountDownLatch release = new CountDownLatch(1);
+        final CollectingListener slowListener = new CollectingListener(1) {
+            public void objectAdded(NamingEvent evt) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.objectAdded(evt);
+            }
+        };
+        coordinator.addListener("test", EventContext.ONELEVEL_SCOPE, slowListener);
+        final CollectingListener listener = new CollectingListener(1);
+        coordinator.addListener("other", EventContext.ONELEVEL_SCOPE, listener);
+
+        coordinator.fireEvent(context, new CompositeName("test/path"), null, null, NamingEvent.OBJECT_ADDED, "bind", EventContext.ONELEVEL_SCOPE);
+        coordinator.close();
+
+        // an event fired before close is still delivered
+        release.countDown();
+        assertTrue(slowListener.latch.await(1L, TimeUnit.SECONDS));
+
+        // nothing is dispatched after close
+        coordinator.fireEvent(context, new CompositeName("other/path"), null, null, NamingEvent.OBJECT_ADDED, "bind", EventContext.ONELEVEL_SCOPE);
+        assertFalse(listener.latch.await(100L, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testCloseLeavesProvidedExecutor() throws Exception {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final NamingEventCoordinator coordinator = new NamingEventCoordinator(executor);
+            final CollectingListener listener = new CollectingListener(1);
+            coordinator.addListener("test", EventContext.ONELEVEL_SCOPE, listener);
+            coordinator.close();
+            assertFalse(executor.isShutdown());
+
+            coordinator.fireEvent(context, new CompositeName("test/path"), null, null, NamingEvent.OBJECT_ADDED, "bind", EventContext.ONELEVEL_SCOPE);
+            assertTrue(listener.latch.await(1L, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     private class CollectingListener implements ObjectChangeListener, NamespaceChangeListener {
-        private final List<NamingEvent> capturedEvents = new ArrayList<NamingEvent>();
+        private final List<NamingEvent> capturedEvents = Collections.synchronizedList(new ArrayList<NamingEvent>());
 
         private final CountDownLatch latch;
 
@@ -0,0 +1,116 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.naming;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.naming.CompositeName;
+import javax.naming.Context;
+import javax.naming.Name;
+
+import static org.junit.Assert.assertSame;
+
+/**
+ * Benchmark for looking up a {@code java:comp/env} style entry by string, by a freshly parsed name, and directly from
+ * the store.  By default only a few lookups are made; set the {@code org.jboss.as.test.benchmark} system property to
+ * {@code true} for a million lookups and printed timings.  The number of lookups can also be set with the
+ * {@code org.jboss.as.naming.test.lookups} system property.
+ *
+ * @author John E. Bailey
+ */
+public class NamingLookupBenchmarkTestCase {
+
+    private static final boolean BENCHMARK = Boolean.getBoolean("org.jboss.as.test.benchmark");
+    private static final int LOOKUPS = Integer.getInteger("org.jboss.as.naming.test.lookups", BENCHMARK ? 1000000 : 1000).intValue();
+    private static final String NAME = "java:comp/env/jdbc/DataSource";
+
+    private final Object value = new Object();
+    private InMemoryNamingStore namingStore;
+    private NamingContext namingContext;
+
+    @Before
+    public void setup() throws Exception {
+        namingStore = new InMemoryNamingStore();
+        namingContext = new NamingContext(new CompositeName(""), namingStore, null);
+        final Context comp = namingContext.createSubcontext("comp");
+        final Context env = comp.createSubcontext("env");
+        final Context jdbc = env.createSubcontext("jdbc");
+        jdbc.bind("DataSource", value);
+    }
+
+    @After
+    public void cleanup() throws Exception {
+        namingStore.close();
+    }
+
+    @Test
+    public void testLookupString() throws Exception {
+        // warm up
+        for (int i = 0; i < LOOKUPS / 10; i++) {
+            namingContext.lookup(NAME);
+        }
+        final long start = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            namingContext.lookup(NAME);
+        }
+        assertSame(value, namingContext.lookup(NAME));
+        report("String lookup", System.nanoTime() - start);
+    }
+
+    @Test
+    public void testLookupParsedName() throws Exception {
+        // every lookup parses the name, as lookups by string did before names were cached
+        for (int i = 0; i < LOOKUPS / 10; i++) {
+            namingContext.lookup(new CompositeName(NAME));
+        }
+        final long start = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            namingContext.lookup(new CompositeName(NAME));
+        }
+        assertSame(value, namingContext.lookup(new CompositeName(NAME)));
+        report("Parsed name lookup", System.nanoTime() - start);
+    }
+
+    @Test
+    public void testStoreLookup() throws Exception {
+        final Name name = new CompositeName("comp/env/jdbc/DataSource");
+        for (int i = 0; i < LOOKUPS / 10; i++) {
+            namingStore.lookup(name);
+        }
+        final long start = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            namingStore.lookup(name);
+        }
+        assertSame(value, namingStore.lookup(name));
+        report("Store lookup", System.nanoTime() - start);
+    }
+
+    private static void report(final String description, final long time) {
+        if (! BENCHMARK) {
+            return;
+        }
+        System.out.printf("%s: %d ns/lookup\n", description, Long.valueOf(time / LOOKUPS));
+    }
+}
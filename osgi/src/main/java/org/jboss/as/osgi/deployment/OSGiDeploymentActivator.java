@@ -22,6 +22,8 @@
 
 package org.jboss.as.osgi.deployment;
 
+import java.util.concurrent.Executor;
+
 import org.jboss.as.deployment.chain.DeploymentChain;
 import org.jboss.as.deployment.chain.DeploymentChainImpl;
 import org.jboss.as.deployment.chain.DeploymentChainProcessorInjector;
@@ -54,11 +56,13 @@ public class OSGiDeploymentActivator {
     public void activate(final BatchBuilder batchBuilder) {
         batchBuilder.addServiceValueIfNotExist(DeploymentChainProviderService.SERVICE_NAME, new DeploymentChainProviderService());
 
-        final Value<DeploymentChain> deploymentChainValue = Values.immediateValue((DeploymentChain)new DeploymentChainImpl(OSGI_DEPLOYMENT_CHAIN_SERVICE_NAME.toString()))   ;
+        final DeploymentChainImpl deploymentChain = new DeploymentChainImpl(OSGI_DEPLOYMENT_CHAIN_SERVICE_NAME.toString());
+        final Value<DeploymentChain> deploymentChainValue = Values.immediateValue((DeploymentChain)deploymentChain);
         final DeploymentChainService deploymentChainService = new DeploymentChainService(deploymentChainValue);
         BatchServiceBuilder<?> serviceBuilder = batchBuilder.addService(OSGI_DEPLOYMENT_CHAIN_SERVICE_NAME, deploymentChainService);
         DeploymentChainProviderInjector<DeploymentChain> injector = new DeploymentChainProviderInjector<DeploymentChain>(deploymentChainValue, new OSGiDeploymentChainSelector(), OSGI_DEPLOYMENT_CHAIN_PRIORITY);
         serviceBuilder.addDependency(DeploymentChainProviderService.SERVICE_NAME, DeploymentChainProvider.class, injector);
+        serviceBuilder.addOptionalDependency(DeploymentChainImpl.EXECUTOR_NAME, Executor.class, deploymentChain.getExecutorInjector());
         addDeploymentProcessor(batchBuilder, new OSGiManifestDeploymentProcessor(), OSGiManifestDeploymentProcessor.PRIORITY);
         addDeploymentProcessor(batchBuilder, new OSGiAttachmentsDeploymentProcessor(), OSGiAttachmentsDeploymentProcessor.PRIORITY);
     }
@@ -22,15 +22,10 @@
 
 package org.jboss.as.process;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
-import java.io.PrintStream;
 import java.util.List;
 import java.util.Map;
 
@@ -157,15 +152,10 @@ final class ManagedProcess {
         final OutputStream stdin = process.getOutputStream();
         final InputStream stderr = process.getErrorStream();
         final InputStream stdout = process.getInputStream();
-        final Thread stderrThread = new Thread(new ReadTask(stderr, processManager.getStderr()));
-        stderrThread.setName(String.format("stderr for %s", processName));
-        stderrThread.start();
-        final Thread stdoutThread = new Thread(new ReadTask(stdout, processManager.getStdout()));
-        stdoutThread.setName(String.format("stdout for %s", processName));
-        stdoutThread.start();
-        final Thread joinThread = new Thread(new JoinTask(startTime));
-        joinThread.setName(String.format("reaper for %s", processName));
-        joinThread.start();
+        final ProcessOutputMultiplexer outputMultiplexer = processManager.getOutputMultiplexer();
+        final ProcessOutputMultiplexer.Stream stderrStream = outputMultiplexer.register(processName, stderr, processManager.getStderr());
+        final ProcessOutputMultiplexer.Stream stdoutStream = outputMultiplexer.register(processName, stdout, processManager.getStdout());
+        processManager.getReaper().register(process, new JoinTask(startTime, stdoutStream, stderrStream));
         try {
             stdin.write(authKey);
             stdin.flush();
@@ -202,25 +192,21 @@ final class ManagedProcess {
         }
     }
 
-    private final class JoinTask implements Runnable {
+    private final class JoinTask implements ProcessReaper.ExitListener {
         private final long startTime;
+        private final ProcessOutputMultiplexer.Stream stdoutStream;
+        private final ProcessOutputMultiplexer.Stream stderrStream;
 
-        public JoinTask(final long startTime) {
+        public JoinTask(final long startTime, final ProcessOutputMultiplexer.Stream stdoutStream, final ProcessOutputMultiplexer.Stream stderrStream) {
             this.startTime = startTime;
+            this.stdoutStream = stdoutStream;
+            this.stderrStream = stderrStream;
         }
 
-        public void run() {
-            final Process process;
-            synchronized (lock) {
-                process = ManagedProcess.this.process;
-            }
-            for (;;) try {
-                final int value = process.waitFor();
-                log.infof("Process '%s' finished with an exit status of %d", processName, Integer.valueOf(value));
-                break;
-            } catch (InterruptedException e) {
-                // ignore
-            }
+        public void processExited(final int exitValue) {
+            log.infof("Process '%s' finished with an exit status of %d", processName, Integer.valueOf(exitValue));
+            stdoutStream.processExited();
+            stderrStream.processExited();
             synchronized (lock) {
                 final long endTime = System.currentTimeMillis();
                 state = State.DOWN;
@@ -237,39 +223,4 @@ final class ManagedProcess {
             }
         }
     }
-
-    private final class ReadTask implements Runnable {
-        private final InputStream source;
-        private final PrintStream target;
-
-        private ReadTask(final InputStream source, final PrintStream target) {
-            this.source = source;
-            this.target = target;
-        }
-
-        public void run() {
-            final InputStream source = this.source;
-            final String processName = ManagedProcess.this.processName;
-            try {
-                final BufferedReader reader = new BufferedReader(new InputStreamReader(new BufferedInputStream(source)));
-                final OutputStreamWriter writer = new OutputStreamWriter(target);
-                String s;
-                while ((s = reader.readLine()) != null) {
-                    synchronized (target) {
-                        writer.write('[');
-                        writer.write(processName);
-                        writer.write("] ");
-                        writer.write(s);
-                        writer.write('\n');
-                        writer.flush();
-                    }
-                }
-                source.close();
-            } catch (IOException e) {
-                log.error("Stream processing failed for process '%s': %s", processName, e);
-            } finally {
-                StreamUtils.safeClose(source);
-            }
-        }
-    }
 }
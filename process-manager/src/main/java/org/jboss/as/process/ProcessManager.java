@@ -32,9 +32,12 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 import org.jboss.as.protocol.Connection;
 import org.jboss.as.protocol.ProtocolServer;
 import org.jboss.as.protocol.StreamUtils;
@@ -47,6 +50,12 @@ public final class ProcessManager {
 
     private static final Logger log = Logger.getLogger("org.jboss.as.process-manager");
 
+    private static final int OUTPUT_READERS = Integer.getInteger("jboss.process-manager.output.readers", 2).intValue();
+    private static final int OUTPUT_BUFFER_LINES = Integer.getInteger("jboss.process-manager.output.buffer-lines", 4096).intValue();
+    private static final String OUTPUT_OVERRUN_POLICY = System.getProperty("jboss.process-manager.output.overrun-policy", "throttle");
+    private static final long REAPER_INTERVAL = 100L;
+    private static final long OUTPUT_SHUTDOWN_TIMEOUT = 5000L;
+
     /**
      * Main lock - anything which opens a file descriptor or spawns a process must
      * hold this lock for the duration of the operation.
@@ -66,10 +75,17 @@ public final class ProcessManager {
 
     private final PrintStream stdout;
     private final PrintStream stderr;
+    private final ProcessOutputMultiplexer outputMultiplexer;
+    private final ProcessReaper reaper;
 
     public ProcessManager(final ProtocolServer.Configuration configuration, final PrintStream stdout, final PrintStream stderr) throws IOException {
         this.stdout = stdout;
         this.stderr = stderr;
+        final ThreadFactory threadFactory = Executors.defaultThreadFactory();
+        outputMultiplexer = new ProcessOutputMultiplexer(OUTPUT_READERS, OUTPUT_BUFFER_LINES, getOverrunPolicy(), threadFactory);
+        outputMultiplexer.start();
+        reaper = new ProcessReaper(REAPER_INTERVAL, threadFactory);
+        reaper.start();
         rng = new Random(new SecureRandom().nextLong());
         //noinspection ThisEscapedInObjectConstruction
         configuration.setConnectionHandler(new ProcessManagerServerHandler(this));
@@ -78,6 +94,15 @@ public final class ProcessManager {
         this.server = server;
     }
 
+    private static ProcessOutputMultiplexer.OverrunPolicy getOverrunPolicy() {
+        try {
+            return ProcessOutputMultiplexer.OverrunPolicy.valueOf(OUTPUT_OVERRUN_POLICY.toUpperCase(Locale.ENGLISH));
+        } catch (IllegalArgumentException e) {
+            log.warnf("Unknown output overrun policy '%s', using %s", OUTPUT_OVERRUN_POLICY, ProcessOutputMultiplexer.OverrunPolicy.THROTTLE);
+            return ProcessOutputMultiplexer.OverrunPolicy.THROTTLE;
+        }
+    }
+
     public void addManagerConnection(Connection connection) {
         synchronized (lock) {
             managerConnections.add(connection);
@@ -207,6 +232,8 @@ public final class ProcessManager {
                     // ignore
                 }
             }
+            reaper.shutdown();
+            outputMultiplexer.shutdown(OUTPUT_SHUTDOWN_TIMEOUT);
             log.info("All processes finished; exiting");
         }
     }
@@ -293,6 +320,14 @@ public final class ProcessManager {
         return stderr;
     }
 
+    ProcessOutputMultiplexer getOutputMultiplexer() {
+        return outputMultiplexer;
+    }
+
+    ProcessReaper getReaper() {
+        return reaper;
+    }
+
     private static final class Key {
         private final byte[] authKey;
         private final int hashCode;
@@ -0,0 +1,421 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.process;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jboss.as.protocol.StreamUtils;
+import org.jboss.logging.Logger;
+
+/**
+ * Forwards the output of all child processes to the process manager's own output streams.
+ * <p>
+ * A small, fixed set of reader threads polls the output pipes of every process, taking only the bytes which are
+ * already available so that a reader never blocks on a single pipe.  Complete lines go into a bounded buffer per
+ * stream, and a single writer thread moves them to their target in batches, taking the lock on the target and
+ * flushing it once per batch rather than once per line.  A process which produces output faster than it can be
+ * written overruns its buffer; depending on the {@link OverrunPolicy} the multiplexer then either drops its lines
+ * or stops reading its pipe until the buffer drains, which eventually blocks only that process.  Both are counted.
+ *
+ * @author <a href="mailto:david.lloyd@redhat.com">David M. Lloyd</a>
+ */
+final class ProcessOutputMultiplexer {
+
+    private static final Logger log = Logger.getLogger("org.jboss.as.process-manager");
+
+    private static final int READ_BUFFER_SIZE = 8192;
+    private static final int MAX_LINE_LENGTH = 16384;
+    private static final long POLL_INTERVAL = 10L;
+
+    /**
+     * What to do with the output of a process which overruns its buffer.
+     */
+    enum OverrunPolicy {
+        /**
+         * Discard lines which do not fit into the buffer.
+         */
+        DROP,
+        /**
+         * Stop reading the pipe of the process until the buffer drains.
+         */
+        THROTTLE,
+    }
+
+    private final Charset charset = Charset.defaultCharset();
+    private final int bufferSize;
+    private final OverrunPolicy overrunPolicy;
+    private final List<Reader> readers;
+    private final Thread writerThread;
+    private final List<Stream> streams = new CopyOnWriteArrayList<Stream>();
+
+    // protected by {@code this}
+    private int nextReader;
+    // protected by {@code this}
+    private boolean pending;
+    // protected by {@code this}
+    private boolean shutdown;
+
+    /**
+     * Construct a new instance.
+     *
+     * @param readerCount the number of threads reading the output pipes
+     * @param bufferSize the maximum number of lines buffered per stream
+     * @param overrunPolicy what to do with the output of a process which overruns its buffer
+     * @param threadFactory the factory for the reader and writer threads
+     */
+    ProcessOutputMultiplexer(final int readerCount, final int bufferSize, final OverrunPolicy overrunPolicy, final ThreadFactory threadFactory) {
+        if (readerCount < 1) {
+            throw new IllegalArgumentException("readerCount must be at least 1");
+        }
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("bufferSize must be at least 1");
+        }
+        if (overrunPolicy == null) {
+            throw new IllegalArgumentException("overrunPolicy is null");
+        }
+        this.bufferSize = bufferSize;
+        this.overrunPolicy = overrunPolicy;
+        final List<Reader> readers = new ArrayList<Reader>(readerCount);
+        for (int i = 0; i < readerCount; i++) {
+            final Reader reader = new Reader();
+            reader.thread = threadFactory.newThread(reader);
+            reader.thread.setName(String.format("process output reader %d", Integer.valueOf(i + 1)));
+            reader.thread.setDaemon(true);
+            readers.add(reader);
+        }
+        this.readers = readers;
+        writerThread = threadFactory.newThread(new Runnable() {
+            public void run() {
+                writeLoop();
+            }
+        });
+        writerThread.setName("process output writer");
+        writerThread.setDaemon(true);
+    }
+
+    void start() {
+        for (Reader reader : readers) {
+            reader.thread.start();
+        }
+        writerThread.start();
+    }
+
+    /**
+     * Stop the multiplexer once the output of every registered stream has been forwarded, waiting for at most the
+     * given time.
+     *
+     * @param timeout the maximum time to wait, in milliseconds
+     */
+    void shutdown(final long timeout) {
+        synchronized (this) {
+            shutdown = true;
+            notifyAll();
+        }
+        try {
+            writerThread.join(timeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Start forwarding the output of a process.
+     *
+     * @param processName the name of the process, which prefixes every line
+     * @param source the pipe to read
+     * @param target the stream to forward the lines to
+     * @return the registered stream
+     */
+    Stream register(final String processName, final InputStream source, final PrintStream target) {
+        final Stream stream = new Stream(processName, source, target);
+        final Reader reader;
+        synchronized (this) {
+            reader = readers.get(nextReader++ % readers.size());
+        }
+        streams.add(stream);
+        reader.streams.add(stream);
+        return stream;
+    }
+
+    private void signal() {
+        synchronized (this) {
+            if (! pending) {
+                pending = true;
+                notifyAll();
+            }
+        }
+    }
+
+    private void writeLoop() {
+        final List<String> batch = new ArrayList<String>();
+        final StringBuilder builder = new StringBuilder();
+        for (;;) {
+            final boolean exit;
+            synchronized (this) {
+                while (! pending && ! (shutdown && streams.isEmpty())) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        // ignore
+                    }
+                }
+                exit = ! pending;
+                pending = false;
+            }
+            if (exit) {
+                return;
+            }
+            for (Stream stream : streams) {
+                final boolean finished = stream.drain(batch);
+                if (! batch.isEmpty()) {
+                    for (String line : batch) {
+                        builder.append('[').append(stream.processName).append("] ").append(line).append('\n');
+                    }
+                    final PrintStream target = stream.target;
+                    synchronized (target) {
+                        target.print(builder);
+                        target.flush();
+                    }
+                    batch.clear();
+                    builder.setLength(0);
+                }
+                if (finished) {
+                    streams.remove(stream);
+                    stream.report();
+                }
+            }
+        }
+    }
+
+    private final class Reader implements Runnable {
+        private final List<Stream> streams = new CopyOnWriteArrayList<Stream>();
+        private Thread thread;
+
+        public void run() {
+            final byte[] buffer = new byte[READ_BUFFER_SIZE];
+            for (;;) {
+                boolean progress = false;
+                for (Stream stream : streams) {
+                    if (stream.poll(buffer)) {
+                        progress = true;
+                    }
+                    if (stream.isClosed()) {
+                        streams.remove(stream);
+                        // let the writer forward the rest and retire the stream
+                        signal();
+                    }
+                }
+                if (! progress) {
+                    synchronized (ProcessOutputMultiplexer.this) {
+                        if (shutdown && streams.isEmpty()) {
+                            return;
+                        }
+                    }
+                    try {
+                        TimeUnit.MILLISECONDS.sleep(POLL_INTERVAL);
+                    } catch (InterruptedException e) {
+                        // ignore
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * One output pipe of a process.
+     */
+    final class Stream {
+        private final String processName;
+        private final InputStream source;
+        private final PrintStream target;
+        private final AtomicLong droppedLines = new AtomicLong();
+        private final AtomicLong throttledReads = new AtomicLong();
+
+        // only accessed by the reading thread
+        private byte[] line = new byte[256];
+        private int lineLength;
+
+        // protected by {@code this}
+        private final ArrayDeque<String> lines = new ArrayDeque<String>();
+        // protected by {@code this}
+        private boolean closed;
+
+        private volatile boolean exited;
+
+        private Stream(final String processName, final InputStream source, final PrintStream target) {
+            this.processName = processName;
+            this.source = source;
+            this.target = target;
+        }
+
+        /**
+         * Indicate that the process has exited.  Whatever it wrote is still forwarded, after which the pipe is
+         * closed.
+         */
+        void processExited() {
+            exited = true;
+        }
+
+        /**
+         * Get the number of lines dropped because the buffer was full.
+         *
+         * @return the number of lines
+         */
+        long getDroppedLines() {
+            return droppedLines.get();
+        }
+
+        /**
+         * Get the number of times the pipe was not read because the buffer was full.
+         *
+         * @return the number of skipped reads
+         */
+        long getThrottledReads() {
+            return throttledReads.get();
+        }
+
+        /**
+         * Read what is available from the pipe without blocking.
+         *
+         * @param buffer the read buffer
+         * @return {@code true} if anything was read
+         */
+        boolean poll(final byte[] buffer) {
+            if (isClosed()) {
+                return false;
+            }
+            if (overrunPolicy == OverrunPolicy.THROTTLE && isFull()) {
+                throttledReads.incrementAndGet();
+                return false;
+            }
+            try {
+                // once the process is gone everything it wrote is available
+                final boolean exited = this.exited;
+                final int available = source.available();
+                if (available > 0) {
+                    final int cnt = source.read(buffer, 0, Math.min(available, buffer.length));
+                    if (cnt > 0) {
+                        for (int i = 0; i < cnt; i++) {
+                            append(buffer[i]);
+                        }
+                        return true;
+                    }
+                    if (cnt == -1) {
+                        close();
+                    }
+                } else if (exited) {
+                    close();
+                }
+            } catch (IOException e) {
+                log.errorf("Stream processing failed for process '%s': %s", processName, e);
+                close();
+            }
+            return false;
+        }
+
+        private void append(final byte b) {
+            if (b == '\n') {
+                emitLine();
+                return;
+            }
+            if (lineLength == line.length) {
+                if (lineLength == MAX_LINE_LENGTH) {
+                    emitLine();
+                } else {
+                    final byte[] newLine = new byte[Math.min(line.length << 1, MAX_LINE_LENGTH)];
+                    System.arraycopy(line, 0, newLine, 0, lineLength);
+                    line = newLine;
+                }
+            }
+            line[lineLength++] = b;
+        }
+
+        private void emitLine() {
+            int length = lineLength;
+            if (length > 0 && line[length - 1] == '\r') {
+                length--;
+            }
+            final String s = new String(line, 0, length, charset);
+            lineLength = 0;
+            synchronized (this) {
+                // under the throttle policy a single read may still overrun the buffer a little
+                if (overrunPolicy == OverrunPolicy.DROP && lines.size() >= bufferSize) {
+                    if (droppedLines.getAndIncrement() == 0L) {
+                        log.warnf("Output of process '%s' overran its buffer; dropping lines", processName);
+                    }
+                    return;
+                }
+                lines.add(s);
+            }
+            signal();
+        }
+
+        private void close() {
+            if (lineLength > 0) {
+                emitLine();
+            }
+            StreamUtils.safeClose(source);
+            synchronized (this) {
+                closed = true;
+            }
+        }
+
+        synchronized boolean isClosed() {
+            return closed;
+        }
+
+        private synchronized boolean isFull() {
+            return lines.size() >= bufferSize;
+        }
+
+        /**
+         * Move the buffered lines to the batch.
+         *
+         * @param batch the batch to add the lines to
+         * @return {@code true} if the stream is closed and all of its lines are drained
+         */
+        private synchronized boolean drain(final List<String> batch) {
+            batch.addAll(lines);
+            lines.clear();
+            return closed;
+        }
+
+        private void report() {
+            final long dropped = droppedLines.get();
+            final long throttled = throttledReads.get();
+            if (dropped > 0L || throttled > 0L) {
+                log.infof("Output of process '%s' overran its buffer: %d lines dropped, %d reads throttled", processName, Long.valueOf(dropped), Long.valueOf(throttled));
+            }
+        }
+    }
+}
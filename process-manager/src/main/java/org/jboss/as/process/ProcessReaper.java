@@ -0,0 +1,131 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.process;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.logging.Logger;
+
+/**
+ * Waits for the exit of all child processes on a single thread, instead of one thread blocked in
+ * {@link Process#waitFor()} per process.  The exit status of every registered process is polled at a fixed
+ * interval; once a process has exited its listener is called on the reaper thread.
+ *
+ * @author <a href="mailto:david.lloyd@redhat.com">David M. Lloyd</a>
+ */
+final class ProcessReaper implements Runnable {
+
+    private static final Logger log = Logger.getLogger("org.jboss.as.process-manager");
+
+    /**
+     * A listener which is called when a process exits.
+     */
+    interface ExitListener {
+
+        /**
+         * Handle the exit of a process.
+         *
+         * @param exitValue the exit status of the process
+         */
+        void processExited(int exitValue);
+    }
+
+    private final long interval;
+    private final Thread thread;
+    private final List<Entry> entries = new CopyOnWriteArrayList<Entry>();
+
+    private volatile boolean shutdown;
+
+    /**
+     * Construct a new instance.
+     *
+     * @param interval the polling interval, in milliseconds
+     * @param threadFactory the factory for the reaper thread
+     */
+    ProcessReaper(final long interval, final ThreadFactory threadFactory) {
+        if (interval < 1L) {
+            throw new IllegalArgumentException("interval must be at least 1");
+        }
+        this.interval = interval;
+        thread = threadFactory.newThread(this);
+        thread.setName("process reaper");
+        thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    void shutdown() {
+        shutdown = true;
+        thread.interrupt();
+    }
+
+    /**
+     * Wait for the exit of a process.
+     *
+     * @param process the process
+     * @param listener the listener to call when the process has exited
+     */
+    void register(final Process process, final ExitListener listener) {
+        entries.add(new Entry(process, listener));
+    }
+
+    public void run() {
+        while (! shutdown) {
+            for (Entry entry : entries) {
+                final int exitValue;
+                try {
+                    exitValue = entry.process.exitValue();
+                } catch (IllegalThreadStateException e) {
+                    // still running
+                    continue;
+                }
+                entries.remove(entry);
+                try {
+                    entry.listener.processExited(exitValue);
+                } catch (Throwable t) {
+                    log.errorf(t, "Failed to handle process exit");
+                }
+            }
+            try {
+                TimeUnit.MILLISECONDS.sleep(interval);
+            } catch (InterruptedException e) {
+                // check for shutdown
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final Process process;
+        private final ExitListener listener;
+
+        private Entry(final Process process, final ExitListener listener) {
+            this.process = process;
+            this.listener = listener;
+        }
+    }
+}
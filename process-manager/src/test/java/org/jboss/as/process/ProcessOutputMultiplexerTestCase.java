@@ -0,0 +1,157 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.process;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test to verify the output multiplexer forwards complete lines in order and handles buffer overruns.
+ *
+ * @author <a href="mailto:david.lloyd@redhat.com">David M. Lloyd</a>
+ */
+public class ProcessOutputMultiplexerTestCase {
+
+    private static final int LINES = 5000;
+
+    @Test
+    public void testForwarding() throws Exception {
+        final ProcessOutputMultiplexer multiplexer = new ProcessOutputMultiplexer(2, 16, ProcessOutputMultiplexer.OverrunPolicy.THROTTLE, Executors.defaultThreadFactory());
+        multiplexer.start();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final PrintStream target = new PrintStream(out);
+        final ProcessOutputMultiplexer.Stream a = multiplexer.register("a", new ByteArrayInputStream("one\r\ntwo\nthree".getBytes("US-ASCII")), target);
+        final ProcessOutputMultiplexer.Stream b = multiplexer.register("b", new ByteArrayInputStream(lines(LINES)), target);
+        a.processExited();
+        b.processExited();
+        multiplexer.shutdown(10000L);
+
+        final String[] result = out.toString("US-ASCII").split("\n");
+        assertEquals(LINES + 3, result.length);
+        int ai = 0;
+        int bi = 0;
+        final String[] expected = { "[a] one", "[a] two", "[a] three" };
+        for (String line : result) {
+            if (line.startsWith("[a] ")) {
+                assertEquals(expected[ai++], line);
+            } else {
+                assertEquals("[b] line " + bi++, line);
+            }
+        }
+        assertEquals(3, ai);
+        assertEquals(LINES, bi);
+        assertEquals(0L, b.getDroppedLines());
+    }
+
+    @Test
+    public void testDrop() throws Exception {
+        final ProcessOutputMultiplexer multiplexer = new ProcessOutputMultiplexer(1, 10, ProcessOutputMultiplexer.OverrunPolicy.DROP, Executors.defaultThreadFactory());
+        multiplexer.start();
+        final BlockingOutputStream out = new BlockingOutputStream();
+        final ProcessOutputMultiplexer.Stream stream = multiplexer.register("a", new ByteArrayInputStream(lines(LINES)), new PrintStream(out));
+        stream.processExited();
+        while (stream.isClosed() == false) {
+            TimeUnit.MILLISECONDS.sleep(10L);
+        }
+        out.release();
+        multiplexer.shutdown(10000L);
+
+        assertTrue(stream.getDroppedLines() > 0L);
+        assertEquals(0L, stream.getThrottledReads());
+        final int forwarded = out.toString("US-ASCII").split("\n").length;
+        assertEquals(LINES, forwarded + stream.getDroppedLines());
+    }
+
+    @Test
+    public void testThrottle() throws Exception {
+        final ProcessOutputMultiplexer multiplexer = new ProcessOutputMultiplexer(1, 10, ProcessOutputMultiplexer.OverrunPolicy.THROTTLE, Executors.defaultThreadFactory());
+        multiplexer.start();
+        final BlockingOutputStream out = new BlockingOutputStream();
+        final ByteArrayInputStream source = new ByteArrayInputStream(lines(LINES));
+        final ProcessOutputMultiplexer.Stream stream = multiplexer.register("a", source, new PrintStream(out));
+        while (stream.getThrottledReads() == 0L) {
+            TimeUnit.MILLISECONDS.sleep(10L);
+        }
+        // the rest of the output stays in the pipe until the buffer drains
+        assertTrue(source.available() > 0);
+        stream.processExited();
+        out.release();
+        multiplexer.shutdown(10000L);
+
+        assertEquals(0L, stream.getDroppedLines());
+        final String[] result = out.toString("US-ASCII").split("\n");
+        assertEquals(LINES, result.length);
+        for (int i = 0; i < LINES; i++) {
+            assertEquals("[a] line " + i, result[i]);
+        }
+    }
+
+    private static byte[] lines(final int count) throws IOException {
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            builder.append("line ").append(i).append('\n');
+        }
+        return builder.toString().getBytes("US-ASCII");
+    }
+
+    private static final class BlockingOutputStream extends OutputStream {
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        void release() {
+            latch.countDown();
+        }
+
+        public void write(final int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            try {
+                latch.await();
+            } catch (InterruptedException e) {
+                throw new IOException("Interrupted");
+            }
+            synchronized (out) {
+                out.write(b, off, len);
+            }
+        }
+
+        String toString(final String charset) throws IOException {
+            synchronized (out) {
+                return out.toString(charset);
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.protocol;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+
+/**
+ * A blocking output stream over a non-blocking socket channel.  When the channel cannot accept any more bytes, the
+ * writing thread waits on a private selector until the channel becomes writable again.  Instances are not thread-safe;
+ * callers are expected to serialize writes (which {@link ConnectionImpl} does under its lock).
+ *
+ * @author <a href="mailto:david.lloyd@redhat.com">David M. Lloyd</a>
+ */
+final class ChannelOutputStream extends OutputStream {
+
+    private final SocketChannel channel;
+    private Selector writeSelector;
+    private boolean closed;
+
+    ChannelOutputStream(final SocketChannel channel) {
+        this.channel = channel;
+    }
+
+    public void write(final int b) throws IOException {
+        write(new byte[] { (byte) b }, 0, 1);
+    }
+
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+        if (closed) {
+            throw new IOException("Stream is closed");
+        }
+        final ByteBuffer buffer = ByteBuffer.wrap(b, off, len);
+        while (buffer.hasRemaining()) {
+            if (channel.write(buffer) == 0) {
+                awaitWritable();
+            }
+        }
+    }
+
+    private void awaitWritable() throws IOException {
+        Selector selector = writeSelector;
+        if (selector == null) {
+            selector = Selector.open();
+            boolean ok = false;
+            try {
+                channel.register(selector, SelectionKey.OP_WRITE);
+                ok = true;
+            } finally {
+                if (! ok) {
+                    selector.close();
+                }
+            }
+            writeSelector = selector;
+        }
+        selector.select();
+        selector.selectedKeys().clear();
+    }
+
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        final Selector selector = writeSelector;
+        writeSelector = null;
+        if (selector != null) {
+            selector.close();
+        }
+    }
+}
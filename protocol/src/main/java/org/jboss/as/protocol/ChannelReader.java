@@ -0,0 +1,375 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.protocol;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import org.jboss.logging.Logger;
+
+import static org.jboss.as.protocol.ProtocolConstants.*;
+
+/**
+ * The read side of a {@link ConnectionImpl} which is driven by a {@link SelectorPool} thread.  Incoming bytes are
+ * decoded into {@code CHUNK_START}/{@code CHUNK_END} frames without blocking, and the chunk data is copied into pooled
+ * buffers which are handed to the message's {@link MessageInputStream} as they fill up.  The message handler is started
+ * on the read executor as soon as a message begins.  Handler callbacks for a single connection are run one at a time
+ * and in the order in which they were received, just as they are for the thread-per-connection transport.
+ * <p>
+ * When a handler falls behind, the channel stops being selected for reads until the handler has caught up.  When the
+ * connection is closed locally, its key is cancelled with the channel, so the selector thread is told about the close
+ * explicitly and fails the message in progress before running the failure and finish callbacks.
+ *
+ * @author <a href="mailto:david.lloyd@redhat.com">David M. Lloyd</a>
+ */
+final class ChannelReader {
+
+    private static final Logger log = Logger.getLogger("org.jboss.as.protocol.connection");
+
+    private static final int STATE_COMMAND = 0;
+    private static final int STATE_LENGTH = 1;
+    private static final int STATE_DATA = 2;
+
+    private final ConnectionImpl connection;
+    private final SocketChannel channel;
+    private final Executor readExecutor;
+
+    // accessed only by the owning selector thread
+    private int state = STATE_COMMAND;
+    private int lengthBytes;
+    private int chunkRemaining;
+    private MessageInputStream message;
+    private ByteBuffer messageBuffer;
+    private boolean suspended;
+    private boolean finished;
+
+    // written once by the owning selector thread
+    private volatile SelectionKey key;
+    private volatile Queue<ChannelReader> resumed;
+
+    private volatile boolean closed;
+
+    // protected by {@link #tasks}
+    private final ArrayDeque<Runnable> tasks = new ArrayDeque<Runnable>();
+    // protected by {@link #tasks}
+    private boolean running;
+
+    ChannelReader(final ConnectionImpl connection) {
+        this.connection = connection;
+        channel = connection.getChannel();
+        readExecutor = connection.getReadExecutor();
+    }
+
+    SocketChannel getChannel() {
+        return channel;
+    }
+
+    /**
+     * Set the selection key of this reader.  Called by the selector thread when the channel is registered.
+     *
+     * @param key the key
+     * @param resumed the queue of the selector thread to add this reader to once reading may resume
+     */
+    void setRegistration(final SelectionKey key, final Queue<ChannelReader> resumed) {
+        this.key = key;
+        this.resumed = resumed;
+        if (closed) {
+            // closed while being registered; handled once the pending registrations are done
+            resumed.add(this);
+        }
+    }
+
+    /**
+     * Note that the connection was closed locally, and have the selector thread finish reading.
+     */
+    void closed() {
+        closed = true;
+        final Queue<ChannelReader> resumed = this.resumed;
+        if (resumed != null) {
+            resumed.add(this);
+            key.selector().wakeup();
+        }
+        // otherwise the registration of the closed channel fails, or setRegistration sees the flag
+    }
+
+    /**
+     * Resume reading after the handler has caught up, or finish reading after a local close.  Called by the selector
+     * thread.
+     */
+    void resume() {
+        if (finished) {
+            return;
+        }
+        if (closed) {
+            finished = true;
+            key.cancel();
+            final IOException e = new ClosedChannelException();
+            failMessage(e);
+            submit(new Runnable() {
+                public void run() {
+                    connection.safeHandlerFailure(e);
+                    connection.handleReadDone();
+                }
+            });
+            return;
+        }
+        if (suspended && key.isValid()) {
+            suspended = false;
+            key.interestOps(SelectionKey.OP_READ);
+        }
+    }
+
+    /**
+     * Read and decode whatever is available on the channel.  Called by the selector thread when the channel is
+     * readable.
+     *
+     * @param buffer the selector thread's scratch buffer
+     * @return {@code true} if the channel should stay registered, {@code false} if reading is finished
+     */
+    boolean handleReadable(final ByteBuffer buffer) {
+        try {
+            for (;;) {
+                buffer.clear();
+                final int res = channel.read(buffer);
+                if (res == -1) {
+                    log.trace("Received end of stream");
+                    finished = true;
+                    failMessage(new EOFException("Unexpected end of stream"));
+                    submit(new Runnable() {
+                        public void run() {
+                            connection.safeHandleShutdown();
+                            connection.handleReadDone();
+                        }
+                    });
+                    return false;
+                }
+                if (res == 0) {
+                    return true;
+                }
+                buffer.flip();
+                decode(buffer);
+                if (messageBuffer != null) {
+                    // don't hold on to a partly filled buffer until more data arrives
+                    offer();
+                }
+                if (suspended) {
+                    key.interestOps(0);
+                    return true;
+                }
+            }
+        } catch (final IOException e) {
+            finished = true;
+            failMessage(e);
+            submit(new Runnable() {
+                public void run() {
+                    connection.safeHandlerFailure(e);
+                }
+            });
+            return false;
+        }
+    }
+
+    /**
+     * Handle the channel being closed or the selector pool shutting down underneath this connection.
+     *
+     * @param e the failure
+     */
+    void handleFailure(final IOException e) {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        failMessage(e);
+        final boolean closed = this.closed;
+        submit(new Runnable() {
+            public void run() {
+                connection.safeHandlerFailure(e);
+                if (closed) {
+                    // the channel was closed locally before it could be registered
+                    connection.handleReadDone();
+                }
+            }
+        });
+    }
+
+    private void decode(final ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            switch (state) {
+                case STATE_COMMAND: {
+                    final int cmd = buffer.get() & 0xff;
+                    switch (cmd) {
+                        case CHUNK_START: {
+                            if (message == null) {
+                                // new message!
+                                final MessageInputStream mis = new MessageInputStream(ConnectionImpl.BUFFER_POOL, ConnectionImpl.MESSAGE_BUFFERS, new Runnable() {
+                                    public void run() {
+                                        resumed.add(ChannelReader.this);
+                                        key.selector().wakeup();
+                                    }
+                                });
+                                message = mis;
+                                if (! submit(new Runnable() {
+                                    public void run() {
+                                        connection.safeHandleMessage(mis);
+                                    }
+                                })) {
+                                    throw new IOException("No handler could be started for the message");
+                                }
+                            }
+                            chunkRemaining = 0;
+                            lengthBytes = 0;
+                            state = STATE_LENGTH;
+                            break;
+                        }
+                        case CHUNK_END: {
+                            log.trace("Received end data marker");
+                            if (message != null) {
+                                if (messageBuffer != null) {
+                                    offer();
+                                }
+                                message.finish();
+                                message = null;
+                            }
+                            break;
+                        }
+                        default: {
+                            throw new IOException("Invalid command byte read: " + cmd);
+                        }
+                    }
+                    break;
+                }
+                case STATE_LENGTH: {
+                    chunkRemaining = chunkRemaining << 8 | buffer.get() & 0xff;
+                    if (++lengthBytes == 4) {
+                        if (chunkRemaining < 0) {
+                            throw new IOException("Invalid chunk size read: " + chunkRemaining);
+                        }
+                        log.tracef("Received data chunk of size %d", Integer.valueOf(chunkRemaining));
+                        state = chunkRemaining == 0 ? STATE_COMMAND : STATE_DATA;
+                    }
+                    break;
+                }
+                case STATE_DATA: {
+                    if (messageBuffer == null) {
+                        messageBuffer = ConnectionImpl.BUFFER_POOL.allocate();
+                    }
+                    final int cnt = Math.min(Math.min(buffer.remaining(), chunkRemaining), messageBuffer.remaining());
+                    final int limit = buffer.limit();
+                    buffer.limit(buffer.position() + cnt);
+                    messageBuffer.put(buffer);
+                    buffer.limit(limit);
+                    chunkRemaining -= cnt;
+                    if (! messageBuffer.hasRemaining()) {
+                        offer();
+                    }
+                    if (chunkRemaining == 0) {
+                        state = STATE_COMMAND;
+                    }
+                    break;
+                }
+                default: {
+                    throw new IllegalStateException();
+                }
+            }
+        }
+    }
+
+    private void offer() {
+        final ByteBuffer messageBuffer = this.messageBuffer;
+        this.messageBuffer = null;
+        messageBuffer.flip();
+        if (! message.offer(messageBuffer)) {
+            // finish decoding what has been read already, then stop reading until the handler catches up
+            suspended = true;
+        }
+    }
+
+    private void failMessage(final IOException e) {
+        if (messageBuffer != null) {
+            ConnectionImpl.BUFFER_POOL.free(messageBuffer);
+            messageBuffer = null;
+        }
+        if (message != null) {
+            message.fail(e);
+            message = null;
+        }
+    }
+
+    /**
+     * Queue a handler callback.  Called by the selector thread.
+     *
+     * @param task the callback
+     * @return {@code false} if the callback could not be dispatched, in which case the message in progress was failed
+     */
+    private boolean submit(final Runnable task) {
+        synchronized (tasks) {
+            tasks.add(task);
+            if (running) {
+                return true;
+            }
+            running = true;
+        }
+        try {
+            readExecutor.execute(new Runnable() {
+                public void run() {
+                    runTasks();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.errorf(e, "Failed to dispatch connection task");
+            synchronized (tasks) {
+                tasks.clear();
+                running = false;
+            }
+            // nothing is left to read the message, so don't let it wait for a handler
+            failMessage(new IOException("Failed to dispatch connection task", e));
+            return false;
+        }
+        return true;
+    }
+
+    private void runTasks() {
+        for (;;) {
+            final Runnable task;
+            synchronized (tasks) {
+                task = tasks.poll();
+                if (task == null) {
+                    running = false;
+                    return;
+                }
+            }
+            try {
+                task.run();
+            } catch (Throwable t) {
+                log.errorf(t, "Failed to execute connection task");
+            }
+        }
+    }
+}
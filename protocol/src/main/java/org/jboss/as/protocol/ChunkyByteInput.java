@@ -87,10 +87,14 @@ public class ChunkyByteInput extends InputStream implements ByteInput {
                 startChunk();
             }
             if (remaining < 1) {
-                return ret;
+                return ret == 0 ? -1 : ret;
             }
             int toRead = Math.min(len, remaining);
             int read = input.read(b, off, toRead);
+            if (read == -1) {
+                remaining = -1;
+                return ret == 0 ? -1 : ret;
+            }
             this.remaining -= read;
             len -= read;
             off += read;
@@ -124,15 +128,23 @@ public class ChunkyByteInput extends InputStream implements ByteInput {
 
     public void close() throws IOException {
         // Don't close the underlying input
+        byte[] skipBuffer = null;
         while (!finished) {
-            final int current = input.read();
-            switch (current) {
-                case -1:
-                    return;
-                case END:
-                    finished = true;
-                    break;
+            if (remaining == 0) {
+                startChunk();
+            }
+            if (remaining < 0) {
+                return;
+            }
+            if (skipBuffer == null) {
+                skipBuffer = new byte[Math.min(remaining, 8192)];
+            }
+            final int read = input.read(skipBuffer, 0, Math.min(remaining, skipBuffer.length));
+            if (read == -1) {
+                remaining = -1;
+                return;
             }
+            remaining -= read;
         }
     }
 
@@ -70,22 +70,19 @@ public class ChunkyByteOutput extends OutputStream implements ByteOutput {
     }
 
     /** {@inheritDoc} */
-    public void write(final byte[] bytes, final int off, int len) throws IOException {
-        byte[] buffer = this.buffer;
-        final int position = this.position;
+    public void write(final byte[] bytes, final int off, final int len) throws IOException {
+        final byte[] buffer = this.buffer;
         int offSet = off;
-        while (offSet < len) {
-            int remaining = buffer.length - position;
-            int toRead = len - offSet;
-            if (toRead < remaining) {
-                System.arraycopy(bytes, offSet, buffer, position, toRead);
-                this.position = position + toRead;
-                offSet = offSet + len;
-            } else {
-                System.arraycopy(bytes, offSet, buffer, position, remaining);
-                this.position += remaining;
+        int remaining = len;
+        while (remaining > 0) {
+            final int position = this.position;
+            final int cnt = Math.min(remaining, buffer.length - position);
+            System.arraycopy(bytes, offSet, buffer, position, cnt);
+            this.position = position + cnt;
+            offSet += cnt;
+            remaining -= cnt;
+            if (this.position == buffer.length) {
                 flush();
-                offSet = offSet + remaining;
             }
         }
     }
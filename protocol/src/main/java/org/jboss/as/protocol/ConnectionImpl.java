@@ -24,7 +24,6 @@ package org.jboss.as.protocol;
 
 import java.io.BufferedOutputStream;
 import java.io.EOFException;
-import java.io.FilterInputStream;
 import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -32,6 +31,8 @@ import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.net.InetAddress;
 import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
 import java.util.concurrent.Executor;
 import org.jboss.logging.Logger;
 
@@ -44,8 +45,18 @@ final class ConnectionImpl implements Connection {
 
     private static final Logger log = Logger.getLogger("org.jboss.as.protocol.connection");
 
+    static final BufferPool BUFFER_POOL = new BufferPool(8192, 1024);
+
+    // at most this many buffers of any one incoming message are held before the reader waits for the handler
+    static final int MESSAGE_BUFFERS = 16;
+
     private final Socket socket;
 
+    // only set for connections driven by a {@link SelectorPool}
+    private final SocketChannel channel;
+    private final ChannelOutputStream channelOutput;
+    private final ChannelReader channelReader;
+
     private final Object lock = new Object();
 
     // protected by {@link #lock}
@@ -63,8 +74,20 @@ final class ConnectionImpl implements Connection {
 
     ConnectionImpl(final Socket socket, final MessageHandler handler, final Executor readExecutor) {
         this.socket = socket;
+        channel = null;
+        channelOutput = null;
+        channelReader = null;
+        messageHandler = handler;
+        this.readExecutor = readExecutor;
+    }
+
+    ConnectionImpl(final SocketChannel channel, final MessageHandler handler, final Executor readExecutor) {
+        socket = channel.socket();
+        this.channel = channel;
+        channelOutput = new ChannelOutputStream(channel);
         messageHandler = handler;
         this.readExecutor = readExecutor;
+        channelReader = new ChannelReader(this);
     }
 
     public OutputStream writeMessage() throws IOException {
@@ -109,7 +132,7 @@ final class ConnectionImpl implements Connection {
             }
             writeDone = true;
             if (readDone) {
-                socket.close();
+                closeSocket();
             } else {
                 socket.shutdownOutput();
             }
@@ -123,9 +146,13 @@ final class ConnectionImpl implements Connection {
             sender = null;
             readDone = true;
             writeDone = true;
-            socket.close();
+            closeSocket();
             lock.notifyAll();
         }
+        if (channelReader != null) {
+            // closing the channel cancels its key, so the selector thread would never see the close
+            channelReader.closed();
+        }
     }
 
     public void setMessageHandler(final MessageHandler messageHandler) {
@@ -154,15 +181,54 @@ final class ConnectionImpl implements Connection {
         return attachment;
     }
 
+    // protected by {@link #lock}
+    private void closeSocket() throws IOException {
+        if (channelOutput != null) {
+            channelOutput.close();
+        }
+        socket.close();
+    }
+
+    SocketChannel getChannel() {
+        return channel;
+    }
+
+    Executor getReadExecutor() {
+        return readExecutor;
+    }
+
+    ChannelReader getChannelReader() {
+        if (channel == null) {
+            throw new IllegalStateException("Connection is not channel based");
+        }
+        return channelReader;
+    }
+
+    void handleReadDone() {
+        boolean done;
+        synchronized (lock) {
+            readDone = true;
+            done = writeDone;
+            if (done) {
+                try {
+                    closeSocket();
+                } catch (IOException e) {
+                    log.tracef(e, "Failed to close socket");
+                }
+            }
+        }
+        if (done) {
+            safeHandleFinished();
+        }
+    }
+
     Runnable getReadTask() {
         return new Runnable() {
             public void run() {
+                MessageInputStream message = null;
+                ByteBuffer buffer = null;
                 try {
-                    Pipe pipe = null;
                     final InputStream is = socket.getInputStream();
-                    OutputStream mos = null;
-                    final int bufferSize = 8192;
-                    final byte[] buffer = new byte[bufferSize];
                     for (;;) {
 
                         int cmd = is.read();
@@ -171,54 +237,67 @@ final class ConnectionImpl implements Connection {
                                 log.trace("Received end of stream");
                                 // end of stream
                                 safeHandleShutdown();
-                                boolean done;
-                                if (mos != null) {
-                                    mos.close();
-                                    pipe.await();
-                                }
-                                synchronized (lock) {
-                                    readDone = true;
-                                    done = writeDone;
-                                }
-                                if (done) {
-                                    StreamUtils.safeClose(socket);
-                                    safeHandleFinished();
+                                if (message != null) {
+                                    message.fail(new EOFException("Unexpected end of stream"));
+                                    message.await();
+                                    message = null;
                                 }
+                                handleReadDone();
                                 return;
                             }
                             case CHUNK_START: {
-                                if (mos == null) {
-                                    pipe = new Pipe(8192);
+                                if (message == null) {
                                     // new message!
-                                    final InputStream pis = pipe.getIn();
-                                    mos = pipe.getOut();
+                                    final MessageInputStream mis = new MessageInputStream(BUFFER_POOL, MESSAGE_BUFFERS, null);
+                                    message = mis;
 
                                     readExecutor.execute(new Runnable() {
                                         public void run() {
-                                            safeHandleMessage(new MessageInputStream(pis));
+                                            safeHandleMessage(mis);
                                         }
                                     });
                                 }
                                 int cnt = StreamUtils.readInt(is);
                                 log.tracef("Received data chunk of size %d", Integer.valueOf(cnt));
                                 while (cnt > 0) {
-                                    int sc = is.read(buffer, 0, Math.min(cnt, bufferSize));
+                                    if (buffer == null) {
+                                        buffer = BUFFER_POOL.allocate();
+                                    }
+                                    int sc = is.read(buffer.array(), buffer.arrayOffset() + buffer.position(), Math.min(cnt, buffer.remaining()));
                                     if (sc == -1) {
                                         throw new EOFException("Unexpected end of stream");
                                     }
-                                    mos.write(buffer, 0, sc);
+                                    buffer.position(buffer.position() + sc);
                                     cnt -= sc;
+                                    if (! buffer.hasRemaining()) {
+                                        final ByteBuffer full = buffer;
+                                        buffer = null;
+                                        full.flip();
+                                        message.push(full);
+                                    }
+                                }
+                                if (buffer != null && is.available() == 0) {
+                                    // the next read would block, so hand over what we have
+                                    final ByteBuffer partial = buffer;
+                                    buffer = null;
+                                    partial.flip();
+                                    message.push(partial);
                                 }
                                 break;
                             }
                             case CHUNK_END: {
                                 log.trace("Received end data marker");
-                                if (mos != null) {
+                                if (message != null) {
+                                    if (buffer != null) {
+                                        final ByteBuffer partial = buffer;
+                                        buffer = null;
+                                        partial.flip();
+                                        message.push(partial);
+                                    }
                                     // end message
-                                    mos.close();
-                                    pipe.await();
-                                    mos = null;
-                                    pipe = null;
+                                    message.finish();
+                                    message.await();
+                                    message = null;
                                 }
                                 break;
                             }
@@ -228,7 +307,14 @@ final class ConnectionImpl implements Connection {
                         }
                     }
                 } catch (IOException e) {
+                    if (message != null) {
+                        message.fail(e);
+                    }
                     safeHandlerFailure(e);
+                } finally {
+                    if (buffer != null) {
+                        BUFFER_POOL.free(buffer);
+                    }
                 }
             }
         };
@@ -268,27 +354,12 @@ final class ConnectionImpl implements Connection {
         }
     }
 
-    final class MessageInputStream extends FilterInputStream {
-
-        protected MessageInputStream(InputStream in) {
-            super(in);
-        }
-
-        public void close() throws IOException {
-            try {
-                while (in.read() != -1) {}
-            } finally {
-                super.close();
-            }
-        }
-    }
-
     final class MessageOutputStream extends FilterOutputStream {
 
         private final byte[] hdr = new byte[5];
 
         MessageOutputStream() throws IOException {
-            super(socket.getOutputStream());
+            super(channelOutput != null ? channelOutput : socket.getOutputStream());
         }
 
         public void write(final int b) throws IOException {
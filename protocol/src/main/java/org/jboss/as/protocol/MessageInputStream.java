@@ -0,0 +1,296 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.protocol;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+/**
+ * The input stream of a single incoming message.  The connection's reader fills pooled buffers straight from the
+ * socket and hands them over as they are filled; the message handler reads from those same buffers, which go back to
+ * the pool as soon as they are drained.  There is no intermediate copy between the reader and the handler.
+ * <p>
+ * At most {@code maxBuffers} filled buffers are held for a message at once.  A blocking reader waits in
+ * {@link #push(ByteBuffer)} until the handler catches up; a non-blocking reader is told by {@link #offer(ByteBuffer)}
+ * to stop reading, and the resume task is run once the handler has drained half of the held buffers.
+ *
+ * @author <a href="mailto:david.lloyd@redhat.com">David M. Lloyd</a>
+ */
+final class MessageInputStream extends InputStream {
+
+    private final BufferPool bufferPool;
+    private final int maxBuffers;
+    private final Runnable resumeTask;
+
+    // protected by {@code this}
+    private final ArrayDeque<ByteBuffer> buffers = new ArrayDeque<ByteBuffer>();
+    // protected by {@code this}
+    private boolean eof;
+    // protected by {@code this}
+    private IOException failure;
+    // protected by {@code this}
+    private boolean closed;
+    // protected by {@code this}
+    private boolean suspended;
+
+    // only accessed by the reading thread
+    private ByteBuffer current;
+
+    /**
+     * Construct a new instance.
+     *
+     * @param bufferPool the pool to return drained buffers to
+     * @param maxBuffers the maximum number of filled buffers to hold before the producer must wait
+     * @param resumeTask the task to run when a producer which was told to stop by {@link #offer(ByteBuffer)} may
+     *      continue, or {@code null} if only {@link #push(ByteBuffer)} is used
+     */
+    MessageInputStream(final BufferPool bufferPool, final int maxBuffers, final Runnable resumeTask) {
+        if (maxBuffers < 1) {
+            throw new IllegalArgumentException("maxBuffers must be at least 1");
+        }
+        this.bufferPool = bufferPool;
+        this.maxBuffers = maxBuffers;
+        this.resumeTask = resumeTask;
+    }
+
+    /**
+     * Add a filled buffer to the message, waiting while the stream already holds the maximum number of buffers.
+     * The buffer belongs to the stream afterwards.
+     *
+     * @param buffer the buffer, flipped for reading
+     * @throws InterruptedIOException if the thread is interrupted while waiting
+     */
+    void push(final ByteBuffer buffer) throws InterruptedIOException {
+        synchronized (this) {
+            while (buffers.size() >= maxBuffers && ! closed) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    bufferPool.free(buffer);
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException();
+                }
+            }
+            add(buffer);
+        }
+    }
+
+    /**
+     * Add a filled buffer to the message without waiting.  The buffer belongs to the stream afterwards.
+     *
+     * @param buffer the buffer, flipped for reading
+     * @return {@code true} if more buffers may be added, {@code false} if the producer should stop until the resume
+     *      task is run
+     */
+    boolean offer(final ByteBuffer buffer) {
+        synchronized (this) {
+            add(buffer);
+            if (buffers.size() >= maxBuffers && ! closed) {
+                suspended = true;
+                return false;
+            }
+            return true;
+        }
+    }
+
+    // protected by {@code this}
+    private void add(final ByteBuffer buffer) {
+        if (closed || eof) {
+            bufferPool.free(buffer);
+            return;
+        }
+        buffers.add(buffer);
+        notifyAll();
+    }
+
+    /**
+     * Mark the end of the message.
+     */
+    void finish() {
+        synchronized (this) {
+            eof = true;
+            notifyAll();
+        }
+    }
+
+    /**
+     * Fail the message.  The reader gets the buffers received so far and then the failure.
+     *
+     * @param e the cause
+     */
+    void fail(final IOException e) {
+        synchronized (this) {
+            if (! eof) {
+                eof = true;
+                failure = e;
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Wait for the message to be closed by its reader.
+     */
+    void await() {
+        boolean intr = false;
+        try {
+            synchronized (this) {
+                while (! closed) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        intr = true;
+                    }
+                }
+            }
+        } finally {
+            if (intr) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public int read() throws IOException {
+        final ByteBuffer buffer = nextBuffer();
+        return buffer == null ? -1 : buffer.get() & 0xff;
+    }
+
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        final ByteBuffer buffer = nextBuffer();
+        if (buffer == null) {
+            return -1;
+        }
+        final int cnt = Math.min(len, buffer.remaining());
+        buffer.get(b, off, cnt);
+        return cnt;
+    }
+
+    public long skip(final long n) throws IOException {
+        long skipped = 0L;
+        while (skipped < n) {
+            final ByteBuffer buffer = nextBuffer();
+            if (buffer == null) {
+                break;
+            }
+            final int cnt = (int) Math.min(n - skipped, (long) buffer.remaining());
+            buffer.position(buffer.position() + cnt);
+            skipped += cnt;
+        }
+        return skipped;
+    }
+
+    public int available() throws IOException {
+        final ByteBuffer current = this.current;
+        if (current != null && current.hasRemaining()) {
+            return current.remaining();
+        }
+        synchronized (this) {
+            final ByteBuffer next = buffers.peek();
+            return next == null ? 0 : next.remaining();
+        }
+    }
+
+    /**
+     * Close the stream.  The rest of the message is discarded as it arrives.
+     */
+    public void close() {
+        final Runnable resume;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (current != null) {
+                bufferPool.free(current);
+                current = null;
+            }
+            ByteBuffer buffer;
+            while ((buffer = buffers.poll()) != null) {
+                bufferPool.free(buffer);
+            }
+            notifyAll();
+            resume = suspended ? resumeTask : null;
+            suspended = false;
+        }
+        if (resume != null) {
+            resume.run();
+        }
+    }
+
+    private ByteBuffer nextBuffer() throws IOException {
+        ByteBuffer buffer = current;
+        if (buffer != null && buffer.hasRemaining()) {
+            return buffer;
+        }
+        Runnable resume = null;
+        synchronized (this) {
+            if (closed) {
+                throw new IOException("Stream is closed");
+            }
+            if (buffer != null) {
+                current = null;
+                bufferPool.free(buffer);
+            }
+            for (;;) {
+                buffer = buffers.poll();
+                if (buffer == null) {
+                    if (failure != null) {
+                        throw new IOException("Failed to read message", failure);
+                    }
+                    if (eof) {
+                        return null;
+                    }
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException();
+                    }
+                } else if (buffer.hasRemaining()) {
+                    break;
+                } else {
+                    bufferPool.free(buffer);
+                }
+            }
+            current = buffer;
+            final int held = buffers.size();
+            if (held < maxBuffers) {
+                notifyAll();
+            }
+            if (suspended && held <= maxBuffers >> 1) {
+                suspended = false;
+                resume = resumeTask;
+            }
+        }
+        if (resume != null) {
+            resume.run();
+        }
+        return buffer;
+    }
+}
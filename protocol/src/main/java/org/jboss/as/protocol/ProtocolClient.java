@@ -25,6 +25,7 @@ package org.jboss.as.protocol;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.nio.channels.SocketChannel;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ThreadFactory;
 import org.jboss.logging.Logger;
@@ -47,6 +48,7 @@ public final class ProtocolClient {
     private final int connectTimeout;
     private final int readTimeout;
     private final Executor readExecutor;
+    private final SelectorPool selectorPool;
 
     public ProtocolClient(final Configuration configuration) {
         threadFactory = configuration.getThreadFactory();
@@ -57,10 +59,11 @@ public final class ProtocolClient {
         serverAddress = configuration.getServerAddress();
         readTimeout = configuration.getReadTimeout();
         readExecutor = configuration.getReadExecutor();
-        if (threadFactory == null) {
+        selectorPool = configuration.getSelectorPool();
+        if (threadFactory == null && selectorPool == null) {
             throw new IllegalArgumentException("threadFactory is null");
         }
-        if (socketFactory == null) {
+        if (socketFactory == null && selectorPool == null) {
             throw new IllegalArgumentException("factory is null");
         }
         if (serverAddress == null) {
@@ -76,6 +79,9 @@ public final class ProtocolClient {
 
     public Connection connect() throws IOException {
         log.tracef("Creating connection to %s", serverAddress);
+        if (selectorPool != null) {
+            return connectChannel();
+        }
         final Socket socket = socketFactory.createSocket();
         final ConnectionImpl connection = new ConnectionImpl(socket, messageHandler, readExecutor);
         final Thread thread = threadFactory.newThread(connection.getReadTask());
@@ -84,6 +90,8 @@ public final class ProtocolClient {
         }
         if (bindAddress != null) socket.bind(bindAddress);
         if (readTimeout != 0) socket.setSoTimeout(readTimeout);
+        // messages are small and request/response, don't let them wait for delayed acks
+        socket.setTcpNoDelay(true);
         socket.connect(serverAddress, connectTimeout);
         thread.setName("Read thread for " + serverAddress);
         thread.start();
@@ -91,6 +99,26 @@ public final class ProtocolClient {
         return connection;
     }
 
+    private Connection connectChannel() throws IOException {
+        final SocketChannel channel = SocketChannel.open();
+        boolean ok = false;
+        try {
+            final Socket socket = channel.socket();
+            if (bindAddress != null) socket.bind(bindAddress);
+            socket.setTcpNoDelay(true);
+            socket.connect(serverAddress, connectTimeout);
+            final ConnectionImpl connection = new ConnectionImpl(channel, messageHandler, readExecutor);
+            selectorPool.register(connection);
+            ok = true;
+            log.tracef("Connected to %s", serverAddress);
+            return connection;
+        } finally {
+            if (! ok) {
+                StreamUtils.safeClose(channel);
+            }
+        }
+    }
+
     public static final class Configuration {
         private ThreadFactory threadFactory;
         private SocketFactory socketFactory;
@@ -98,6 +126,7 @@ public final class ProtocolClient {
         private MessageHandler messageHandler;
         private InetSocketAddress bindAddress;
         private Executor readExecutor;
+        private SelectorPool selectorPool;
         private int connectTimeout = 0;
         private int readTimeout = 0;
 
@@ -152,6 +181,20 @@ public final class ProtocolClient {
             this.readExecutor = readExecutor;
         }
 
+        public SelectorPool getSelectorPool() {
+            return selectorPool;
+        }
+
+        /**
+         * Set the selector pool to read the connection with.  If no pool is set, the connection gets its own
+         * blocking read thread.  The socket factory and read timeout are not used by the selector based transport.
+         *
+         * @param selectorPool the selector pool, or {@code null} for a read thread per connection
+         */
+        public void setSelectorPool(final SelectorPool selectorPool) {
+            this.selectorPool = selectorPool;
+        }
+
         public int getConnectTimeout() {
             return connectTimeout;
         }
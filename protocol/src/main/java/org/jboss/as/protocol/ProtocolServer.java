@@ -26,6 +26,8 @@ import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ThreadFactory;
 import org.jboss.logging.Logger;
@@ -46,6 +48,7 @@ public final class ProtocolServer {
     private final int backlog;
     private final int readTimeout;
     private final Executor readExecutor;
+    private final SelectorPool selectorPool;
     private volatile boolean stop;
     private volatile Thread thread;
     private volatile InetSocketAddress boundAddress;
@@ -58,6 +61,7 @@ public final class ProtocolServer {
         backlog = configuration.getBacklog();
         readTimeout = configuration.getReadTimeout();
         readExecutor = configuration.getReadExecutor();
+        selectorPool = configuration.getSelectorPool();
         if (bindAddress == null) {
             throw new IllegalArgumentException("bindAddress is null");
         }
@@ -67,6 +71,10 @@ public final class ProtocolServer {
     }
 
     public void start() throws IOException {
+        if (selectorPool != null) {
+            startChannel();
+            return;
+        }
         stop = false;
         final ServerSocket serverSocket = socketFactory.createServerSocket();
         thread = threadFactory.newThread(new Runnable() {
@@ -78,6 +86,7 @@ public final class ProtocolServer {
                             boolean ok = false;
                             try {
                                 socket.setSoTimeout(readTimeout);
+                                socket.setTcpNoDelay(true);
                                 ok = true;
                             } finally {
                                 if (! ok) {
@@ -111,6 +120,36 @@ public final class ProtocolServer {
         thread.start();
     }
 
+    private void startChannel() throws IOException {
+        stop = false;
+        final ServerSocketChannel serverChannel = ServerSocketChannel.open();
+        thread = threadFactory.newThread(new Runnable() {
+            public void run() {
+                try {
+                    while (serverChannel.isOpen() && ! stop) {
+                        try {
+                            safeHandleConnection(serverChannel.accept());
+                        } catch (IOException e) {
+                            if (! stop) {
+                                log.errorf(e, "Failed to accept a connection");
+                            }
+                        }
+                    }
+                } finally {
+                    StreamUtils.safeClose(serverChannel);
+                }
+            }
+        });
+        if (thread == null) {
+            StreamUtils.safeClose(serverChannel);
+            throw new IOException("Failed to create server thread");
+        }
+        thread.setName("Accept thread");
+        serverChannel.socket().bind(bindAddress, backlog);
+        boundAddress = (InetSocketAddress) serverChannel.socket().getLocalSocketAddress();
+        thread.start();
+    }
+
     public void stop() {
         stop = true;
         final Thread thread = this.thread;
@@ -145,6 +184,23 @@ public final class ProtocolServer {
         }
     }
 
+    private void safeHandleConnection(final SocketChannel channel) {
+        boolean ok = false;
+        try {
+            channel.socket().setTcpNoDelay(true);
+            final ConnectionImpl connection = new ConnectionImpl(channel, MessageHandler.NULL, readExecutor);
+            connection.setMessageHandler(connectionHandler.handleConnected(connection));
+            selectorPool.register(connection);
+            ok = true;
+        } catch (IOException e) {
+            log.errorf(e, "Failed to handle incoming connection");
+        } finally {
+            if (! ok) {
+                StreamUtils.safeClose(channel);
+            }
+        }
+    }
+
     public InetSocketAddress getBoundAddress() {
         return boundAddress;
     }
@@ -158,6 +214,7 @@ public final class ProtocolServer {
         private int backlog;
         private int readTimeout;
         private Executor readExecutor;
+        private SelectorPool selectorPool;
 
         public ThreadFactory getThreadFactory() {
             return threadFactory;
@@ -222,5 +279,20 @@ public final class ProtocolServer {
         public void setReadExecutor(final Executor readExecutor) {
             this.readExecutor = readExecutor;
         }
+
+        public SelectorPool getSelectorPool() {
+            return selectorPool;
+        }
+
+        /**
+         * Set the selector pool to read accepted connections with.  If no pool is set, each accepted connection
+         * gets its own blocking read thread.  The socket factory and read timeout are not used by the selector
+         * based transport.
+         *
+         * @param selectorPool the selector pool, or {@code null} for a read thread per connection
+         */
+        public void setSelectorPool(final SelectorPool selectorPool) {
+            this.selectorPool = selectorPool;
+        }
     }
 }
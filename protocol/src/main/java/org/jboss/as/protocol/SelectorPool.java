@@ -0,0 +1,197 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.protocol;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jboss.logging.Logger;
+
+/**
+ * A fixed pool of selector threads which read from non-blocking protocol connections.  Setting a pool on a
+ * {@link ProtocolServer.Configuration} or {@link ProtocolClient.Configuration} switches that endpoint from one blocking
+ * read thread per connection to the non-blocking transport; a single pool may be shared by any number of servers and
+ * clients.  Connections are assigned to the selector threads round-robin.
+ * <p>
+ * Messages are streamed to the {@link MessageHandler} as they arrive.  A connection whose handler is not keeping up
+ * is not read from until it has caught up, so a slow handler never makes a selector thread wait or buffer more than a
+ * bounded amount of its message.
+ *
+ * @author <a href="mailto:david.lloyd@redhat.com">David M. Lloyd</a>
+ */
+public final class SelectorPool {
+
+    private static final Logger log = Logger.getLogger("org.jboss.as.protocol.selector");
+
+    private static final int READ_BUFFER_SIZE = 8192;
+
+    private final ThreadFactory threadFactory;
+    private final SelectorThread[] selectorThreads;
+    private final AtomicInteger next = new AtomicInteger();
+    private volatile boolean stop;
+
+    /**
+     * Construct a new instance.
+     *
+     * @param threadFactory the thread factory to use to create the selector threads
+     * @param threadCount the number of selector threads
+     */
+    public SelectorPool(final ThreadFactory threadFactory, final int threadCount) {
+        if (threadFactory == null) {
+            throw new IllegalArgumentException("threadFactory is null");
+        }
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("threadCount must be at least 1");
+        }
+        this.threadFactory = threadFactory;
+        selectorThreads = new SelectorThread[threadCount];
+    }
+
+    public synchronized void start() throws IOException {
+        stop = false;
+        boolean ok = false;
+        try {
+            for (int i = 0; i < selectorThreads.length; i++) {
+                final SelectorThread selectorThread = new SelectorThread(Selector.open());
+                selectorThreads[i] = selectorThread;
+                final Thread thread = threadFactory.newThread(selectorThread);
+                if (thread == null) {
+                    throw new IOException("Failed to create selector thread");
+                }
+                thread.setName("Selector thread " + (i + 1));
+                thread.start();
+            }
+            ok = true;
+        } finally {
+            if (! ok) {
+                stop();
+            }
+        }
+    }
+
+    public synchronized void stop() {
+        stop = true;
+        for (int i = 0; i < selectorThreads.length; i++) {
+            final SelectorThread selectorThread = selectorThreads[i];
+            if (selectorThread != null) {
+                selectorThread.selector.wakeup();
+                selectorThreads[i] = null;
+            }
+        }
+    }
+
+    void register(final ConnectionImpl connection) throws IOException {
+        if (stop) {
+            throw new IOException("Selector pool is stopped");
+        }
+        final SelectorThread selectorThread = selectorThreads[(next.getAndIncrement() & Integer.MAX_VALUE) % selectorThreads.length];
+        if (selectorThread == null) {
+            throw new IOException("Selector pool is not started");
+        }
+        connection.getChannel().configureBlocking(false);
+        selectorThread.pending.add(connection.getChannelReader());
+        selectorThread.selector.wakeup();
+    }
+
+    private final class SelectorThread implements Runnable {
+        private final Selector selector;
+        private final Queue<ChannelReader> pending = new ConcurrentLinkedQueue<ChannelReader>();
+        private final Queue<ChannelReader> resumed = new ConcurrentLinkedQueue<ChannelReader>();
+        private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+
+        SelectorThread(final Selector selector) {
+            this.selector = selector;
+        }
+
+        public void run() {
+            try {
+                while (! stop) {
+                    try {
+                        selector.select();
+                    } catch (IOException e) {
+                        log.errorf(e, "Selector failed");
+                        continue;
+                    }
+                    registerPending();
+                    resumeReaders();
+                    final Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+                    while (iterator.hasNext()) {
+                        final SelectionKey key = iterator.next();
+                        iterator.remove();
+                        if (key.isValid() && key.isReadable()) {
+                            final ChannelReader reader = (ChannelReader) key.attachment();
+                            if (! reader.handleReadable(readBuffer)) {
+                                key.cancel();
+                            }
+                        }
+                    }
+                }
+            } finally {
+                ChannelReader reader;
+                while ((reader = pending.poll()) != null) {
+                    reader.handleFailure(new ClosedChannelException());
+                }
+                // finish off the connections which were closed locally
+                resumeReaders();
+                for (SelectionKey key : selector.keys()) {
+                    if (! key.isValid()) {
+                        continue;
+                    }
+                    reader = (ChannelReader) key.attachment();
+                    key.cancel();
+                    reader.handleFailure(new ClosedChannelException());
+                }
+                try {
+                    selector.close();
+                } catch (IOException e) {
+                    log.errorf(e, "Failed to close the selector");
+                }
+            }
+        }
+
+        private void resumeReaders() {
+            ChannelReader reader;
+            while ((reader = resumed.poll()) != null) {
+                reader.resume();
+            }
+        }
+
+        private void registerPending() {
+            ChannelReader reader;
+            while ((reader = pending.poll()) != null) {
+                try {
+                    reader.setRegistration(reader.getChannel().register(selector, SelectionKey.OP_READ, reader), resumed);
+                } catch (IOException e) {
+                    reader.handleFailure(e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.protocol.mgmt;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.net.InetAddress;
+
+import org.jboss.as.protocol.ChunkyByteInput;
+import org.jboss.as.protocol.ChunkyByteOutput;
+import org.jboss.as.protocol.Connection;
+import org.jboss.as.protocol.MessageHandler;
+import static org.jboss.marshalling.Marshalling.createByteOutput;
+
+/**
+ * A {@link Connection} view of a single management request which is carried inline in one protocol message.  Each
+ * message written to or read from this connection is a chunked section of the underlying message, following a
+ * protocol header and an {@link ManagementProtocol#INLINE_MESSAGES} marker.  This lets the existing
+ * {@link ManagementRequest} and {@link ManagementResponse} message handler chains run unchanged, while the whole
+ * request and the whole response each take up a single message on the shared connection.
+ *
+ * @author John Bailey
+ */
+final class InlineConnection implements Connection {
+    private final Connection connection;
+    private final ManagementProtocolHeader header;
+    private volatile MessageHandler messageHandler;
+    private volatile Object attachment;
+    // written by one thread at a time
+    private OutputStream frame;
+
+    /**
+     * Create a new instance.
+     *
+     * @param connection the underlying connection
+     * @param header the header to write at the start of the outgoing message
+     * @param messageHandler the handler for the first incoming inline message
+     */
+    InlineConnection(final Connection connection, final ManagementProtocolHeader header, final MessageHandler messageHandler) {
+        this.connection = connection;
+        this.header = header;
+        this.messageHandler = messageHandler;
+    }
+
+    /** {@inheritDoc} */
+    public OutputStream writeMessage() throws IOException {
+        OutputStream frame = this.frame;
+        if (frame == null) {
+            frame = connection.writeMessage();
+            final DataOutputStream output = new DataOutputStream(frame);
+            header.write(output);
+            output.writeByte(ManagementProtocol.INLINE_MESSAGES);
+            output.flush();
+            this.frame = frame;
+        }
+        return new InlineMessageOutputStream(frame);
+    }
+
+    /**
+     * Writes to the underlying connection are shared with other requests, so they are not shut down.
+     */
+    public void shutdownWrites() throws IOException {
+    }
+
+    /**
+     * The underlying connection is shared with other requests, so it is not closed.
+     */
+    public void close() throws IOException {
+    }
+
+    /** {@inheritDoc} */
+    public void setMessageHandler(final MessageHandler messageHandler) {
+        if (messageHandler == null) {
+            throw new IllegalArgumentException("messageHandler is null");
+        }
+        this.messageHandler = messageHandler;
+    }
+
+    /** {@inheritDoc} */
+    public InetAddress getPeerAddress() {
+        return connection.getPeerAddress();
+    }
+
+    /** {@inheritDoc} */
+    public void attach(final Object attachment) {
+        this.attachment = attachment;
+    }
+
+    /** {@inheritDoc} */
+    public Object getAttachment() {
+        return attachment;
+    }
+
+    /**
+     * Pass each inline message remaining in the input to the current message handler, in order.
+     *
+     * @param input the rest of the underlying message, positioned after the {@link ManagementProtocol#INLINE_MESSAGES} marker
+     * @throws IOException if an I/O error occurs
+     */
+    void readMessages(final InputStream input) throws IOException {
+        final PushbackInputStream pushbackInput = new PushbackInputStream(input);
+        for (;;) {
+            final int b = pushbackInput.read();
+            if (b == -1) {
+                return;
+            }
+            pushbackInput.unread(b);
+            final ChunkyByteInput message = new ChunkyByteInput(pushbackInput);
+            try {
+                messageHandler.handleMessage(this, message);
+            } finally {
+                message.close();
+            }
+        }
+    }
+
+    /**
+     * Conclude the outgoing message, if one was started.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    void finishWrites() throws IOException {
+        final OutputStream frame = this.frame;
+        if (frame != null) {
+            this.frame = null;
+            frame.close();
+        }
+    }
+
+    private static final class InlineMessageOutputStream extends OutputStream {
+        private final ChunkyByteOutput output;
+        private boolean closed;
+
+        InlineMessageOutputStream(final OutputStream frame) {
+            output = new ChunkyByteOutput(createByteOutput(frame));
+        }
+
+        public void write(final int b) throws IOException {
+            checkClosed();
+            output.write(b);
+        }
+
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            checkClosed();
+            output.write(b, off, len);
+        }
+
+        public void close() throws IOException {
+            if (! closed) {
+                closed = true;
+                output.close();
+            }
+        }
+
+        private void checkClosed() throws IOException {
+            if (closed) {
+                throw new IOException("Stream is closed");
+            }
+        }
+    }
+}
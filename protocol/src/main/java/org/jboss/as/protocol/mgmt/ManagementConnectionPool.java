@@ -0,0 +1,223 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.protocol.mgmt;
+
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.net.SocketFactory;
+
+import org.jboss.as.protocol.Connection;
+import org.jboss.as.protocol.MessageHandler;
+import org.jboss.as.protocol.ProtocolClient;
+import static org.jboss.as.protocol.ProtocolUtils.expectHeader;
+import static org.jboss.as.protocol.StreamUtils.safeClose;
+import org.jboss.logging.Logger;
+
+/**
+ * A pool of long-lived management connections to one remote endpoint.  Requests executed through a
+ * {@link ManagementRequestConnectionStrategy.PooledConnectionStrategy} are written as a single inline message and
+ * are answered with a single inline message, so there is no connection setup and no header exchange per request.
+ * Any number of requests may be in flight on each connection at once; responses are matched to their requests by the
+ * request id in the {@link ManagementRequestHeader}.  Connections are opened lazily, up to the configured maximum,
+ * and are replaced if they fail.
+ *
+ * @author John Bailey
+ */
+public final class ManagementConnectionPool implements Closeable {
+    private static final Logger log = Logger.getLogger("org.jboss.as.management");
+
+    private final InetAddress address;
+    private final int port;
+    private final int connectTimeout;
+    private final ExecutorService executorService;
+    private final ThreadFactory threadFactory;
+    private final AtomicInteger requestIds = new AtomicInteger();
+
+    // protected by {@code this}
+    private final PooledConnection[] connections;
+    // protected by {@code this}
+    private int next;
+    // protected by {@code this}
+    private boolean closed;
+
+    /**
+     * Create a new pool.
+     *
+     * @param address the address to connect to
+     * @param port the port to connect to
+     * @param connectTimeout the connect timeout, in milliseconds
+     * @param maxConnections the maximum number of connections to open
+     * @param executorService the executor used to handle responses
+     * @param threadFactory the thread factory for the connection read threads
+     */
+    public ManagementConnectionPool(final InetAddress address, final int port, final int connectTimeout, final int maxConnections, final ExecutorService executorService, final ThreadFactory threadFactory) {
+        if (maxConnections < 1) {
+            throw new IllegalArgumentException("maxConnections must be at least 1");
+        }
+        this.address = address;
+        this.port = port;
+        this.connectTimeout = connectTimeout;
+        this.executorService = executorService;
+        this.threadFactory = threadFactory;
+        connections = new PooledConnection[maxConnections];
+    }
+
+    /**
+     * Send a request over one of the pooled connections.
+     *
+     * @param request the request
+     * @throws IOException if the request could not be sent
+     */
+    void execute(final ManagementRequest<?> request) throws IOException {
+        getConnection().execute(request);
+    }
+
+    private synchronized PooledConnection getConnection() throws IOException {
+        if (closed) {
+            throw new IOException("Connection pool is closed");
+        }
+        final int index = next;
+        next = (index + 1) % connections.length;
+        PooledConnection connection = connections[index];
+        if (connection == null || ! connection.open) {
+            connection = new PooledConnection();
+            final ProtocolClient.Configuration config = new ProtocolClient.Configuration();
+            config.setMessageHandler(connection);
+            config.setConnectTimeout(connectTimeout);
+            config.setReadExecutor(executorService);
+            config.setSocketFactory(SocketFactory.getDefault());
+            config.setServerAddress(new InetSocketAddress(address, port));
+            config.setThreadFactory(threadFactory);
+            connection.connection = new ProtocolClient(config).connect();
+            connections[index] = connection;
+        }
+        return connection;
+    }
+
+    /**
+     * Close all pooled connections.  Requests which are still in flight fail.
+     */
+    public void close() {
+        final PooledConnection[] toClose;
+        synchronized (this) {
+            closed = true;
+            toClose = connections.clone();
+            for (int i = 0; i < connections.length; i++) {
+                connections[i] = null;
+            }
+        }
+        for (PooledConnection connection : toClose) {
+            if (connection != null) {
+                connection.open = false;
+                safeClose(connection.connection);
+                connection.failAll(new EOFException("Connection pool closed"));
+            }
+        }
+    }
+
+    private final class PooledConnection implements MessageHandler {
+        private final Map<Integer, InlineConnection> pending = new ConcurrentHashMap<Integer, InlineConnection>();
+        private volatile Connection connection;
+        private volatile boolean open = true;
+
+        void execute(final ManagementRequest<?> request) throws IOException {
+            final int requestId = requestIds.incrementAndGet();
+            final InlineConnection inlineConnection = new InlineConnection(connection, new ManagementRequestHeader(ManagementProtocol.VERSION, requestId, request.getHandlerId()), request);
+            inlineConnection.attach(request);
+            pending.put(Integer.valueOf(requestId), inlineConnection);
+            boolean ok = false;
+            try {
+                request.sendRequest(ManagementProtocol.VERSION, inlineConnection);
+                inlineConnection.finishWrites();
+                ok = true;
+            } finally {
+                if (! ok) {
+                    pending.remove(Integer.valueOf(requestId));
+                    // a partially written request can not be recovered from
+                    open = false;
+                    safeClose(connection);
+                }
+            }
+        }
+
+        public void handleMessage(final Connection connection, final InputStream dataStream) throws IOException {
+            try {
+                final DataInput input = new DataInputStream(dataStream);
+                final ManagementResponseHeader responseHeader = new ManagementResponseHeader(input);
+                expectHeader(input, ManagementProtocol.INLINE_MESSAGES);
+                final InlineConnection inlineConnection = pending.remove(Integer.valueOf(responseHeader.getResponseId()));
+                if (inlineConnection == null) {
+                    throw new IOException("No request found for response id " + responseHeader.getResponseId());
+                }
+                final ManagementRequest<?> request = (ManagementRequest<?>) inlineConnection.getAttachment();
+                try {
+                    inlineConnection.readMessages(dataStream);
+                } catch (IOException e) {
+                    request.failed(e);
+                    throw e;
+                }
+                request.failed(new EOFException("Incomplete response for request " + responseHeader.getResponseId()));
+            } finally {
+                safeClose(dataStream);
+            }
+        }
+
+        public void handleShutdown(final Connection connection) throws IOException {
+            open = false;
+            connection.shutdownWrites();
+            failAll(new EOFException("Connection closed by peer"));
+        }
+
+        public void handleFailure(final Connection connection, final IOException e) throws IOException {
+            log.debugf(e, "Pooled management connection failed");
+            open = false;
+            connection.close();
+            failAll(e);
+        }
+
+        public void handleFinished(final Connection connection) throws IOException {
+            open = false;
+            failAll(new EOFException("Connection closed"));
+        }
+
+        void failAll(final IOException e) {
+            for (Integer requestId : pending.keySet()) {
+                final InlineConnection inlineConnection = pending.remove(requestId);
+                if (inlineConnection != null) {
+                    ((ManagementRequest<?>) inlineConnection.getAttachment()).failed(e);
+                }
+            }
+        }
+    }
+}
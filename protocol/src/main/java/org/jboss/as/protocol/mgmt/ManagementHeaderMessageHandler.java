@@ -0,0 +1,216 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.protocol.mgmt;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.jboss.as.protocol.ByteDataOutput;
+import org.jboss.as.protocol.Connection;
+import org.jboss.as.protocol.MessageHandler;
+import org.jboss.as.protocol.SimpleByteDataInput;
+import org.jboss.as.protocol.SimpleByteDataOutput;
+import static org.jboss.as.protocol.StreamUtils.safeClose;
+import org.jboss.logging.Logger;
+
+/**
+ * Message handler for new management connections.  Reads the {@link ManagementRequestHeader} and hands the connection
+ * over to the {@link ManagementOperationHandler} it names.  If the header is followed by
+ * {@link ManagementProtocol#INLINE_MESSAGES}, the whole request is contained in the same message; the response is
+ * written back as a single message, and the connection stays ready for the next request.  Given an executor, each
+ * inline request is read into memory and handled on the executor, so that a slow request does not hold up the ones
+ * after it; the client matches the responses, which may come back in any order, to its requests by request id.
+ * Requests larger than {@value #MAX_DISPATCHED_REQUEST_SIZE} bytes, such as content uploads, are still handled as
+ * they are read.
+ *
+ * @author John Bailey
+ */
+public abstract class ManagementHeaderMessageHandler implements MessageHandler {
+    private static final Logger log = Logger.getLogger("org.jboss.as.management");
+
+    /** The size of the largest inline request which is handled on the executor. */
+    public static final int MAX_DISPATCHED_REQUEST_SIZE = 65536;
+
+    private final Executor executor;
+
+    /**
+     * Create a handler which handles inline requests one after the other, as they are read.
+     */
+    protected ManagementHeaderMessageHandler() {
+        this(null);
+    }
+
+    /**
+     * Create a handler which handles inline requests concurrently.
+     *
+     * @param executor the executor to handle inline requests on, or {@code null} to handle them as they are read
+     */
+    protected ManagementHeaderMessageHandler(final Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Get the operation handler registered for an id.
+     *
+     * @param handlerId the handler id from the request header
+     * @return the handler, or {@code null} if there is none
+     */
+    protected abstract ManagementOperationHandler getHandler(byte handlerId);
+
+    /** {@inheritDoc} */
+    public void handleMessage(Connection connection, InputStream dataStream) throws IOException {
+        final int workingVersion;
+        final ManagementRequestHeader requestHeader;
+        final ManagementOperationHandler handler;
+        SimpleByteDataInput input = null;
+        try {
+            input = new SimpleByteDataInput(dataStream);
+
+            // Start by reading the request header
+            requestHeader = new ManagementRequestHeader(input);
+
+            // Work with the lowest protocol version
+            workingVersion = Math.min(ManagementProtocol.VERSION, requestHeader.getVersion());
+
+            byte handlerId = requestHeader.getOperationHandlerId();
+            if (handlerId == -1) {
+                throw new IOException("Management request failed.  Invalid handler id");
+            }
+            handler = getHandler(handlerId);
+            if (handler == null) {
+                throw new IOException("Management request failed.  NO handler found for id" + handlerId);
+            }
+
+            final int next = input.read();
+            if (next == ManagementProtocol.INLINE_MESSAGES) {
+                handleInline(connection, new ManagementResponseHeader(workingVersion, requestHeader.getRequestId()), handler, input);
+                return;
+            } else if (next != -1) {
+                throw new IOException("Invalid byte token following request header '" + next + "'");
+            }
+            connection.setMessageHandler(handler);
+        } catch (IOException e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IOException("Failed to read request header", t);
+        } finally {
+            safeClose(input);
+            safeClose(dataStream);
+        }
+
+        OutputStream dataOutput = null;
+        ByteDataOutput output = null;
+        try {
+            dataOutput = connection.writeMessage();
+            output = new SimpleByteDataOutput(dataOutput);
+
+            // Now write the response header
+            final ManagementResponseHeader responseHeader = new ManagementResponseHeader(workingVersion, requestHeader.getRequestId());
+            responseHeader.write(output);
+
+            output.close();
+            dataOutput.close();
+        } catch (IOException e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IOException("Failed to write management response headers", t);
+        } finally {
+            safeClose(output);
+            safeClose(dataOutput);
+        }
+    }
+
+    private void handleInline(final Connection connection, final ManagementResponseHeader responseHeader, final MessageHandler handler, final InputStream input) throws IOException {
+        final Executor executor = this.executor;
+        if (executor == null) {
+            processInline(connection, responseHeader, handler, input);
+            return;
+        }
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        final byte[] bytes = new byte[8192];
+        boolean complete = false;
+        while (buffer.size() <= MAX_DISPATCHED_REQUEST_SIZE) {
+            final int read = input.read(bytes);
+            if (read == -1) {
+                complete = true;
+                break;
+            }
+            buffer.write(bytes, 0, read);
+        }
+        final InputStream request = new ByteArrayInputStream(buffer.toByteArray());
+        if (! complete) {
+            // too large to hold; handle it while the rest is read
+            processInline(connection, responseHeader, handler, new SequenceInputStream(request, input));
+            return;
+        }
+        try {
+            executor.execute(new Runnable() {
+                public void run() {
+                    try {
+                        processInline(connection, responseHeader, handler, request);
+                    } catch (IOException e) {
+                        log.debugf(e, "Failed to handle management request %d", Integer.valueOf(responseHeader.getResponseId()));
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            processInline(connection, responseHeader, handler, request);
+        }
+    }
+
+    private void processInline(final Connection connection, final ManagementResponseHeader responseHeader, final MessageHandler handler, final InputStream input) throws IOException {
+        final InlineConnection inlineConnection = new InlineConnection(connection, responseHeader, handler);
+        boolean ok = false;
+        try {
+            inlineConnection.readMessages(input);
+            inlineConnection.finishWrites();
+            ok = true;
+        } finally {
+            if (! ok) {
+                // the response may have been cut short, so the connection can not be used any longer
+                safeClose(connection);
+            }
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void handleShutdown(final Connection connection) throws IOException {
+        connection.shutdownWrites();
+    }
+
+    /** {@inheritDoc} */
+    public void handleFailure(final Connection connection, final IOException e) throws IOException {
+        connection.close();
+    }
+
+    /** {@inheritDoc} */
+    public void handleFinished(final Connection connection) throws IOException {
+        // nothing
+    }
+}
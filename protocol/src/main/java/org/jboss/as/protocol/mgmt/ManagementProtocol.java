@@ -38,6 +38,7 @@ public interface ManagementProtocol {
     int RESPONSE_START = 0x05;
     int RESPONSE_BODY = 0x06;
     int RESPONSE_END = 0x07;
+    int INLINE_MESSAGES = 0x08; // The rest of the request or response follows its header in the same message
 
 
 }
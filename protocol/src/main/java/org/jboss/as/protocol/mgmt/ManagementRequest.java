@@ -70,10 +70,20 @@ public abstract class ManagementRequest<T> extends AbstractMessageHandler {
      */
     public Future<T> execute(final ManagementRequestConnectionStrategy connectionStrategy) throws IOException {
         this.connectionStrategy = connectionStrategy;
+        return connectionStrategy.execute(this);
+    }
+
+    /**
+     * Execute the request over a connection of its own, starting with the header exchange.
+     *
+     * @param connection The connection
+     * @return A future to retrieve the result when the request is complete
+     * @throws IOException if any problems occur
+     */
+    Future<T> execute(final Connection connection) throws IOException {
         OutputStream dataOutput = null;
         ByteDataOutput output = null;
         try {
-            final Connection connection = connectionStrategy.getConnection();
             connection.setMessageHandler(initiatingMessageHandler);
             dataOutput = connection.writeMessage();
             output = new SimpleByteDataOutput(dataOutput);
@@ -205,6 +215,19 @@ public abstract class ManagementRequest<T> extends AbstractMessageHandler {
         return null;
     }
 
+    Future<T> getFuture() {
+        return future;
+    }
+
+    /**
+     * Fail the request, unless it has already completed.
+     *
+     * @param e the cause of the failure
+     */
+    void failed(final Exception e) {
+        future.setException(e);
+    }
+
     private final class ResponseFuture<R> implements Future<R>{
         private volatile R result;
         private volatile Exception exception;
@@ -263,7 +286,20 @@ public abstract class ManagementRequest<T> extends AbstractMessageHandler {
         }
 
         public R get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
-            return null;
+            final long deadline = System.nanoTime() + unit.toNanos(timeout);
+            synchronized (this) {
+                while (!valueSet.get()) {
+                    final long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0L) {
+                        throw new TimeoutException();
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                }
+            }
+            if (exception != null) {
+                throw new ExecutionException(exception);
+            }
+            return result;
         }
     }
 }
@@ -26,6 +26,7 @@ import java.io.IOException;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import javax.net.SocketFactory;
@@ -41,12 +42,14 @@ import static org.jboss.as.protocol.StreamUtils.safeClose;
  */
 public interface ManagementRequestConnectionStrategy {
     /**
-     * Get the connection for the request.
+     * Send the request, and return a future used to get the response when complete.
      *
-     * @return The connection
-     * @throws IOException If any problems occure getting the connection.
+     * @param request The request
+     * @param <T> The type of the response
+     * @return A future to retrieve the result when the request is complete
+     * @throws IOException If any problems occur sending the request
      */
-    Connection getConnection() throws IOException;
+    <T> Future<T> execute(ManagementRequest<T> request) throws IOException;
 
     /**
      * Called when the request is complete.  This can be used to cleanup or close the connection.
@@ -64,8 +67,8 @@ public interface ManagementRequestConnectionStrategy {
         }
 
         /** {@inheritDoc} */
-        public Connection getConnection() throws IOException {
-            return connection;
+        public <T> Future<T> execute(final ManagementRequest<T> request) throws IOException {
+            return request.execute(connection);
         }
 
         /** {@inheritDoc} */
@@ -94,7 +97,11 @@ public interface ManagementRequestConnectionStrategy {
         }
 
         /** {@inheritDoc} */
-        public synchronized Connection getConnection() throws IOException {
+        public <T> Future<T> execute(final ManagementRequest<T> request) throws IOException {
+            return request.execute(getConnection());
+        }
+
+        private synchronized Connection getConnection() throws IOException {
             if (connection == null) {
                 final int timeout = (int) TimeUnit.SECONDS.toMillis(connectTimeout);
 
@@ -117,4 +124,28 @@ public interface ManagementRequestConnectionStrategy {
             safeClose(connection);
         }
     }
+
+    /**
+     * Strategy that sends requests over the shared connections of a {@link ManagementConnectionPool}.
+     */
+    static class PooledConnectionStrategy implements ManagementRequestConnectionStrategy {
+        private final ManagementConnectionPool connectionPool;
+
+        public PooledConnectionStrategy(final ManagementConnectionPool connectionPool) {
+            this.connectionPool = connectionPool;
+        }
+
+        /**
+         * {@inheritDoc}  The whole request goes out as one message over a shared connection, with no header exchange.
+         */
+        public <T> Future<T> execute(final ManagementRequest<T> request) throws IOException {
+            connectionPool.execute(request);
+            return request.getFuture();
+        }
+
+        /** {@inheritDoc} */
+        public void complete() {
+            // NOOP
+        }
+    }
 }
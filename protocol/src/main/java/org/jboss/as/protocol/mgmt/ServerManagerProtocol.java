@@ -69,4 +69,10 @@ public interface ServerManagerProtocol {
     int STOP_SERVER_RESPONSE = 0x62;
     int RESTART_SERVER_REQUEST = 0x63;
     int RESTART_SERVER_RESPONSE = 0x64;
+    int FETCH_DEPLOYMENT_CONTENT_REQUEST = 0x65;
+    int PARAM_DEPLOYMENT_HASH = 0x66;
+    int PARAM_SOURCE_ADDRESS = 0x67;
+    int PARAM_SOURCE_PORT = 0x68;
+    int RETURN_CONTENT_AVAILABLE = 0x69;
+    int FETCH_DEPLOYMENT_CONTENT_RESPONSE = 0x70;
 }
@@ -24,36 +24,88 @@ package org.jboss.as.protocol;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.Test;
 import static org.junit.Assert.*;
 
 /**
  * @author <a href="mailto:david.lloyd@redhat.com">David M. Lloyd</a>
  */
-public final class PipeTest {
+public final class MessageInputStreamTest {
 
     private static final long SEED = 123L;
 
     @Test
     public void testClose() throws Exception {
-        Pipe pipe = new Pipe(8192);
-        InputStream in = pipe.getIn();
-        OutputStream out = pipe.getOut();
-        out.close();
+        final BufferPool pool = new BufferPool(8192, 4);
+        final MessageInputStream in = new MessageInputStream(pool, 4, null);
+        in.finish();
+        assertEquals(-1, in.read());
+        // should not throw exception
+        in.close();
+        // should be idempotent
+        in.close();
         try {
-            out.write(0);
+            in.read();
             fail("Expected exception");
         } catch (IOException expected) {
         }
+        // should return immediately
+        in.await();
+        // should not block, even past the limit
+        for (int i = 0; i < 8; i++) {
+            in.push(pool.allocate());
+        }
+    }
+
+    @Test
+    public void testFail() throws Exception {
+        final BufferPool pool = new BufferPool(16, 4);
+        final MessageInputStream in = new MessageInputStream(pool, 4, null);
+        in.push(filled(pool, 3));
+        in.fail(new IOException("Test failure"));
+        assertEquals(3, in.read(new byte[16]));
+        try {
+            in.read();
+            fail("Expected exception");
+        } catch (IOException expected) {
+        }
+        in.close();
+    }
+
+    @Test
+    public void testOffer() throws Exception {
+        final BufferPool pool = new BufferPool(16, 4);
+        final AtomicInteger resumed = new AtomicInteger();
+        final MessageInputStream in = new MessageInputStream(pool, 4, new Runnable() {
+            public void run() {
+                resumed.incrementAndGet();
+            }
+        });
+        assertTrue(in.offer(filled(pool, 16)));
+        assertTrue(in.offer(filled(pool, 16)));
+        assertTrue(in.offer(filled(pool, 16)));
+        assertFalse(in.offer(filled(pool, 16)));
+        final byte[] bytes = new byte[16];
+        StreamUtils.readFully(in, bytes);
+        assertEquals(0, resumed.get());
+        StreamUtils.readFully(in, bytes);
+        assertEquals(1, resumed.get());
+        in.finish();
+        StreamUtils.readFully(in, bytes);
+        StreamUtils.readFully(in, bytes);
         assertEquals(-1, in.read());
-        // should be idempotent
-        out.close();
-        // should not throw exception
         in.close();
-        // should return immediately
-        pipe.await();
+        assertEquals(1, resumed.get());
+    }
+
+    private static ByteBuffer filled(final BufferPool pool, final int size) {
+        final ByteBuffer buffer = pool.allocate();
+        buffer.put(new byte[size]);
+        buffer.flip();
+        return buffer;
     }
 
     static int[] ints(int... v) {
@@ -70,8 +122,8 @@ public final class PipeTest {
                     System.out.printf("Buffer size: %d; piece size: %d; piece count %d\n", Integer.valueOf(bufSize), Integer.valueOf(pieceSize), Integer.valueOf(pieceCnt));
                     final int finalSize = pieceCnt * pieceSize;
 
-                    final Pipe pipe = new Pipe(bufSize);
-                    InputStream in = pipe.getIn();
+                    final BufferPool pool = new BufferPool(bufSize, 16);
+                    final MessageInputStream in = new MessageInputStream(pool, 4, null);
 
                     // fire up the write thread
                     thread = new Thread(new Runnable() {
@@ -79,13 +131,25 @@ public final class PipeTest {
                             final Random rng = new Random(SEED);
                             final byte[] piece = new byte[pieceSize];
                             try {
-                                OutputStream out = pipe.getOut();
+                                ByteBuffer buffer = pool.allocate();
                                 for (int i = 0; i < pieceCnt; i++) {
                                     rng.nextBytes(piece);
-                                    out.write(piece);
+                                    int pos = 0;
+                                    while (pos < pieceSize) {
+                                        final int cnt = Math.min(pieceSize - pos, buffer.remaining());
+                                        buffer.put(piece, pos, cnt);
+                                        pos += cnt;
+                                        if (! buffer.hasRemaining()) {
+                                            buffer.flip();
+                                            in.push(buffer);
+                                            buffer = pool.allocate();
+                                        }
+                                    }
                                 }
-                                out.close();
-                                pipe.await();
+                                buffer.flip();
+                                in.push(buffer);
+                                in.finish();
+                                in.await();
                             } catch (IOException e) {
                                 e.printStackTrace(System.err);
                                 System.err.flush();
@@ -99,11 +163,7 @@ public final class PipeTest {
                     while (remaining > 0) {
                         byte[] buf1 = new byte[Math.min(pieceSize, remaining)];
                         byte[] buf2 = new byte[buf1.length];
-                        try {
-                            StreamUtils.readFully(in, buf1);
-                        } catch (IOException e) {
-                            thread.isDaemon();
-                        }
+                        StreamUtils.readFully(in, buf1);
                         rng1.nextBytes(buf2);
                         assertArrayEquals("Failure at remaining = " + remaining, buf1, buf2);
                         remaining -= buf1.length;
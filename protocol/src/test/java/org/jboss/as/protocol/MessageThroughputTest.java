@@ -0,0 +1,202 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.protocol;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.net.ServerSocketFactory;
+import javax.net.SocketFactory;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Measures message throughput over a loopback connection for small, medium and large messages, on both the
+ * thread-per-connection and the selector based transport.  By default only a few MB are sent, with a 1 MB large
+ * message, which checks that every message arrives intact.  Set the {@code org.jboss.as.test.benchmark} system
+ * property to {@code true} to send about 64 MB of each size, with a 100 MB large message, and print the throughput;
+ * the large message size can also be set with the {@code org.jboss.as.protocol.test.large-message-size} system
+ * property.
+ *
+ * @author <a href="mailto:david.lloyd@redhat.com">David M. Lloyd</a>
+ */
+public final class MessageThroughputTest {
+
+    private static final boolean BENCHMARK = Boolean.getBoolean("org.jboss.as.test.benchmark");
+    private static final int LARGE_MESSAGE_SIZE = Integer.getInteger("org.jboss.as.protocol.test.large-message-size", BENCHMARK ? 100 << 20 : 1 << 20).intValue();
+    // about 64 MB for each of the smaller sizes when benchmarking, 1 MB otherwise
+    private static final int SMALL_MESSAGE_SIZE = 1 << 10;
+    private static final int SMALL_MESSAGE_COUNT = BENCHMARK ? 1 << 16 : 1 << 10;
+    private static final int MEDIUM_MESSAGE_SIZE = 64 << 10;
+    private static final int MEDIUM_MESSAGE_COUNT = BENCHMARK ? 1 << 10 : 1 << 4;
+
+    @Test
+    public void testBlockingThroughput() throws Exception {
+        runThroughput(null);
+    }
+
+    @Test
+    public void testSelectorThroughput() throws Exception {
+        final SelectorPool selectorPool = new SelectorPool(Executors.defaultThreadFactory(), 1);
+        selectorPool.start();
+        try {
+            runThroughput(selectorPool);
+        } finally {
+            selectorPool.stop();
+        }
+    }
+
+    private static void runThroughput(final SelectorPool selectorPool) throws Exception {
+        final String transport = selectorPool == null ? "blocking" : "selector";
+        final ExecutorService readExecutor = Executors.newCachedThreadPool();
+        final CountingMessageHandler handler = new CountingMessageHandler();
+        ProtocolServer server = null;
+        Connection connection = null;
+        try {
+            final ProtocolServer.Configuration serverConfig = new ProtocolServer.Configuration();
+            serverConfig.setBindAddress(new InetSocketAddress(InetAddress.getByName("127.0.0.1"), 0));
+            serverConfig.setThreadFactory(Executors.defaultThreadFactory());
+            serverConfig.setSocketFactory(ServerSocketFactory.getDefault());
+            serverConfig.setReadExecutor(readExecutor);
+            serverConfig.setSelectorPool(selectorPool);
+            serverConfig.setConnectionHandler(new ConnectionHandler() {
+                public MessageHandler handleConnected(final Connection connection) throws IOException {
+                    return handler;
+                }
+            });
+            server = new ProtocolServer(serverConfig);
+            server.start();
+
+            final ProtocolClient.Configuration clientConfig = new ProtocolClient.Configuration();
+            clientConfig.setServerAddress(server.getBoundAddress());
+            clientConfig.setThreadFactory(Executors.defaultThreadFactory());
+            clientConfig.setSocketFactory(SocketFactory.getDefault());
+            clientConfig.setReadExecutor(readExecutor);
+            clientConfig.setSelectorPool(selectorPool);
+            clientConfig.setMessageHandler(MessageHandler.NULL);
+            connection = new ProtocolClient(clientConfig).connect();
+
+            // warm up
+            send(connection, handler, SMALL_MESSAGE_SIZE, SMALL_MESSAGE_COUNT >> 4);
+
+            report(transport, SMALL_MESSAGE_SIZE, SMALL_MESSAGE_COUNT, send(connection, handler, SMALL_MESSAGE_SIZE, SMALL_MESSAGE_COUNT));
+            report(transport, MEDIUM_MESSAGE_SIZE, MEDIUM_MESSAGE_COUNT, send(connection, handler, MEDIUM_MESSAGE_SIZE, MEDIUM_MESSAGE_COUNT));
+            report(transport, LARGE_MESSAGE_SIZE, 1, send(connection, handler, LARGE_MESSAGE_SIZE, 1));
+        } finally {
+            StreamUtils.safeClose(connection);
+            if (server != null) {
+                server.stop();
+            }
+            readExecutor.shutdown();
+        }
+    }
+
+    private static long send(final Connection connection, final CountingMessageHandler handler, final int messageSize, final int messageCount) throws Exception {
+        final byte[] block = new byte[Math.min(messageSize, 64 << 10)];
+        for (int i = 0; i < block.length; i++) {
+            block[i] = (byte) i;
+        }
+        handler.expect(messageSize, messageCount);
+        final long start = System.nanoTime();
+        for (int i = 0; i < messageCount; i++) {
+            final OutputStream os = connection.writeMessage();
+            try {
+                int remaining = messageSize;
+                while (remaining > 0) {
+                    final int cnt = Math.min(remaining, block.length);
+                    os.write(block, 0, cnt);
+                    remaining -= cnt;
+                }
+                os.close();
+            } finally {
+                StreamUtils.safeClose(os);
+            }
+        }
+        assertTrue("Timed out waiting for messages", handler.await(120L, TimeUnit.SECONDS));
+        final long time = System.nanoTime() - start;
+        assertEquals("Messages with the wrong size", 0, handler.getBadMessages());
+        return time;
+    }
+
+    private static void report(final String transport, final int messageSize, final int messageCount, final long nanos) {
+        if (! BENCHMARK) {
+            return;
+        }
+        final double seconds = nanos / (double) TimeUnit.SECONDS.toNanos(1L);
+        System.out.printf("%s transport, %d byte messages: %.0f messages/s, %.1f MB/s\n", transport, Integer.valueOf(messageSize),
+                Double.valueOf(messageCount / seconds), Double.valueOf((double) messageSize * messageCount / seconds / (1 << 20)));
+    }
+
+    private static final class CountingMessageHandler implements MessageHandler {
+        private final byte[] buffer = new byte[8192];
+        private final AtomicInteger badMessages = new AtomicInteger();
+        private volatile int messageSize;
+        private volatile CountDownLatch messages;
+
+        void expect(final int messageSize, final int messageCount) {
+            this.messageSize = messageSize;
+            badMessages.set(0);
+            messages = new CountDownLatch(messageCount);
+        }
+
+        boolean await(final long timeout, final TimeUnit unit) throws InterruptedException {
+            return messages.await(timeout, unit);
+        }
+
+        int getBadMessages() {
+            return badMessages.get();
+        }
+
+        public void handleMessage(final Connection connection, final InputStream dataStream) throws IOException {
+            // messages on one connection are handled one at a time, so the buffer is not shared
+            long size = 0L;
+            int res;
+            while ((res = dataStream.read(buffer)) != -1) {
+                size += res;
+            }
+            if (size != messageSize) {
+                badMessages.incrementAndGet();
+            }
+            messages.countDown();
+        }
+
+        public void handleShutdown(final Connection connection) throws IOException {
+            connection.shutdownWrites();
+        }
+
+        public void handleFailure(final Connection connection, final IOException e) throws IOException {
+            connection.close();
+        }
+
+        public void handleFinished(final Connection connection) throws IOException {
+        }
+    }
+}
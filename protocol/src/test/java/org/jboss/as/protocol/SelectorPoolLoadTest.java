@@ -0,0 +1,183 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.protocol;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Load test for the selector based transport.  Opens a large number of connections through one {@link SelectorPool},
+ * exchanges a message on each, and reports the thread count and heap used per connection.  Each connection takes two
+ * file descriptors, so the number of connections defaults to 50 to stay well inside the usual limit; for a real load
+ * run, set the {@code org.jboss.as.protocol.test.connections} system property, e.g. to 1000 along with a raised
+ * {@code ulimit -n}.
+ *
+ * @author <a href="mailto:david.lloyd@redhat.com">David M. Lloyd</a>
+ */
+public final class SelectorPoolLoadTest {
+
+    private static final int CONNECTIONS = Integer.getInteger("org.jboss.as.protocol.test.connections", 50).intValue();
+    private static final int SELECTOR_THREADS = 2;
+    private static final int READ_THREADS = 4;
+
+    @Test
+    public void testManyConnections() throws Exception {
+        final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        final ExecutorService readExecutor = Executors.newFixedThreadPool(READ_THREADS);
+        final SelectorPool selectorPool = new SelectorPool(Executors.defaultThreadFactory(), SELECTOR_THREADS);
+        final List<Connection> connections = new ArrayList<Connection>(CONNECTIONS);
+        ProtocolServer server = null;
+        try {
+            // start the read threads up front so they are part of the baseline
+            for (int i = 0; i < READ_THREADS; i ++) {
+                readExecutor.submit(new Runnable() {
+                    public void run() {
+                    }
+                }).get();
+            }
+            final int baseThreads = threadMXBean.getThreadCount();
+            final long baseMemory = usedMemory();
+
+            selectorPool.start();
+            final ProtocolServer.Configuration serverConfig = new ProtocolServer.Configuration();
+            serverConfig.setBindAddress(new InetSocketAddress(InetAddress.getByName("127.0.0.1"), 0));
+            serverConfig.setBacklog(CONNECTIONS);
+            serverConfig.setThreadFactory(Executors.defaultThreadFactory());
+            serverConfig.setReadExecutor(readExecutor);
+            serverConfig.setSelectorPool(selectorPool);
+            serverConfig.setConnectionHandler(new ConnectionHandler() {
+                public MessageHandler handleConnected(final Connection connection) throws IOException {
+                    return new EchoMessageHandler();
+                }
+            });
+            server = new ProtocolServer(serverConfig);
+            server.start();
+
+            final CountDownLatch replies = new CountDownLatch(CONNECTIONS);
+            final AtomicInteger badReplies = new AtomicInteger();
+            final ProtocolClient.Configuration clientConfig = new ProtocolClient.Configuration();
+            clientConfig.setServerAddress(server.getBoundAddress());
+            clientConfig.setReadExecutor(readExecutor);
+            clientConfig.setSelectorPool(selectorPool);
+            clientConfig.setMessageHandler(new MessageHandler() {
+                public void handleMessage(final Connection connection, final InputStream dataStream) throws IOException {
+                    if (! "ping".equals(readString(dataStream))) {
+                        badReplies.incrementAndGet();
+                    }
+                    replies.countDown();
+                }
+
+                public void handleShutdown(final Connection connection) throws IOException {
+                }
+
+                public void handleFailure(final Connection connection, final IOException e) throws IOException {
+                    connection.close();
+                }
+
+                public void handleFinished(final Connection connection) throws IOException {
+                }
+            });
+            final ProtocolClient client = new ProtocolClient(clientConfig);
+            for (int i = 0; i < CONNECTIONS; i ++) {
+                final Connection connection = client.connect();
+                connections.add(connection);
+                final OutputStream os = connection.writeMessage();
+                os.write("ping".getBytes("US-ASCII"));
+                os.close();
+            }
+            assertTrue("Timed out waiting for replies", replies.await(60L, TimeUnit.SECONDS));
+            assertEquals(0, badReplies.get());
+
+            final int threads = threadMXBean.getThreadCount() - baseThreads;
+            final long memory = usedMemory() - baseMemory;
+            System.out.printf("Connections: %d (client and server side); extra threads: %d; heap per connection: %d bytes\n",
+                    Integer.valueOf(CONNECTIONS * 2), Integer.valueOf(threads), Long.valueOf(memory / (CONNECTIONS * 2)));
+            // the selector threads plus the accept thread
+            assertTrue("Thread count grew by " + threads, threads <= SELECTOR_THREADS + 1);
+        } finally {
+            for (Connection connection : connections) {
+                StreamUtils.safeClose(connection);
+            }
+            if (server != null) {
+                server.stop();
+            }
+            selectorPool.stop();
+            readExecutor.shutdown();
+        }
+    }
+
+    static long usedMemory() throws InterruptedException {
+        final Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i ++) {
+            System.gc();
+            Thread.sleep(50L);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    static String readString(final InputStream is) throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        StreamUtils.copyStream(is, baos);
+        return new String(baos.toByteArray(), "US-ASCII");
+    }
+
+    static final class EchoMessageHandler implements MessageHandler {
+
+        public void handleMessage(final Connection connection, final InputStream dataStream) throws IOException {
+            final OutputStream os = connection.writeMessage();
+            try {
+                StreamUtils.copyStream(dataStream, os);
+                os.close();
+            } finally {
+                StreamUtils.safeClose(os);
+            }
+        }
+
+        public void handleShutdown(final Connection connection) throws IOException {
+            connection.shutdownWrites();
+        }
+
+        public void handleFailure(final Connection connection, final IOException e) throws IOException {
+            connection.close();
+        }
+
+        public void handleFinished(final Connection connection) throws IOException {
+        }
+    }
+}
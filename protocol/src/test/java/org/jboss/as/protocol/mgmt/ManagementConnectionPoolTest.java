@@ -0,0 +1,253 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.protocol.mgmt;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import javax.net.ServerSocketFactory;
+
+import org.jboss.as.protocol.Connection;
+import org.jboss.as.protocol.ConnectionHandler;
+import org.jboss.as.protocol.MessageHandler;
+import org.jboss.as.protocol.ProtocolServer;
+import org.jboss.as.protocol.StreamUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.jboss.as.protocol.ProtocolUtils.expectHeader;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Checks requests sent through a {@link ManagementConnectionPool}, and compares the request rate with a new connection
+ * per request.  The number of requests per run can be changed with the
+ * {@code org.jboss.as.protocol.test.requests} system property.
+ *
+ * @author John Bailey
+ */
+public class ManagementConnectionPoolTest {
+    private static final int REQUESTS = Integer.getInteger("org.jboss.as.protocol.test.requests", 500).intValue();
+    private static final byte HANDLER_ID = 0x11;
+    private static final byte REQUEST_CODE = 0x20;
+    private static final byte RESPONSE_CODE = 0x21;
+    /** A request for this value is not answered until {@link #slowRequestLatch} is released */
+    private static final int SLOW_VALUE = -100;
+
+    private static volatile CountDownLatch slowRequestLatch;
+
+    private final ThreadFactory threadFactory = Executors.defaultThreadFactory();
+    private ExecutorService executorService;
+    private ProtocolServer server;
+
+    @Before
+    public void startServer() throws Exception {
+        executorService = Executors.newCachedThreadPool(threadFactory);
+        final ManagementOperationHandler operationHandler = new IncrementOperationHandler();
+        final ProtocolServer.Configuration config = new ProtocolServer.Configuration();
+        config.setBindAddress(new InetSocketAddress(InetAddress.getByName("127.0.0.1"), 0));
+        config.setThreadFactory(threadFactory);
+        config.setReadExecutor(executorService);
+        config.setSocketFactory(ServerSocketFactory.getDefault());
+        config.setBacklog(50);
+        config.setConnectionHandler(new ConnectionHandler() {
+            public MessageHandler handleConnected(final Connection connection) throws IOException {
+                return new ManagementHeaderMessageHandler(executorService) {
+                    protected ManagementOperationHandler getHandler(final byte handlerId) {
+                        return handlerId == HANDLER_ID ? operationHandler : null;
+                    }
+                };
+            }
+        });
+        server = new ProtocolServer(config);
+        server.start();
+    }
+
+    @After
+    public void stopServer() throws Exception {
+        server.stop();
+        executorService.shutdown();
+    }
+
+    @Test
+    public void testConcurrentRequests() throws Exception {
+        final ManagementConnectionPool pool = createPool(1);
+        final ExecutorService clients = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+            for (int i = 0; i < REQUESTS; i++) {
+                final int value = i;
+                results.add(clients.submit(new Callable<Integer>() {
+                    public Integer call() throws Exception {
+                        return new IncrementRequest(value).executeForResult(new ManagementRequestConnectionStrategy.PooledConnectionStrategy(pool));
+                    }
+                }));
+            }
+            for (int i = 0; i < REQUESTS; i++) {
+                assertEquals(Integer.valueOf(i + 1), results.get(i).get(30L, TimeUnit.SECONDS));
+            }
+        } finally {
+            clients.shutdown();
+            pool.close();
+        }
+    }
+
+    @Test
+    public void testSlowRequestDoesNotBlockOthers() throws Exception {
+        slowRequestLatch = new CountDownLatch(1);
+        final ManagementConnectionPool pool = createPool(1);
+        final ManagementRequestConnectionStrategy strategy = new ManagementRequestConnectionStrategy.PooledConnectionStrategy(pool);
+        try {
+            final Future<Integer> slow = new IncrementRequest(SLOW_VALUE).execute(strategy);
+            // sent on the same connection after the slow request
+            assertEquals(Integer.valueOf(2), new IncrementRequest(1).execute(strategy).get(10L, TimeUnit.SECONDS));
+            assertFalse(slow.isDone());
+            slowRequestLatch.countDown();
+            assertEquals(Integer.valueOf(SLOW_VALUE + 1), slow.get(10L, TimeUnit.SECONDS));
+        } finally {
+            slowRequestLatch.countDown();
+            pool.close();
+        }
+    }
+
+    @Test
+    public void testRequestRate() throws Exception {
+        final InetSocketAddress address = server.getBoundAddress();
+
+        // warm up both paths
+        runRequests(new ManagementRequestConnectionStrategy.EstablishConnectingStrategy(address.getAddress(), address.getPort(), 5L, executorService, threadFactory), 1);
+        final ManagementConnectionPool pool = createPool(1);
+        try {
+            final ManagementRequestConnectionStrategy pooled = new ManagementRequestConnectionStrategy.PooledConnectionStrategy(pool);
+            runRequests(pooled, 10);
+
+            // a new connection costs far more than a request, so sample fewer of them
+            final int connections = Math.max(1, REQUESTS / 10);
+            long start = System.nanoTime();
+            for (int i = 0; i < connections; i++) {
+                // this strategy is good for one request only
+                runRequests(new ManagementRequestConnectionStrategy.EstablishConnectingStrategy(address.getAddress(), address.getPort(), 5L, executorService, threadFactory), 1);
+            }
+            final long connectionPerRequest = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            runRequests(pooled, REQUESTS);
+            final long pooledTime = System.nanoTime() - start;
+
+            System.out.printf("Sequential requests: connection per request %.0f req/s, pooled %.0f req/s\n",
+                    Double.valueOf(rate(connections, connectionPerRequest)), Double.valueOf(rate(REQUESTS, pooledTime)));
+        } finally {
+            pool.close();
+        }
+    }
+
+    private static double rate(final int requests, final long nanos) {
+        return requests / (nanos / (double) TimeUnit.SECONDS.toNanos(1L));
+    }
+
+    private static void runRequests(final ManagementRequestConnectionStrategy strategy, final int count) throws Exception {
+        for (int i = 0; i < count; i++) {
+            assertEquals(Integer.valueOf(i + 1), new IncrementRequest(i).executeForResult(strategy));
+        }
+    }
+
+    private ManagementConnectionPool createPool(final int maxConnections) {
+        final InetSocketAddress address = server.getBoundAddress();
+        return new ManagementConnectionPool(address.getAddress(), address.getPort(), 5000, maxConnections, executorService, threadFactory);
+    }
+
+    private static class IncrementRequest extends ManagementRequest<Integer> {
+        private final int value;
+
+        IncrementRequest(final int value) {
+            this.value = value;
+        }
+
+        protected byte getHandlerId() {
+            return HANDLER_ID;
+        }
+
+        protected byte getRequestCode() {
+            return REQUEST_CODE;
+        }
+
+        protected byte getResponseCode() {
+            return RESPONSE_CODE;
+        }
+
+        protected void sendRequest(final int protocolVersion, final OutputStream output) throws IOException {
+            StreamUtils.writeInt(output, value);
+        }
+
+        protected Integer receiveResponse(final InputStream input) throws IOException {
+            return Integer.valueOf(StreamUtils.readInt(input));
+        }
+    }
+
+    private static class IncrementOperationHandler extends AbstractMessageHandler implements ManagementOperationHandler {
+        public byte getIdentifier() {
+            return HANDLER_ID;
+        }
+
+        public void handle(final Connection connection, final InputStream input) throws IOException {
+            expectHeader(input, ManagementProtocol.REQUEST_OPERATION);
+            expectHeader(input, REQUEST_CODE);
+            new IncrementResponse().handle(connection, input);
+        }
+    }
+
+    private static class IncrementResponse extends ManagementResponse {
+        private int value;
+
+        protected byte getResponseCode() {
+            return RESPONSE_CODE;
+        }
+
+        protected void readRequest(final InputStream input) throws IOException {
+            value = StreamUtils.readInt(input);
+            if (value == SLOW_VALUE) {
+                try {
+                    slowRequestLatch.await(30L, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        protected void sendResponse(final OutputStream output) throws IOException {
+            StreamUtils.writeInt(output, value + 1);
+        }
+    }
+}
@@ -22,6 +22,8 @@
 
 package org.jboss.as.service;
 
+import java.util.concurrent.Executor;
+
 import org.jboss.as.deployment.chain.DeploymentChain;
 import org.jboss.as.deployment.chain.DeploymentChainImpl;
 import org.jboss.as.deployment.chain.DeploymentChainProcessorInjector;
@@ -72,10 +74,12 @@ public final class SarSubsystemAdd extends AbstractSubsystemAdd<SarSubsystemElem
         final BatchBuilder batchBuilder = updateContext.getBatchBuilder();
         batchBuilder.addServiceValueIfNotExist(DeploymentChainProviderService.SERVICE_NAME, new DeploymentChainProviderService());
 
-        final Value<DeploymentChain> deploymentChainValue = Values.immediateValue((DeploymentChain)new DeploymentChainImpl(SAR_DEPLOYMENT_CHAIN_SERVICE_NAME.toString()))   ;
+        final DeploymentChainImpl deploymentChain = new DeploymentChainImpl(SAR_DEPLOYMENT_CHAIN_SERVICE_NAME.toString());
+        final Value<DeploymentChain> deploymentChainValue = Values.immediateValue((DeploymentChain)deploymentChain);
         final DeploymentChainService deploymentChainService = new DeploymentChainService(deploymentChainValue);
         batchBuilder.addService(SAR_DEPLOYMENT_CHAIN_SERVICE_NAME, deploymentChainService)
-            .addDependency(DeploymentChainProviderService.SERVICE_NAME, DeploymentChainProvider.class, new DeploymentChainProviderInjector<DeploymentChain>(deploymentChainValue, new SarDeploymentChainSelector(), SAR_DEPLOYMENT_CHAIN_PRIORITY));
+            .addDependency(DeploymentChainProviderService.SERVICE_NAME, DeploymentChainProvider.class, new DeploymentChainProviderInjector<DeploymentChain>(deploymentChainValue, new SarDeploymentChainSelector(), SAR_DEPLOYMENT_CHAIN_PRIORITY))
+            .addOptionalDependency(DeploymentChainImpl.EXECUTOR_NAME, Executor.class, deploymentChain.getExecutorInjector());
 
         addDeploymentProcessor(batchBuilder, new ManifestAttachmentProcessor(), ManifestAttachmentProcessor.PRIORITY);
         addDeploymentProcessor(batchBuilder, new ServiceActivatorDependencyProcessor(), ServiceActivatorDependencyProcessor.PRIORITY);
@@ -22,12 +22,14 @@
 
 package org.jboss.as.service;
 
+import org.jboss.as.deployment.AttachmentKey;
 import org.jboss.as.deployment.DeploymentPhases;
+import org.jboss.as.deployment.attachment.VirtualFileAttachment;
 import org.jboss.as.deployment.descriptor.JBossServiceXmlDescriptor;
 import org.jboss.as.deployment.descriptor.JBossServiceXmlDescriptorParser;
+import org.jboss.as.deployment.unit.ConcurrentDeploymentUnitProcessor;
 import org.jboss.as.deployment.unit.DeploymentUnitContext;
 import org.jboss.as.deployment.unit.DeploymentUnitProcessingException;
-import org.jboss.as.deployment.unit.DeploymentUnitProcessor;
 import org.jboss.as.model.ParseResult;
 import org.jboss.staxmapper.XMLMapper;
 import org.jboss.vfs.VFSUtils;
@@ -37,6 +39,8 @@ import javax.xml.namespace.QName;
 import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamReader;
 import java.io.InputStream;
+import java.util.Collection;
+import java.util.Collections;
 
 import static org.jboss.as.deployment.attachment.VirtualFileAttachment.getVirtualFileAttachment;
 
@@ -45,8 +49,10 @@ import static org.jboss.as.deployment.attachment.VirtualFileAttachment.getVirtua
  *
  * @author John E. Bailey
  */
-public class ServiceDeploymentParsingProcessor implements DeploymentUnitProcessor {
+public class ServiceDeploymentParsingProcessor implements ConcurrentDeploymentUnitProcessor {
     public static final long PRIORITY = DeploymentPhases.PARSE_DESCRIPTORS.plus(500L);
+    private static final Collection<AttachmentKey<?>> CONSUMED = Collections.<AttachmentKey<?>>singleton(VirtualFileAttachment.KEY);
+    private static final Collection<AttachmentKey<?>> PRODUCED = Collections.<AttachmentKey<?>>singleton(JBossServiceXmlDescriptor.ATTACHMENT_KEY);
 
     private final XMLMapper xmlMapper = XMLMapper.Factory.create();
     private final XMLInputFactory inputFactory = XMLInputFactory.newInstance();
@@ -98,4 +104,14 @@ public class ServiceDeploymentParsingProcessor implements DeploymentUnitProcesso
             VFSUtils.safeClose(xmlStream);
         }
     }
+
+    /** {@inheritDoc} */
+    public Collection<AttachmentKey<?>> getConsumedAttachments() {
+        return CONSUMED;
+    }
+
+    /** {@inheritDoc} */
+    public Collection<AttachmentKey<?>> getProducedAttachments() {
+        return PRODUCED;
+    }
 }
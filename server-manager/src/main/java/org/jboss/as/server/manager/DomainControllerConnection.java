@@ -22,6 +22,11 @@
 
 package org.jboss.as.server.manager;
 
+import java.net.InetSocketAddress;
+import java.util.Map;
+
+import org.jboss.as.domain.client.api.ServerIdentity;
+import org.jboss.as.domain.client.api.ServerStatus;
 import org.jboss.as.domain.controller.FileRepository;
 import org.jboss.as.model.DomainModel;
 import org.jboss.msc.service.ServiceName;
@@ -35,17 +40,28 @@ public interface DomainControllerConnection {
     ServiceName SERVICE_NAME = ServiceName.JBOSS.append("domain", "controller", "connection");
 
     /**
-     * Register with the domain controller.
+     * Register with the domain controller.  If a domain model is given and the domain controller still knows which
+     * updates it is missing, only those updates are transferred and applied to it.
      *
+     * @param domainModel The domain model held from an earlier registration, or {@code null} if there is none
      * @return The latest domain model
      */
-    DomainModel register();
+    DomainModel register(DomainModel domainModel);
 
     /*
      * Unregister from the domain controller.
      */
     void unregister();
 
+    /**
+     * Report server status transitions to the domain controller.  The report may be delivered asynchronously, in
+     * which case reports which have not been sent yet are merged, but reports are never reordered.
+     *
+     * @param statuses the servers whose status changed, along with their new status; servers which no longer exist
+     *      are reported as {@link ServerStatus#DOES_NOT_EXIST}
+     */
+    void serverStatusesChanged(Map<ServerIdentity, ServerStatus> statuses);
+
     /**
      * Get the file repository for the domain controller.  This can be used to pull contents from the domain
      * controllers repository.
@@ -53,4 +69,15 @@ public interface DomainControllerConnection {
      * @return The file repository
      */
     FileRepository getRemoteFileRepository();
+
+    /**
+     * Fetch the content of a deployment into the local repository ahead of the servers needing it, unless it is
+     * present already.  The content is verified against its hash before it is accepted.
+     *
+     * @param hash the SHA-1 of the content
+     * @param source the management address of a peer server manager to fetch the content from, or {@code null} to
+     *      fetch it from the domain controller
+     * @return {@code true} if the verified content is present in the local repository afterwards
+     */
+    boolean fetchDeploymentContent(byte[] hash, InetSocketAddress source);
 }
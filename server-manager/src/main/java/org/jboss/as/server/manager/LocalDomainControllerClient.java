@@ -22,6 +22,7 @@
 
 package org.jboss.as.server.manager;
 
+import java.net.InetSocketAddress;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -130,6 +131,20 @@ public class LocalDomainControllerClient implements ServerManagerClient {
         return serverManager.stopServer(serverName, gracefulTimeout);
     }
 
+    /**
+     * {@inheritDoc}  The local server manager shares the domain controller's repository, so it never needs to
+     * relay content to its peers.
+     */
+    @Override
+    public InetSocketAddress getManagementAddress() {
+        return null;
+    }
+
+    @Override
+    public boolean fetchDeploymentContent(final byte[] hash, final InetSocketAddress source) {
+        return serverManager.fetchDeploymentContent(hash, source);
+    }
+
     private ModelUpdateResponse<List<ServerIdentity>> executeUpdate(AbstractDomainModelUpdate<?> domainUpdate) {
         try {
             final List<ServerIdentity> result = serverManager.getModelManager().applyDomainModelUpdate(domainUpdate, false);
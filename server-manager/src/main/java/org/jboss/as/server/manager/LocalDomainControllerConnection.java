@@ -22,6 +22,12 @@
 
 package org.jboss.as.server.manager;
 
+import java.io.File;
+import java.net.InetSocketAddress;
+import java.util.Map;
+
+import org.jboss.as.domain.client.api.ServerIdentity;
+import org.jboss.as.domain.client.api.ServerStatus;
 import org.jboss.as.domain.controller.DomainController;
 import org.jboss.as.domain.controller.FileRepository;
 import org.jboss.as.model.DomainModel;
@@ -63,7 +69,7 @@ public class LocalDomainControllerConnection implements DomainControllerConnecti
     }
 
     /** {@inheritDoc} */
-    public DomainModel register() {
+    public DomainModel register(final DomainModel domainModel) {
         domainController.addClient(client);
         return domainController.getDomainModel();
     }
@@ -73,8 +79,21 @@ public class LocalDomainControllerConnection implements DomainControllerConnecti
         domainController.removeClient(client.getId());
     }
 
+    /** {@inheritDoc} */
+    public void serverStatusesChanged(final Map<ServerIdentity, ServerStatus> statuses) {
+        domainController.serverStatusesChanged(client.getId(), statuses);
+    }
+
     /** {@inheritDoc} */
     public FileRepository getRemoteFileRepository() {
         return fileRepository;
     }
+
+    /**
+     * {@inheritDoc}  The local domain controller keeps its deployments in this host's repository, so there is
+     * never anything to fetch.
+     */
+    public boolean fetchDeploymentContent(final byte[] hash, final InetSocketAddress source) {
+        return new File(fileRepository.getDeploymentRoot(hash), "content").isFile();
+    }
 }
@@ -73,6 +73,10 @@ public class ModelManager {
         getHostModel();
     }
 
+    public void stop() {
+        configPersister.close();
+    }
+
     public HostModel getHostModel() {
         if (hostModel == null) {
             synchronized (configPersister) {
@@ -174,7 +178,7 @@ public class ModelManager {
         }
         else {
             // Persist model
-            configPersister.persistConfiguration(hostModel);
+            configPersister.persistConfiguration(hostModel, updates);
 
             for (AbstractHostModelUpdate<?> update : updates) {
                 result.add(new HostUpdateApplierResponse(getAffectedServers(update)));
@@ -222,6 +226,7 @@ public class ModelManager {
             for(final AbstractHostModelUpdate<?> update : hostUpdates) {
                 hostModel.update(update);
             }
+            configPersister.recoverConfiguration(hostModel);
             return hostModel;
         } catch (RuntimeException e) {
             throw e;
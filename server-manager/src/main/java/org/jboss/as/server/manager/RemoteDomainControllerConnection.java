@@ -29,13 +29,26 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import org.jboss.as.domain.client.api.ServerIdentity;
+import org.jboss.as.domain.client.api.ServerStatus;
 import org.jboss.as.domain.controller.FileRepository;
+import org.jboss.as.domain.controller.mgmt.DeploymentContentFetcher;
 import org.jboss.as.domain.controller.mgmt.DomainControllerProtocol;
+import org.jboss.as.model.AbstractDomainModelUpdate;
 import org.jboss.as.model.DeploymentUnitElement;
 import org.jboss.as.model.DomainModel;
+import org.jboss.as.model.UpdateFailedException;
 import org.jboss.as.protocol.ByteDataInput;
 import org.jboss.as.protocol.ByteDataOutput;
 import org.jboss.as.protocol.ProtocolUtils;
@@ -49,6 +62,7 @@ import static org.jboss.as.protocol.StreamUtils.safeClose;
 import static org.jboss.as.protocol.ProtocolUtils.expectHeader;
 import org.jboss.as.protocol.mgmt.ManagementRequestConnectionStrategy;
 import org.jboss.logging.Logger;
+import org.jboss.marshalling.Marshaller;
 import org.jboss.marshalling.Marshalling;
 import org.jboss.marshalling.Unmarshaller;
 
@@ -59,6 +73,8 @@ import org.jboss.marshalling.Unmarshaller;
  */
 public class RemoteDomainControllerConnection implements DomainControllerConnection {
     private static final Logger log = Logger.getLogger("org.jboss.as.management");
+    private static final long CONTENT_TRANSFER_TIMEOUT = 600L;
+    private static final long STATUS_REPORT_RETRY_DELAY = 10L;
     private final String serverManagerId;
     private final InetAddress dcAddress;
     private final int dcPort;
@@ -66,8 +82,24 @@ public class RemoteDomainControllerConnection implements DomainControllerConnect
     private final InetAddress localManagementAddress;
     private final int localManagementPort;
     private final RemoteFileRepository remoteFileRepository;
+    private final DeploymentContentFetcher contentFetcher;
     private final ScheduledExecutorService executorService;
     private final ThreadFactory threadFactory;
+    private final Runnable statusReporter = new Runnable() {
+        public void run() {
+            reportServerStatuses();
+        }
+    };
+    private final Runnable statusReportRetry = new Runnable() {
+        public void run() {
+            serverStatusesChanged(Collections.<ServerIdentity, ServerStatus>emptyMap());
+        }
+    };
+
+    // protected by {@code this}
+    private Map<ServerIdentity, ServerStatus> pendingStatuses = new HashMap<ServerIdentity, ServerStatus>();
+    // protected by {@code this}
+    private boolean statusReportScheduled;
 
     /**
      * Create an instance.
@@ -92,12 +124,20 @@ public class RemoteDomainControllerConnection implements DomainControllerConnect
         this.connectTimeout = connectTimeout;
         this.executorService = executorService;
         this.threadFactory = threadFactory;
+        this.contentFetcher = new DeploymentContentFetcher(localFileRepository, connectTimeout, CONTENT_TRANSFER_TIMEOUT, executorService, threadFactory);
     }
 
     /** {@inheritDoc} */
-    public DomainModel register() {
+    public DomainModel register(final DomainModel domainModel) {
         try {
-            return new RegisterOperation(localManagementAddress, localManagementPort, this).executeForResult(getConnectionStrategy());
+            if (domainModel != null) {
+                try {
+                    return new RegisterOperation(localManagementAddress, localManagementPort, domainModel, this).executeForResult(getConnectionStrategy());
+                } catch (Exception e) {
+                    log.warnf(e, "Failed to bring the domain model up to date, getting the whole model");
+                }
+            }
+            return new RegisterOperation(localManagementAddress, localManagementPort, null, this).executeForResult(getConnectionStrategy());
         } catch (Exception e) {
             throw new ManagementException("Failed to register with the domain controller", e);
         }
@@ -112,11 +152,77 @@ public class RemoteDomainControllerConnection implements DomainControllerConnect
         }
     }
 
+    /**
+     * {@inheritDoc}  Reports are sent by a single task on the executor, so a slow domain controller never holds up
+     * the caller, and transitions which happen while a report is in flight go out together with the next one.  If a
+     * report fails, its statuses go out with the next report, or after {@value #STATUS_REPORT_RETRY_DELAY} seconds if
+     * nothing else changes before then.
+     */
+    public void serverStatusesChanged(final Map<ServerIdentity, ServerStatus> statuses) {
+        synchronized (this) {
+            pendingStatuses.putAll(statuses);
+            if (statusReportScheduled || pendingStatuses.isEmpty()) {
+                return;
+            }
+            statusReportScheduled = true;
+        }
+        try {
+            executorService.execute(statusReporter);
+        } catch (RejectedExecutionException e) {
+            synchronized (this) {
+                statusReportScheduled = false;
+            }
+            log.warnf("Failed to report server statuses to the domain controller: %s", e);
+        }
+    }
+
+    private void reportServerStatuses() {
+        for (;;) {
+            final Map<ServerIdentity, ServerStatus> statuses;
+            synchronized (this) {
+                if (pendingStatuses.isEmpty()) {
+                    statusReportScheduled = false;
+                    return;
+                }
+                statuses = pendingStatuses;
+                pendingStatuses = new HashMap<ServerIdentity, ServerStatus>();
+            }
+            try {
+                new ServerStatusChangeOperation(statuses, this).executeForResult(getConnectionStrategy());
+            } catch (Exception e) {
+                log.warnf(e, "Failed to report the status of %d servers to the domain controller, retrying in %d seconds", Integer.valueOf(statuses.size()), Long.valueOf(STATUS_REPORT_RETRY_DELAY));
+                synchronized (this) {
+                    // keep any status which changed again in the meantime
+                    for (Map.Entry<ServerIdentity, ServerStatus> entry : statuses.entrySet()) {
+                        if (! pendingStatuses.containsKey(entry.getKey())) {
+                            pendingStatuses.put(entry.getKey(), entry.getValue());
+                        }
+                    }
+                    statusReportScheduled = false;
+                }
+                try {
+                    executorService.schedule(statusReportRetry, STATUS_REPORT_RETRY_DELAY, TimeUnit.SECONDS);
+                } catch (RejectedExecutionException ree) {
+                    log.warnf("Failed to schedule a retry of the server status report: %s", ree);
+                }
+                return;
+            }
+        }
+    }
+
     /** {@inheritDoc} */
     public FileRepository getRemoteFileRepository() {
         return remoteFileRepository;
     }
 
+    /** {@inheritDoc} */
+    public boolean fetchDeploymentContent(final byte[] hash, final InetSocketAddress source) {
+        if (source == null) {
+            return contentFetcher.fetch(hash, dcAddress, dcPort);
+        }
+        return contentFetcher.fetch(hash, source.getAddress(), source.getPort());
+    }
+
     private abstract static class DomainControllerRequest<T> extends ManagementRequest<T> {
         protected final String serverManagerId;
 
@@ -139,11 +245,13 @@ public class RemoteDomainControllerConnection implements DomainControllerConnect
     private static class RegisterOperation extends DomainControllerRequest<DomainModel> {
         private final InetAddress localManagementAddress;
         private final int localManagementPort;
+        private final DomainModel domainModel;
 
-        private RegisterOperation(final InetAddress localManagementAddress, final int localManagementPort, final RemoteDomainControllerConnection connection) {
+        private RegisterOperation(final InetAddress localManagementAddress, final int localManagementPort, final DomainModel domainModel, final RemoteDomainControllerConnection connection) {
             super(connection);
             this.localManagementAddress = localManagementAddress;
             this.localManagementPort = localManagementPort;
+            this.domainModel = domainModel;
         }
 
         @Override
@@ -168,6 +276,9 @@ public class RemoteDomainControllerConnection implements DomainControllerConnect
                 output.write(address);
                 output.writeByte(DomainControllerProtocol.PARAM_SERVER_MANAGER_PORT);
                 output.writeInt(localManagementPort);
+                output.writeByte(DomainControllerProtocol.PARAM_DOMAIN_MODEL_REVISION);
+                output.writeLong(domainModel == null ? 0L : domainModel.getEpoch());
+                output.writeLong(domainModel == null ? -1L : domainModel.getRevision());
                 output.close();
             } finally {
                 safeClose(output);
@@ -178,11 +289,33 @@ public class RemoteDomainControllerConnection implements DomainControllerConnect
         protected final DomainModel receiveResponse(final InputStream input) throws IOException {
             final Unmarshaller unmarshaller = getUnmarshaller();
             unmarshaller.start(Marshalling.createByteInput(input));
-            expectHeader(unmarshaller, DomainControllerProtocol.PARAM_DOMAIN_MODEL);
-            log.infof("Registered with remote domain controller");
-            final DomainModel domainModel = unmarshal(unmarshaller, DomainModel.class);
-            unmarshaller.finish();
-            return domainModel;
+            final byte header = unmarshaller.readByte();
+            final DomainModel result;
+            if (header == DomainControllerProtocol.PARAM_DOMAIN_MODEL_UPDATE_COUNT && domainModel != null) {
+                final int count = unmarshaller.readInt();
+                final List<AbstractDomainModelUpdate<?>> updates = new ArrayList<AbstractDomainModelUpdate<?>>(count);
+                for (int i = 0; i < count; i++) {
+                    expectHeader(unmarshaller, DomainControllerProtocol.PARAM_DOMAIN_MODEL_UPDATE);
+                    updates.add(unmarshal(unmarshaller, AbstractDomainModelUpdate.class));
+                }
+                unmarshaller.finish();
+                for (AbstractDomainModelUpdate<?> update : updates) {
+                    try {
+                        domainModel.update(update);
+                    } catch (UpdateFailedException e) {
+                        throw new IOException("Failed to apply domain model update " + update, e);
+                    }
+                }
+                log.infof("Registered with remote domain controller, applied %d domain model updates", Integer.valueOf(count));
+                result = domainModel;
+            } else if (header == DomainControllerProtocol.PARAM_DOMAIN_MODEL) {
+                result = unmarshal(unmarshaller, DomainModel.class);
+                unmarshaller.finish();
+                log.infof("Registered with remote domain controller");
+            } else {
+                throw new IOException("Invalid byte token.  Expecting '" + DomainControllerProtocol.PARAM_DOMAIN_MODEL + "' received '" + header + "'");
+            }
+            return result;
         }
     }
 
@@ -208,6 +341,48 @@ public class RemoteDomainControllerConnection implements DomainControllerConnect
         }
     }
 
+    private static class ServerStatusChangeOperation extends DomainControllerRequest<Void> {
+        private final Map<ServerIdentity, ServerStatus> statuses;
+
+        private ServerStatusChangeOperation(final Map<ServerIdentity, ServerStatus> statuses, final RemoteDomainControllerConnection connection) {
+            super(connection);
+            this.statuses = statuses;
+        }
+
+        @Override
+        public final byte getRequestCode() {
+            return DomainControllerProtocol.SERVER_STATUS_CHANGE_REQUEST;
+        }
+
+        @Override
+        protected final byte getResponseCode() {
+            return DomainControllerProtocol.SERVER_STATUS_CHANGE_RESPONSE;
+        }
+
+        @Override
+        protected void sendRequest(final int protocolVersion, final OutputStream output) throws IOException {
+            super.sendRequest(protocolVersion, output);
+            final Marshaller marshaller = getMarshaller();
+            marshaller.start(Marshalling.createByteOutput(output));
+            marshaller.writeByte(DomainControllerProtocol.PARAM_SERVER_STATUS_COUNT);
+            marshaller.writeInt(statuses.size());
+            for (Map.Entry<ServerIdentity, ServerStatus> entry : statuses.entrySet()) {
+                marshaller.writeByte(DomainControllerProtocol.PARAM_SERVER_GROUP_NAME);
+                marshaller.writeUTF(entry.getKey().getServerGroupName());
+                marshaller.writeByte(DomainControllerProtocol.PARAM_SERVER_NAME);
+                marshaller.writeUTF(entry.getKey().getServerName());
+                marshaller.writeByte(DomainControllerProtocol.PARAM_SERVER_STATUS);
+                marshaller.writeObject(entry.getValue());
+            }
+            marshaller.finish();
+        }
+
+        @Override
+        protected Void receiveResponse(final InputStream input) throws IOException {
+            return null;
+        }
+    }
+
     private static class GetFileOperation extends DomainControllerRequest<File> {
         private final byte rootId;
         private final String filePath;
@@ -367,6 +542,10 @@ public class RemoteDomainControllerConnection implements DomainControllerConnect
         }
     }
 
+    private static Marshaller getMarshaller() throws IOException {
+        return ProtocolUtils.getMarshaller(ProtocolUtils.MODULAR_CONFIG);
+    }
+
     private static Unmarshaller getUnmarshaller() throws IOException {
         return ProtocolUtils.getUnmarshaller(ProtocolUtils.MODULAR_CONFIG);
     }
@@ -32,6 +32,7 @@ import java.net.UnknownHostException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -47,6 +48,7 @@ import org.jboss.as.domain.client.api.ServerStatus;
 import org.jboss.as.domain.client.impl.HostUpdateApplierResponse;
 import org.jboss.as.domain.controller.DomainController;
 import org.jboss.as.domain.controller.FileRepository;
+import org.jboss.as.domain.controller.mgmt.DeploymentContentOperationHandler;
 import org.jboss.as.domain.controller.mgmt.DomainControllerClientOperationHandler;
 import org.jboss.as.model.AbstractHostModelUpdate;
 import org.jboss.as.model.AbstractServerModelUpdate;
@@ -73,22 +75,20 @@ import org.jboss.as.server.manager.mgmt.ServerManagerOperationHandler;
 import org.jboss.as.server.manager.mgmt.ServerToServerManagerOperationHandler;
 import org.jboss.as.services.net.NetworkInterfaceBinding;
 import org.jboss.as.services.net.NetworkInterfaceService;
+import org.jboss.as.threads.ScheduledThreadPoolService;
 import org.jboss.as.threads.ThreadFactoryService;
+import org.jboss.as.threads.ThreadsServices;
 import org.jboss.logging.Logger;
 import org.jboss.msc.service.AbstractServiceListener;
 import org.jboss.msc.service.BatchBuilder;
 import org.jboss.msc.service.BatchServiceBuilder;
-import org.jboss.msc.service.Service;
 import org.jboss.msc.service.ServiceActivatorContext;
 import org.jboss.msc.service.ServiceActivatorContextImpl;
 import org.jboss.msc.service.ServiceContainer;
 import org.jboss.msc.service.ServiceController;
 import org.jboss.msc.service.ServiceName;
 import org.jboss.msc.service.ServiceRegistryException;
-import org.jboss.msc.service.StartContext;
 import org.jboss.msc.service.StartException;
-import org.jboss.msc.service.StopContext;
-import org.jboss.msc.value.InjectedValue;
 import org.jboss.staxmapper.XMLMapper;
 
 import javax.net.SocketFactory;
@@ -104,6 +104,8 @@ public class ServerManager {
     private static final Logger log = Logger.getLogger("org.jboss.as.server.manager");
 
     static final ServiceName SERVICE_NAME_BASE = ServiceName.JBOSS.append("server", "manager");
+    /** The pool shared by the domain controller and the management communication of this host */
+    static final ServiceName EXECUTOR_NAME = ThreadsServices.executorName("server-manager");
 
     private final ServerManagerEnvironment environment;
     private final StandardElementReaderRegistrar extensionRegistrar;
@@ -113,8 +115,10 @@ public class ServerManager {
     private final AtomicBoolean serversStarted = new AtomicBoolean();
     private final AtomicBoolean stopping = new AtomicBoolean();
     private final Map<String, ManagedServer> servers = new HashMap<String, ManagedServer>();
+    // protected by {@code publishedStatuses}
+    private final Map<ServerIdentity, ServerStatus> publishedStatuses = new HashMap<ServerIdentity, ServerStatus>();
 
-    private DomainControllerConnection domainControllerConnection;
+    private volatile DomainControllerConnection domainControllerConnection;
     private ProcessManagerClient processManagerClient;
     private FallbackRepository remoteBackedRepository;
 
@@ -148,6 +152,37 @@ public class ServerManager {
         return result;
     }
 
+    /**
+     * Report the servers whose status changed since the last report to the domain controller.  This is cheap when
+     * nothing changed, so it is called after anything which may have changed the status of a server.
+     */
+    void publishServerStatuses() {
+        final DomainControllerConnection domainControllerConnection = this.domainControllerConnection;
+        if (domainControllerConnection == null) {
+            return;
+        }
+        synchronized (publishedStatuses) {
+            final Map<ServerIdentity, ServerStatus> current = getServerStatuses();
+            final Map<ServerIdentity, ServerStatus> changes = new HashMap<ServerIdentity, ServerStatus>();
+            for (Map.Entry<ServerIdentity, ServerStatus> entry : current.entrySet()) {
+                if (publishedStatuses.put(entry.getKey(), entry.getValue()) != entry.getValue()) {
+                    changes.put(entry.getKey(), entry.getValue());
+                }
+            }
+            for (Iterator<ServerIdentity> i = publishedStatuses.keySet().iterator(); i.hasNext();) {
+                final ServerIdentity server = i.next();
+                if (!current.containsKey(server)) {
+                    i.remove();
+                    changes.put(server, ServerStatus.DOES_NOT_EXIST);
+                }
+            }
+            if (!changes.isEmpty()) {
+                // still holding the lock, so reports reach the connection in order
+                domainControllerConnection.serverStatusesChanged(changes);
+            }
+        }
+    }
+
     private ServerStatus determineServerStatus(String serverName) {
         return determineServerStatus(getHostModel().getServer(serverName));
     }
@@ -275,7 +310,9 @@ public class ServerManager {
 
         List<HostUpdateApplierResponse> hostResults = getModelManager().applyHostModelUpdates(updates);
         boolean allowOverallRollback = true; // FIXME make allowOverallRollback configurable
-        return applyUpdatesToServers(updates, hostResults, allowOverallRollback);
+        final List<HostUpdateResult<?>> result = applyUpdatesToServers(updates, hostResults, allowOverallRollback);
+        publishServerStatuses();
+        return result;
     }
 
     public List<UpdateResultHandlerResponse<?>> applyUpdatesToServer(final ServerIdentity server, final List<AbstractServerModelUpdate<?>> updates, final boolean allowOverallRollback) {
@@ -332,6 +369,7 @@ public class ServerManager {
         } catch (IOException e) {
             log.errorf(e, "Could not start server %s", serverName);
         }
+        publishServerStatuses();
     }
 
     /**
@@ -348,6 +386,7 @@ public class ServerManager {
         }
         serviceContainer.shutdown();
         // FIXME stop any local DomainController, stop other internal SM services
+        modelManager.stop();
     }
 
     /**
@@ -399,6 +438,7 @@ public class ServerManager {
         }
         checkState(server, ServerState.STARTING);
         server.setState(ServerState.STARTED);
+        publishServerStatuses();
     }
 
     /**
@@ -416,6 +456,7 @@ public class ServerManager {
         }
         checkState(server, ServerState.STARTING);
         server.setState(ServerState.FAILED);
+        publishServerStatuses();
     }
 
     /**
@@ -442,6 +483,7 @@ public class ServerManager {
                 log.errorf(e, "Could not start reconnected server %s", server.getServerProcessName());
             }
         }
+        publishServerStatuses();
     }
 
     /**
@@ -477,6 +519,7 @@ public class ServerManager {
         } else {
             server.setState(ServerState.FAILED);
         }
+        publishServerStatuses();
     }
 
     private void launchProcessManagerSlave() throws IOException {
@@ -527,12 +570,12 @@ public class ServerManager {
                 .addInjection(domainController.getXmlMapperInjector(), mapper)
                 .addInjection(domainController.getDomainConfigDirInjector(), environment.getDomainConfigurationDir())
                 .addInjection(domainController.getDomainDeploymentsDirInjector(), environment.getDomainDeploymentDir())
-                .addDependency(SERVICE_NAME_BASE.append("executor"), ScheduledExecutorService.class, domainController.getScheduledExecutorServiceInjector());
+                .addDependency(EXECUTOR_NAME, ScheduledExecutorService.class, domainController.getScheduledExecutorServiceInjector());
 
             final DomainControllerOperationHandler domainControllerOperationHandler = new DomainControllerOperationHandler();
             batchBuilder.addService(DomainControllerOperationHandler.SERVICE_NAME, domainControllerOperationHandler)
                 .addDependency(DomainController.SERVICE_NAME, DomainController.class, domainControllerOperationHandler.getDomainControllerInjector())
-                .addDependency(SERVICE_NAME_BASE.append("executor"), ScheduledExecutorService.class, domainControllerOperationHandler.getExecutorServiceInjector())
+                .addDependency(EXECUTOR_NAME, ScheduledExecutorService.class, domainControllerOperationHandler.getExecutorServiceInjector())
                 .addDependency(SERVICE_NAME_BASE.append("thread-factory"), ThreadFactory.class, domainControllerOperationHandler.getThreadFactoryInjector())
                 .addInjection(domainControllerOperationHandler.getLocalFileRepositoryInjector(), fileRepository)
                 .addDependency(ManagementCommunicationService.SERVICE_NAME, ManagementCommunicationService.class, new ManagementCommunicationServiceInjector(domainControllerOperationHandler));
@@ -578,7 +621,7 @@ public class ServerManager {
         final ManagementElement managementElement = hostConfig.getManagementElement();
         serviceBuilder.addDependency(NetworkInterfaceService.JBOSS_NETWORK_INTERFACE.append(managementElement.getInterfaceName()), NetworkInterfaceBinding.class, domainControllerClientService.getLocalManagementInterfaceInjector());
         serviceBuilder.addInjection(domainControllerClientService.getLocalManagementPortInjector(), managementElement.getPort());
-        serviceBuilder.addDependency(SERVICE_NAME_BASE.append("executor"), ScheduledExecutorService.class, domainControllerClientService.getExecutorServiceInjector());
+        serviceBuilder.addDependency(EXECUTOR_NAME, ScheduledExecutorService.class, domainControllerClientService.getExecutorServiceInjector());
         serviceBuilder.addDependency(SERVICE_NAME_BASE.append("thread-factory"), ThreadFactory.class, domainControllerClientService.getThreadFactoryInjector());
     }
 
@@ -603,26 +646,10 @@ public class ServerManager {
         // Add the executor
         final ServiceName threadFactoryServiceName = SERVICE_NAME_BASE.append("thread-factory");
         batchBuilder.addService(threadFactoryServiceName, new ThreadFactoryService());
-        final ServiceName executorServiceName = SERVICE_NAME_BASE.append("executor");
-
-        /**
-         * Replace below with fixed ScheduledThreadPoolService
-         */
-        final InjectedValue<ThreadFactory> threadFactoryValue = new InjectedValue<ThreadFactory>();
-        batchBuilder.addService(executorServiceName, new Service<ScheduledExecutorService>() {
-            private ScheduledExecutorService executorService;
-            public synchronized void start(StartContext context) throws StartException {
-                executorService = Executors.newScheduledThreadPool(20, threadFactoryValue.getValue());
-            }
-
-            public synchronized void stop(StopContext context) {
-                executorService.shutdown();
-            }
-
-            public synchronized ScheduledExecutorService getValue() throws IllegalStateException {
-                return executorService;
-            }
-        }).addDependency(threadFactoryServiceName, ThreadFactory.class, threadFactoryValue);
+        final ServiceName executorServiceName = EXECUTOR_NAME;
+        final ScheduledThreadPoolService executorService = new ScheduledThreadPoolService(20, null);
+        batchBuilder.addService(executorServiceName, executorService)
+            .addDependency(threadFactoryServiceName, ThreadFactory.class, executorService.getThreadFactoryInjector());
 
         //  Add the management communication service
         final ManagementCommunicationService managementCommunicationService = new ManagementCommunicationService();
@@ -644,10 +671,20 @@ public class ServerManager {
                 = new ManagementOperationHandlerService<ServerToServerManagerOperationHandler>(new ServerToServerManagerOperationHandler(this));
             batchBuilder.addService(ManagementCommunicationService.SERVICE_NAME.append("server", "to", "server", "manager"), serverOperationHandlerService)
                 .addDependency(ManagementCommunicationService.SERVICE_NAME, ManagementCommunicationService.class,  new ManagementCommunicationServiceInjector(serverOperationHandlerService));
+
+        //  Add the handler serving deployment content to the domain controller's distribution and to peers
+        final ManagementOperationHandlerService<DeploymentContentOperationHandler> contentOperationHandlerService
+                = new ManagementOperationHandlerService<DeploymentContentOperationHandler>(new DeploymentContentOperationHandler(fileRepository));
+            batchBuilder.addService(ManagementCommunicationService.SERVICE_NAME.append("deployment", "content"), contentOperationHandlerService)
+                .addDependency(ManagementCommunicationService.SERVICE_NAME, ManagementCommunicationService.class, new ManagementCommunicationServiceInjector(contentOperationHandlerService));
     }
 
     void setDomainControllerConnection(final DomainControllerConnection domainControllerConnection) {
-        this.domainControllerConnection = domainControllerConnection;
+        synchronized (publishedStatuses) {
+            // a new connection gets the full status table on the first report
+            publishedStatuses.clear();
+            this.domainControllerConnection = domainControllerConnection;
+        }
 
         // By having a remote repo as a secondary content will be synced only if needed
         FallbackRepository repository = new FallbackRepository(fileRepository, domainControllerConnection.getRemoteFileRepository());
@@ -727,6 +764,7 @@ public class ServerManager {
                     }
                     else log.info("Server " + serverEl.getName() + " is configured to not be started");
                 }
+                publishServerStatuses();
             } else {
                 // FIXME -- this got dropped in the move to an update-based boot
                 // handle it properly
@@ -753,6 +791,7 @@ public class ServerManager {
         catch (Exception e) {
             log.errorf(e, "Failed to start server %s", serverName);
         }
+        publishServerStatuses();
 
         return determineServerStatus(serverName);
     }
@@ -784,10 +823,27 @@ public class ServerManager {
         catch (Exception e) {
             log.errorf(e, "Failed to stop server %s", serverName);
         }
+        publishServerStatuses();
 
         return determineServerStatus(serverName);
     }
 
+    /**
+     * Fetch the content of a deployment into the local repository ahead of the servers needing it.
+     *
+     * @param hash the SHA-1 of the content
+     * @param source the management address of a peer server manager holding the content, or {@code null} to fetch
+     *      it from the domain controller
+     * @return {@code true} if the verified content is present in the local repository afterwards
+     */
+    public boolean fetchDeploymentContent(final byte[] hash, final InetSocketAddress source) {
+        final DomainControllerConnection domainControllerConnection = this.domainControllerConnection;
+        if (domainControllerConnection == null) {
+            return false;
+        }
+        return domainControllerConnection.fetchDeploymentContent(hash, source);
+    }
+
     public ServerStatus restartServer(String serverName, long gracefulTimeout) {
         stopServer(serverName, gracefulTimeout);
         return startServer(serverName);
@@ -50,8 +50,10 @@ public class ServerManagerService implements Service<Void> {
         // Register with the domain controller
         final DomainControllerConnection domainControllerConnection = this.domainControllerConnection.getValue();
         serverManager.setDomainControllerConnection(domainControllerConnection);
-        final DomainModel domainModel = domainControllerConnection.register();
+        final DomainModel domainModel = domainControllerConnection.register(serverManager.getDomainModel());
         serverManager.setDomain(domainModel);
+        // the domain controller only learns about our servers from us
+        serverManager.publishServerStatuses();
 
         // Start the servers
         final NetworkInterfaceBinding interfaceBinding = managementInterface.getValue();
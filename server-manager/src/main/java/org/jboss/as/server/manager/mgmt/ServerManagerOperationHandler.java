@@ -25,6 +25,8 @@ package org.jboss.as.server.manager.mgmt;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -140,6 +142,9 @@ public class ServerManagerOperationHandler extends AbstractMessageHandler implem
             case ServerManagerProtocol.RESTART_SERVER_REQUEST: {
                 return new RestartServerOperation();
             }
+            case ServerManagerProtocol.FETCH_DEPLOYMENT_CONTENT_REQUEST: {
+                return new FetchDeploymentContentOperation();
+            }
             default: {
                 return null;
             }
@@ -460,6 +465,43 @@ public class ServerManagerOperationHandler extends AbstractMessageHandler implem
         }
     }
 
+    private class FetchDeploymentContentOperation extends ManagementResponse {
+        private byte[] hash;
+        private InetSocketAddress source;
+
+        @Override
+        protected final byte getResponseCode() {
+            return ServerManagerProtocol.FETCH_DEPLOYMENT_CONTENT_RESPONSE;
+        }
+
+        @Override
+        protected final void readRequest(final InputStream input) throws IOException {
+            final Unmarshaller unmarshaller = getUnmarshaller();
+            unmarshaller.start(createByteInput(input));
+            expectHeader(unmarshaller, ServerManagerProtocol.PARAM_DEPLOYMENT_HASH);
+            hash = new byte[unmarshaller.readInt()];
+            unmarshaller.readFully(hash);
+            expectHeader(unmarshaller, ServerManagerProtocol.PARAM_SOURCE_ADDRESS);
+            if (unmarshaller.readBoolean()) {
+                final byte[] address = new byte[unmarshaller.readInt()];
+                unmarshaller.readFully(address);
+                expectHeader(unmarshaller, ServerManagerProtocol.PARAM_SOURCE_PORT);
+                source = new InetSocketAddress(InetAddress.getByAddress(address), unmarshaller.readInt());
+            }
+            unmarshaller.finish();
+        }
+
+        @Override
+        protected void sendResponse(final OutputStream output) throws IOException {
+            final boolean available = serverManager.fetchDeploymentContent(hash, source);
+            final Marshaller marshaller = getMarshaller();
+            marshaller.start(createByteOutput(output));
+            marshaller.writeByte(ServerManagerProtocol.RETURN_CONTENT_AVAILABLE);
+            marshaller.writeBoolean(available);
+            marshaller.finish();
+        }
+    }
+
     private class IsActiveOperation extends ManagementResponse {
         @Override
         protected final byte getResponseCode() {
@@ -0,0 +1,350 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server.manager.mgmt;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jboss.as.domain.client.api.HostUpdateResult;
+import org.jboss.as.domain.client.api.ServerIdentity;
+import org.jboss.as.domain.client.api.ServerStatus;
+import org.jboss.as.domain.controller.DeploymentContentDistributor;
+import org.jboss.as.domain.controller.FileRepository;
+import org.jboss.as.domain.controller.ModelUpdateResponse;
+import org.jboss.as.domain.controller.ServerManagerClient;
+import org.jboss.as.domain.controller.mgmt.DeploymentContentFetcher;
+import org.jboss.as.domain.controller.mgmt.DeploymentContentOperationHandler;
+import org.jboss.as.model.AbstractDomainModelUpdate;
+import org.jboss.as.model.AbstractHostModelUpdate;
+import org.jboss.as.model.AbstractServerModelUpdate;
+import org.jboss.as.model.DeploymentUnitElement;
+import org.jboss.as.model.DomainModel;
+import org.jboss.as.model.HostModel;
+import org.jboss.as.model.ServerModel;
+import org.jboss.as.model.UpdateResultHandlerResponse;
+import org.jboss.as.services.net.NetworkInterfaceBinding;
+import org.jboss.as.services.net.NetworkInterfaceService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Simulates a domain controller and several server managers, each with its own repository and management socket on
+ * the loopback interface, and distributes deployment content between them.
+ *
+ * @author John Bailey
+ */
+public class DeploymentContentDistributionTestCase {
+    private static final int HOSTS = 8;
+    private static final int BASE_PORT = 12360;
+    private static final int CONTENT_SIZE = 2 * 1024 * 1024;
+
+    private final List<ManagementCommunicationService> communicationServices = new ArrayList<ManagementCommunicationService>();
+    private final List<SimulatedHost> hosts = new ArrayList<SimulatedHost>();
+    private ScheduledExecutorService executorService;
+    private NetworkInterfaceBinding interfaceBinding;
+    private InetAddress loopback;
+    private File root;
+    private FileRepository domainControllerRepository;
+
+    @Before
+    public void setup() throws Exception {
+        executorService = Executors.newScheduledThreadPool(40);
+        final NetworkInterfaceService networkInterfaceService = new NetworkInterfaceService("test", false, false, true, null);
+        networkInterfaceService.start(null);
+        interfaceBinding = networkInterfaceService.getValue();
+        loopback = InetAddress.getByName("127.0.0.1");
+
+        root = File.createTempFile("content-distribution", "test");
+        assertTrue(root.delete());
+
+        domainControllerRepository = new TestFileRepository(new File(root, "domain-controller"));
+        startCommunicationService(BASE_PORT, domainControllerRepository);
+        for (int i = 0; i < HOSTS; i++) {
+            final FileRepository repository = new TestFileRepository(new File(root, "host" + i));
+            final int port = BASE_PORT + 1 + i;
+            startCommunicationService(port, repository);
+            hosts.add(new SimulatedHost("host" + i, new InetSocketAddress(loopback, port), repository));
+        }
+    }
+
+    @After
+    public void cleanup() {
+        for (ManagementCommunicationService communicationService : communicationServices) {
+            communicationService.stop(null);
+        }
+        executorService.shutdown();
+        delete(root);
+    }
+
+    @Test
+    public void testDistribution() throws Exception {
+        final byte[] content = randomContent(1L);
+        final byte[] hash = store(domainControllerRepository, sha1(content), content);
+
+        final long start = System.nanoTime();
+        final Set<String> failed = new DeploymentContentDistributor(executorService, 2, 8).distribute(hash, new ArrayList<ServerManagerClient>(hosts));
+        final long time = System.nanoTime() - start;
+
+        assertTrue(failed.toString(), failed.isEmpty());
+        int relayed = 0;
+        for (SimulatedHost host : hosts) {
+            assertArrayEquals(content, read(new File(host.repository.getDeploymentRoot(hash), "content")));
+            assertEquals(1, host.fetches.get());
+            if (host.lastSource != null) {
+                relayed++;
+            }
+        }
+        // the domain controller serves two transfers at a time, so most hosts got the content from a peer
+        assertTrue("relayed " + relayed, relayed > 0);
+        System.out.printf("Distributed %d bytes to %d hosts in %d ms, %d relayed by peers\n", Integer.valueOf(CONTENT_SIZE),
+                Integer.valueOf(HOSTS), Long.valueOf(time / 1000000L), Integer.valueOf(relayed));
+
+        // hosts holding the content do not transfer it again
+        final SimulatedHost host = hosts.get(0);
+        assertTrue(host.fetchDeploymentContent(hash, null));
+        assertTrue(host.fetcher.isAvailable(hash));
+    }
+
+    @Test
+    public void testCorruptContentRejected() throws Exception {
+        final byte[] content = randomContent(2L);
+        final byte[] hash = sha1(randomContent(3L));
+        store(domainControllerRepository, hash, content);
+
+        final Set<String> failed = new DeploymentContentDistributor(executorService, 2, 8).distribute(hash, new ArrayList<ServerManagerClient>(hosts));
+
+        assertEquals(HOSTS, failed.size());
+        for (SimulatedHost host : hosts) {
+            assertFalse(host.fetcher.isAvailable(hash));
+            final File[] files = host.repository.getDeploymentRoot(hash).listFiles();
+            assertTrue(files == null || files.length == 0);
+        }
+    }
+
+    @Test
+    public void testMissingContent() throws Exception {
+        final byte[] hash = sha1(randomContent(4L));
+
+        final Set<String> failed = new DeploymentContentDistributor(executorService, 2, 8).distribute(hash, new ArrayList<ServerManagerClient>(hosts));
+
+        assertEquals(HOSTS, failed.size());
+    }
+
+    @Test
+    public void testUnreachableRelay() throws Exception {
+        final byte[] content = randomContent(5L);
+        final byte[] hash = store(domainControllerRepository, sha1(content), content);
+        // nothing listens on the address the first host advertises
+        hosts.set(0, new SimulatedHost("host0", new InetSocketAddress(loopback, BASE_PORT + HOSTS + 1), hosts.get(0).repository));
+
+        final Set<String> failed = new DeploymentContentDistributor(executorService, 1, 8).distribute(hash, new ArrayList<ServerManagerClient>(hosts));
+
+        assertTrue(failed.toString(), failed.isEmpty());
+        for (SimulatedHost host : hosts) {
+            assertArrayEquals(content, read(new File(host.repository.getDeploymentRoot(hash), "content")));
+        }
+    }
+
+    private void startCommunicationService(final int port, final FileRepository repository) throws Exception {
+        final ManagementCommunicationService communicationService = new ManagementCommunicationService();
+        communicationService.getThreadFactoryInjector().inject(Executors.defaultThreadFactory());
+        communicationService.getExecutorServiceInjector().inject(executorService);
+        communicationService.getInterfaceInjector().inject(interfaceBinding);
+        communicationService.getPortInjector().inject(port);
+        communicationService.addHandler(new DeploymentContentOperationHandler(repository));
+        communicationService.start(null);
+        communicationServices.add(communicationService);
+    }
+
+    private static byte[] randomContent(final long seed) {
+        final byte[] content = new byte[CONTENT_SIZE];
+        new Random(seed).nextBytes(content);
+        return content;
+    }
+
+    private static byte[] sha1(final byte[] content) throws Exception {
+        return MessageDigest.getInstance("SHA-1").digest(content);
+    }
+
+    private static byte[] store(final FileRepository repository, final byte[] hash, final byte[] content) throws IOException {
+        final File dir = repository.getDeploymentRoot(hash);
+        assertTrue(dir.mkdirs());
+        final OutputStream out = new FileOutputStream(new File(dir, "content"));
+        try {
+            out.write(content);
+        } finally {
+            out.close();
+        }
+        return hash;
+    }
+
+    private static byte[] read(final File file) throws IOException {
+        final byte[] bytes = new byte[(int) file.length()];
+        final InputStream in = new FileInputStream(file);
+        try {
+            int total = 0;
+            int read;
+            while (total < bytes.length && (read = in.read(bytes, total, bytes.length - total)) != -1) {
+                total += read;
+            }
+        } finally {
+            in.close();
+        }
+        return bytes;
+    }
+
+    private static void delete(final File file) {
+        final File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    private static class TestFileRepository implements FileRepository {
+        private final File deploymentRoot;
+
+        private TestFileRepository(final File deploymentRoot) {
+            this.deploymentRoot = deploymentRoot;
+        }
+
+        public File getFile(final String relativePath) {
+            return null;
+        }
+
+        public File getConfigurationFile(final String relativePath) {
+            return null;
+        }
+
+        public File[] getDeploymentFiles(final byte[] deploymentHash) {
+            return getDeploymentRoot(deploymentHash).listFiles();
+        }
+
+        public File getDeploymentRoot(final byte[] deploymentHash) {
+            final String hex = DeploymentUnitElement.bytesToHexString(deploymentHash);
+            return new File(new File(deploymentRoot, hex.substring(0, 2)), hex.substring(2));
+        }
+    }
+
+    /**
+     * A server manager which only takes part in content distribution, fetching over its own loopback connections.
+     */
+    private class SimulatedHost implements ServerManagerClient {
+        private final String id;
+        private final InetSocketAddress managementAddress;
+        private final FileRepository repository;
+        private final DeploymentContentFetcher fetcher;
+        private final AtomicInteger fetches = new AtomicInteger();
+        private volatile InetSocketAddress lastSource;
+
+        private SimulatedHost(final String id, final InetSocketAddress managementAddress, final FileRepository repository) {
+            this.id = id;
+            this.managementAddress = managementAddress;
+            this.repository = repository;
+            this.fetcher = new DeploymentContentFetcher(repository, 10L, 60L, executorService, Executors.defaultThreadFactory());
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public InetSocketAddress getManagementAddress() {
+            return managementAddress;
+        }
+
+        public boolean fetchDeploymentContent(final byte[] hash, final InetSocketAddress source) {
+            fetches.incrementAndGet();
+            lastSource = source;
+            if (source == null) {
+                return fetcher.fetch(hash, loopback, BASE_PORT);
+            }
+            return fetcher.fetch(hash, source.getAddress(), source.getPort());
+        }
+
+        public boolean isActive() {
+            return true;
+        }
+
+        public void updateDomainModel(final DomainModel domain) {
+        }
+
+        public List<ModelUpdateResponse<List<ServerIdentity>>> updateDomainModel(final List<AbstractDomainModelUpdate<?>> updates) {
+            return null;
+        }
+
+        public HostModel getHostModel() {
+            return null;
+        }
+
+        public List<HostUpdateResult<?>> updateHostModel(final List<AbstractHostModelUpdate<?>> updates) {
+            return null;
+        }
+
+        public Map<ServerIdentity, ServerStatus> getServerStatuses() {
+            return null;
+        }
+
+        public ServerModel getServerModel(final String serverName) {
+            return null;
+        }
+
+        public List<UpdateResultHandlerResponse<?>> updateServerModel(final String serverName, final List<AbstractServerModelUpdate<?>> updates, final boolean allowOverallRollback) {
+            return null;
+        }
+
+        public ServerStatus startServer(final String serverName) {
+            return ServerStatus.UNKNOWN;
+        }
+
+        public ServerStatus stopServer(final String serverName, final long gracefulTimeout) {
+            return ServerStatus.UNKNOWN;
+        }
+
+        public ServerStatus restartServer(final String serverName, final long gracefulTimeout) {
+            return ServerStatus.UNKNOWN;
+        }
+    }
+}
@@ -87,7 +87,7 @@ public class RemoteDomainControllerTestCase {
 
     @Test
     public void testRegister() throws Exception {
-        final DomainModel domain = domainControllerConnection.register();
+        final DomainModel domain = domainControllerConnection.register(null);
         System.out.println(domain);
     }
 }
@@ -0,0 +1,282 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jboss.as.model.AbstractServerModelUpdate;
+import org.jboss.as.model.ServerExtensionAdd;
+import org.jboss.as.protocol.ProtocolUtils;
+import org.jboss.as.protocol.StreamUtils;
+import org.jboss.as.version.Version;
+import org.jboss.logging.Logger;
+import org.jboss.marshalling.Marshaller;
+import org.jboss.marshalling.Marshalling;
+import org.jboss.marshalling.MarshallingConfiguration;
+import org.jboss.marshalling.Unmarshaller;
+
+/**
+ * Cache of the updates parsed from a server configuration file, so that a warm start needs neither the XML parser
+ * nor the extensions' element readers.  The updates are marshalled the same way the server manager sends them to a
+ * managed server.
+ * <p>
+ * An entry is only used if the SHA-1 of the configuration file, the files of every extension module it declares and
+ * the server's own code are all unchanged since it was written; anything else is treated as a miss, after which the
+ * caller parses the file and replaces the entry.  A cache which cannot be read is never fatal.
+ *
+ * @author Brian Stansberry
+ */
+public final class BootCache {
+
+    private static final Logger log = Logger.getLogger("org.jboss.as.server");
+
+    public static final String ENABLED_PROPERTY = "org.jboss.as.server.boot-cache";
+
+    private static final int MAGIC = 0x4A424243;
+    private static final int VERSION = 1;
+
+    private final File cacheFile;
+    private final File modulesDir;
+    private final MarshallingConfiguration configuration;
+
+    /**
+     * Construct a new instance which resolves classes through their modules.
+     *
+     * @param cacheFile the file holding the cache
+     * @param modulesDir the root of the module repository
+     */
+    public BootCache(final File cacheFile, final File modulesDir) {
+        this(cacheFile, modulesDir, ProtocolUtils.MODULAR_CONFIG);
+    }
+
+    /**
+     * Construct a new instance.
+     *
+     * @param cacheFile the file holding the cache
+     * @param modulesDir the root of the module repository
+     * @param configuration the marshalling configuration for the updates
+     */
+    public BootCache(final File cacheFile, final File modulesDir, final MarshallingConfiguration configuration) {
+        this.cacheFile = cacheFile;
+        this.modulesDir = modulesDir;
+        this.configuration = configuration;
+    }
+
+    /**
+     * Load the updates cached for the given configuration.
+     *
+     * @param config the content of the configuration file
+     * @return the updates, or {@code null} if nothing usable is cached for the configuration
+     */
+    public List<AbstractServerModelUpdate<?>> load(final byte[] config) {
+        if (! cacheFile.isFile()) {
+            return null;
+        }
+        try {
+            final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(cacheFile)));
+            try {
+                if (in.readInt() != MAGIC || in.readInt() != VERSION || ! Version.AS_VERSION.equals(in.readUTF())) {
+                    log.debugf("Ignoring boot cache %s of another version", cacheFile);
+                    return null;
+                }
+                if (! Arrays.equals(readHash(in), getCodeFingerprint())) {
+                    log.debugf("Server code changed since boot cache %s was written", cacheFile);
+                    return null;
+                }
+                if (! Arrays.equals(readHash(in), sha1(config))) {
+                    log.debugf("Configuration changed since boot cache %s was written", cacheFile);
+                    return null;
+                }
+                final int extensionCount = in.readInt();
+                for (int i = 0; i < extensionCount; i++) {
+                    final String moduleName = in.readUTF();
+                    if (! Arrays.equals(readHash(in), getModuleFingerprint(moduleName))) {
+                        log.debugf("Extension module %s changed since boot cache %s was written", moduleName, cacheFile);
+                        return null;
+                    }
+                }
+                final Unmarshaller unmarshaller = ProtocolUtils.getUnmarshaller(configuration);
+                unmarshaller.start(Marshalling.createByteInput(in));
+                final int count = unmarshaller.readInt();
+                final List<AbstractServerModelUpdate<?>> updates = new ArrayList<AbstractServerModelUpdate<?>>(count);
+                for (int i = 0; i < count; i++) {
+                    updates.add(ProtocolUtils.unmarshal(unmarshaller, AbstractServerModelUpdate.class));
+                }
+                unmarshaller.finish();
+                return updates;
+            } finally {
+                StreamUtils.safeClose(in);
+            }
+        } catch (Exception e) {
+            log.debugf(e, "Ignoring unreadable boot cache %s", cacheFile);
+            return null;
+        }
+    }
+
+    /**
+     * Replace the cache with the updates parsed from the given configuration.  Failures are logged and otherwise
+     * ignored; the next start simply parses the configuration again.
+     *
+     * @param config the content of the configuration file
+     * @param updates the updates parsed from it
+     */
+    public void store(final byte[] config, final List<AbstractServerModelUpdate<?>> updates) {
+        final File dir = cacheFile.getAbsoluteFile().getParentFile();
+        File tmp = null;
+        try {
+            final Map<String, byte[]> extensions = new LinkedHashMap<String, byte[]>();
+            for (AbstractServerModelUpdate<?> update : updates) {
+                if (update instanceof ServerExtensionAdd) {
+                    final String moduleName = ((ServerExtensionAdd) update).getModuleName();
+                    extensions.put(moduleName, getModuleFingerprint(moduleName));
+                }
+            }
+            if (! dir.mkdirs() && ! dir.isDirectory()) {
+                throw new IOException("Cannot create directory " + dir.getAbsolutePath());
+            }
+            tmp = File.createTempFile(cacheFile.getName(), "tmp", dir);
+            final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+            try {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeUTF(Version.AS_VERSION);
+                out.write(getCodeFingerprint());
+                out.write(sha1(config));
+                out.writeInt(extensions.size());
+                for (Map.Entry<String, byte[]> entry : extensions.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.write(entry.getValue());
+                }
+                final Marshaller marshaller = ProtocolUtils.getMarshaller(configuration);
+                marshaller.start(Marshalling.createByteOutput(out));
+                marshaller.writeInt(updates.size());
+                for (AbstractServerModelUpdate<?> update : updates) {
+                    marshaller.writeObject(update);
+                }
+                marshaller.finish();
+                out.close();
+            } finally {
+                StreamUtils.safeClose(out);
+            }
+            if (! tmp.renameTo(cacheFile)) {
+                // not atomic, but the entry is verified on load anyway
+                if (! cacheFile.delete() || ! tmp.renameTo(cacheFile)) {
+                    throw new IOException("Cannot move " + tmp.getAbsolutePath() + " to " + cacheFile.getAbsolutePath());
+                }
+            }
+        } catch (Exception e) {
+            log.warnf(e, "Failed to write boot cache %s", cacheFile);
+        } finally {
+            if (tmp != null && tmp.exists() && ! tmp.delete()) {
+                tmp.deleteOnExit();
+            }
+        }
+    }
+
+    /**
+     * Fingerprint the files of a module, by relative path, size and modification time.
+     */
+    byte[] getModuleFingerprint(final String moduleName) throws IOException {
+        final int idx = moduleName.indexOf(':');
+        final String name = idx == -1 ? moduleName : moduleName.substring(0, idx);
+        final String slot = idx == -1 ? "main" : moduleName.substring(idx + 1);
+        final File moduleDir = new File(new File(modulesDir, name.replace('.', File.separatorChar)), slot);
+        final MessageDigest digest = newDigest();
+        fingerprint(digest, moduleDir, "");
+        return digest.digest();
+    }
+
+    private static void fingerprint(final MessageDigest digest, final File file, final String path) {
+        final File[] children = file.listFiles();
+        if (children == null) {
+            digest.update(path.getBytes());
+            digest.update(longBytes(file.length()));
+            digest.update(longBytes(file.lastModified()));
+            return;
+        }
+        Arrays.sort(children);
+        for (File child : children) {
+            fingerprint(digest, child, path + '/' + child.getName());
+        }
+    }
+
+    /**
+     * Fingerprint the archive holding the model classes, which determine how the updates are marshalled.
+     */
+    private static byte[] getCodeFingerprint() throws IOException {
+        final MessageDigest digest = newDigest();
+        final CodeSource codeSource = AbstractServerModelUpdate.class.getProtectionDomain().getCodeSource();
+        final URL location = codeSource == null ? null : codeSource.getLocation();
+        if (location != null) {
+            digest.update(location.toString().getBytes());
+            if ("file".equals(location.getProtocol())) {
+                final File file = new File(location.getPath());
+                digest.update(longBytes(file.length()));
+                digest.update(longBytes(file.lastModified()));
+            }
+        }
+        return digest.digest();
+    }
+
+    private static byte[] readHash(final DataInputStream in) throws IOException {
+        final byte[] hash = new byte[20];
+        in.readFully(hash);
+        return hash;
+    }
+
+    private static byte[] sha1(final byte[] bytes) throws IOException {
+        return newDigest().digest(bytes);
+    }
+
+    private static MessageDigest newDigest() throws IOException {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("Cannot obtain SHA-1 " + MessageDigest.class.getSimpleName(), e);
+        }
+    }
+
+    private static byte[] longBytes(final long value) {
+        final byte[] bytes = new byte[8];
+        for (int i = 0; i < 8; i++) {
+            bytes[i] = (byte) (value >>> (56 - (i << 3)));
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,365 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.TimeUnit;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.jboss.logging.Logger;
+import org.jboss.msc.service.BatchBuilder;
+import org.jboss.msc.service.Service;
+import org.jboss.msc.service.ServiceName;
+import org.jboss.msc.service.StartContext;
+import org.jboss.msc.service.StartException;
+import org.jboss.msc.service.StopContext;
+
+/**
+ * Records when every service of the server boot, including the deployment batch, was installed, started starting
+ * and finished starting, along with the dependencies declared for it.  Once the boot is complete it computes the
+ * longest dependency chain, weighted by the start time of each service, which is the critical path of the boot:
+ * speeding up any service off that chain cannot make the boot faster.  The report of the slowest services and the
+ * critical path is logged and is available through the {@value #OBJECT_NAME} MBean.
+ *
+ * @author John E. Bailey
+ */
+public class BootProfile implements BootProfileMBean, Service<BootProfile> {
+    private static final Logger log = Logger.getLogger("org.jboss.as.server.boot");
+
+    public static final ServiceName SERVICE_NAME = ServiceName.JBOSS.append("server", "boot-profile");
+    public static final String OBJECT_NAME = "jboss.as:type=BootProfile";
+    public static final String TOP_COUNT_PROPERTY = "org.jboss.as.server.boot-profile.top";
+
+    private static final int TOP_COUNT = Integer.getInteger(TOP_COUNT_PROPERTY, 10).intValue();
+
+    private final ConcurrentMap<ServiceName, Record> records = new ConcurrentHashMap<ServiceName, Record>();
+    private final long start = System.nanoTime();
+
+    // protected by {@code this}
+    private Analysis analysis;
+
+    /**
+     * Configure the BatchBuilder to install the profile as a service, so that it can be registered for management.
+     *
+     * @param batchBuilder service batch builder to use to install the service
+     * @param profile the profile of the boot
+     */
+    public static void addService(final BatchBuilder batchBuilder, final BootProfile profile) {
+        batchBuilder.addService(SERVICE_NAME, profile);
+    }
+
+    /**
+     * Record that a service was installed.
+     *
+     * @param serviceName the service name
+     */
+    public void serviceInstalled(final ServiceName serviceName) {
+        serviceInstalled(serviceName, System.nanoTime());
+    }
+
+    /**
+     * Record that a service began to start.
+     *
+     * @param serviceName the service name
+     */
+    public void serviceStarting(final ServiceName serviceName) {
+        serviceStarting(serviceName, System.nanoTime());
+    }
+
+    /**
+     * Record that a service finished starting, successfully or not.
+     *
+     * @param serviceName the service name
+     */
+    public void serviceStarted(final ServiceName serviceName) {
+        serviceStarted(serviceName, System.nanoTime());
+    }
+
+    /**
+     * Record a dependency of a service.
+     *
+     * @param serviceName the service name
+     * @param dependency the name of the service it depends on
+     */
+    public void dependencyAdded(final ServiceName serviceName, final ServiceName dependency) {
+        getRecord(serviceName).dependencies.add(dependency);
+    }
+
+    void serviceInstalled(final ServiceName serviceName, final long time) {
+        getRecord(serviceName).installed = time;
+    }
+
+    void serviceStarting(final ServiceName serviceName, final long time) {
+        getRecord(serviceName).starting = time;
+    }
+
+    void serviceStarted(final ServiceName serviceName, final long time) {
+        getRecord(serviceName).started = time;
+    }
+
+    private Record getRecord(final ServiceName serviceName) {
+        Record record = records.get(serviceName);
+        if (record == null) {
+            final Record newRecord = new Record(serviceName);
+            record = records.putIfAbsent(serviceName, newRecord);
+            if (record == null) {
+                record = newRecord;
+            }
+        }
+        return record;
+    }
+
+    /**
+     * Compute the critical path of the boot and log the report.  Called once every boot service has started.
+     */
+    public void bootFinished() {
+        final Analysis analysis = analyze();
+        synchronized (this) {
+            this.analysis = analysis;
+        }
+        log.info(analysis.report(TOP_COUNT));
+    }
+
+    Analysis analyze() {
+        final Map<ServiceName, Record> started = new HashMap<ServiceName, Record>();
+        for (Record record : records.values()) {
+            if (record.starting != 0L && record.started != 0L) {
+                started.put(record.serviceName, record);
+            }
+        }
+        final List<Record> slowest = new ArrayList<Record>(started.values());
+        Collections.sort(slowest, new Comparator<Record>() {
+            public int compare(final Record o1, final Record o2) {
+                final long d1 = o1.getStartTime();
+                final long d2 = o2.getStartTime();
+                return d1 < d2 ? 1 : d1 > d2 ? -1 : 0;
+            }
+        });
+
+        // longest chain ending at each service, weighted by start time
+        final Map<Record, Long> chainTimes = new HashMap<Record, Long>();
+        final Map<Record, Record> predecessors = new HashMap<Record, Record>();
+        Record last = null;
+        long longest = -1L;
+        for (Record record : started.values()) {
+            final long chainTime = chainTime(record, started, chainTimes, predecessors);
+            if (chainTime > longest) {
+                longest = chainTime;
+                last = record;
+            }
+        }
+        final List<Record> criticalPath = new ArrayList<Record>();
+        for (Record record = last; record != null; record = predecessors.get(record)) {
+            criticalPath.add(record);
+        }
+        Collections.reverse(criticalPath);
+
+        long end = start;
+        for (Record record : started.values()) {
+            if (record.started - end > 0L) {
+                end = record.started;
+            }
+        }
+        return new Analysis(started.size(), end - start, slowest, criticalPath, Math.max(longest, 0L));
+    }
+
+    private static long chainTime(final Record record, final Map<ServiceName, Record> started, final Map<Record, Long> chainTimes, final Map<Record, Record> predecessors) {
+        final Long known = chainTimes.get(record);
+        if (known != null) {
+            return known.longValue();
+        }
+        // guards against a dependency cycle, which the container would not have started
+        chainTimes.put(record, Long.valueOf(record.getStartTime()));
+        Record predecessor = null;
+        long predecessorTime = 0L;
+        for (ServiceName dependency : record.dependencies) {
+            final Record dependencyRecord = started.get(dependency);
+            if (dependencyRecord != null && dependencyRecord != record) {
+                final long time = chainTime(dependencyRecord, started, chainTimes, predecessors);
+                if (predecessor == null || time > predecessorTime) {
+                    predecessor = dependencyRecord;
+                    predecessorTime = time;
+                }
+            }
+        }
+        final long chainTime = predecessorTime + record.getStartTime();
+        chainTimes.put(record, Long.valueOf(chainTime));
+        if (predecessor != null) {
+            predecessors.put(record, predecessor);
+        }
+        return chainTime;
+    }
+
+    private synchronized Analysis getAnalysis() {
+        return analysis;
+    }
+
+    /** {@inheritDoc} */
+    public String getReport() {
+        return report(TOP_COUNT);
+    }
+
+    /** {@inheritDoc} */
+    public String report(final int count) {
+        final Analysis analysis = getAnalysis();
+        return analysis == null ? null : analysis.report(count);
+    }
+
+    /** {@inheritDoc} */
+    public String[] slowestServices(final int count) {
+        final Analysis analysis = getAnalysis();
+        if (analysis == null) {
+            return new String[0];
+        }
+        final List<Record> slowest = analysis.slowest.subList(0, Math.min(count, analysis.slowest.size()));
+        final String[] result = new String[slowest.size()];
+        for (int i = 0; i < result.length; i++) {
+            final Record record = slowest.get(i);
+            result[i] = String.format("%dms %s", Long.valueOf(millis(record.getStartTime())), record.serviceName);
+        }
+        return result;
+    }
+
+    /** {@inheritDoc} */
+    public String[] getCriticalPath() {
+        final Analysis analysis = getAnalysis();
+        if (analysis == null) {
+            return new String[0];
+        }
+        final String[] result = new String[analysis.criticalPath.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = analysis.criticalPath.get(i).serviceName.getCanonicalName();
+        }
+        return result;
+    }
+
+    /** {@inheritDoc} */
+    public long getCriticalPathTime() {
+        final Analysis analysis = getAnalysis();
+        return analysis == null ? 0L : millis(analysis.criticalPathTime);
+    }
+
+    public void start(final StartContext context) throws StartException {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME));
+        } catch (Exception e) {
+            log.warnf(e, "Failed to register the boot profile mbean");
+        }
+    }
+
+    public void stop(final StopContext context) {
+        try {
+            final MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+            mbeanServer.unregisterMBean(new ObjectName(OBJECT_NAME));
+        } catch (Exception e) {
+            log.debugf(e, "Failed to unregister the boot profile mbean");
+        }
+    }
+
+    public BootProfile getValue() throws IllegalStateException {
+        return this;
+    }
+
+    private static long millis(final long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    private static final class Record {
+        private final ServiceName serviceName;
+        private final Set<ServiceName> dependencies = new CopyOnWriteArraySet<ServiceName>();
+        private volatile long installed;
+        private volatile long starting;
+        private volatile long started;
+
+        private Record(final ServiceName serviceName) {
+            this.serviceName = serviceName;
+        }
+
+        long getStartTime() {
+            return Math.max(started - starting, 0L);
+        }
+    }
+
+    final class Analysis {
+        private final int serviceCount;
+        private final long bootTime;
+        private final List<Record> slowest;
+        private final List<Record> criticalPath;
+        private final long criticalPathTime;
+
+        private Analysis(final int serviceCount, final long bootTime, final List<Record> slowest, final List<Record> criticalPath, final long criticalPathTime) {
+            this.serviceCount = serviceCount;
+            this.bootTime = bootTime;
+            this.slowest = slowest;
+            this.criticalPath = criticalPath;
+            this.criticalPathTime = criticalPathTime;
+        }
+
+        List<ServiceName> getCriticalPath() {
+            final List<ServiceName> names = new ArrayList<ServiceName>(criticalPath.size());
+            for (Record record : criticalPath) {
+                names.add(record.serviceName);
+            }
+            return names;
+        }
+
+        long getCriticalPathTime() {
+            return criticalPathTime;
+        }
+
+        List<ServiceName> getSlowest(final int count) {
+            final List<ServiceName> names = new ArrayList<ServiceName>();
+            for (Record record : slowest.subList(0, Math.min(count, slowest.size()))) {
+                names.add(record.serviceName);
+            }
+            return names;
+        }
+
+        String report(final int count) {
+            final StringBuilder b = new StringBuilder();
+            b.append(String.format("Boot profile: %d services started within %dms", Integer.valueOf(serviceCount), Long.valueOf(millis(bootTime))));
+            b.append("\nSlowest services:");
+            for (Record record : slowest.subList(0, Math.min(count, slowest.size()))) {
+                b.append(String.format("\n\t%6dms  %s", Long.valueOf(millis(record.getStartTime())), record.serviceName));
+            }
+            b.append(String.format("\nCritical path (%d services, %dms):", Integer.valueOf(criticalPath.size()), Long.valueOf(millis(criticalPathTime))));
+            for (Record record : criticalPath) {
+                final long installedAt = record.installed == 0L ? 0L : record.installed - start;
+                b.append(String.format("\n\t%6dms  %s (installed at %dms, started at %dms, done at %dms)", Long.valueOf(millis(record.getStartTime())), record.serviceName,
+                        Long.valueOf(millis(installedAt)), Long.valueOf(millis(record.starting - start)), Long.valueOf(millis(record.started - start))));
+            }
+            return b.toString();
+        }
+    }
+}
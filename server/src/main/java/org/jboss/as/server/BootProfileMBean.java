@@ -0,0 +1,69 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server;
+
+/**
+ * Management view of the {@link BootProfile}.
+ *
+ * @author John E. Bailey
+ */
+public interface BootProfileMBean {
+
+    /**
+     * Get the boot report, listing the slowest services and the longest dependency chain.
+     *
+     * @return the report, or {@code null} if the boot has not finished
+     */
+    String getReport();
+
+    /**
+     * Get the boot report with the given number of slowest services.
+     *
+     * @param count the number of services to list
+     * @return the report, or {@code null} if the boot has not finished
+     */
+    String report(int count);
+
+    /**
+     * Get the services which took longest to start, slowest first, each as the start time in milliseconds followed
+     * by the service name.
+     *
+     * @param count the maximum number of services
+     * @return the services
+     */
+    String[] slowestServices(int count);
+
+    /**
+     * Get the names of the services on the longest dependency chain, from the first service to start to the last.
+     *
+     * @return the service names
+     */
+    String[] getCriticalPath();
+
+    /**
+     * Get the sum of the start times, in milliseconds, of the services on the longest dependency chain.
+     *
+     * @return the length of the critical path
+     */
+    long getCriticalPathTime();
+}
@@ -26,6 +26,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.jboss.as.model.AbstractServerModelUpdate;
 import org.jboss.as.model.ServerModel;
@@ -38,9 +39,11 @@ import org.jboss.as.server.mgmt.ServerConfigurationPersister;
 import org.jboss.as.server.mgmt.ServerUpdateController;
 import org.jboss.as.server.mgmt.ServerUpdateController.ServerUpdateCommitHandler;
 import org.jboss.as.server.mgmt.ServerUpdateController.Status;
+import org.jboss.as.threads.ThreadsServices;
 import org.jboss.msc.service.BatchBuilder;
 import org.jboss.msc.service.Service;
 import org.jboss.msc.service.ServiceContainer;
+import org.jboss.msc.service.ServiceName;
 import org.jboss.msc.service.StartContext;
 import org.jboss.msc.service.StartException;
 import org.jboss.msc.service.StopContext;
@@ -51,6 +54,11 @@ import org.jboss.msc.value.InjectedValue;
  */
 final class ServerControllerImpl implements ServerController, Service<ServerController> {
 
+    /**
+     * The threads subsystem pool running the update tasks; if none is configured a private cached pool is used.
+     */
+    static final ServiceName EXECUTOR_NAME = ThreadsServices.executorName("server-controller");
+
     private final InjectedValue<ServerConfigurationPersister> configurationPersisterValue = new InjectedValue<ServerConfigurationPersister>();
     private final InjectedValue<ExecutorService> executorValue = new InjectedValue<ExecutorService>();
 
@@ -59,6 +67,7 @@ final class ServerControllerImpl implements ServerController, Service<ServerCont
     private final boolean standalone;
     private ServerConfigurationPersister configurationPersister;
     private ExecutorService executor;
+    private boolean privateExecutor;
 
 
     ServerControllerImpl(final ServerModel model, final ServiceContainer container, final boolean standalone) {
@@ -154,15 +163,22 @@ final class ServerControllerImpl implements ServerController, Service<ServerCont
     public void start(StartContext context) throws StartException {
         try {
             configurationPersister = configurationPersisterValue.getValue();
-            executor = executorValue.getValue();
         } catch (IllegalStateException e) {
             throw new StartException(e);
         }
+        executor = executorValue.getOptionalValue();
+        privateExecutor = executor == null;
+        if (privateExecutor) {
+            executor = Executors.newCachedThreadPool();
+        }
     }
 
     /** {@inheritDoc} */
     public void stop(StopContext context) {
-        //
+        if (privateExecutor) {
+            executor.shutdown();
+        }
+        executor = null;
     }
 
     private class ServerUpdateCommitHandlerImpl implements ServerUpdateCommitHandler, UpdateResultHandler<Object, Integer> {
@@ -177,7 +193,7 @@ final class ServerControllerImpl implements ServerController, Service<ServerCont
 
         @Override
         public void handleUpdateCommit(ServerUpdateController controller, Status priorStatus) {
-            configurationPersister.configurationModified();
+            configurationPersister.configurationModified(controller.getModelUpdates());
             latch.countDown();
         }
 
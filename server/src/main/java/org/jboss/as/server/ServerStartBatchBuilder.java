@@ -22,7 +22,9 @@
 
 package org.jboss.as.server;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 import org.jboss.msc.inject.Injector;
 import org.jboss.msc.service.BatchBuilder;
@@ -36,7 +38,8 @@ import org.jboss.msc.service.ServiceRegistryException;
 import org.jboss.msc.value.Value;
 
 /**
- * Super-hack batch builder used to ignore on-demand services for the server startup listener.
+ * Super-hack batch builder used to ignore on-demand services for the server startup listener, and to record the
+ * dependencies declared for each service in its boot profile.
  *
  * @author John E. Bailey
  */
@@ -44,6 +47,8 @@ public class ServerStartBatchBuilder implements BatchBuilder {
 
     private final BatchBuilder delegate;
     private final ServerStartupListener serverStartupListener;
+    private final List<ServiceName> serviceNames = new ArrayList<ServiceName>();
+    private final List<ServiceName> batchDependencies = new ArrayList<ServiceName>();
 
     public ServerStartBatchBuilder(final BatchBuilder delegate, final ServerStartupListener serverStartupListener) {
         this.delegate = delegate;
@@ -86,23 +91,50 @@ public class ServerStartBatchBuilder implements BatchBuilder {
     @Override
     public BatchBuilder addDependency(ServiceName dependency) {
         delegate.addDependency(dependency);
+        batchDependencies.add(dependency);
         return this;
     }
 
     @Override
     public BatchBuilder addDependency(ServiceName... dependencies) {
         delegate.addDependency(dependencies);
+        for (ServiceName dependency : dependencies) {
+            batchDependencies.add(dependency);
+        }
         return this;
     }
 
     @Override
     public BatchBuilder addDependency(Collection<ServiceName> dependencies) {
         delegate.addDependency(dependencies);
+        batchDependencies.addAll(dependencies);
         return this;
     }
 
+    /**
+     * Get the names of the services added to this batch so far which are under the given name.
+     *
+     * @param parent the parent name
+     * @return the service names
+     */
+    public List<ServiceName> getServiceNames(final ServiceName parent) {
+        final List<ServiceName> names = new ArrayList<ServiceName>();
+        for (ServiceName serviceName : serviceNames) {
+            if (parent.isParentOf(serviceName)) {
+                names.add(serviceName);
+            }
+        }
+        return names;
+    }
+
     @Override
     public void install() throws ServiceRegistryException {
+        // batch dependencies apply to every service of the batch
+        for (ServiceName serviceName : serviceNames) {
+            for (ServiceName dependency : batchDependencies) {
+                serverStartupListener.dependencyAdded(serviceName, dependency);
+            }
+        }
         delegate.install();
     }
 
@@ -118,6 +150,11 @@ public class ServerStartBatchBuilder implements BatchBuilder {
         private ServerStartBatchServiceBuilder(ServiceName serviceName, BatchServiceBuilder<T> delegate) {
             this.serviceName = serviceName;
             this.delegate = delegate;
+            serviceNames.add(serviceName);
+        }
+
+        private void dependencyAdded(final ServiceName dependency) {
+            serverStartupListener.dependencyAdded(serviceName, dependency);
         }
 
         @Override
@@ -152,60 +189,78 @@ public class ServerStartBatchBuilder implements BatchBuilder {
         @Override
         public BatchServiceBuilder<T> addDependencies(ServiceName... dependencies) {
             delegate.addDependencies(dependencies);
+            for (ServiceName dependency : dependencies) {
+                dependencyAdded(dependency);
+            }
             return this;
         }
 
         @Override
         public BatchServiceBuilder<T> addOptionalDependencies(ServiceName... dependencies) {
             delegate.addOptionalDependencies(dependencies);
+            for (ServiceName dependency : dependencies) {
+                dependencyAdded(dependency);
+            }
             return this;
         }
 
         @Override
         public BatchServiceBuilder<T> addDependencies(Iterable<ServiceName> dependencies) {
             delegate.addDependencies(dependencies);
+            for (ServiceName dependency : dependencies) {
+                dependencyAdded(dependency);
+            }
             return this;
         }
 
         @Override
         public BatchServiceBuilder<T> addOptionalDependencies(Iterable<ServiceName> dependencies) {
             delegate.addOptionalDependencies(dependencies);
+            for (ServiceName dependency : dependencies) {
+                dependencyAdded(dependency);
+            }
             return this;
         }
 
         @Override
         public BatchServiceBuilder<T> addDependency(ServiceName dependency) {
             delegate.addDependency(dependency);
+            dependencyAdded(dependency);
             return this;
         }
 
         @Override
         public BatchServiceBuilder<T> addOptionalDependency(ServiceName dependency) {
             delegate.addOptionalDependency(dependency);
+            dependencyAdded(dependency);
             return this;
         }
 
         @Override
         public BatchServiceBuilder<T> addDependency(ServiceName dependency, Injector<Object> target) {
             delegate.addDependency(dependency, target);
+            dependencyAdded(dependency);
             return this;
         }
 
         @Override
         public BatchServiceBuilder<T> addOptionalDependency(ServiceName dependency, Injector<Object> target) {
             delegate.addOptionalDependency(dependency, target);
+            dependencyAdded(dependency);
             return this;
         }
 
         @Override
         public <I> BatchServiceBuilder<T> addDependency(ServiceName dependency, Class<I> type, Injector<I> target) {
             delegate.addDependency(dependency, type, target);
+            dependencyAdded(dependency);
             return this;
         }
 
         @Override
         public <I> BatchServiceBuilder<T> addOptionalDependency(ServiceName dependency, Class<I> type, Injector<I> target) {
             delegate.addOptionalDependency(dependency, type, target);
+            dependencyAdded(dependency);
             return this;
         }
 
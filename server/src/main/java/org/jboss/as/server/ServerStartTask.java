@@ -30,17 +30,20 @@ import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
-import java.util.concurrent.Executors;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ExecutorService;
 
+import org.jboss.as.deployment.DeploymentPreparer;
+import org.jboss.as.deployment.ServerDeploymentRepository;
+import org.jboss.as.deployment.chain.DeploymentChain;
 import org.jboss.as.deployment.chain.JarDeploymentActivator;
 import org.jboss.as.deployment.module.ClassifyingModuleLoaderInjector;
 import org.jboss.as.deployment.module.ClassifyingModuleLoaderService;
 import org.jboss.as.deployment.module.DeploymentModuleLoaderImpl;
 import org.jboss.as.deployment.module.DeploymentModuleLoaderService;
+import org.jboss.as.deployment.processor.AnnotationIndexCache;
+import org.jboss.as.deployment.unit.DeploymentMetrics;
 import org.jboss.as.model.AbstractServerModelUpdate;
+import org.jboss.as.model.ServerGroupDeploymentElement;
 import org.jboss.as.model.ServerModel;
 import org.jboss.as.model.UpdateContext;
 import org.jboss.as.model.UpdateFailedException;
@@ -99,8 +102,8 @@ public final class ServerStartTask implements ServerTask, Serializable, ObjectIn
 
         log.infof("Starting server \"%s\"", serverName);
         final ServiceContainer container = ServiceContainer.Factory.create();
-        final int threads = Runtime.getRuntime().availableProcessors();
-        container.setExecutor(new ThreadPoolExecutor(threads, threads, Long.MAX_VALUE, TimeUnit.NANOSECONDS, new LinkedBlockingQueue<Runnable>()));
+        final ServiceContainerExecutor containerExecutor = new ServiceContainerExecutor();
+        container.setExecutor(containerExecutor);
 
         final ServerStartupListener serverStartupListener = new ServerStartupListener(createListenerCallback());
         final ServerStartBatchBuilder batchBuilder = new ServerStartBatchBuilder(container.batchBuilder(), serverStartupListener);
@@ -140,13 +143,15 @@ public final class ServerStartTask implements ServerTask, Serializable, ObjectIn
 
         log.info("Activating core services");
 
+        // The container executor, moved onto the service-container pool once the threads subsystem is up
+        ServiceContainerExecutor.addService(batchBuilder, containerExecutor);
+
         // The server controller
         // TODO make ServerConfigurationPersister internal
-        // TODO share thread pool
         ServerControllerImpl serverController = new ServerControllerImpl(serverModel, container, environment.isStandalone());
         batchBuilder.addService(ServerController.SERVICE_NAME, serverController)
             .addDependency(ServerConfigurationPersister.SERVICE_NAME, ServerConfigurationPersister.class, serverController.getConfigurationPersisterValue())
-            .addInjection(serverController.getExecutorValue(), Executors.newCachedThreadPool());
+            .addOptionalDependency(ServerControllerImpl.EXECUTOR_NAME, ExecutorService.class, serverController.getExecutorValue());
 
         // Server environment services
         ServerEnvironmentServices.addServices(environment, batchBuilder);
@@ -154,6 +159,15 @@ public final class ServerStartTask implements ServerTask, Serializable, ObjectIn
         // Deployment repository
         ServerDeploymentRepositoryImpl.addService(batchBuilder);
 
+        // Annotation indexes of the repository content
+        AnnotationIndexCache.addService(batchBuilder, environment.getServerDeployDir());
+
+        // Deployment processing metrics
+        DeploymentMetrics.addService(batchBuilder);
+
+        // Critical path of the boot
+        BootProfile.addService(batchBuilder, serverStartupListener.getProfile());
+
         // Graceful shutdown
         ShutdownHandlerImpl.addService(batchBuilder);
 
@@ -207,10 +221,13 @@ public final class ServerStartTask implements ServerTask, Serializable, ObjectIn
             }
         }
 
+        // Deployment preparation, concurrently with the rest of the boot
+        final DeploymentPreparer deploymentPreparer = addDeploymentPreparer(serverModel, batchBuilder);
+
         StandaloneServerManagementServices.addServices(serverModel, container, batchBuilder);
 
         try {
-            serverStartupListener.startBatch(createDeploymentTask(container, serverStartupListener));
+            serverStartupListener.startBatch(createDeploymentTask(container, serverStartupListener, deploymentPreparer));
             batchBuilder.install();
             serverStartupListener.finishBatch();
         } catch (ServiceRegistryException e) {
@@ -218,7 +235,32 @@ public final class ServerStartTask implements ServerTask, Serializable, ObjectIn
         }
     }
 
-    private Runnable createDeploymentTask(final ServiceContainer container, final ServerStartupListener serverStartupListener) {
+    /**
+     * Add the service which mounts and runs the early deployment phases of the deployments to start, as soon as the
+     * deployment repository and every deployment chain and processor of the boot is up, rather than once the whole
+     * boot has completed.
+     */
+    private DeploymentPreparer addDeploymentPreparer(final ServerModel serverModel, final ServerStartBatchBuilder batchBuilder) {
+        final DeploymentPreparer deploymentPreparer = new DeploymentPreparer();
+        boolean empty = true;
+        for (ServerGroupDeploymentElement deployment : serverModel.getDeployments()) {
+            if (deployment.isStart()) {
+                deploymentPreparer.addDeployment(deployment.getUniqueName(), deployment.getRuntimeName(), deployment.getSha1Hash());
+                empty = false;
+            }
+        }
+        if (empty) {
+            return null;
+        }
+        batchBuilder.addService(DeploymentPreparer.SERVICE_NAME, deploymentPreparer)
+            .addDependency(ServerDeploymentRepository.SERVICE_NAME, ServerDeploymentRepository.class, deploymentPreparer.getDeploymentRepositoryInjector())
+            .addOptionalDependency(AnnotationIndexCache.SERVICE_NAME, AnnotationIndexCache.class, deploymentPreparer.getAnnotationIndexCacheInjector())
+            .addOptionalDependency(DeploymentMetrics.SERVICE_NAME, DeploymentMetrics.class, deploymentPreparer.getDeploymentMetricsInjector())
+            .addDependencies(batchBuilder.getServiceNames(DeploymentChain.SERVICE_NAME));
+        return deploymentPreparer;
+    }
+
+    private Runnable createDeploymentTask(final ServiceContainer container, final ServerStartupListener serverStartupListener, final DeploymentPreparer deploymentPreparer) {
         return new Runnable() {
             public void run() {
                 // Activate deployments once the first batch is complete.
@@ -241,6 +283,9 @@ public final class ServerStartTask implements ServerTask, Serializable, ObjectIn
                         update.applyUpdateBootAction(context);
                     }
                 }
+                if (deploymentPreparer != null && deploymentPreparer.getPreparedCount() > 0) {
+                    log.infof("Prepared %d deployment(s) concurrently with the boot services, saving %dms", Integer.valueOf(deploymentPreparer.getPreparedCount()), Long.valueOf(deploymentPreparer.getTimeSaved()));
+                }
 
                 serverStartupListener.finish(); // We have finished adding everything for the server start
                 try {
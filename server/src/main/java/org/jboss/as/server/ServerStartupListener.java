@@ -54,6 +54,7 @@ public class ServerStartupListener extends AbstractServiceListener<Object>{
     private final Set<ServiceName> expectedOnDemandServices = new HashSet<ServiceName>();
     private final AtomicBoolean finished = new AtomicBoolean();
     private final AtomicBoolean callbackRan = new AtomicBoolean();
+    private final BootProfile profile = new BootProfile();
 
     private static final AtomicIntegerFieldUpdater<ServerStartupListener> countUpdater = AtomicIntegerFieldUpdater.newUpdater(ServerStartupListener.class, "count");
     private static final AtomicIntegerFieldUpdater<ServerStartupListener> totalServicesUpdater = AtomicIntegerFieldUpdater.newUpdater(ServerStartupListener.class, "totalServices");
@@ -71,14 +72,21 @@ public class ServerStartupListener extends AbstractServiceListener<Object>{
 
     /** {@inheritDoc} */
     public void listenerAdded(final ServiceController<? extends Object> serviceController) {
+        profile.serviceInstalled(serviceController.getName());
         totalServicesUpdater.incrementAndGet(this);
         if(!expectedOnDemandServices.contains(serviceController.getName())) {
             countUpdater.incrementAndGet(this);
         }
     }
 
+    /** {@inheritDoc} */
+    public void serviceStarting(final ServiceController<? extends Object> serviceController) {
+        profile.serviceStarting(serviceController.getName());
+    }
+
     /** {@inheritDoc} */
     public void serviceStarted(final ServiceController<? extends Object> serviceController) {
+        profile.serviceStarted(serviceController.getName());
         startedServicesUpdater.incrementAndGet(this);
         if(expectedOnDemandServices.contains(serviceController.getName())) {
             startedOnDemandServicesUpdater.incrementAndGet(this);
@@ -92,6 +100,7 @@ public class ServerStartupListener extends AbstractServiceListener<Object>{
     /** {@inheritDoc} */
     public void serviceFailed(ServiceController<? extends Object> serviceController, StartException reason) {
         final ServiceName serviceName = serviceController.getName();
+        profile.serviceStarted(serviceName);
         log.errorf(reason, "Service [%s] start failed", serviceName);
         serviceFailures.put(serviceName, reason);
         if (!expectedOnDemandServices.contains(serviceController.getName()) && countUpdater.decrementAndGet(this) == 0) {
@@ -127,10 +136,30 @@ public class ServerStartupListener extends AbstractServiceListener<Object>{
         }
         if(finished && callbackRan.compareAndSet(false, true)) {
             final long end = System.currentTimeMillis();
+            profile.bootFinished();
             finishCallback.run(serviceFailures, end - start, totalServices, expectedOnDemandServices.size() - startedOnDemandServicesUpdater.get(this), startedServices);
         }
     }
 
+    /**
+     * Record a dependency declared for a service of the boot.
+     *
+     * @param serviceName the service name
+     * @param dependency the name of the service it depends on
+     */
+    public void dependencyAdded(final ServiceName serviceName, final ServiceName dependency) {
+        profile.dependencyAdded(serviceName, dependency);
+    }
+
+    /**
+     * Get the profile of the services started by the boot.
+     *
+     * @return the boot profile
+     */
+    public BootProfile getProfile() {
+        return profile;
+    }
+
     public void expectOnDemand(final ServiceName serviceName) {
         expectedOnDemandServices.add(serviceName);
     }
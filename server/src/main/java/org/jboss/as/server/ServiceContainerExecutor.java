@@ -0,0 +1,131 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.as.threads.ThreadsServices;
+import org.jboss.logging.Logger;
+import org.jboss.msc.inject.Injector;
+import org.jboss.msc.service.BatchBuilder;
+import org.jboss.msc.service.Service;
+import org.jboss.msc.service.ServiceController;
+import org.jboss.msc.service.ServiceName;
+import org.jboss.msc.service.StartContext;
+import org.jboss.msc.service.StartException;
+import org.jboss.msc.service.StopContext;
+import org.jboss.msc.value.InjectedValue;
+
+/**
+ * The executor of the service container.  The container needs an executor before any service, including the threads
+ * subsystem, can start, so this one runs the tasks on a small bootstrap pool until the
+ * {@link #POOL_NAME service-container} pool of the threads subsystem is up, and from then on forwards them to that
+ * pool, where they are measured and can be sized like those of any other pool.  The pool should have an unbounded
+ * queue; should it reject a task anyway, the task still runs on the bootstrap pool.
+ *
+ * @author John E. Bailey
+ */
+final class ServiceContainerExecutor extends AbstractExecutorService implements Service<ServiceContainerExecutor> {
+
+    static final ServiceName SERVICE_NAME = ServiceName.JBOSS.append("server", "container-executor");
+    static final ServiceName POOL_NAME = ThreadsServices.executorName("service-container");
+
+    private static final Logger log = Logger.getLogger("org.jboss.as.server");
+
+    private final ThreadPoolExecutor bootstrapExecutor;
+    private final InjectedValue<ExecutorService> poolValue = new InjectedValue<ExecutorService>();
+    private volatile Executor delegate;
+
+    ServiceContainerExecutor() {
+        final int threads = Runtime.getRuntime().availableProcessors();
+        bootstrapExecutor = new ThreadPoolExecutor(threads, threads, Long.MAX_VALUE, TimeUnit.NANOSECONDS, new LinkedBlockingQueue<Runnable>());
+        delegate = bootstrapExecutor;
+    }
+
+    static void addService(final BatchBuilder batchBuilder, final ServiceContainerExecutor executor) {
+        batchBuilder.addService(SERVICE_NAME, executor)
+            .addOptionalDependency(POOL_NAME, ExecutorService.class, executor.getPoolInjector())
+            .setInitialMode(ServiceController.Mode.ACTIVE);
+    }
+
+    public void execute(final Runnable command) {
+        final Executor delegate = this.delegate;
+        if (delegate == bootstrapExecutor) {
+            bootstrapExecutor.execute(command);
+            return;
+        }
+        try {
+            delegate.execute(command);
+        } catch (RejectedExecutionException e) {
+            bootstrapExecutor.execute(command);
+        }
+    }
+
+    public void shutdown() {
+        bootstrapExecutor.shutdown();
+    }
+
+    public List<Runnable> shutdownNow() {
+        return bootstrapExecutor.shutdownNow();
+    }
+
+    public boolean isShutdown() {
+        return bootstrapExecutor.isShutdown();
+    }
+
+    public boolean isTerminated() {
+        return bootstrapExecutor.isTerminated();
+    }
+
+    public boolean awaitTermination(final long timeout, final TimeUnit unit) throws InterruptedException {
+        return bootstrapExecutor.awaitTermination(timeout, unit);
+    }
+
+    public void start(final StartContext context) throws StartException {
+        final ExecutorService pool = poolValue.getOptionalValue();
+        if (pool != null) {
+            delegate = pool;
+            log.debugf("Service container tasks now run on %s", POOL_NAME);
+        }
+    }
+
+    public void stop(final StopContext context) {
+        // back to the bootstrap pool before the pool stops, the container still has services to stop
+        delegate = bootstrapExecutor;
+    }
+
+    public ServiceContainerExecutor getValue() throws IllegalStateException {
+        return this;
+    }
+
+    Injector<ExecutorService> getPoolInjector() {
+        return poolValue;
+    }
+}
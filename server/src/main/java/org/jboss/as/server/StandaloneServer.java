@@ -21,9 +21,12 @@
  */
 package org.jboss.as.server;
 
-import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -31,6 +34,11 @@ import java.util.List;
 import javax.xml.stream.XMLInputFactory;
 
 import org.jboss.as.model.AbstractServerModelUpdate;
+import org.jboss.as.model.ConfigurationJournal;
+import org.jboss.as.model.Element;
+import org.jboss.as.model.ServerModel;
+import org.jboss.as.model.UpdateFailedException;
+import org.jboss.as.protocol.StreamUtils;
 import org.jboss.logging.Logger;
 import org.jboss.msc.service.ServiceActivator;
 import org.jboss.staxmapper.XMLMapper;
@@ -43,11 +51,13 @@ import org.jboss.staxmapper.XMLMapper;
 public class StandaloneServer {
 
     private static final String STANDALONE_XML = "standalone.xml";
+    private static final String BOOT_CACHE = "boot-cache";
     private final StandardElementReaderRegistrar extensionRegistrar;
 
     static final Logger log = Logger.getLogger("org.jboss.as.server");
 
     private final ServerEnvironment environment;
+    private final BootCache bootCache;
 
     public StandaloneServer(ServerEnvironment environment) {
         if (environment == null) {
@@ -55,6 +65,11 @@ public class StandaloneServer {
         }
         this.environment = environment;
         extensionRegistrar = StandardElementReaderRegistrar.Factory.getRegistrar();
+        if (Boolean.getBoolean(BootCache.ENABLED_PROPERTY)) {
+            bootCache = new BootCache(new File(new File(environment.getServerDataDir(), BOOT_CACHE), "standalone.cache"), environment.getModulesDir());
+        } else {
+            bootCache = null;
+        }
     }
 
     public void start() throws ServerStartException {
@@ -69,13 +84,21 @@ public class StandaloneServer {
         if(! standalone.canWrite() ) {
             throw new ServerStartException("File " + standalone.getAbsolutePath()  + " is not writable.");
         }
-        final List<AbstractServerModelUpdate<?>> updates = new ArrayList<AbstractServerModelUpdate<?>>();
-        try {
-            final XMLMapper mapper = XMLMapper.Factory.create();
-            extensionRegistrar.registerStandardStandaloneReaders(mapper);
-            mapper.parseDocument(updates, XMLInputFactory.newInstance().createXMLStreamReader(new BufferedReader(new FileReader(standalone))));
-        } catch (Exception e) {
-            throw new ServerStartException("Caught exception during processing of standalone.xml", e);
+        List<AbstractServerModelUpdate<?>> updates = parseStandaloneXml(standalone);
+        final ConfigurationJournal<ServerModel> journal = new ConfigurationJournal<ServerModel>(standalone, Element.SERVER, false, 0L);
+        if (journal.isRecoveryNeeded()) {
+            // Replay the changes which did not make it into standalone.xml before the last shutdown
+            final ServerModel model = new ServerModel();
+            try {
+                for (AbstractServerModelUpdate<?> update : updates) {
+                    model.update(update);
+                }
+            } catch (UpdateFailedException e) {
+                throw new ServerStartException("Caught exception during processing of standalone.xml", e);
+            }
+            if (journal.recover(model) > 0) {
+                updates = parseStandaloneXml(standalone);
+            }
         }
 
         final ServerStartTask startTask = new ServerStartTask("server name", 0, serviceActivators, updates, environment);
@@ -99,5 +122,45 @@ public class StandaloneServer {
             }
         }.start();
     }
-}
 
+    private List<AbstractServerModelUpdate<?>> parseStandaloneXml(final File standalone) throws ServerStartException {
+        final long start = System.currentTimeMillis();
+        final byte[] bytes;
+        try {
+            bytes = readFile(standalone);
+        } catch (IOException e) {
+            throw new ServerStartException("Caught exception during processing of standalone.xml", e);
+        }
+        if (bootCache != null) {
+            final List<AbstractServerModelUpdate<?>> cached = bootCache.load(bytes);
+            if (cached != null) {
+                log.debugf("Loaded %d updates from boot cache in %dms", Integer.valueOf(cached.size()), Long.valueOf(System.currentTimeMillis() - start));
+                return cached;
+            }
+        }
+        final List<AbstractServerModelUpdate<?>> updates = new ArrayList<AbstractServerModelUpdate<?>>();
+        try {
+            final XMLMapper mapper = XMLMapper.Factory.create();
+            extensionRegistrar.registerStandardStandaloneReaders(mapper);
+            mapper.parseDocument(updates, XMLInputFactory.newInstance().createXMLStreamReader(new InputStreamReader(new ByteArrayInputStream(bytes))));
+        } catch (Exception e) {
+            throw new ServerStartException("Caught exception during processing of standalone.xml", e);
+        }
+        log.debugf("Parsed %d updates from %s in %dms", Integer.valueOf(updates.size()), standalone, Long.valueOf(System.currentTimeMillis() - start));
+        if (bootCache != null) {
+            bootCache.store(bytes, updates);
+        }
+        return updates;
+    }
+
+    private static byte[] readFile(final File file) throws IOException {
+        final FileInputStream in = new FileInputStream(file);
+        try {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream((int) file.length());
+            StreamUtils.copyStream(in, out);
+            return out.toByteArray();
+        } finally {
+            StreamUtils.safeClose(in);
+        }
+    }
+}
@@ -22,6 +22,9 @@
 
 package org.jboss.as.server.mgmt;
 
+import java.util.List;
+
+import org.jboss.as.model.AbstractServerModelUpdate;
 import org.jboss.msc.service.ServiceName;
 
 /**
@@ -38,6 +41,9 @@ public interface ServerConfigurationPersister {
     /**
      * Notification that the server configuration has been modified
      * and thus needs to be persisted.
+     *
+     * @param updates the updates which changed the configuration, in the order
+     *                they were applied. Cannot be {@code null}
      */
-    void configurationModified();
+    void configurationModified(List<AbstractServerModelUpdate<?>> updates);
 }
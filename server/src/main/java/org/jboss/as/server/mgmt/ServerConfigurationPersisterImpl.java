@@ -22,31 +22,21 @@
 
 package org.jboss.as.server.mgmt;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.io.OutputStreamWriter;
-
-import javax.xml.stream.XMLOutputFactory;
-import javax.xml.stream.XMLStreamException;
+import java.util.List;
 
+import org.jboss.as.model.AbstractServerModelUpdate;
+import org.jboss.as.model.ConfigurationJournal;
 import org.jboss.as.model.Element;
 import org.jboss.as.model.ServerModel;
 import org.jboss.as.server.ServerEnvironment;
 import org.jboss.as.server.ServerEnvironmentService;
-import org.jboss.logging.Logger;
 import org.jboss.msc.service.BatchBuilder;
 import org.jboss.msc.service.Service;
 import org.jboss.msc.service.StartContext;
 import org.jboss.msc.service.StartException;
 import org.jboss.msc.service.StopContext;
 import org.jboss.msc.value.InjectedValue;
-import org.jboss.staxmapper.XMLContentWriter;
-import org.jboss.staxmapper.XMLExtendedStreamWriter;
-import org.jboss.staxmapper.XMLMapper;
 
 /**
  * Default implementation of {@link ServerConfigurationPersister}.
@@ -55,11 +45,9 @@ import org.jboss.staxmapper.XMLMapper;
  */
 public class ServerConfigurationPersisterImpl implements ServerConfigurationPersister, Service<ServerConfigurationPersister> {
 
-    private static Logger logger = Logger.getLogger("org.jboss.as.server");
-
     private final InjectedValue<ServerEnvironment> serverEnvironment = new InjectedValue<ServerEnvironment>();
     private final ServerModel configuration;
-    private File configFile;
+    private volatile ConfigurationJournal<ServerModel> journal;
 
     public static void addService(ServerModel configuration, BatchBuilder batchBuilder) {
         ServerConfigurationPersisterImpl service = new ServerConfigurationPersisterImpl(configuration);
@@ -74,87 +62,10 @@ public class ServerConfigurationPersisterImpl implements ServerConfigurationPers
     }
 
     @Override
-    public void configurationModified() {
-        if (configFile != null) {
-
-            FileOutputStream fos = null;
-            BufferedOutputStream bos = null;
-            OutputStreamWriter writer = null;
-            try {
-                backupConfigFile();
-                configFile.createNewFile();
-                fos = new FileOutputStream(configFile);
-                bos = new BufferedOutputStream(fos);
-                writer = new OutputStreamWriter(bos);
-                final XMLMapper mapper = XMLMapper.Factory.create();
-                mapper.deparseDocument(new RootElementWriter(), XMLOutputFactory.newInstance().createXMLStreamWriter(writer));
-            }
-            catch (Exception e) {
-                logger.errorf(e, "Failed persisting configuration file %s" , configFile.getAbsolutePath());
-            }
-            finally {
-                 if (writer != null) {
-                     try {
-                        writer.close();
-                    } catch (IOException e) {
-                        logger.warnf(e, "Failed closing writer to configuration file %s" , configFile.getAbsolutePath());
-                    }
-                 }
-                 if (fos != null) {
-                     try {
-                        fos.close();
-                    } catch (IOException e) {
-                        logger.warnf(e, "Failed closing output stream to configuration file %s" , configFile.getAbsolutePath());
-                    }
-                 }
-            }
-
-        }
-
-    }
-
-    private void backupConfigFile() throws IOException {
-        File backup = new File(configFile.getParent(), configFile.getName() + ".last-known-good");
-        copyFile(configFile, backup);
-    }
-
-    private void copyFile(File file, File backup) throws IOException {
-
-        if (backup.exists())
-            backup.delete();
-
-        if (!file.renameTo(backup)) {
-            FileOutputStream fos = null;
-            BufferedOutputStream bos = null;
-            FileInputStream fis = null;
-            try {
-                fos = new FileOutputStream(backup);
-                bos = new BufferedOutputStream(fos);
-                fis = new FileInputStream(file);
-                BufferedInputStream bis = new BufferedInputStream(fis);
-                byte[] bytes = new byte[8192];
-                int read;
-                while ((read = bis.read(bytes)) > -1) {
-                    bos.write(bytes, 0, read);
-                }
-            }
-            finally {
-                try {
-                    if (bos != null) {
-                        bos.close();
-                    }
-                 } catch (Exception ignored) {}
-                 try {
-                     if (fos != null) {
-                         fos.close();
-                     }
-                  } catch (Exception ignored) {}
-                  try {
-                      if (fis != null) {
-                          fis.close();
-                      }
-                   } catch (Exception ignored) {}
-            }
+    public void configurationModified(final List<AbstractServerModelUpdate<?>> updates) {
+        final ConfigurationJournal<ServerModel> journal = this.journal;
+        if (journal != null) {
+            journal.persist(configuration, updates);
         }
     }
 
@@ -183,7 +94,7 @@ public class ServerConfigurationPersisterImpl implements ServerConfigurationPers
                 throw new StartException("Cannot create directory " + configDir.getAbsolutePath());
             }
 
-            configFile = new File(configDir, "standalone.xml");
+            File configFile = new File(configDir, "standalone.xml");
             if (configFile.exists()) {
                 if (configFile.isDirectory()) {
                     throw new StartException(configFile.getAbsolutePath() + " is a directory");
@@ -193,12 +104,17 @@ public class ServerConfigurationPersisterImpl implements ServerConfigurationPers
                 }
 
             }
+            journal = new ConfigurationJournal<ServerModel>(configFile, Element.SERVER);
         }
     }
 
     @Override
     public void stop(StopContext context) {
-        configFile = null;
+        final ConfigurationJournal<ServerModel> journal = this.journal;
+        this.journal = null;
+        if (journal != null) {
+            journal.close();
+        }
     }
 
     @Override
@@ -206,16 +122,4 @@ public class ServerConfigurationPersisterImpl implements ServerConfigurationPers
         return this;
     }
 
-    private class RootElementWriter implements XMLContentWriter {
-
-        @Override
-        public void writeContent(XMLExtendedStreamWriter streamWriter) throws XMLStreamException {
-            streamWriter.writeStartDocument();
-            streamWriter.writeStartElement(Element.SERVER.getLocalName());
-            configuration.writeContent(streamWriter);
-            streamWriter.writeEndDocument();
-        }
-
-    }
-
 }
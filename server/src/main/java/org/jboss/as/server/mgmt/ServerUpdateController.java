@@ -82,6 +82,8 @@ public class ServerUpdateController {
     private final List<ServerModelUpdateTuple<?,?>> updates = new ArrayList<ServerModelUpdateTuple<?,?>>();
     /** Compensating updates for updates that that have succeeded and may need rollback */
     private final List<ServerModelUpdateTuple<?,?>> rollbacks = new ArrayList<ServerModelUpdateTuple<?,?>>();
+    /** Updates that changed the model, including compensating updates, in the order they were applied */
+    private final List<AbstractServerModelUpdate<?>> modelUpdates = new ArrayList<AbstractServerModelUpdate<?>>();
     /** ServerModel against which updates are executed */
     private final ServerModel serverModel;
     /** ServiceContainer to use for runtime changes */
@@ -155,6 +157,18 @@ public class ServerUpdateController {
         return status;
     }
 
+    /**
+     * Gets the updates which changed the server model, including any compensating updates applied during rollback,
+     * in the order they were applied.
+     *
+     * @return a copy of the updates. Will not return {@code null}
+     */
+    public List<AbstractServerModelUpdate<?>> getModelUpdates() {
+        synchronized (this) {
+            return new ArrayList<AbstractServerModelUpdate<?>>(modelUpdates);
+        }
+    }
+
     /** Only invoke with the object monitor held */
     private void applyUpdates() {
 
@@ -184,6 +198,7 @@ public class ServerUpdateController {
                 rollbackTuple = update.getRollbackTuple(serverModel);
 
                 serverModel.update(update.getUpdate());
+                modelUpdates.add(update.getUpdate());
                 appliedToModel = true;
                 if (allowRuntimeUpdates) {
                     update.applyUpdate(updateContext);
@@ -215,6 +230,7 @@ public class ServerUpdateController {
                                 rollbackTuple.applyUpdate(updateContext);
                             }
                             serverModel.update(rollbackTuple.getUpdate());
+                            modelUpdates.add(rollbackTuple.getUpdate());
                         } catch (UpdateFailedException e1) {
                             rollbackTuple.handleFailure(e1);
                         }
@@ -261,6 +277,7 @@ public class ServerUpdateController {
                 else {
                     try {
                         serverModel.update(update.getUpdate());
+                        modelUpdates.add(update.getUpdate());
                     }
                     catch (Exception e) {
                         update.handleFailure(e);
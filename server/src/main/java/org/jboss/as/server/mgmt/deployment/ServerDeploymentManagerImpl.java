@@ -438,7 +438,7 @@ public class ServerDeploymentManagerImpl implements ServerDeploymentManager, Ser
         @Override
         public void handleUpdateCommit(ServerUpdateController controller,
                 org.jboss.as.server.mgmt.ServerUpdateController.Status priorStatus) {
-            getConfigurationPersister().configurationModified();
+            getConfigurationPersister().configurationModified(controller.getModelUpdates());
 
             generateResult(priorStatus);
 
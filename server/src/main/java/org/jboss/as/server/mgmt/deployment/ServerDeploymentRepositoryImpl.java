@@ -22,17 +22,22 @@
 
 package org.jboss.as.server.mgmt.deployment;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
 import java.io.Closeable;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.security.DigestOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.jboss.as.deployment.ServerDeploymentRepository;
 import org.jboss.as.deployment.module.TempFileProviderService;
@@ -50,6 +55,11 @@ import org.jboss.vfs.VirtualFile;
 
 /**
  * Default implementation of {@link ServerDeploymentRepository}.
+ * <p>
+ * Content is streamed to a temporary file in the repository root through a large direct buffer, and hashed as it is
+ * written with a digest of its own, so any number of uploads can proceed at once.  The finished file is then renamed
+ * into place, so content only ever appears in the repository complete.  If two uploads of the same content finish at
+ * the same time, only one of them is moved into the repository and the other is discarded.
  *
  * @author Brian Stansberry
  */
@@ -58,9 +68,13 @@ public class ServerDeploymentRepositoryImpl implements ServerDeploymentRepositor
     private static final Logger log = Logger.getLogger("org.jboss.as.server.deployment");
 
     private static final String CONTENT = "content";
+    private static final int BUFFER_SIZE = 256 * 1024;
+    /** The most buffers kept for reuse; buffers of any further concurrent uploads are left to the garbage collector */
+    private static final int MAX_POOLED_BUFFERS = 8;
     private final InjectedValue<ServerEnvironment> serverEnvironment = new InjectedValue<ServerEnvironment>();
+    private final Queue<ByteBuffer> buffers = new ArrayBlockingQueue<ByteBuffer>(MAX_POOLED_BUFFERS);
+    private final ConcurrentMap<String, Object> hashLocks = new ConcurrentHashMap<String, Object>();
     private File repoRoot;
-    private MessageDigest messageDigest;
 
     /**
      * Creates an instance of ServerDeploymentRepositoryImpl and configures the BatchBuilder to install it.
@@ -79,6 +93,15 @@ public class ServerDeploymentRepositoryImpl implements ServerDeploymentRepositor
     public ServerDeploymentRepositoryImpl() {
     }
 
+    /**
+     * Creates a new ServerDeploymentRepositoryImpl which stores content under the given root without being started.
+     *
+     * @param repoRoot the repository root directory, which must exist
+     */
+    ServerDeploymentRepositoryImpl(File repoRoot) {
+        this.repoRoot = repoRoot;
+    }
+
 
     @Override
     public byte[] addDeploymentContent(String name, String runtimeName, InputStream stream)
@@ -86,48 +109,47 @@ public class ServerDeploymentRepositoryImpl implements ServerDeploymentRepositor
 
         log.debugf("Adding content with name %s", name);
 
-        byte[] sha1Bytes = null;
+        final MessageDigest messageDigest = createDigest();
         File tmp = File.createTempFile(name, "tmp", repoRoot);
-        FileOutputStream fos = new FileOutputStream(tmp);
-        synchronized (messageDigest) {
-            messageDigest.reset();
-            try {
-                DigestOutputStream dos = new DigestOutputStream(fos, messageDigest);
-                BufferedInputStream bis = new BufferedInputStream(stream);
-                byte[] bytes = new byte[8192];
-                int read;
-                while ((read = bis.read(bytes)) > -1) {
-                    dos.write(bytes, 0, read);
-                }
+        boolean moved = false;
+        try {
+            copyAndDigest(stream, tmp, messageDigest);
+            byte[] sha1Bytes = messageDigest.digest();
+            String sha1 = bytesToHexString(sha1Bytes);
+            String partA = sha1.substring(0,2);
+            String partB = sha1.substring(2);
+            File base = new File(repoRoot, partA);
+            validateDir(base);
+            File realDir = new File(base, partB);
+            if (!realDir.mkdirs() && !realDir.isDirectory()) {
+                throw new IllegalStateException("Cannot create directory " + realDir.getAbsolutePath());
             }
-            finally {
-                try { fos.close(); } catch (Exception ignored) {}
+            File realFile = new File(realDir, CONTENT);
+
+            // only one upload of the same content gets to move its copy into place
+            final Object lock = new Object();
+            Object existing = hashLocks.putIfAbsent(sha1, lock);
+            synchronized (existing == null ? lock : existing) {
+                try {
+                    if (realFile.exists()) {
+                        // we've already got this content
+                        log.debugf("Content with name %s was already present in repository at location %s" , name, realFile.getAbsolutePath());
+                    }
+                    else {
+                        moveTempToPermanent(tmp, realFile);
+                        moved = true;
+                        log.infof("Content with name %s added at location %s" , name, realFile.getAbsolutePath());
+                    }
+                } finally {
+                    hashLocks.remove(sha1, lock);
+                }
             }
-            sha1Bytes = messageDigest.digest();
-        }
-        String sha1 = bytesToHexString(sha1Bytes);
-        String partA = sha1.substring(0,2);
-        String partB = sha1.substring(2);
-        File base = new File(repoRoot, partA);
-        validateDir(base);
-        File realDir = new File(base, partB);
-        if (!realDir.exists() && !realDir.mkdirs()) {
-            throw new IllegalStateException("Cannot create directory " + realDir.getAbsolutePath());
-        }
-        File realFile = new File(realDir, CONTENT);
-        if (realFile.exists()) {
-            // we've already got this content
-            if (!tmp.delete()) {
+            return sha1Bytes;
+        } finally {
+            if (!moved && !tmp.delete()) {
                 tmp.deleteOnExit();
             }
-            log.debugf("Content with name %s was already present in repository at location %s" , name, realFile.getAbsolutePath());
-        }
-        else {
-            moveTempToPermanent(tmp, realFile);
-            log.infof("Content with name %s added at location %s" , name, realFile.getAbsolutePath());
         }
-
-        return sha1Bytes;
     }
 
     @Override
@@ -172,7 +194,7 @@ public class ServerDeploymentRepositoryImpl implements ServerDeploymentRepositor
         this.repoRoot = deployDir;
 
         try {
-            this.messageDigest = MessageDigest.getInstance("SHA-1");
+            MessageDigest.getInstance("SHA-1");
         } catch (NoSuchAlgorithmException e) {
             throw new StartException("Cannot obtain SHA-1 " + MessageDigest.class.getSimpleName(), e);
         }
@@ -184,6 +206,7 @@ public class ServerDeploymentRepositoryImpl implements ServerDeploymentRepositor
     @Override
     public void stop(StopContext context) {
         this.repoRoot = null;
+        buffers.clear();
 
         log.debugf("%s stopped", ServerDeploymentRepository.class.getSimpleName());
     }
@@ -208,43 +231,91 @@ public class ServerDeploymentRepositoryImpl implements ServerDeploymentRepositor
         }
     }
 
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            // checked in start()
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void copyAndDigest(InputStream stream, File file, MessageDigest messageDigest) throws IOException {
+        final ByteBuffer buffer = getBuffer();
+        final ReadableByteChannel in = Channels.newChannel(stream);
+        final FileOutputStream fos = new FileOutputStream(file);
+        try {
+            final FileChannel out = fos.getChannel();
+            boolean eof = false;
+            while (!eof) {
+                buffer.clear();
+                // fill the buffer so that both the digest and the file see large blocks
+                while (buffer.hasRemaining()) {
+                    if (in.read(buffer) == -1) {
+                        eof = true;
+                        break;
+                    }
+                }
+                buffer.flip();
+                messageDigest.update(buffer);
+                buffer.rewind();
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+            }
+            fos.close();
+        } finally {
+            try { fos.close(); } catch (Exception ignored) {}
+            buffers.offer(buffer);
+        }
+    }
+
+    private ByteBuffer getBuffer() {
+        final ByteBuffer buffer = buffers.poll();
+        return buffer == null ? ByteBuffer.allocateDirect(BUFFER_SIZE) : buffer;
+    }
+
     private void moveTempToPermanent(File tmpFile, File permanentFile) throws IOException {
 
         if (!tmpFile.renameTo(permanentFile)) {
-            FileOutputStream fos = null;
-            BufferedOutputStream bos = null;
+            // the rename can fail if the two are on different file systems; copy the content next to
+            // the permanent file first, so that it still only appears once it is complete
+            File copy = File.createTempFile(CONTENT, "tmp", permanentFile.getParentFile());
             FileInputStream fis = null;
+            FileOutputStream fos = null;
             try {
-                fos = new FileOutputStream(permanentFile);
-                bos = new BufferedOutputStream(fos);
                 fis = new FileInputStream(tmpFile);
-                BufferedInputStream bis = new BufferedInputStream(fis);
-                byte[] bytes = new byte[8192];
-                int read;
-                while ((read = bis.read(bytes)) > -1) {
-                    bos.write(bytes, 0, read);
+                fos = new FileOutputStream(copy);
+                final FileChannel in = fis.getChannel();
+                final FileChannel out = fos.getChannel();
+                final long size = in.size();
+                long position = 0;
+                while (position < size) {
+                    position += in.transferTo(position, size - position, out);
+                }
+                fos.close();
+                if (!copy.renameTo(permanentFile)) {
+                    throw new IOException("Cannot move " + copy.getAbsolutePath() + " to " + permanentFile.getAbsolutePath());
                 }
             }
             finally {
                 try {
-                    if (bos != null) {
-                        bos.close();
+                    if (fos != null) {
+                        fos.close();
                     }
-                 } catch (Exception ignored) {}
-                 try {
-                     if (fos != null) {
-                         fos.close();
-                     }
-                  } catch (Exception ignored) {}
-                  try {
-                      if (fis != null) {
-                          fis.close();
-                      }
-                  } catch (Exception ignored) {}
-
-                  if (!tmpFile.delete()) {
-                      tmpFile.deleteOnExit();
-                  }
+                } catch (Exception ignored) {}
+                try {
+                    if (fis != null) {
+                        fis.close();
+                    }
+                } catch (Exception ignored) {}
+
+                if (copy.exists() && !copy.delete()) {
+                    copy.deleteOnExit();
+                }
+                if (!tmpFile.delete()) {
+                    tmpFile.deleteOnExit();
+                }
             }
         }
     }
@@ -23,27 +23,18 @@
 package org.jboss.as.server.standalone.management;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
 import java.net.InetSocketAddress;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadFactory;
 import javax.net.ServerSocketFactory;
-import org.jboss.as.protocol.ByteDataInput;
-import org.jboss.as.protocol.ByteDataOutput;
 import org.jboss.as.protocol.Connection;
 import org.jboss.as.protocol.ConnectionHandler;
 import org.jboss.as.protocol.MessageHandler;
 import org.jboss.as.protocol.ProtocolServer;
-import org.jboss.as.protocol.SimpleByteDataInput;
-import org.jboss.as.protocol.SimpleByteDataOutput;
-import static org.jboss.as.protocol.StreamUtils.safeClose;
+import org.jboss.as.protocol.mgmt.ManagementHeaderMessageHandler;
 import org.jboss.as.protocol.mgmt.ManagementOperationHandler;
-import org.jboss.as.protocol.mgmt.ManagementProtocol;
-import org.jboss.as.protocol.mgmt.ManagementRequestHeader;
-import org.jboss.as.protocol.mgmt.ManagementResponseHeader;
 import org.jboss.as.services.net.NetworkInterfaceBinding;
 import org.jboss.msc.inject.Injector;
 import org.jboss.msc.service.Service;
@@ -157,74 +148,10 @@ public class ManagementCommunicationService implements Service<ManagementCommuni
     }
 
     public MessageHandler handleConnected(Connection connection) throws IOException {
-        return new ManagementHeaderMessageHandler();
-    }
-
-    private class ManagementHeaderMessageHandler implements MessageHandler {
-        public void handleMessage(Connection connection, InputStream dataStream) throws IOException {
-            final int workingVersion;
-            final ManagementRequestHeader requestHeader;
-            final ManagementOperationHandler handler;
-            ByteDataInput input = null;
-            try {
-                input = new SimpleByteDataInput(dataStream);
-
-                // Start by reading the request header
-                requestHeader = new ManagementRequestHeader(input);
-
-                // Work with the lowest protocol version
-                workingVersion = Math.min(ManagementProtocol.VERSION, requestHeader.getVersion());
-
-                byte handlerId = requestHeader.getOperationHandlerId();
-                if (handlerId == -1) {
-                    throw new IOException("Management request failed.  Invalid handler id");
-                }
-                handler = handlers.get(handlerId);
-                if (handler == null) {
-                    throw new IOException("Management request failed.  NO handler found for id" + handlerId);
-                }
-                connection.setMessageHandler(handler);
-            } catch (IOException e) {
-                throw e;
-            } catch (Throwable t) {
-                throw new IOException("Failed to read request header", t);
-            } finally {
-                safeClose(input);
-                safeClose(dataStream);
-            }
-
-            OutputStream dataOutput = null;
-            ByteDataOutput output = null;
-            try {
-                dataOutput = connection.writeMessage();
-                output = new SimpleByteDataOutput(dataOutput);
-
-                // Now write the response header
-                final ManagementResponseHeader responseHeader = new ManagementResponseHeader(workingVersion, requestHeader.getRequestId());
-                responseHeader.write(output);
-
-                output.close();
-                dataOutput.close();
-            } catch (IOException e) {
-                throw e;
-            } catch (Throwable t) {
-                throw new IOException("Failed to write management response headers", t);
-            } finally {
-                safeClose(output);
-                safeClose(dataOutput);
+        return new ManagementHeaderMessageHandler(executorServiceValue.getValue()) {
+            protected ManagementOperationHandler getHandler(final byte handlerId) {
+                return handlers.get(Byte.valueOf(handlerId));
             }
-        }
-
-        public void handleShutdown(final Connection connection) throws IOException {
-            connection.shutdownWrites();
-        }
-
-        public void handleFailure(final Connection connection, final IOException e) throws IOException {
-            connection.close();
-        }
-
-        public void handleFinished(final Connection connection) throws IOException {
-            // nothing
-        }
+        };
     }
 }
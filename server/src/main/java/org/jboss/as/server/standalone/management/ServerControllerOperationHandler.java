@@ -257,7 +257,7 @@ class ServerControllerOperationHandler extends AbstractMessageHandler implements
                     serviceContainer, executor,
                     new ServerUpdateCommitHandler() {
                         public void handleUpdateCommit(ServerUpdateController controller, Status priorStatus) {
-                            configurationPersister.configurationModified();
+                            configurationPersister.configurationModified(controller.getModelUpdates());
                             latch.countDown();
                         }
                     }, true, ! preventShutdown);
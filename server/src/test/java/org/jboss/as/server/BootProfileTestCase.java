@@ -0,0 +1,95 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.msc.service.ServiceName;
+import org.junit.Test;
+
+/**
+ * Tests of the critical path computed by {@link BootProfile}.
+ *
+ * @author John E. Bailey
+ */
+public class BootProfileTestCase {
+
+    private static final ServiceName A = ServiceName.of("a");
+    private static final ServiceName B = ServiceName.of("b");
+    private static final ServiceName C = ServiceName.of("c");
+    private static final ServiceName D = ServiceName.of("d");
+    private static final ServiceName E = ServiceName.of("e");
+
+    @Test
+    public void testCriticalPath() {
+        final BootProfile profile = new BootProfile();
+        // a -> b -> d is 10 + 50 + 5, a -> c -> d is 10 + 20 + 5, e stands alone at 40
+        start(profile, A, 0, 10);
+        start(profile, B, 10, 60);
+        start(profile, C, 10, 30);
+        start(profile, D, 60, 65);
+        start(profile, E, 0, 40);
+        profile.dependencyAdded(B, A);
+        profile.dependencyAdded(C, A);
+        profile.dependencyAdded(D, B);
+        profile.dependencyAdded(D, C);
+        // not part of the boot
+        profile.dependencyAdded(D, ServiceName.of("unknown"));
+
+        final BootProfile.Analysis analysis = profile.analyze();
+        assertEquals(Arrays.asList(A, B, D), analysis.getCriticalPath());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(65L), analysis.getCriticalPathTime());
+        assertEquals(Arrays.asList(B, E, C), analysis.getSlowest(3));
+        assertTrue(analysis.report(3).contains("Critical path (3 services, 65ms)"));
+    }
+
+    @Test
+    public void testUnstartedServicesIgnored() {
+        final BootProfile profile = new BootProfile();
+        start(profile, A, 0, 10);
+        profile.serviceInstalled(B, 0L);
+        profile.dependencyAdded(B, A);
+
+        final BootProfile.Analysis analysis = profile.analyze();
+        assertEquals(Arrays.asList(A), analysis.getCriticalPath());
+        assertEquals(Arrays.asList(A), analysis.getSlowest(10));
+    }
+
+    @Test
+    public void testReportBeforeBoot() {
+        final BootProfile profile = new BootProfile();
+        assertNull(profile.getReport());
+        assertEquals(0, profile.getCriticalPath().length);
+    }
+
+    private static void start(final BootProfile profile, final ServiceName serviceName, final long starting, final long started) {
+        profile.serviceInstalled(serviceName, 1L);
+        profile.serviceStarting(serviceName, TimeUnit.MILLISECONDS.toNanos(starting) + 1L);
+        profile.serviceStarted(serviceName, TimeUnit.MILLISECONDS.toNanos(started) + 1L);
+    }
+}
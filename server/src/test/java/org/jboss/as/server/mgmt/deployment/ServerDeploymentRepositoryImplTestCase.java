@@ -0,0 +1,193 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server.mgmt.deployment;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of {@link ServerDeploymentRepositoryImpl}.  {@link #testParallelUploads()} doubles as a benchmark; the
+ * size of each upload defaults to 512 KB, so that the regular build stays quick; set the
+ * {@code org.jboss.as.server.test.upload-size} system property to a size in bytes, e.g. 209715200, for a
+ * meaningful measurement.
+ *
+ * @author Brian Stansberry
+ */
+public class ServerDeploymentRepositoryImplTestCase {
+
+    private static final int UPLOAD_SIZE = Integer.getInteger("org.jboss.as.server.test.upload-size", 512 << 10).intValue();
+    private static final int UPLOADS = 16;
+
+    private File root;
+    private ServerDeploymentRepositoryImpl repository;
+
+    @Before
+    public void setUp() throws Exception {
+        root = File.createTempFile("repository", "test");
+        if (!root.delete() || !root.mkdir()) {
+            throw new IOException("Cannot create " + root);
+        }
+        repository = new ServerDeploymentRepositoryImpl(root);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        delete(root);
+    }
+
+    @Test
+    public void testAddContent() throws Exception {
+        byte[] content = new byte[100000];
+        new Random(1L).nextBytes(content);
+        byte[] hash = repository.addDeploymentContent("test.jar", "test.jar", new ByteArrayInputStream(content));
+        assertArrayEquals(MessageDigest.getInstance("SHA-1").digest(content), hash);
+        assertTrue(getContentFile(hash).isFile());
+        assertEquals(content.length, getContentFile(hash).length());
+        assertEquals("Temporary files left behind", 1, root.list().length);
+    }
+
+    @Test
+    public void testConcurrentDuplicateUploads() throws Exception {
+        final byte[] content = new byte[1 << 20];
+        new Random(2L).nextBytes(content);
+        List<byte[]> hashes = upload(8, new UploadSource() {
+            public InputStream getStream(int index) {
+                return new ByteArrayInputStream(content);
+            }
+        });
+        for (byte[] hash : hashes) {
+            assertArrayEquals(hashes.get(0), hash);
+        }
+        assertEquals(content.length, getContentFile(hashes.get(0)).length());
+        assertEquals("Temporary files left behind", 1, root.list().length);
+    }
+
+    @Test
+    public void testParallelUploads() throws Exception {
+        long start = System.nanoTime();
+        List<byte[]> hashes = upload(UPLOADS, new UploadSource() {
+            public InputStream getStream(int index) {
+                return new GeneratedInputStream(index, UPLOAD_SIZE);
+            }
+        });
+        long time = System.nanoTime() - start;
+        for (byte[] hash : hashes) {
+            assertEquals(UPLOAD_SIZE, getContentFile(hash).length());
+        }
+        double seconds = time / (double) TimeUnit.SECONDS.toNanos(1L);
+        System.out.printf("%d parallel uploads of %d KB: %.1f s, %.1f MB/s\n", Integer.valueOf(UPLOADS), Integer.valueOf(UPLOAD_SIZE >> 10),
+                Double.valueOf(seconds), Double.valueOf((double) UPLOADS * UPLOAD_SIZE / (1 << 20) / seconds));
+    }
+
+    private List<byte[]> upload(int count, final UploadSource source) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(count);
+        try {
+            List<Future<byte[]>> futures = new ArrayList<Future<byte[]>>();
+            for (int i = 0; i < count; i++) {
+                final int index = i;
+                futures.add(executor.submit(new Callable<byte[]>() {
+                    public byte[] call() throws Exception {
+                        return repository.addDeploymentContent("upload" + index + ".jar", "upload" + index + ".jar", source.getStream(index));
+                    }
+                }));
+            }
+            List<byte[]> hashes = new ArrayList<byte[]>();
+            for (Future<byte[]> future : futures) {
+                hashes.add(future.get());
+            }
+            return hashes;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private File getContentFile(byte[] hash) {
+        String sha1 = ServerDeploymentRepositoryImpl.bytesToHexString(hash);
+        return new File(new File(new File(root, sha1.substring(0, 2)), sha1.substring(2)), "content");
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    private interface UploadSource {
+        InputStream getStream(int index);
+    }
+
+    /**
+     * Produces a different cheap byte pattern for each upload, so the uploads do not deduplicate.
+     */
+    private static class GeneratedInputStream extends InputStream {
+        private final byte[] block = new byte[8192];
+        private long remaining;
+        private int position;
+
+        GeneratedInputStream(int seed, long size) {
+            new Random(seed).nextBytes(block);
+            remaining = size;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining == 0) {
+                return -1;
+            }
+            int cnt = (int) Math.min(remaining, Math.min(len, block.length - position));
+            System.arraycopy(block, position, b, off, cnt);
+            position = (position + cnt) % block.length;
+            remaining -= cnt;
+            return cnt;
+        }
+    }
+}
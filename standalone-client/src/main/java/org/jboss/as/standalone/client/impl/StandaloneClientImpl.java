@@ -53,6 +53,7 @@ import org.jboss.as.protocol.ProtocolUtils;
 import org.jboss.as.protocol.SimpleByteDataInput;
 import org.jboss.as.protocol.SimpleByteDataOutput;
 import org.jboss.as.protocol.StreamUtils;
+import org.jboss.as.protocol.mgmt.ManagementConnectionPool;
 import org.jboss.as.protocol.mgmt.ManagementException;
 import org.jboss.as.protocol.mgmt.ManagementRequest;
 import org.jboss.as.standalone.client.api.StandaloneClient;
@@ -73,14 +74,13 @@ public class StandaloneClientImpl implements StandaloneClient {
         CONFIG.setClassResolver(new SimpleClassResolver(StandaloneClientImpl.class.getClassLoader()));
     }
     private static final long CONNECTION_TIMEOUT = TimeUnit.SECONDS.toMillis(5L);
-    private final InetAddress address;
-    private final int port;
+    private static final int MAX_CONNECTIONS = 2;
     private final ThreadFactory threadFactory = Executors.defaultThreadFactory();
     private final ExecutorService executorService = Executors.newCachedThreadPool(threadFactory);
+    private final ManagementConnectionPool connectionPool;
 
     public StandaloneClientImpl(final InetAddress address, final int port) {
-        this.address = address;
-        this.port = port;
+        connectionPool = new ManagementConnectionPool(address, port, (int) CONNECTION_TIMEOUT, MAX_CONNECTIONS, executorService, threadFactory);
     }
 
     /** {@inheritDoc} */
@@ -132,6 +132,7 @@ public class StandaloneClientImpl implements StandaloneClient {
     }
 
     public void close() throws IOException {
+        connectionPool.close();
         executorService.shutdown();
     }
 
@@ -380,6 +381,6 @@ public class StandaloneClientImpl implements StandaloneClient {
     }
 
     private ManagementRequestConnectionStrategy getConnectionStrategy() {
-        return new ManagementRequestConnectionStrategy.EstablishConnectingStrategy(address, port, CONNECTION_TIMEOUT, executorService, threadFactory);
+        return new ManagementRequestConnectionStrategy.PooledConnectionStrategy(connectionPool);
     }
 }
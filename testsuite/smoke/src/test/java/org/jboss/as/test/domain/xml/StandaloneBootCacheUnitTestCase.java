@@ -0,0 +1,144 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.test.domain.xml;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLInputFactory;
+
+import junit.framework.TestCase;
+
+import org.jboss.as.model.AbstractServerModelUpdate;
+import org.jboss.as.model.Element;
+import org.jboss.as.model.ModelXmlParsers;
+import org.jboss.as.model.Namespace;
+import org.jboss.as.server.BootCache;
+import org.jboss.marshalling.MarshallingConfiguration;
+import org.jboss.staxmapper.XMLMapper;
+
+/**
+ * Compares parsing the standard standalone.xml with loading the same updates from the boot cache, and checks that
+ * the cache is invalidated when the configuration changes.
+ *
+ * @author Brian Stansberry
+ */
+public class StandaloneBootCacheUnitTestCase extends TestCase {
+
+    private static final int ITERATIONS = 20;
+
+    private String modulePath = null;
+    private File cacheFile;
+    private File modulesDir;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        modulePath = System.getProperty("module.path");
+        modulesDir = new File(StandardConfigsXMLParsingMarshallingUnitTestCase.getASHome(), "modules");
+        if (!modulesDir.exists())
+            throw new FileNotFoundException(modulesDir.getAbsolutePath());
+        System.setProperty("module.path", modulesDir.getAbsolutePath());
+        cacheFile = File.createTempFile("standalone", ".cache");
+        cacheFile.delete();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        super.tearDown();
+        cacheFile.delete();
+        if (modulePath == null)
+            System.clearProperty("module.path");
+        else
+            System.setProperty("module.path", modulePath);
+    }
+
+    public void testBootCache() throws Exception {
+        final byte[] config = readStandaloneXml();
+        // the flat test class path has no modules to resolve classes through
+        final BootCache cache = new BootCache(cacheFile, modulesDir, new MarshallingConfiguration());
+        assertNull(cache.load(config));
+
+        List<AbstractServerModelUpdate<?>> parsed = parse(config);
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            parsed = parse(config);
+        }
+        final long parseTime = System.nanoTime() - start;
+
+        cache.store(config, parsed);
+        assertTrue(cacheFile.isFile());
+
+        List<AbstractServerModelUpdate<?>> loaded = cache.load(config);
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            loaded = cache.load(config);
+        }
+        final long loadTime = System.nanoTime() - start;
+
+        assertNotNull(loaded);
+        assertEquals(parsed.size(), loaded.size());
+        for (int i = 0; i < parsed.size(); i++) {
+            assertEquals(parsed.get(i).getClass(), loaded.get(i).getClass());
+        }
+        System.out.printf("standalone.xml: %d updates, parsed in %d us, loaded from boot cache in %d us\n",
+                Integer.valueOf(parsed.size()), Long.valueOf(parseTime / ITERATIONS / 1000L), Long.valueOf(loadTime / ITERATIONS / 1000L));
+
+        final byte[] changed = new byte[config.length + 1];
+        System.arraycopy(config, 0, changed, 0, config.length);
+        changed[config.length] = '\n';
+        assertNull(cache.load(changed));
+    }
+
+    private List<AbstractServerModelUpdate<?>> parse(final byte[] config) throws Exception {
+        final XMLMapper mapper = XMLMapper.Factory.create();
+        mapper.registerRootElement(new QName(Namespace.CURRENT.getUriString(), Element.SERVER.getLocalName()), ModelXmlParsers.SERVER_XML_READER);
+        final List<AbstractServerModelUpdate<?>> updates = new ArrayList<AbstractServerModelUpdate<?>>();
+        mapper.parseDocument(updates, XMLInputFactory.newInstance().createXMLStreamReader(new InputStreamReader(new ByteArrayInputStream(config))));
+        return updates;
+    }
+
+    private byte[] readStandaloneXml() throws Exception {
+        final File file = new File(StandardConfigsXMLParsingMarshallingUnitTestCase.getASHome(), "standalone/configuration/standalone.xml");
+        final InputStream in = new FileInputStream(file);
+        try {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[8192];
+            int cnt;
+            while ((cnt = in.read(buffer)) != -1) {
+                out.write(buffer, 0, cnt);
+            }
+            return out.toByteArray();
+        } finally {
+            in.close();
+        }
+    }
+}
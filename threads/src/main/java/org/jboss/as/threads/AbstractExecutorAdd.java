@@ -44,6 +44,7 @@ public abstract class AbstractExecutorAdd extends AbstractThreadsSubsystemUpdate
 
     private String threadFactory;
     private TimeSpec keepaliveTime;
+    private AdaptiveSizing adaptiveSizing;
 
     protected AbstractExecutorAdd(final String name, final ScaledCount maxThreads) {
         if (name == null) {
@@ -73,6 +74,14 @@ public abstract class AbstractExecutorAdd extends AbstractThreadsSubsystemUpdate
         this.keepaliveTime = keepaliveTime;
     }
 
+    public AdaptiveSizing getAdaptiveSizing() {
+        return adaptiveSizing;
+    }
+
+    public void setAdaptiveSizing(final AdaptiveSizing adaptiveSizing) {
+        this.adaptiveSizing = adaptiveSizing;
+    }
+
     public ScaledCount getMaxThreads() {
         return maxThreads;
     }
@@ -96,6 +105,11 @@ public abstract class AbstractExecutorAdd extends AbstractThreadsSubsystemUpdate
         return serviceBuilder.addDependency(threadFactoryName, ThreadFactory.class, injector);
     }
 
+    protected void addManagementService(final ServiceName serviceName, final ManagedThreadPool pool, final BatchBuilder builder) {
+        builder.addService(ThreadsServices.executorManagementName(name), new ManagedThreadPoolService(pool))
+            .addDependency(serviceName);
+    }
+
     public final ExecutorRemove getCompensatingUpdate(final ThreadsSubsystemElement original) {
         return new ExecutorRemove(name);
     }
@@ -44,6 +44,7 @@ public abstract class AbstractExecutorElement<T extends AbstractExecutorElement<
     private String threadFactory;
     private ScaledCount maxThreads;
     private TimeSpec keepaliveTime;
+    private AdaptiveSizing adaptiveSizing;
 
     protected AbstractExecutorElement(final String name) {
         this.name = name;
@@ -98,6 +99,14 @@ public abstract class AbstractExecutorElement<T extends AbstractExecutorElement<
         this.keepaliveTime = keepaliveTime;
     }
 
+    public AdaptiveSizing getAdaptiveSizing() {
+        return adaptiveSizing;
+    }
+
+    void setAdaptiveSizing(final AdaptiveSizing adaptiveSizing) {
+        this.adaptiveSizing = adaptiveSizing;
+    }
+
     public final String getName() {
         return name;
     }
@@ -122,6 +131,14 @@ public abstract class AbstractExecutorElement<T extends AbstractExecutorElement<
             streamWriter.writeEmptyElement("thread-factory");
             streamWriter.writeAttribute("name", threadFactory);
         }
+        final AdaptiveSizing adaptiveSizing = getAdaptiveSizing();
+        if (adaptiveSizing != null) {
+            streamWriter.writeStartElement("adaptive-sizing");
+            writeScaledCountElement(streamWriter, adaptiveSizing.getMinCoreThreads(), "min-core-threads");
+            writeScaledCountElement(streamWriter, adaptiveSizing.getMaxCoreThreads(), "max-core-threads");
+            writeTimeSpecElement(streamWriter, adaptiveSizing.getTargetWaitTime(), "target-wait-time");
+            streamWriter.writeEndElement();
+        }
         if (! properties.isEmpty()) {
             streamWriter.writeStartElement("properties");
             for (String name : properties.keySet()) {
@@ -0,0 +1,164 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.threads;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.logging.Logger;
+
+/**
+ * Periodically compares the mean queue wait of a pool over the last interval with the target of its
+ * {@link AdaptiveSizing} and resizes the core of the pool accordingly: by a quarter (at least one thread) up while
+ * tasks wait too long, or while tasks are queued but none started at all, and by one thread down while they wait less
+ * than a quarter of the target and fewer than half of the core threads are busy.  The queue of a scheduled pool also
+ * holds the tasks which are not due yet, so for such a pool only the lateness of the tasks which started counts.
+ *
+ * @author <a href="mailto:david.lloyd@redhat.com">David M. Lloyd</a>
+ */
+final class AdaptiveSizer implements Runnable {
+
+    /**
+     * The core of the pool being sized.
+     */
+    interface Pool {
+        void setCoreThreads(int coreThreads);
+    }
+
+    private static final Logger log = Logger.getLogger("org.jboss.as.threads");
+
+    private static final long SAMPLE_INTERVAL = 1000L;
+
+    private static final ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+        public Thread newThread(final Runnable r) {
+            final Thread thread = new Thread(r, "Thread pool sizer");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    private final String name;
+    private final ExecutorStatistics statistics;
+    private final Pool pool;
+    private final int minCoreThreads;
+    private final int maxCoreThreads;
+    private final long targetWaitTime;
+    private final boolean queuedTasksReady;
+
+    // accessed only by the sampler thread once started
+    private int coreThreads;
+    private long lastStartedTaskCount;
+    private long lastTotalWaitTime;
+
+    // protected by {@code this}
+    private ScheduledFuture<?> future;
+    // protected by {@code this}
+    private boolean stopped;
+
+    /**
+     * Construct a new instance.
+     *
+     * @param name the name of the pool
+     * @param statistics the statistics of the pool
+     * @param adaptiveSizing the bounds and target
+     * @param coreThreads the current core size of the pool
+     * @param limit the largest core size the pool supports
+     * @param queuedTasksReady {@code true} if every queued task is ready to run, {@code false} for a scheduled pool
+     * @param pool the core of the pool
+     */
+    AdaptiveSizer(final String name, final ExecutorStatistics statistics, final AdaptiveSizing adaptiveSizing, final int coreThreads, final int limit, final boolean queuedTasksReady, final Pool pool) {
+        this.name = name;
+        this.queuedTasksReady = queuedTasksReady;
+        this.statistics = statistics;
+        this.pool = pool;
+        maxCoreThreads = Math.max(1, Math.min(limit, adaptiveSizing.getMaxCoreThreads().getScaledCount()));
+        minCoreThreads = Math.min(maxCoreThreads, adaptiveSizing.getMinCoreThreads().getScaledCount());
+        final TimeSpec target = adaptiveSizing.getTargetWaitTime();
+        targetWaitTime = target.getUnit().toMicros(target.getDuration());
+        this.coreThreads = Math.max(minCoreThreads, Math.min(maxCoreThreads, coreThreads));
+        if (this.coreThreads != coreThreads) {
+            pool.setCoreThreads(this.coreThreads);
+        }
+    }
+
+    synchronized void start() {
+        if (future != null) {
+            return;
+        }
+        lastStartedTaskCount = statistics.getStartedTaskCount();
+        lastTotalWaitTime = statistics.getTotalWaitTime();
+        future = sampler.scheduleWithFixedDelay(this, SAMPLE_INTERVAL, SAMPLE_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop sizing the pool.  Once this method returns the sizer no longer resizes the pool, even from a sample which
+     * is still running.
+     */
+    synchronized void stop() {
+        stopped = true;
+        final ScheduledFuture<?> future = this.future;
+        if (future != null) {
+            this.future = null;
+            future.cancel(false);
+        }
+    }
+
+    public void run() {
+        final long startedTaskCount = statistics.getStartedTaskCount();
+        final long totalWaitTime = statistics.getTotalWaitTime();
+        final long tasks = startedTaskCount - lastStartedTaskCount;
+        final long meanWaitTime = tasks == 0L ? 0L : (totalWaitTime - lastTotalWaitTime) / tasks;
+        lastStartedTaskCount = startedTaskCount;
+        lastTotalWaitTime = totalWaitTime;
+
+        final int coreThreads = this.coreThreads;
+        final int newCoreThreads;
+        final boolean stalled = queuedTasksReady && tasks == 0L && statistics.getQueueSize() > 0;
+        if (meanWaitTime > targetWaitTime || stalled) {
+            newCoreThreads = Math.min(maxCoreThreads, coreThreads + Math.max(1, coreThreads >> 2));
+        } else if (meanWaitTime < targetWaitTime >> 2 && statistics.getActiveCount() < coreThreads >> 1) {
+            newCoreThreads = Math.max(minCoreThreads, coreThreads - 1);
+        } else {
+            return;
+        }
+        if (newCoreThreads == coreThreads) {
+            return;
+        }
+        try {
+            synchronized (this) {
+                // the pool may have been given back its configured size
+                if (stopped) {
+                    return;
+                }
+                pool.setCoreThreads(newCoreThreads);
+            }
+            this.coreThreads = newCoreThreads;
+            log.debugf("Resized thread pool '%s' from %d to %d core threads (mean queue wait %dus)", name, Integer.valueOf(coreThreads), Integer.valueOf(newCoreThreads), Long.valueOf(meanWaitTime));
+        } catch (RuntimeException e) {
+            log.debugf(e, "Failed to resize thread pool '%s'", name);
+        }
+    }
+}
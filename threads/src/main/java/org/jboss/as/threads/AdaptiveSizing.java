@@ -0,0 +1,105 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.threads;
+
+import java.io.Serializable;
+
+/**
+ * The bounds and goal of the adaptive sizing of a thread pool.  The core size of an adaptive pool is grown while the
+ * tasks wait longer than the target wait time, and shrunk back while they wait much less and threads are idle, but
+ * never beyond the minimum and maximum core thread counts.
+ *
+ * @author <a href="mailto:david.lloyd@redhat.com">David M. Lloyd</a>
+ */
+public final class AdaptiveSizing implements Serializable {
+
+    private static final long serialVersionUID = -3320768547447404367L;
+
+    private final ScaledCount minCoreThreads;
+    private final ScaledCount maxCoreThreads;
+    private final TimeSpec targetWaitTime;
+
+    /**
+     * Construct a new instance.
+     *
+     * @param minCoreThreads the smallest core size
+     * @param maxCoreThreads the largest core size
+     * @param targetWaitTime the longest acceptable mean time tasks wait before they start
+     */
+    public AdaptiveSizing(final ScaledCount minCoreThreads, final ScaledCount maxCoreThreads, final TimeSpec targetWaitTime) {
+        if (minCoreThreads == null) {
+            throw new IllegalArgumentException("minCoreThreads is null");
+        }
+        if (maxCoreThreads == null) {
+            throw new IllegalArgumentException("maxCoreThreads is null");
+        }
+        if (targetWaitTime == null) {
+            throw new IllegalArgumentException("targetWaitTime is null");
+        }
+        if (minCoreThreads.getScaledCount() > maxCoreThreads.getScaledCount()) {
+            throw new IllegalArgumentException("minCoreThreads is greater than maxCoreThreads");
+        }
+        this.minCoreThreads = minCoreThreads;
+        this.maxCoreThreads = maxCoreThreads;
+        this.targetWaitTime = targetWaitTime;
+    }
+
+    /**
+     * Get the smallest core size.
+     *
+     * @return the minimum core thread count
+     */
+    public ScaledCount getMinCoreThreads() {
+        return minCoreThreads;
+    }
+
+    /**
+     * Get the largest core size.
+     *
+     * @return the maximum core thread count
+     */
+    public ScaledCount getMaxCoreThreads() {
+        return maxCoreThreads;
+    }
+
+    /**
+     * Get the longest acceptable mean time tasks wait before they start.
+     *
+     * @return the target wait time
+     */
+    public TimeSpec getTargetWaitTime() {
+        return targetWaitTime;
+    }
+
+    public boolean equals(final Object obj) {
+        return obj instanceof AdaptiveSizing && equals((AdaptiveSizing) obj);
+    }
+
+    public boolean equals(final AdaptiveSizing obj) {
+        return obj != null && minCoreThreads.equals(obj.minCoreThreads) && maxCoreThreads.equals(obj.maxCoreThreads) && targetWaitTime.equals(obj.targetWaitTime);
+    }
+
+    public int hashCode() {
+        return (minCoreThreads.hashCode() * 31 + maxCoreThreads.hashCode()) * 31 + targetWaitTime.hashCode();
+    }
+}
@@ -64,8 +64,10 @@ public final class BoundedQueueThreadPoolAdd extends AbstractExecutorAdd {
         final String name = getName();
         final ServiceName serviceName = ThreadsServices.executorName(name);
         final BoundedQueueThreadPoolService service = new BoundedQueueThreadPoolService(coreThreads, maxThreads, queueLength, blocking, getKeepaliveTime(), allowCoreTimeout);
+        service.setAdaptiveSizing(getAdaptiveSizing());
         final BatchServiceBuilder<Executor> serviceBuilder = builder.addService(serviceName, service);
         addThreadFactoryDependency(serviceName, serviceBuilder, service.getThreadFactoryInjector(), builder);
+        addManagementService(serviceName, service, builder);
     }
 
     protected void applyUpdate(final ThreadsSubsystemElement element) throws UpdateFailedException {
@@ -78,6 +80,7 @@ public final class BoundedQueueThreadPoolAdd extends AbstractExecutorAdd {
         poolElement.setKeepaliveTime(getKeepaliveTime());
         poolElement.setThreadFactory(getThreadFactory());
         poolElement.setMaxThreads(getMaxThreads());
+        poolElement.setAdaptiveSizing(getAdaptiveSizing());
         element.addExecutor(getName(), new ChildElement<BoundedQueueThreadPoolElement>(Element.BOUNDED_QUEUE_THREAD_POOL.getLocalName(), poolElement));
     }
 
@@ -40,9 +40,10 @@ import java.util.concurrent.ThreadFactory;
  *
  * @author John E. Bailey
  */
-public class BoundedQueueThreadPoolService implements Service<Executor> {
+public class BoundedQueueThreadPoolService implements Service<Executor>, ManagedThreadPool {
     private final InjectedValue<ThreadFactory> threadFactoryValue = new InjectedValue<ThreadFactory>();
     private final InjectedValue<Executor> handoffExecutorValue = new InjectedValue<Executor>();
+    private final ExecutorStatistics statistics = new ExecutorStatistics();
 
     private QueueExecutor executor;
     private Executor value;
@@ -54,6 +55,10 @@ public class BoundedQueueThreadPoolService implements Service<Executor> {
     private TimeSpec keepAlive;
     private boolean allowCoreTimeout;
 
+    private String name;
+    private AdaptiveSizing adaptiveSizing;
+    private AdaptiveSizer sizer;
+
     public BoundedQueueThreadPoolService(int coreThreads, int maxThreads, int queueLength, boolean blocking, TimeSpec keepAlive, boolean allowCoreTimeout) {
         this.coreThreads = coreThreads;
         this.maxThreads = maxThreads;
@@ -64,9 +69,12 @@ public class BoundedQueueThreadPoolService implements Service<Executor> {
     }
 
     public synchronized void start(final StartContext context) throws StartException {
-        executor = new QueueExecutor(coreThreads, maxThreads, keepAlive.getDuration(), keepAlive.getUnit(), queueLength, threadFactoryValue.getValue(), blocking, handoffExecutorValue.getOptionalValue());
+        executor = new QueueExecutor(coreThreads, maxThreads, keepAlive.getDuration(), keepAlive.getUnit(), queueLength, statistics.countThreads(threadFactoryValue.getValue()), blocking, handoffExecutorValue.getOptionalValue());
         executor.setAllowCoreThreadTimeout(allowCoreTimeout);
-        value = JBossExecutors.protectedBlockingExecutor(executor);
+        value = JBossExecutors.protectedBlockingExecutor(new MeasuredBlockingExecutor(executor, statistics));
+        name = context.getController().getName().getSimpleName();
+        statistics.register(name);
+        startSizer();
     }
 
     public synchronized void stop(final StopContext context) {
@@ -74,6 +82,8 @@ public class BoundedQueueThreadPoolService implements Service<Executor> {
         if (executor == null) {
             throw new IllegalStateException();
         }
+        stopSizer();
+        statistics.unregister();
         context.asynchronous();
         executor.shutdown();
         executor.addShutdownListener(new EventListener<StopContext>() {
@@ -93,6 +103,51 @@ public class BoundedQueueThreadPoolService implements Service<Executor> {
         return value;
     }
 
+    /**
+     * Get the runtime statistics of this pool.
+     *
+     * @return the statistics
+     */
+    public ExecutorStatistics getStatistics() {
+        return statistics;
+    }
+
+    public synchronized AdaptiveSizing getAdaptiveSizing() {
+        return adaptiveSizing;
+    }
+
+    public synchronized void setAdaptiveSizing(final AdaptiveSizing adaptiveSizing) {
+        stopSizer();
+        this.adaptiveSizing = adaptiveSizing;
+        final QueueExecutor executor = this.executor;
+        if (adaptiveSizing == null && executor != null) {
+            executor.setCoreThreads(coreThreads);
+        }
+        startSizer();
+    }
+
+    private void startSizer() {
+        final AdaptiveSizing adaptiveSizing = this.adaptiveSizing;
+        final QueueExecutor executor = this.executor;
+        if (adaptiveSizing == null || executor == null) {
+            return;
+        }
+        sizer = new AdaptiveSizer(name, statistics, adaptiveSizing, coreThreads, maxThreads, true, new AdaptiveSizer.Pool() {
+            public void setCoreThreads(final int coreThreads) {
+                executor.setCoreThreads(coreThreads);
+            }
+        });
+        sizer.start();
+    }
+
+    private void stopSizer() {
+        final AdaptiveSizer sizer = this.sizer;
+        if (sizer != null) {
+            this.sizer = null;
+            sizer.stop();
+        }
+    }
+
     public Injector<ThreadFactory> getThreadFactoryInjector() {
         return threadFactoryValue;
     }
@@ -33,17 +33,21 @@ public enum Element {
     UNKNOWN(null),
 
     // Threads 1.0 elements in alpha order
+    ADAPTIVE_SIZING("adaptive-sizing"),
     BOUNDED_QUEUE_THREAD_POOL("bounded-queue-thread-pool"),
     CORE_THREADS("core-threads"),
     HANDOFF_EXECUTOR("handoff-executor"),
     KEEPALIVE_TIME("keepalive-time"),
+    MAX_CORE_THREADS("max-core-threads"),
     MAX_THREADS("max-threads"),
+    MIN_CORE_THREADS("min-core-threads"),
     PROPERTIES("properties"),
     PROPERTY("property"),
     QUEUE_LENGTH("queue-length"),
     QUEUELESS_THREAD_POOL("queueless-thread-pool"),
     SCHEDULED_THREAD_POOL("scheduled-thread-pool"),
     SUBSYSTEM("subsystem"),
+    TARGET_WAIT_TIME("target-wait-time"),
     THREAD_FACTORY("thread-factory"),
     UNBOUNDED_QUEUE_THREAD_POOL("unbounded-queue-thread-pool"),
     ;
@@ -0,0 +1,92 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.threads;
+
+import org.jboss.as.model.UpdateContext;
+import org.jboss.as.model.UpdateFailedException;
+import org.jboss.as.model.UpdateResultHandler;
+import org.jboss.msc.service.ServiceController;
+
+/**
+ * Update changing the adaptive sizing of a thread pool, at runtime if the pool is running.
+ *
+ * @author <a href="mailto:david.lloyd@redhat.com">David M. Lloyd</a>
+ */
+public final class ExecutorAdaptiveSizingUpdate extends AbstractThreadsSubsystemUpdate<Void> {
+
+    private static final long serialVersionUID = 2071374352406932418L;
+
+    private final String name;
+    private final AdaptiveSizing newAdaptiveSizing;
+
+    public ExecutorAdaptiveSizingUpdate(final String name, final AdaptiveSizing newAdaptiveSizing) {
+        this.name = name;
+        this.newAdaptiveSizing = newAdaptiveSizing;
+    }
+
+    public ExecutorAdaptiveSizingUpdate getCompensatingUpdate(final ThreadsSubsystemElement original) {
+        final AbstractExecutorElement<?> executor = original.getExecutor(name);
+        if (executor == null) {
+            return null;
+        }
+        return new ExecutorAdaptiveSizingUpdate(name, executor.getAdaptiveSizing());
+    }
+
+    protected <P> void applyUpdate(final UpdateContext updateContext, final UpdateResultHandler<? super Void, P> handler, final P param) {
+        final ServiceController<?> service = updateContext.getServiceContainer().getService(ThreadsServices.executorManagementName(name));
+        if (service == null) {
+            handler.handleFailure(notConfigured(), param);
+        } else {
+            try {
+                final ManagedThreadPool pool = (ManagedThreadPool) service.getValue();
+                pool.setAdaptiveSizing(newAdaptiveSizing);
+                handler.handleSuccess(null, param);
+            } catch (Throwable t) {
+                handler.handleFailure(t, param);
+            }
+        }
+    }
+
+    protected void applyUpdate(final ThreadsSubsystemElement element) throws UpdateFailedException {
+        final AbstractExecutorElement<?> executor = element.getExecutor(name);
+        if (executor == null) {
+            throw notConfigured();
+        }
+        if (newAdaptiveSizing != null && executor instanceof QueuelessThreadPoolElement) {
+            throw new UpdateFailedException("Thread pool " + name + " has no queue and cannot be sized adaptively");
+        }
+        executor.setAdaptiveSizing(newAdaptiveSizing);
+    }
+
+    public AdaptiveSizing getNewAdaptiveSizing() {
+        return newAdaptiveSizing;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    private UpdateFailedException notConfigured() {
+        return new UpdateFailedException("No thread pool named " + name + " is configured");
+    }
+}
@@ -54,6 +54,10 @@ public final class ExecutorRemove extends AbstractThreadsSubsystemUpdate<Void> {
     }
 
     protected <P> void applyUpdate(final UpdateContext updateContext, final UpdateResultHandler<? super Void, P> handler, final P param) {
+        final ServiceController<?> managementController = updateContext.getServiceContainer().getService(ThreadsServices.executorManagementName(name));
+        if (managementController != null) {
+            managementController.setMode(ServiceController.Mode.REMOVE);
+        }
         final ServiceController<?> controller = updateContext.getServiceContainer().getService(ThreadsServices.executorName(name));
         if (controller == null) {
             handler.handleSuccess(null, param);
@@ -0,0 +1,346 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.threads;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.management.ObjectName;
+
+import org.jboss.logging.Logger;
+
+/**
+ * Runtime statistics of a thread pool: thread counts, queue depth, active count, task counts and histograms of the time
+ * tasks wait in the queue and take to run.  The pool services feed it either by wrapping each task with
+ * {@link #measure(Runnable)} or, when they control the task life cycle themselves, through the {@code taskXxx} methods,
+ * and count their threads by creating them through {@link #countThreads(ThreadFactory)}.
+ *
+ * @author <a href="mailto:david.lloyd@redhat.com">David M. Lloyd</a>
+ */
+public final class ExecutorStatistics implements ExecutorStatisticsMBean {
+
+    private static final Logger log = Logger.getLogger("org.jboss.as.threads");
+
+    private static final int BUCKETS = 32;
+
+    private final AtomicInteger threadCount = new AtomicInteger();
+    private final AtomicInteger peakThreadCount = new AtomicInteger();
+    private final AtomicInteger largestThreadCount = new AtomicInteger();
+    private final AtomicInteger queueSize = new AtomicInteger();
+    private final AtomicInteger activeCount = new AtomicInteger();
+    private final AtomicLong submittedTaskCount = new AtomicLong();
+    private final AtomicLong completedTaskCount = new AtomicLong();
+    private final AtomicLong rejectedTaskCount = new AtomicLong();
+    private final AtomicLong startedTaskCount = new AtomicLong();
+    private final AtomicLong totalWaitTime = new AtomicLong();
+    private final AtomicLong totalRunTime = new AtomicLong();
+    private final AtomicLongArray waitTimeHistogram = new AtomicLongArray(BUCKETS);
+    private final AtomicLongArray runTimeHistogram = new AtomicLongArray(BUCKETS);
+
+    // protected by {@code this}
+    private ObjectName objectName;
+
+    /**
+     * Wrap a task so that its wait and run times are recorded.  The task counts as submitted from now on.
+     *
+     * @param task the task
+     * @return the measured task
+     */
+    public Runnable measure(final Runnable task) {
+        if (task == null) {
+            throw new NullPointerException("task is null");
+        }
+        taskSubmitted();
+        return new MeasuredTask(task);
+    }
+
+    /**
+     * Wrap a thread factory so that the threads it creates are counted while they run.
+     *
+     * @param threadFactory the thread factory
+     * @return the counting thread factory
+     */
+    public ThreadFactory countThreads(final ThreadFactory threadFactory) {
+        return new ThreadFactory() {
+            public Thread newThread(final Runnable r) {
+                return threadFactory.newThread(new CountedThreadTask(r));
+            }
+        };
+    }
+
+    /**
+     * Record that a task has been accepted for execution.
+     */
+    public void taskSubmitted() {
+        submittedTaskCount.incrementAndGet();
+        queueSize.incrementAndGet();
+    }
+
+    /**
+     * Record that a task counted as submitted was refused by the pool.
+     */
+    public void taskRejected() {
+        submittedTaskCount.decrementAndGet();
+        queueSize.decrementAndGet();
+        rejectedTaskCount.incrementAndGet();
+    }
+
+    /**
+     * Record that a task counted as submitted was removed from the queue without ever running.
+     */
+    public void taskDiscarded() {
+        queueSize.decrementAndGet();
+    }
+
+    /**
+     * Record that a task leaves the queue and starts to run.
+     *
+     * @param waitTime the time the task waited, in nanoseconds
+     */
+    public void taskStarted(final long waitTime) {
+        queueSize.decrementAndGet();
+        activeCount.incrementAndGet();
+        startedTaskCount.incrementAndGet();
+        record(waitTime, totalWaitTime, waitTimeHistogram);
+    }
+
+    /**
+     * Record that a running task has finished.
+     *
+     * @param runTime the time the task ran, in nanoseconds
+     */
+    public void taskCompleted(final long runTime) {
+        activeCount.decrementAndGet();
+        completedTaskCount.incrementAndGet();
+        record(runTime, totalRunTime, runTimeHistogram);
+    }
+
+    private static void record(final long nanos, final AtomicLong total, final AtomicLongArray histogram) {
+        final long micros = nanos <= 0L ? 0L : TimeUnit.NANOSECONDS.toMicros(nanos);
+        total.addAndGet(micros);
+        histogram.incrementAndGet(Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros)));
+    }
+
+    public int getThreadCount() {
+        return threadCount.get();
+    }
+
+    public int getPeakThreadCount() {
+        return peakThreadCount.get();
+    }
+
+    public int getLargestThreadCount() {
+        return largestThreadCount.get();
+    }
+
+    public void resetPeakThreadCount() {
+        peakThreadCount.set(threadCount.get());
+    }
+
+    public int getQueueSize() {
+        return Math.max(0, queueSize.get());
+    }
+
+    public int getActiveCount() {
+        return activeCount.get();
+    }
+
+    public long getSubmittedTaskCount() {
+        return submittedTaskCount.get();
+    }
+
+    public long getCompletedTaskCount() {
+        return completedTaskCount.get();
+    }
+
+    public long getRejectedTaskCount() {
+        return rejectedTaskCount.get();
+    }
+
+    public long getAverageWaitTime() {
+        final long started = startedTaskCount.get();
+        return started == 0L ? 0L : totalWaitTime.get() / started;
+    }
+
+    public long getAverageRunTime() {
+        final long completed = completedTaskCount.get();
+        return completed == 0L ? 0L : totalRunTime.get() / completed;
+    }
+
+    public long getWaitTime50thPercentile() {
+        return percentile(waitTimeHistogram, 0.50);
+    }
+
+    public long getWaitTime99thPercentile() {
+        return percentile(waitTimeHistogram, 0.99);
+    }
+
+    public long getRunTime50thPercentile() {
+        return percentile(runTimeHistogram, 0.50);
+    }
+
+    public long getRunTime99thPercentile() {
+        return percentile(runTimeHistogram, 0.99);
+    }
+
+    long getStartedTaskCount() {
+        return startedTaskCount.get();
+    }
+
+    long getTotalWaitTime() {
+        return totalWaitTime.get();
+    }
+
+    public long[] getWaitTimeHistogram() {
+        return snapshot(waitTimeHistogram);
+    }
+
+    public long[] getRunTimeHistogram() {
+        return snapshot(runTimeHistogram);
+    }
+
+    /**
+     * Estimate a percentile from a histogram, as the upper bound of the bucket it falls in.
+     */
+    private static long percentile(final AtomicLongArray histogram, final double fraction) {
+        final long[] snapshot = snapshot(histogram);
+        long total = 0L;
+        for (long count : snapshot) {
+            total += count;
+        }
+        if (total == 0L) {
+            return 0L;
+        }
+        final long rank = (long) Math.ceil(total * fraction);
+        long seen = 0L;
+        for (int i = 0; i < snapshot.length; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return (1L << i) - 1L;
+            }
+        }
+        return (1L << (snapshot.length - 1)) - 1L;
+    }
+
+    private static void raise(final AtomicInteger max, final int value) {
+        int current;
+        do {
+            current = max.get();
+            if (value <= current) {
+                return;
+            }
+        } while (! max.compareAndSet(current, value));
+    }
+
+    private static long[] snapshot(final AtomicLongArray histogram) {
+        final long[] snapshot = new long[histogram.length()];
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = histogram.get(i);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Expose these statistics on the platform MBean server as {@code jboss.threads:type=ThreadPool,name=<name>}.
+     * A failure is only logged, the pool works the same without its statistics being visible.
+     *
+     * @param name the name of the pool
+     */
+    public synchronized void register(final String name) {
+        if (objectName != null) {
+            return;
+        }
+        try {
+            final ObjectName objectName = new ObjectName("jboss.threads:type=ThreadPool,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            this.objectName = objectName;
+        } catch (Exception e) {
+            log.warnf(e, "Failed to register statistics of thread pool '%s'", name);
+        }
+    }
+
+    /**
+     * Remove these statistics from the platform MBean server, if they were registered.
+     */
+    public synchronized void unregister() {
+        final ObjectName objectName = this.objectName;
+        if (objectName != null) {
+            this.objectName = null;
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            } catch (Exception e) {
+                log.debugf(e, "Failed to unregister statistics %s", objectName);
+            }
+        }
+    }
+
+    private final class CountedThreadTask implements Runnable {
+        private final Runnable delegate;
+
+        CountedThreadTask(final Runnable delegate) {
+            this.delegate = delegate;
+        }
+
+        public void run() {
+            final int count = threadCount.incrementAndGet();
+            raise(peakThreadCount, count);
+            raise(largestThreadCount, count);
+            try {
+                delegate.run();
+            } finally {
+                threadCount.decrementAndGet();
+            }
+        }
+
+        public String toString() {
+            return delegate.toString();
+        }
+    }
+
+    private final class MeasuredTask implements Runnable {
+        private final Runnable delegate;
+        private final long submitted = System.nanoTime();
+
+        MeasuredTask(final Runnable delegate) {
+            this.delegate = delegate;
+        }
+
+        public void run() {
+            final long start = System.nanoTime();
+            taskStarted(start - submitted);
+            try {
+                delegate.run();
+            } finally {
+                taskCompleted(System.nanoTime() - start);
+            }
+        }
+
+        public String toString() {
+            return delegate.toString();
+        }
+    }
+}
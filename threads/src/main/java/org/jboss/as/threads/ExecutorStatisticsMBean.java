@@ -0,0 +1,149 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.threads;
+
+/**
+ * Management view of the {@link ExecutorStatistics} of a thread pool.  Times are in microseconds.
+ *
+ * @author <a href="mailto:david.lloyd@redhat.com">David M. Lloyd</a>
+ */
+public interface ExecutorStatisticsMBean {
+
+    /**
+     * Get the number of threads of the pool.
+     *
+     * @return the current thread count
+     */
+    int getThreadCount();
+
+    /**
+     * Get the highest number of threads of the pool since the peak was last reset.
+     *
+     * @return the peak thread count
+     */
+    int getPeakThreadCount();
+
+    /**
+     * Get the highest number of threads of the pool since it was created.
+     *
+     * @return the largest thread count
+     */
+    int getLargestThreadCount();
+
+    /**
+     * Reset the peak thread count to the current thread count.
+     */
+    void resetPeakThreadCount();
+
+    /**
+     * Get the number of tasks submitted to the pool which have not yet started to run.
+     *
+     * @return the queue depth
+     */
+    int getQueueSize();
+
+    /**
+     * Get the number of tasks currently running.
+     *
+     * @return the active count
+     */
+    int getActiveCount();
+
+    /**
+     * Get the number of tasks accepted by the pool since it started.
+     *
+     * @return the submitted task count
+     */
+    long getSubmittedTaskCount();
+
+    /**
+     * Get the number of tasks which ran to completion (normally or not) since the pool started.
+     *
+     * @return the completed task count
+     */
+    long getCompletedTaskCount();
+
+    /**
+     * Get the number of tasks the pool refused to accept since it started.
+     *
+     * @return the rejected task count
+     */
+    long getRejectedTaskCount();
+
+    /**
+     * Get the mean time a task waited between its submission and the start of its execution.
+     *
+     * @return the mean wait time
+     */
+    long getAverageWaitTime();
+
+    /**
+     * Get the mean execution time of a task.
+     *
+     * @return the mean run time
+     */
+    long getAverageRunTime();
+
+    /**
+     * Get the median time a task waited before it started, estimated from the {@link #getWaitTimeHistogram() histogram}.
+     *
+     * @return the 50th percentile of the wait time
+     */
+    long getWaitTime50thPercentile();
+
+    /**
+     * Get the 99th percentile of the time a task waited before it started, estimated from the histogram.
+     *
+     * @return the 99th percentile of the wait time
+     */
+    long getWaitTime99thPercentile();
+
+    /**
+     * Get the median execution time of a task, estimated from the {@link #getRunTimeHistogram() histogram}.
+     *
+     * @return the 50th percentile of the run time
+     */
+    long getRunTime50thPercentile();
+
+    /**
+     * Get the 99th percentile of the execution time of a task, estimated from the histogram.
+     *
+     * @return the 99th percentile of the run time
+     */
+    long getRunTime99thPercentile();
+
+    /**
+     * Get the histogram of the task wait times.  Element {@code i} counts the tasks which waited less than
+     * 2<sup>i</sup> microseconds and at least 2<sup>i-1</sup>; the last element also counts anything longer.
+     *
+     * @return the wait time histogram
+     */
+    long[] getWaitTimeHistogram();
+
+    /**
+     * Get the histogram of the task run times, laid out as {@link #getWaitTimeHistogram()}.
+     *
+     * @return the run time histogram
+     */
+    long[] getRunTimeHistogram();
+}
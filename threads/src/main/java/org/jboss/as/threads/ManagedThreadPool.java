@@ -0,0 +1,54 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.threads;
+
+/**
+ * The runtime view of a thread pool of the threads subsystem, available as the value of the
+ * {@link ThreadsServices#executorManagementName(String) management service} of the pool while it is up.
+ *
+ * @author <a href="mailto:david.lloyd@redhat.com">David M. Lloyd</a>
+ */
+public interface ManagedThreadPool {
+
+    /**
+     * Get the runtime statistics of the pool.
+     *
+     * @return the statistics
+     */
+    ExecutorStatistics getStatistics();
+
+    /**
+     * Get the adaptive sizing of the pool.
+     *
+     * @return the adaptive sizing, or {@code null} if the pool has a fixed core size
+     */
+    AdaptiveSizing getAdaptiveSizing();
+
+    /**
+     * Change the adaptive sizing of the pool.  The change applies right away if the pool is running.
+     *
+     * @param adaptiveSizing the adaptive sizing, or {@code null} to go back to the configured core size
+     * @throws IllegalArgumentException if this kind of pool cannot be sized adaptively
+     */
+    void setAdaptiveSizing(AdaptiveSizing adaptiveSizing) throws IllegalArgumentException;
+}
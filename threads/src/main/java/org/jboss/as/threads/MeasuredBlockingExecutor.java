@@ -0,0 +1,87 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.threads;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.threads.BlockingExecutor;
+
+/**
+ * A blocking executor which records the {@link ExecutorStatistics} of every task it passes on to its delegate.  The
+ * time a submitter spends blocked on a full queue counts as wait time of its task.
+ *
+ * @author <a href="mailto:david.lloyd@redhat.com">David M. Lloyd</a>
+ */
+final class MeasuredBlockingExecutor implements BlockingExecutor {
+
+    private final BlockingExecutor delegate;
+    private final ExecutorStatistics statistics;
+
+    MeasuredBlockingExecutor(final BlockingExecutor delegate, final ExecutorStatistics statistics) {
+        this.delegate = delegate;
+        this.statistics = statistics;
+    }
+
+    public void execute(final Runnable command) throws RejectedExecutionException {
+        final Runnable task = statistics.measure(command);
+        try {
+            delegate.execute(task);
+        } catch (RejectedExecutionException e) {
+            statistics.taskRejected();
+            throw e;
+        }
+    }
+
+    public void executeBlocking(final Runnable command) throws RejectedExecutionException, InterruptedException {
+        final Runnable task = statistics.measure(command);
+        boolean ok = false;
+        try {
+            delegate.executeBlocking(task);
+            ok = true;
+        } finally {
+            if (! ok) statistics.taskRejected();
+        }
+    }
+
+    public void executeBlocking(final Runnable command, final long timeout, final TimeUnit unit) throws RejectedExecutionException, InterruptedException {
+        final Runnable task = statistics.measure(command);
+        boolean ok = false;
+        try {
+            delegate.executeBlocking(task, timeout, unit);
+            ok = true;
+        } finally {
+            if (! ok) statistics.taskRejected();
+        }
+    }
+
+    public void executeNonBlocking(final Runnable command) throws RejectedExecutionException {
+        final Runnable task = statistics.measure(command);
+        try {
+            delegate.executeNonBlocking(task);
+        } catch (RejectedExecutionException e) {
+            statistics.taskRejected();
+            throw e;
+        }
+    }
+}
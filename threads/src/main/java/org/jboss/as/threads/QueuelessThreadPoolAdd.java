@@ -55,6 +55,7 @@ public final class QueuelessThreadPoolAdd extends AbstractExecutorAdd {
         final QueuelessThreadPoolService service = new QueuelessThreadPoolService(maxThreads, blocking, getKeepaliveTime());
         final BatchServiceBuilder<ExecutorService> serviceBuilder = builder.addService(serviceName, service);
         addThreadFactoryDependency(serviceName, serviceBuilder, service.getThreadFactoryInjector(), builder);
+        addManagementService(serviceName, service, builder);
     }
 
     protected void applyUpdate(final ThreadsSubsystemElement element) throws UpdateFailedException {
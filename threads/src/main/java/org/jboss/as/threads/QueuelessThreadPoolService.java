@@ -41,9 +41,10 @@ import java.util.concurrent.ThreadFactory;
  *
  * @author John E. Bailey
  */
-public class QueuelessThreadPoolService implements Service<ExecutorService> {
+public class QueuelessThreadPoolService implements Service<ExecutorService>, ManagedThreadPool {
     private final InjectedValue<ThreadFactory> threadFactoryValue = new InjectedValue<ThreadFactory>();
     private final InjectedValue<Executor> handoffExecutorValue = new InjectedValue<Executor>();
+    private final ExecutorStatistics statistics = new ExecutorStatistics();
 
     private QueuelessExecutor executor;
     private ExecutorService value;
@@ -61,10 +62,11 @@ public class QueuelessThreadPoolService implements Service<ExecutorService> {
     public synchronized void start(final StartContext context) throws StartException {
         final TimeSpec keepAliveSpec = keepAlive;
         long keepAlive = keepAliveSpec == null ? Long.MAX_VALUE : keepAliveSpec.getDuration();
-        executor = new QueuelessExecutor(threadFactoryValue.getValue(), JBossExecutors.directExecutor(), handoffExecutorValue.getOptionalValue(), keepAlive);
+        executor = new QueuelessExecutor(statistics.countThreads(threadFactoryValue.getValue()), JBossExecutors.directExecutor(), handoffExecutorValue.getOptionalValue(), keepAlive);
         executor.setMaxThreads(maxThreads);
         executor.setBlocking(blocking);
-        value = JBossExecutors.protectedExecutorService(executor);
+        value = JBossExecutors.protectedExecutorService(new MeasuredExecutorService(executor, statistics));
+        statistics.register(context.getController().getName().getSimpleName());
     }
 
     public synchronized void stop(final StopContext context) {
@@ -72,6 +74,7 @@ public class QueuelessThreadPoolService implements Service<ExecutorService> {
         if (executor == null) {
             throw new IllegalStateException();
         }
+        statistics.unregister();
         context.asynchronous();
         executor.shutdown();
         executor.addShutdownListener(new EventListener<StopContext>() {
@@ -91,6 +94,25 @@ public class QueuelessThreadPoolService implements Service<ExecutorService> {
         return value;
     }
 
+    /**
+     * Get the runtime statistics of this pool.
+     *
+     * @return the statistics
+     */
+    public ExecutorStatistics getStatistics() {
+        return statistics;
+    }
+
+    public AdaptiveSizing getAdaptiveSizing() {
+        return null;
+    }
+
+    public void setAdaptiveSizing(final AdaptiveSizing adaptiveSizing) throws IllegalArgumentException {
+        if (adaptiveSizing != null) {
+            throw new IllegalArgumentException("A queueless thread pool has no queue wait to size against");
+        }
+    }
+
     public Injector<ThreadFactory> getThreadFactoryInjector() {
         return threadFactoryValue;
     }
@@ -22,7 +22,7 @@
 
 package org.jboss.as.threads;
 
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
 
 import org.jboss.as.model.ChildElement;
 import org.jboss.as.model.UpdateContext;
@@ -50,9 +50,11 @@ public final class ScheduledThreadPoolAdd extends AbstractExecutorAdd {
         final int maxThreads = maxThreadsCount.getScaledCount();
         final String name = getName();
         final ServiceName serviceName = ThreadsServices.executorName(name);
-        final UnboundedQueueThreadPoolService service = new UnboundedQueueThreadPoolService(maxThreads, getKeepaliveTime());
-        final BatchServiceBuilder<ExecutorService> serviceBuilder = builder.addService(serviceName, service);
+        final ScheduledThreadPoolService service = new ScheduledThreadPoolService(maxThreads, getKeepaliveTime());
+        service.setAdaptiveSizing(getAdaptiveSizing());
+        final BatchServiceBuilder<ScheduledExecutorService> serviceBuilder = builder.addService(serviceName, service);
         addThreadFactoryDependency(serviceName, serviceBuilder, service.getThreadFactoryInjector(), builder);
+        addManagementService(serviceName, service, builder);
     }
 
     @Override
@@ -61,6 +63,7 @@ public final class ScheduledThreadPoolAdd extends AbstractExecutorAdd {
         poolElement.setKeepaliveTime(getKeepaliveTime());
         poolElement.setThreadFactory(getThreadFactory());
         poolElement.setMaxThreads(getMaxThreads());
+        poolElement.setAdaptiveSizing(getAdaptiveSizing());
         element.addExecutor(getName(), new ChildElement<ScheduledThreadPoolElement>(Element.SCHEDULED_THREAD_POOL.getLocalName(), poolElement));
     }
 }
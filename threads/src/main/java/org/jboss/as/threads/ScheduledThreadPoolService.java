@@ -30,18 +30,25 @@ import org.jboss.msc.service.StopContext;
 import org.jboss.msc.value.InjectedValue;
 import org.jboss.threads.JBossExecutors;
 
+import java.util.concurrent.Callable;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RunnableScheduledFuture;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Service responsible for creating, starting and stopping a scheduled thread pool executor.
  *
  * @author <a href="mailto:david.lloyd@redhat.com">David M. Lloyd</a>
  */
-public final class ScheduledThreadPoolService implements Service<ScheduledExecutorService> {
+public final class ScheduledThreadPoolService implements Service<ScheduledExecutorService>, ManagedThreadPool {
 
     private final InjectedValue<ThreadFactory> threadFactoryValue = new InjectedValue<ThreadFactory>();
+    private final ExecutorStatistics statistics = new ExecutorStatistics();
 
     private ScheduledThreadPoolExecutor executor;
     private ScheduledExecutorService value;
@@ -50,17 +57,24 @@ public final class ScheduledThreadPoolService implements Service<ScheduledExecut
     private final int maxThreads;
     private final TimeSpec keepAlive;
 
+    private String name;
+    private AdaptiveSizing adaptiveSizing;
+    private AdaptiveSizer sizer;
+
     public ScheduledThreadPoolService(final int maxThreads, final TimeSpec keepAlive) {
         this.maxThreads = maxThreads;
         this.keepAlive = keepAlive;
     }
 
     public synchronized void start(final StartContext context) throws StartException {
-        executor = new ExecutorImpl(0, threadFactoryValue.getValue());
+        executor = new ExecutorImpl(0, statistics.countThreads(threadFactoryValue.getValue()));
         executor.setCorePoolSize(maxThreads);
         if(keepAlive != null)
             executor.setKeepAliveTime(keepAlive.getDuration(), keepAlive.getUnit());
         value = JBossExecutors.protectedScheduledExecutorService(executor);
+        name = context.getController().getName().getSimpleName();
+        statistics.register(name);
+        startSizer();
     }
 
     public synchronized void stop(final StopContext context) {
@@ -68,6 +82,8 @@ public final class ScheduledThreadPoolService implements Service<ScheduledExecut
         if (executor == null) {
             throw new IllegalStateException();
         }
+        stopSizer();
+        statistics.unregister();
         this.context = context;
         context.asynchronous();
         executor.shutdown();
@@ -83,6 +99,52 @@ public final class ScheduledThreadPoolService implements Service<ScheduledExecut
         return value;
     }
 
+    /**
+     * Get the runtime statistics of this pool.  The wait time of a task is how late it started compared to the time it
+     * was scheduled for.
+     *
+     * @return the statistics
+     */
+    public ExecutorStatistics getStatistics() {
+        return statistics;
+    }
+
+    public synchronized AdaptiveSizing getAdaptiveSizing() {
+        return adaptiveSizing;
+    }
+
+    public synchronized void setAdaptiveSizing(final AdaptiveSizing adaptiveSizing) {
+        stopSizer();
+        this.adaptiveSizing = adaptiveSizing;
+        final ScheduledThreadPoolExecutor executor = this.executor;
+        if (adaptiveSizing == null && executor != null) {
+            executor.setCorePoolSize(maxThreads);
+        }
+        startSizer();
+    }
+
+    private void startSizer() {
+        final AdaptiveSizing adaptiveSizing = this.adaptiveSizing;
+        final ScheduledThreadPoolExecutor executor = this.executor;
+        if (adaptiveSizing == null || executor == null) {
+            return;
+        }
+        sizer = new AdaptiveSizer(name, statistics, adaptiveSizing, maxThreads, Integer.MAX_VALUE, false, new AdaptiveSizer.Pool() {
+            public void setCoreThreads(final int coreThreads) {
+                executor.setCorePoolSize(coreThreads);
+            }
+        });
+        sizer.start();
+    }
+
+    private void stopSizer() {
+        final AdaptiveSizer sizer = this.sizer;
+        if (sizer != null) {
+            this.sizer = null;
+            sizer.stop();
+        }
+    }
+
     public Injector<ThreadFactory> getThreadFactoryInjector() {
         return threadFactoryValue;
     }
@@ -93,6 +155,14 @@ public final class ScheduledThreadPoolService implements Service<ScheduledExecut
             super(corePoolSize, threadFactory);
         }
 
+        protected <V> RunnableScheduledFuture<V> decorateTask(final Runnable runnable, final RunnableScheduledFuture<V> task) {
+            return new MeasuredTask<V>(task);
+        }
+
+        protected <V> RunnableScheduledFuture<V> decorateTask(final Callable<V> callable, final RunnableScheduledFuture<V> task) {
+            return new MeasuredTask<V>(task);
+        }
+
         protected void terminated() {
             synchronized (ScheduledThreadPoolService.this) {
                 super.terminated();
@@ -101,4 +171,67 @@ public final class ScheduledThreadPoolService implements Service<ScheduledExecut
             }
         }
     }
+
+    private final class MeasuredTask<V> implements RunnableScheduledFuture<V> {
+        private final RunnableScheduledFuture<V> delegate;
+        private volatile boolean running;
+
+        MeasuredTask(final RunnableScheduledFuture<V> delegate) {
+            this.delegate = delegate;
+            statistics.taskSubmitted();
+        }
+
+        public void run() {
+            final long lateness = -delegate.getDelay(TimeUnit.NANOSECONDS);
+            final long start = System.nanoTime();
+            running = true;
+            statistics.taskStarted(lateness);
+            try {
+                delegate.run();
+            } finally {
+                running = false;
+                statistics.taskCompleted(System.nanoTime() - start);
+                if (delegate.isPeriodic() && ! delegate.isDone()) {
+                    // back in the queue for its next run
+                    statistics.taskSubmitted();
+                }
+            }
+        }
+
+        public boolean cancel(final boolean mayInterruptIfRunning) {
+            final boolean cancelled = delegate.cancel(mayInterruptIfRunning);
+            if (cancelled && ! running) {
+                statistics.taskDiscarded();
+            }
+            return cancelled;
+        }
+
+        public boolean isPeriodic() {
+            return delegate.isPeriodic();
+        }
+
+        public boolean isCancelled() {
+            return delegate.isCancelled();
+        }
+
+        public boolean isDone() {
+            return delegate.isDone();
+        }
+
+        public V get() throws InterruptedException, ExecutionException {
+            return delegate.get();
+        }
+
+        public V get(final long timeout, final TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+            return delegate.get(timeout, unit);
+        }
+
+        public long getDelay(final TimeUnit unit) {
+            return delegate.getDelay(unit);
+        }
+
+        public int compareTo(final Delayed other) {
+            return delegate.compareTo(other instanceof MeasuredTask ? ((MeasuredTask<?>) other).delegate : other);
+        }
+    }
 }
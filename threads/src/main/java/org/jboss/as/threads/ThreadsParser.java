@@ -145,6 +145,7 @@ public final class ThreadsParser implements XMLElementReader<ParseResult<Extensi
         ScaledCount maxThreads = null;
         TimeSpec keepaliveTime = null;
         String threadFactory = null;
+        AdaptiveSizing adaptiveSizing = null;
         final EnumSet<Element> requiredElem = EnumSet.of(Element.MAX_THREADS);
         final EnumSet<Element> encountered = EnumSet.noneOf(Element.class);
         while (reader.nextTag() != END_ELEMENT) {
@@ -171,6 +172,10 @@ public final class ThreadsParser implements XMLElementReader<ParseResult<Extensi
                     threadFactory = readStringAttributeElement(reader, Attribute.NAME.getLocalName());
                     break;
                 }
+                case ADAPTIVE_SIZING: {
+                    adaptiveSizing = readAdaptiveSizingElement(reader);
+                    break;
+                }
                 case PROPERTIES: {
                     while (reader.nextTag() != END_ELEMENT) {
                         while (reader.nextTag() != END_ELEMENT) {}
@@ -188,6 +193,7 @@ public final class ThreadsParser implements XMLElementReader<ParseResult<Extensi
         final UnboundedQueueThreadPoolAdd add = new UnboundedQueueThreadPoolAdd(name, maxThreads);
         add.setKeepaliveTime(keepaliveTime);
         add.setThreadFactory(threadFactory);
+        add.setAdaptiveSizing(adaptiveSizing);
         updates.add(add);
     }
 
@@ -359,6 +365,7 @@ public final class ThreadsParser implements XMLElementReader<ParseResult<Extensi
         ScaledCount maxSize = null;
         TimeSpec keepaliveTime = null;
         String threadFactoryRef = null;
+        AdaptiveSizing adaptiveSizing = null;
 
         final Map<String, String> map = new HashMap<String, String>();
         final EnumSet<Element> required = EnumSet.of(Element.MAX_THREADS);
@@ -381,12 +388,17 @@ public final class ThreadsParser implements XMLElementReader<ParseResult<Extensi
                     keepaliveTime = readTimeSpecElement(reader);
                     break;
                 }
+                case ADAPTIVE_SIZING: {
+                    adaptiveSizing = readAdaptiveSizingElement(reader);
+                    break;
+                }
 
             }
         }
         final ScheduledThreadPoolAdd add = new ScheduledThreadPoolAdd(name, maxSize);
         if (keepaliveTime != null) add.setKeepaliveTime(keepaliveTime);
         if (threadFactoryRef != null) add.setThreadFactory(threadFactoryRef);
+        if (adaptiveSizing != null) add.setAdaptiveSizing(adaptiveSizing);
         add.getProperties().putAll(map);
         updates.add(add);
     }
@@ -435,6 +447,7 @@ public final class ThreadsParser implements XMLElementReader<ParseResult<Extensi
         ScaledCount maxThreads = null;
         TimeSpec keepaliveTime = null;
         String threadFactory = null;
+        AdaptiveSizing adaptiveSizing = null;
         String handoffExecutor = null;
         final EnumSet<Element> requiredElem = EnumSet.of(Element.MAX_THREADS);
         final EnumSet<Element> encountered = EnumSet.noneOf(Element.class);
@@ -470,6 +483,10 @@ public final class ThreadsParser implements XMLElementReader<ParseResult<Extensi
                     threadFactory = readStringAttributeElement(reader, Attribute.NAME.getLocalName());
                     break;
                 }
+                case ADAPTIVE_SIZING: {
+                    adaptiveSizing = readAdaptiveSizingElement(reader);
+                    break;
+                }
                 case HANDOFF_EXECUTOR: {
                     handoffExecutor = readStringAttributeElement(reader, Attribute.NAME.getLocalName());
                     break;
@@ -489,6 +506,7 @@ public final class ThreadsParser implements XMLElementReader<ParseResult<Extensi
             throw missingRequired(reader, required);
         }
         final BoundedQueueThreadPoolAdd add = new BoundedQueueThreadPoolAdd(name, maxThreads, queueLength);
+        add.setAdaptiveSizing(adaptiveSizing);
         add.setBlocking(blocking);
         add.setAllowCoreTimeout(allowCoreTimeout);
         add.setCoreThreads(coreThreads);
@@ -527,6 +545,46 @@ public final class ThreadsParser implements XMLElementReader<ParseResult<Extensi
         return new TimeSpec(unit, qty);
     }
 
+    protected static AdaptiveSizing readAdaptiveSizingElement(final XMLExtendedStreamReader reader) throws XMLStreamException {
+        requireNoAttributes(reader);
+        ScaledCount minCoreThreads = null;
+        ScaledCount maxCoreThreads = null;
+        TimeSpec targetWaitTime = null;
+        final EnumSet<Element> required = EnumSet.of(Element.MIN_CORE_THREADS, Element.MAX_CORE_THREADS, Element.TARGET_WAIT_TIME);
+        while (reader.nextTag() != END_ELEMENT) {
+            switch (Namespace.forUri(reader.getNamespaceURI())) {
+                case UNKNOWN: {
+                    throw unexpectedElement(reader);
+                }
+            }
+            final Element element = Element.forName(reader.getLocalName());
+            if (! required.remove(element)) {
+                throw unexpectedElement(reader);
+            }
+            switch (element) {
+                case MIN_CORE_THREADS: {
+                    minCoreThreads = readScaledCountElement(reader);
+                    break;
+                }
+                case MAX_CORE_THREADS: {
+                    maxCoreThreads = readScaledCountElement(reader);
+                    break;
+                }
+                case TARGET_WAIT_TIME: {
+                    targetWaitTime = readTimeSpecElement(reader);
+                    break;
+                }
+            }
+        }
+        if (! required.isEmpty()) {
+            throw missingRequiredElement(reader, required);
+        }
+        if (minCoreThreads.getScaledCount() > maxCoreThreads.getScaledCount()) {
+            throw new XMLStreamException("min-core-threads must not be greater than max-core-threads", reader.getLocation());
+        }
+        return new AdaptiveSizing(minCoreThreads, maxCoreThreads, targetWaitTime);
+    }
+
     protected static ScaledCount readScaledCountElement(final XMLExtendedStreamReader reader) throws XMLStreamException {
         BigDecimal perCpu = null;
         BigDecimal count = null;
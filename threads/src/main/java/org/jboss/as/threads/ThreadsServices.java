@@ -43,4 +43,8 @@ public final class ThreadsServices {
     public static ServiceName executorName(final String name) {
         return EXECUTOR.append(name);
     }
+
+    public static ServiceName executorManagementName(final String name) {
+        return EXECUTOR.append(name, "management");
+    }
 }
@@ -50,8 +50,10 @@ public final class UnboundedQueueThreadPoolAdd extends AbstractExecutorAdd {
         final String name = getName();
         final ServiceName serviceName = ThreadsServices.executorName(name);
         final UnboundedQueueThreadPoolService service = new UnboundedQueueThreadPoolService(maxThreads, getKeepaliveTime());
+        service.setAdaptiveSizing(getAdaptiveSizing());
         final BatchServiceBuilder<ExecutorService> serviceBuilder = builder.addService(serviceName, service);
         addThreadFactoryDependency(serviceName, serviceBuilder, service.getThreadFactoryInjector(), builder);
+        addManagementService(serviceName, service, builder);
     }
 
     protected void applyUpdate(final ThreadsSubsystemElement element) throws UpdateFailedException {
@@ -59,6 +61,7 @@ public final class UnboundedQueueThreadPoolAdd extends AbstractExecutorAdd {
         poolElement.setKeepaliveTime(getKeepaliveTime());
         poolElement.setThreadFactory(getThreadFactory());
         poolElement.setMaxThreads(getMaxThreads());
+        poolElement.setAdaptiveSizing(getAdaptiveSizing());
         element.addExecutor(getName(), new ChildElement<UnboundedQueueThreadPoolElement>(Element.UNBOUNDED_QUEUE_THREAD_POOL.getLocalName(), poolElement));
     }
 }
@@ -41,8 +41,9 @@ import java.util.concurrent.ThreadFactory;
  *
  * @author John E. Bailey
  */
-public class UnboundedQueueThreadPoolService implements Service<ExecutorService> {
+public class UnboundedQueueThreadPoolService implements Service<ExecutorService>, ManagedThreadPool {
     private final InjectedValue<ThreadFactory> threadFactoryValue = new InjectedValue<ThreadFactory>();
+    private final ExecutorStatistics statistics = new ExecutorStatistics();
 
     private JBossThreadPoolExecutor executor;
     private ExecutorService value;
@@ -50,14 +51,21 @@ public class UnboundedQueueThreadPoolService implements Service<ExecutorService>
     private int maxThreads;
     private TimeSpec keepAlive;
 
+    private String name;
+    private AdaptiveSizing adaptiveSizing;
+    private AdaptiveSizer sizer;
+
     public UnboundedQueueThreadPoolService(int maxThreads, TimeSpec keepAlive) {
         this.maxThreads = maxThreads;
         this.keepAlive = keepAlive;
     }
 
     public synchronized void start(final StartContext context) throws StartException {
-        executor = new JBossThreadPoolExecutor(maxThreads, maxThreads, keepAlive.getDuration(), keepAlive.getUnit(), new LinkedBlockingQueue<Runnable>(), threadFactoryValue.getValue());
-        value = JBossExecutors.protectedExecutorService(executor);
+        executor = new JBossThreadPoolExecutor(maxThreads, maxThreads, keepAlive.getDuration(), keepAlive.getUnit(), new LinkedBlockingQueue<Runnable>(), statistics.countThreads(threadFactoryValue.getValue()));
+        value = JBossExecutors.protectedExecutorService(new MeasuredExecutorService(executor, statistics));
+        name = context.getController().getName().getSimpleName();
+        statistics.register(name);
+        startSizer();
     }
 
     public synchronized void stop(final StopContext context) {
@@ -65,6 +73,8 @@ public class UnboundedQueueThreadPoolService implements Service<ExecutorService>
         if (executor == null) {
             throw new IllegalStateException();
         }
+        stopSizer();
+        statistics.unregister();
         context.asynchronous();
         executor.shutdown();
         executor.addShutdownListener(new EventListener<StopContext>() {
@@ -84,6 +94,64 @@ public class UnboundedQueueThreadPoolService implements Service<ExecutorService>
         return value;
     }
 
+    /**
+     * Get the runtime statistics of this pool.
+     *
+     * @return the statistics
+     */
+    public ExecutorStatistics getStatistics() {
+        return statistics;
+    }
+
+    public synchronized AdaptiveSizing getAdaptiveSizing() {
+        return adaptiveSizing;
+    }
+
+    public synchronized void setAdaptiveSizing(final AdaptiveSizing adaptiveSizing) {
+        stopSizer();
+        this.adaptiveSizing = adaptiveSizing;
+        final JBossThreadPoolExecutor executor = this.executor;
+        if (adaptiveSizing == null && executor != null) {
+            setPoolSize(executor, maxThreads);
+        }
+        startSizer();
+    }
+
+    private void startSizer() {
+        final AdaptiveSizing adaptiveSizing = this.adaptiveSizing;
+        final JBossThreadPoolExecutor executor = this.executor;
+        if (adaptiveSizing == null || executor == null) {
+            return;
+        }
+        sizer = new AdaptiveSizer(name, statistics, adaptiveSizing, maxThreads, Integer.MAX_VALUE, true, new AdaptiveSizer.Pool() {
+            public void setCoreThreads(final int coreThreads) {
+                setPoolSize(executor, coreThreads);
+            }
+        });
+        sizer.start();
+    }
+
+    private void stopSizer() {
+        final AdaptiveSizer sizer = this.sizer;
+        if (sizer != null) {
+            this.sizer = null;
+            sizer.stop();
+        }
+    }
+
+    /**
+     * Resize the pool; with an unbounded queue only the core threads are ever created, so both sizes move together.
+     */
+    private static void setPoolSize(final JBossThreadPoolExecutor executor, final int size) {
+        if (size > executor.getMaximumPoolSize()) {
+            executor.setMaximumPoolSize(size);
+            executor.setCorePoolSize(size);
+        } else {
+            executor.setCorePoolSize(size);
+            executor.setMaximumPoolSize(size);
+        }
+    }
+
     public Injector<ThreadFactory> getThreadFactoryInjector() {
         return threadFactoryValue;
     }
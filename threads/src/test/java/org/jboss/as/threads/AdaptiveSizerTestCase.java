@@ -0,0 +1,166 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.threads;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test to verify the grow and shrink decisions of the adaptive sizer.
+ *
+ * @author <a href="mailto:david.lloyd@redhat.com">David M. Lloyd</a>
+ */
+public class AdaptiveSizerTestCase {
+
+    private static final long TARGET_WAIT = TimeUnit.MILLISECONDS.toNanos(10L);
+
+    private ExecutorStatistics statistics;
+    private RecordingPool pool;
+
+    @Before
+    public void setup() {
+        statistics = new ExecutorStatistics();
+        pool = new RecordingPool();
+    }
+
+    @Test
+    public void testClampsInitialCore() {
+        new AdaptiveSizer("test", statistics, sizing(2, 8), 20, 100, true, pool);
+        assertEquals(8, pool.coreThreads);
+        new AdaptiveSizer("test", statistics, sizing(2, 8), 1, 100, true, pool);
+        assertEquals(2, pool.coreThreads);
+        new AdaptiveSizer("test", statistics, sizing(2, 8), 20, 4, true, pool);
+        assertEquals(4, pool.coreThreads);
+    }
+
+    @Test
+    public void testGrowsWhenTasksWaitTooLong() {
+        final AdaptiveSizer sizer = new AdaptiveSizer("test", statistics, sizing(1, 10), 8, 100, true, pool);
+        run(3, TARGET_WAIT * 2);
+        sizer.run();
+        assertEquals(10, pool.coreThreads);
+        run(3, TARGET_WAIT * 2);
+        sizer.run();
+        // already at the maximum
+        assertEquals(1, pool.resizes);
+    }
+
+    @Test
+    public void testGrowsByAtLeastOne() {
+        final AdaptiveSizer sizer = new AdaptiveSizer("test", statistics, sizing(1, 10), 2, 100, true, pool);
+        run(1, TARGET_WAIT * 2);
+        sizer.run();
+        assertEquals(3, pool.coreThreads);
+    }
+
+    @Test
+    public void testKeepsCoreWithinTarget() {
+        final AdaptiveSizer sizer = new AdaptiveSizer("test", statistics, sizing(1, 10), 4, 100, true, pool);
+        statistics.taskSubmitted();
+        statistics.taskStarted(TARGET_WAIT / 2);
+        sizer.run();
+        assertEquals(0, pool.resizes);
+    }
+
+    @Test
+    public void testShrinksWhenIdle() {
+        final AdaptiveSizer sizer = new AdaptiveSizer("test", statistics, sizing(2, 10), 4, 100, true, pool);
+        sizer.run();
+        assertEquals(3, pool.coreThreads);
+        sizer.run();
+        assertEquals(2, pool.coreThreads);
+        sizer.run();
+        // already at the minimum
+        assertEquals(2, pool.resizes);
+    }
+
+    @Test
+    public void testKeepsCoreWhileBusy() {
+        final AdaptiveSizer sizer = new AdaptiveSizer("test", statistics, sizing(1, 10), 4, 100, true, pool);
+        for (int i = 0; i < 2; i++) {
+            statistics.taskSubmitted();
+            statistics.taskStarted(0L);
+        }
+        sizer.run();
+        assertEquals(0, pool.resizes);
+    }
+
+    @Test
+    public void testGrowsWhenQueuedTasksDoNotStart() {
+        final AdaptiveSizer sizer = new AdaptiveSizer("test", statistics, sizing(1, 10), 4, 100, true, pool);
+        statistics.taskSubmitted();
+        sizer.run();
+        assertEquals(5, pool.coreThreads);
+    }
+
+    @Test
+    public void testScheduledTasksWhichAreNotDueDoNotGrow() {
+        final AdaptiveSizer sizer = new AdaptiveSizer("test", statistics, sizing(1, 10), 4, 100, false, pool);
+        // a periodic task waiting for its next run
+        statistics.taskSubmitted();
+        for (int i = 0; i < 5; i++) {
+            sizer.run();
+        }
+        assertEquals(1, pool.coreThreads);
+    }
+
+    @Test
+    public void testNoResizeOnceStopped() {
+        final AdaptiveSizer sizer = new AdaptiveSizer("test", statistics, sizing(1, 10), 4, 100, true, pool);
+        sizer.start();
+        sizer.stop();
+        // as a sample which was already running when the sizer stopped
+        run(3, TARGET_WAIT * 2);
+        sizer.run();
+        assertEquals(0, pool.resizes);
+    }
+
+    private void run(final int tasks, final long waitTime) {
+        for (int i = 0; i < tasks; i++) {
+            statistics.taskSubmitted();
+            statistics.taskStarted(waitTime);
+            statistics.taskCompleted(0L);
+        }
+    }
+
+    private static AdaptiveSizing sizing(final int minCoreThreads, final int maxCoreThreads) {
+        return new AdaptiveSizing(new ScaledCount(BigDecimal.valueOf(minCoreThreads), BigDecimal.ZERO),
+                new ScaledCount(BigDecimal.valueOf(maxCoreThreads), BigDecimal.ZERO),
+                new TimeSpec(TimeUnit.NANOSECONDS, TARGET_WAIT));
+    }
+
+    private static final class RecordingPool implements AdaptiveSizer.Pool {
+        private int coreThreads = -1;
+        private int resizes;
+
+        public void setCoreThreads(final int coreThreads) {
+            this.coreThreads = coreThreads;
+            resizes++;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.threads;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test to verify the task counts and the wait and run time percentiles of the executor statistics.
+ *
+ * @author <a href="mailto:david.lloyd@redhat.com">David M. Lloyd</a>
+ */
+public class ExecutorStatisticsTestCase {
+
+    private ExecutorStatistics statistics;
+
+    @Before
+    public void setup() {
+        statistics = new ExecutorStatistics();
+    }
+
+    @Test
+    public void testTaskCounts() {
+        statistics.taskSubmitted();
+        statistics.taskSubmitted();
+        statistics.taskSubmitted();
+        assertEquals(3, statistics.getQueueSize());
+        statistics.taskRejected();
+        statistics.taskStarted(0L);
+        assertEquals(1, statistics.getQueueSize());
+        assertEquals(1, statistics.getActiveCount());
+        statistics.taskCompleted(0L);
+        statistics.taskDiscarded();
+        assertEquals(0, statistics.getQueueSize());
+        assertEquals(0, statistics.getActiveCount());
+        assertEquals(2L, statistics.getSubmittedTaskCount());
+        assertEquals(1L, statistics.getRejectedTaskCount());
+        assertEquals(1L, statistics.getCompletedTaskCount());
+    }
+
+    @Test
+    public void testMeasure() {
+        final Runnable task = statistics.measure(new Runnable() {
+            public void run() {
+                assertEquals(1, statistics.getActiveCount());
+            }
+        });
+        assertEquals(1, statistics.getQueueSize());
+        task.run();
+        assertEquals(0, statistics.getQueueSize());
+        assertEquals(0, statistics.getActiveCount());
+        assertEquals(1L, statistics.getCompletedTaskCount());
+    }
+
+    @Test
+    public void testPercentilesWithoutTasks() {
+        assertEquals(0L, statistics.getWaitTime50thPercentile());
+        assertEquals(0L, statistics.getWaitTime99thPercentile());
+        assertEquals(0L, statistics.getRunTime50thPercentile());
+        assertEquals(0L, statistics.getRunTime99thPercentile());
+    }
+
+    @Test
+    public void testPercentiles() {
+        // 98 tasks wait 1us and run 5us, 2 wait and run 1000us
+        for (int i = 0; i < 100; i++) {
+            final long time = i < 98 ? 1L : 1000L;
+            statistics.taskSubmitted();
+            statistics.taskStarted(TimeUnit.MICROSECONDS.toNanos(time));
+            statistics.taskCompleted(TimeUnit.MICROSECONDS.toNanos(i < 98 ? 5L : time));
+        }
+        // percentiles are the upper bounds of power of two buckets
+        assertEquals(1L, statistics.getWaitTime50thPercentile());
+        assertEquals(1023L, statistics.getWaitTime99thPercentile());
+        assertEquals(7L, statistics.getRunTime50thPercentile());
+        assertEquals(1023L, statistics.getRunTime99thPercentile());
+        assertEquals((98L + 2000L) / 100L, statistics.getAverageWaitTime());
+        assertEquals((98L * 5L + 2000L) / 100L, statistics.getAverageRunTime());
+    }
+
+    @Test
+    public void testPercentileOfLongestTimes() {
+        statistics.taskSubmitted();
+        statistics.taskStarted(Long.MAX_VALUE);
+        final long[] histogram = statistics.getWaitTimeHistogram();
+        assertEquals(1L, histogram[histogram.length - 1]);
+        assertEquals((1L << (histogram.length - 1)) - 1L, statistics.getWaitTime99thPercentile());
+    }
+}